@@ -1,4 +1,4 @@
-from dataclasses import dataclass
+from dataclasses import dataclass, field
 from typing import List, Dict, Any, Optional
 from enum import Enum
 
@@ -31,6 +31,7 @@ class APIInfo:
     code_pos: str # /path/to/file.java:L1-L3
     req: HTTPRequest
     references: List[str]
+    param_flows: List[Dict[str, Any]] = field(default_factory=list) # 参数流入的调用实参
 
 
 
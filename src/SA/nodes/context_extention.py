@@ -10,7 +10,7 @@ from Util.prompts.prompt_craft import PromptCrafter
 from Util.llm_api import call_llm
 from Util.logger import get_logger
 from ..tools.code_slicer import slice_code
-from ..tools.java_parser import find_definitions
+from ..tools.java_parser import JavaParserDaemon
 import json
 
 
@@ -25,28 +25,41 @@ class ContextExtentionNode(Node):
         self.logger.info(f"Preparing to analyze {len(apis)} APIs")
         return apis, shared["project_info"], Path(shared["session_dir"])
     
-    def _analyze_api(self, api: APIInfo, project_info: ProjectInfo, prompt_template: PromptCrafter, log_dir: Path) -> AnalysisResult:
-        self.logger.info(f"Analyzing API: {api.req.path}")
-        # --- CONTEXT EXTENTION ---
+    @staticmethod
+    def _symbols_to_find(api: APIInfo) -> set:
         symbols_to_find = set(api.references)
         if api.req.body and "type" in api.req.body:
             symbols_to_find.add(api.req.body["type"])
         for param_type in api.req.query_params.values():
             symbols_to_find.add(param_type)
+        return symbols_to_find
+
+    def _find_all_definitions(self, apis: List[APIInfo], project_info: ProjectInfo) -> Dict[str, list]:
+        """所有 API 用到的符号一次批量查询：一次 JVM 启动、一次解析"""
+        symbols = sorted({symbol for api in apis for symbol in self._symbols_to_find(api) if symbol})
+        if not symbols:
+            return {}
+        with JavaParserDaemon(str(project_info.root_path)) as parser:
+            def_result = parser.find_definitions_batch(symbols)
+        if def_result["status"] != 0 or def_result["result"] is None:
+            self.logger.warning(f"Batch definition lookup failed: {def_result['stderr']}")
+            return {}
+        return def_result["result"]
+
+    def _analyze_api(self, api: APIInfo, project_info: ProjectInfo, prompt_template: PromptCrafter, log_dir: Path,
+                     definitions_by_symbol: Dict[str, list]) -> AnalysisResult:
+        self.logger.info(f"Analyzing API: {api.req.path}")
+        # --- CONTEXT EXTENTION ---
+        symbols_to_find = self._symbols_to_find(api)
 
         additional_context = ""
         if symbols_to_find:
             context_parts = []
             for ref in symbols_to_find:
-                def_result = find_definitions(str(project_info.root_path), ref)
-                if def_result["status"] == 0 and def_result["stdout"]:
-                    try:
-                        definitions = json.loads(def_result["stdout"])
-                        if definitions:
-                            definition_code = definitions[0].get("definition_code", "")
-                            context_parts.append(f"// Definition for {ref}\n{definition_code}\n")
-                    except json.JSONDecodeError:
-                        self.logger.warning(f"Could not parse definition for {ref}")
+                definitions = definitions_by_symbol.get(ref)
+                if definitions:
+                    definition_code = definitions[0].get("definition_code", "")
+                    context_parts.append(f"// Definition for {ref}\n{definition_code}\n")
             additional_context = "\n".join(context_parts)
         # --- END CONTEXT EXTENTION ---
 
@@ -69,8 +82,10 @@ class ContextExtentionNode(Node):
         analysis_results = []
         log_dir = session_dir / "logs" / "llm"
 
+        # 所有 API 的符号定义一次批量查询，之后的分析只读结果
+        definitions_by_symbol = self._find_all_definitions(apis, project_info)
         with ThreadPoolExecutor(max_workers=4) as executor:
-            futures = [executor.submit(self._analyze_api, api, project_info, prompt_template, log_dir) for api in apis]
+            futures = [executor.submit(self._analyze_api, api, project_info, prompt_template, log_dir, definitions_by_symbol) for api in apis]
             for future in as_completed(futures):
                 try:
                     analysis_results.append(future.result())
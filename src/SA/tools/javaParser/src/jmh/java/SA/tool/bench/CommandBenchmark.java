@@ -0,0 +1,65 @@
+package SA.tool.bench;
+
+import SA.tool.analyzer.ApiExtractor;
+import SA.tool.analyzer.CallGraphAnalyzer;
+import SA.tool.analyzer.DefinitionFinder;
+import SA.tool.analyzer.ReferenceFinder;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.DefinitionInfo;
+import SA.tool.model.ReferenceInfo;
+import SA.tool.parser.ProjectParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 整条 CLI 命令的耗时（从项目路径开始，包含遍历、读入、预过滤和解析，不含 JVM 启动和结果输出）。
+ * 预热与测量方式由子类决定：{@link WarmCommandBenchmark} 测稳态，{@link ColdCommandBenchmark} 测新 JVM 的首次执行。
+ */
+@State(Scope.Benchmark)
+public abstract class CommandBenchmark {
+
+    // 项目路径，或 synthetic:<文件数> 表示按规模生成的合成 Spring 项目
+    @Param({"src/test/resources/testapp"})
+    public String corpus;
+
+    @Param({"UserService"})
+    public String defSymbol;
+
+    @Param({"userRepository"})
+    public String refSymbol;
+
+    private String path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = Corpora.resolve(corpus).toString();
+    }
+
+    @Benchmark
+    public List<ApiInfo> api() throws IOException {
+        return new ApiExtractor(new ProjectParser()).extractApiInfo(path, null);
+    }
+
+    @Benchmark
+    public CallGraph cg() throws IOException {
+        return new CallGraphAnalyzer(new ProjectParser()).buildCompactGraph(path);
+    }
+
+    @Benchmark
+    public List<DefinitionInfo> def() throws IOException {
+        return new DefinitionFinder(new ProjectParser()).findDefinitions(path, defSymbol);
+    }
+
+    @Benchmark
+    public List<ReferenceInfo> ref() throws IOException {
+        return new ReferenceFinder(new ProjectParser()).findReferences(path, refSymbol);
+    }
+}
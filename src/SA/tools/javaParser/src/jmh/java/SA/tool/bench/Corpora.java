@@ -0,0 +1,37 @@
+package SA.tool.bench;
+
+import SA.tool.synth.SpringProjectGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 基准语料：普通路径原样使用；"synthetic:<文件数>" 在临时目录生成合成 Spring 项目（已生成的直接复用）
+ */
+final class Corpora {
+
+    private static final String SYNTHETIC = "synthetic:";
+
+    private Corpora() {
+    }
+
+    static Path resolve(String corpus) throws IOException {
+        if (!corpus.startsWith(SYNTHETIC)) {
+            return Paths.get(corpus);
+        }
+        int files = Integer.parseInt(corpus.substring(SYNTHETIC.length()));
+        return synthetic(files);
+    }
+
+    static Path synthetic(int files) throws IOException {
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"), "sa-synthetic-" + files);
+        Path marker = dir.resolve(".complete");
+        if (!Files.exists(marker)) {
+            int generated = SpringProjectGenerator.ofFileCount(files).generate(dir);
+            Files.writeString(marker, String.valueOf(generated));
+        }
+        return dir;
+    }
+}
@@ -0,0 +1,126 @@
+package SA.tool.bench;
+
+import SA.tool.analyzer.ApiExtractor;
+import SA.tool.analyzer.CallGraphAnalyzer;
+import SA.tool.analyzer.DefinitionFinder;
+import SA.tool.analyzer.FactCollector;
+import SA.tool.analyzer.ProjectFacts;
+import SA.tool.analyzer.ReferenceFinder;
+import SA.tool.analyzer.SymbolIndex;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.DefinitionInfo;
+import SA.tool.model.ReferenceInfo;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各流水线阶段的稳态耗时：每个基准只测一个阶段，其输入在 Setup 中准备好。
+ * 对应常驻服务中项目已加载后的查询开销，以及各阶段在整条命令中的占比。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    // 项目路径，或 synthetic:<文件数> 表示按规模生成的合成 Spring 项目
+    @Param({"src/test/resources/testapp", "synthetic:1000"})
+    public String corpus;
+
+    @Param({"UserService"})
+    public String defSymbol;
+
+    @Param({"userRepository"})
+    public String refSymbol;
+
+    @Param({"0"})
+    public int parseThreads;
+
+    private Path root;
+    private ProjectParser parser;
+    private ParsedProject project;
+    private ProjectFacts facts;
+    private SymbolIndex symbolIndex;
+    private FactCollector factCollector;
+    private ApiExtractor apiExtractor;
+    private CallGraphAnalyzer callGraphAnalyzer;
+    private DefinitionFinder definitionFinder;
+    private ReferenceFinder referenceFinder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Corpora.resolve(corpus);
+        parser = new ProjectParser(parseThreads, false);
+        project = parser.parse(root);
+        factCollector = new FactCollector(parser, null);
+        facts = factCollector.collect(project);
+        symbolIndex = SymbolIndex.build(facts);
+        apiExtractor = new ApiExtractor(parser);
+        callGraphAnalyzer = new CallGraphAnalyzer(parser);
+        definitionFinder = new DefinitionFinder(parser);
+        referenceFinder = new ReferenceFinder(parser);
+    }
+
+    /** 遍历目录并读入源码，不解析 */
+    @Benchmark
+    public ParsedProject load() throws IOException {
+        return parser.load(root);
+    }
+
+    /** 读入并并行解析全部文件 */
+    @Benchmark
+    public ParsedProject parse() throws IOException {
+        return parser.parse(root);
+    }
+
+    /** 在已解析的 AST 上提取全部文件事实（访问器开销） */
+    @Benchmark
+    public ProjectFacts collectFacts() throws IOException {
+        return factCollector.collect(project);
+    }
+
+    @Benchmark
+    public List<ApiInfo> api() throws IOException {
+        return apiExtractor.extractApiInfo(facts, null);
+    }
+
+    @Benchmark
+    public CallGraph callGraph() {
+        return callGraphAnalyzer.buildCompactGraph(facts);
+    }
+
+    @Benchmark
+    public SymbolIndex symbolIndex() {
+        return SymbolIndex.build(facts);
+    }
+
+    @Benchmark
+    public List<DefinitionInfo> def() {
+        return definitionFinder.findDefinitions(symbolIndex, defSymbol);
+    }
+
+    @Benchmark
+    public List<ReferenceInfo> ref() throws IOException {
+        return referenceFinder.findReferences(project, refSymbol, null, -1);
+    }
+}
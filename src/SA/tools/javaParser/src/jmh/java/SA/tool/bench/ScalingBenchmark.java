@@ -0,0 +1,79 @@
+package SA.tool.bench;
+
+import SA.tool.analyzer.ApiExtractor;
+import SA.tool.analyzer.CallGraphAnalyzer;
+import SA.tool.analyzer.DefinitionFinder;
+import SA.tool.analyzer.ReferenceFinder;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.DefinitionInfo;
+import SA.tool.model.ReferenceInfo;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各分析器耗时随项目规模的变化：在 100 ~ 100k 个文件的合成 Spring 项目上执行整条命令。
+ * 大项目单次执行就需要数秒，因此按单次耗时测量；用 -rf csv 输出后即可按 files 画出曲线。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ScalingBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int files;
+
+    private String path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = Corpora.synthetic(files).toString();
+    }
+
+    @Benchmark
+    public ParsedProject parse() throws IOException {
+        return new ProjectParser().parse(Paths.get(path));
+    }
+
+    @Benchmark
+    public List<ApiInfo> api() throws IOException {
+        return new ApiExtractor(new ProjectParser()).extractApiInfo(path, null);
+    }
+
+    @Benchmark
+    public CallGraph cg() throws IOException {
+        return new CallGraphAnalyzer(new ProjectParser()).buildCompactGraph(path);
+    }
+
+    /** 接口方法：需要查找全部实现类 */
+    @Benchmark
+    public List<DefinitionInfo> def() throws IOException {
+        return new DefinitionFinder(new ProjectParser()).findDefinitions(path, "step0");
+    }
+
+    /** 每个 Service 都引用的标识符，预过滤几乎不能跳过文件 */
+    @Benchmark
+    public List<ReferenceInfo> ref() throws IOException {
+        return new ReferenceFinder(new ProjectParser()).findReferences(path, "repository");
+    }
+}
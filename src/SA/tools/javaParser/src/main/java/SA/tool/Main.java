@@ -4,23 +4,55 @@ import SA.tool.analyzer.ApiExtractor;
 import SA.tool.analyzer.ReferenceFinder;
 import SA.tool.analyzer.CallGraphAnalyzer;
 import SA.tool.analyzer.DefinitionFinder;
+import SA.tool.analyzer.EndpointReachability;
+import SA.tool.analyzer.ImpactAnalyzer;
+import SA.tool.analyzer.ProjectAnalyzer;
+import SA.tool.analyzer.ReachabilityAnalyzer;
+import SA.tool.analyzer.SinkAnalyzer;
+import SA.tool.analyzer.SinkCatalog;
+import SA.tool.analyzer.TaintAnalyzer;
+import SA.tool.cache.FactCache;
+import SA.tool.model.AnalysisMetadata;
+import SA.tool.model.ApiImpact;
 import SA.tool.model.ApiInfo;
 import SA.tool.model.ReferenceInfo;
 import SA.tool.model.CallGraphNode;
 import SA.tool.model.DefinitionInfo;
+import SA.tool.model.EndpointReach;
+import SA.tool.model.SinkPath;
+import SA.tool.graph.CallGraph;
+import SA.tool.output.NdjsonWriter;
+import SA.tool.output.OutputFormat;
+import SA.tool.parser.ProjectParser;
+import SA.tool.server.AnalysisServer;
+import SA.tool.server.ProjectSession;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.JsonWriteEvent;
+import SA.tool.stats.Phase;
 import SA.tool.visualizer.CallGraphVisualizer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class Main {
     public static void main(String[] args) {
@@ -32,6 +64,7 @@ public class Main {
 
         String projectPath = args[0];
         String command = args[1];
+        AnalysisStats stats = enableStats(args);
 
         try {
             switch (command.toUpperCase()) {
@@ -47,23 +80,53 @@ public class Main {
                 case "DEF":
                     handleDefinitionFind(projectPath, args);
                     break;
+                case "REACH":
+                    handleReachability(projectPath, args);
+                    break;
+                case "SINK":
+                    handleSinkAnalysis(projectPath, args);
+                    break;
+                case "TAINT":
+                    handleTaintAnalysis(projectPath, args);
+                    break;
+                case "IMPACT":
+                    handleImpactAnalysis(projectPath, args);
+                    break;
+                case "ALL":
+                    handleFullAnalysis(projectPath, args);
+                    break;
+                case "SERVE":
+                    handleServe(projectPath, args);
+                    break;
                 default:
                     System.err.println("Unknown command: " + command);
                     printUsage();
                     System.exit(1);
             }
+            reportStats(stats, args);
         } catch (IOException e) {
             System.err.println("Error processing the project: " + e.getMessage());
             e.printStackTrace();
+            reportStats(stats, args);
             System.exit(1);
         }
     }
+
+    /**
+     * 以 NDJSON 格式流式写出结果的过程
+     */
+    private interface RecordProducer {
+        void produce(NdjsonWriter writer) throws IOException;
+    }
     
     private static void handleApiExtraction(String projectPath, String[] args) throws IOException {
         String outputPath = getOutputPath(args, 2);
         
-        ApiExtractor extractor = new ApiExtractor();
-        if (outputPath != null) {
+        ApiExtractor extractor = new ApiExtractor(createProjectParser(args), createFactCache(args));
+        if (getOutputFormat(args) == OutputFormat.NDJSON) {
+            Path outputDir = outputPath != null ? Paths.get(outputPath) : null;
+            streamOutput(null, "API info", writer -> extractor.extractApiInfo(projectPath, outputDir, writer));
+        } else if (outputPath != null) {
             Path outputDir = Paths.get(outputPath);
             extractor.extractApiInfo(projectPath, outputDir);
             System.out.println("Enhanced API analysis completed. Results saved to " + outputPath + "/data/API/");
@@ -107,7 +170,13 @@ public class Main {
             }
         }
         
-        ReferenceFinder finder = new ReferenceFinder();
+        ReferenceFinder finder = new ReferenceFinder(createProjectParser(args), createFactCache(args));
+        if (getOutputFormat(args) == OutputFormat.NDJSON) {
+            String file = targetFile;
+            int line = targetLine;
+            streamOutput(outputPath, "References", writer -> finder.findReferences(projectPath, symbolName, file, line, writer));
+            return;
+        }
         List<ReferenceInfo> references = finder.findReferences(projectPath, symbolName, targetFile, targetLine);
         
         writeOutput(references, outputPath, "References");
@@ -117,9 +186,14 @@ public class Main {
         String outputPath = null;
         String imageOutputPath = null;
         String layoutEngine = "DOT";
+        String renderer = "AUTO";
         boolean removeIsolated = true;
         String classFilter = null;
         boolean skipImage = false;
+        List<String> roots = new ArrayList<>();
+        int depth = 3;
+        CallGraph.Direction direction = CallGraph.Direction.CALLEES;
+        CallGraphAnalyzer.CalleeSelection calleeSelection = CallGraphAnalyzer.CalleeSelection.FIRST;
         
         // 解析参数
         for (int i = 2; i < args.length; i++) {
@@ -133,6 +207,9 @@ public class Main {
                 case "-layout":
                     if (i + 1 < args.length) layoutEngine = args[++i].toUpperCase();
                     break;
+                case "-renderer":
+                    if (i + 1 < args.length) renderer = args[++i].toUpperCase();
+                    break;
                 case "-filter":
                     if (i + 1 < args.length) classFilter = args[++i];
                     break;
@@ -142,11 +219,53 @@ public class Main {
                 case "-no-image":
                     skipImage = true;
                     break;
+                case "-root":
+                    if (i + 1 < args.length) roots.add(args[++i]);
+                    break;
+                case "-depth":
+                    if (i + 1 < args.length) {
+                        try {
+                            depth = Integer.parseInt(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Invalid depth: " + args[i]);
+                            System.exit(1);
+                        }
+                    }
+                    break;
+                case "-direction":
+                    if (i + 1 < args.length) {
+                        String value = args[++i].toUpperCase();
+                        try {
+                            direction = CallGraph.Direction.valueOf(value);
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Unknown direction: " + value + ", using CALLEES");
+                        }
+                    }
+                    break;
+                case "-callees":
+                    if (i + 1 < args.length) calleeSelection = parseCalleeSelection(args[++i]);
+                    break;
             }
         }
 
-        CallGraphAnalyzer analyzer = new CallGraphAnalyzer();
-        Map<String, CallGraphNode> callGraph = analyzer.buildCallGraph(projectPath);
+        CallGraphAnalyzer analyzer = new CallGraphAnalyzer(createProjectParser(args), createFactCache(args), calleeSelection);
+        if (getOutputFormat(args) == OutputFormat.NDJSON) {
+            // 逐个节点写出，不生成完整的节点映射；只有显式指定 -img 时才生成图片
+            CallGraph fullGraph = analyzer.buildCompactGraph(projectPath);
+            CallGraph graph = roots.isEmpty() ? fullGraph : sliceCallGraph(fullGraph, roots, depth, direction);
+            streamOutput(outputPath, "Call graph", writer -> {
+                for (int id = 0; id < graph.size(); id++) {
+                    writer.write(graph.toNode(id));
+                }
+            });
+            if (!skipImage && imageOutputPath != null) {
+                renderCallGraph(graph.toNodeMap(), imageOutputPath, layoutEngine, renderer, classFilter, removeIsolated);
+            }
+            return;
+        }
+        Map<String, CallGraphNode> callGraph = roots.isEmpty()
+                ? analyzer.buildCallGraph(projectPath)
+                : sliceCallGraph(analyzer.buildCompactGraph(projectPath), roots, depth, direction).toNodeMap();
         writeOutput(callGraph, outputPath, "Call graph");
         if (!skipImage) {
             if (imageOutputPath == null) {
@@ -159,44 +278,505 @@ public class Main {
                     imageOutputPath = "call_graph.svg";
                 }
             }
-            try {
-                CallGraphVisualizer visualizer = new CallGraphVisualizer(callGraph);
-                if (classFilter != null) {
-                    String[] filters = classFilter.split(",");
-                    for (String filter : filters) {
-                        visualizer.addClassFilter(filter.trim());
-                    }
+            renderCallGraph(callGraph, imageOutputPath, layoutEngine, renderer, classFilter, removeIsolated);
+        }
+    }
+
+    /**
+     * 只保留从 -root 指定的方法出发 depth 跳以内的子图
+     */
+    private static CallGraph sliceCallGraph(CallGraph graph, List<String> roots, int depth, CallGraph.Direction direction) {
+        try (Phase phase = AnalysisStats.phase("call_graph.slice")) {
+            Set<Integer> ids = new LinkedHashSet<>();
+            for (String root : roots) {
+                int[] matches = graph.findMethods(root);
+                if (matches.length == 0) {
+                    System.err.println("Warning: No method matches root: " + root);
                 }
-                CallGraphVisualizer.LayoutEngine layout;
-                try {
-                    layout = CallGraphVisualizer.LayoutEngine.valueOf(layoutEngine);
-                } catch (IllegalArgumentException e) {
-                    System.err.println("Unknown layout engine: " + layoutEngine + ", using DOT");
-                    layout = CallGraphVisualizer.LayoutEngine.DOT;
+                for (int id : matches) {
+                    ids.add(id);
                 }
-                visualizer.visualize(imageOutputPath, layout, removeIsolated);
-            } catch (Exception e) {
-                System.err.println("Warning: Failed to generate visualization: " + e.getMessage());
             }
+            int[] rootIds = ids.stream().mapToInt(Integer::intValue).toArray();
+            if (rootIds.length == 0) {
+                System.err.println("Error: None of the roots matched a method in the call graph");
+                System.exit(1);
+            }
+            CallGraph slice = graph.subgraph(rootIds, depth, direction);
+            phase.count("roots", rootIds.length).count("nodes", slice.size());
+            System.err.println("Call graph slice: " + slice.size() + " of " + graph.size() + " methods within "
+                    + (depth < 0 ? "unlimited" : String.valueOf(depth)) + " hops (" + direction.name().toLowerCase() + ")");
+            return slice;
+        }
+    }
+
+    private static void renderCallGraph(Map<String, CallGraphNode> callGraph, String imageOutputPath, String layoutEngine,
+                                        String renderer, String classFilter, boolean removeIsolated) {
+        try (Phase phase = AnalysisStats.phase("render")) {
+            phase.count("nodes", callGraph.size());
+            CallGraphVisualizer visualizer = new CallGraphVisualizer(callGraph);
+            if (classFilter != null) {
+                String[] filters = classFilter.split(",");
+                for (String filter : filters) {
+                    visualizer.addClassFilter(filter.trim());
+                }
+            }
+            CallGraphVisualizer.LayoutEngine layout;
+            try {
+                layout = CallGraphVisualizer.LayoutEngine.valueOf(layoutEngine);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown layout engine: " + layoutEngine + ", using DOT");
+                layout = CallGraphVisualizer.LayoutEngine.DOT;
+            }
+            try {
+                visualizer.setRenderer(CallGraphVisualizer.Renderer.valueOf(renderer));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown renderer: " + renderer + ", using AUTO");
+            }
+            visualizer.visualize(imageOutputPath, layout, removeIsolated);
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to generate visualization: " + e.getMessage());
         }
     }
     
     private static void handleDefinitionFind(String projectPath, String[] args) throws IOException {
-        if (args.length < 4 || !args[2].equals("-s")) {
-            System.err.println("Usage: java -jar <jar-file> <project-path> DEF -s <symbol> [-o <output-file>]");
+        List<String> symbolNames = new ArrayList<>();
+        String symbolsFile = null;
+        String outputPath = null;
+
+        // -s 可重复；-symbols 从文件读取符号（每行一个，"-" 表示标准输入）
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "-s":
+                    if (i + 1 < args.length) symbolNames.add(args[++i]);
+                    break;
+                case "-symbols":
+                    if (i + 1 < args.length) symbolsFile = args[++i];
+                    break;
+                case "-o":
+                    if (i + 1 < args.length) outputPath = args[++i];
+                    break;
+            }
+        }
+        if (symbolsFile != null) {
+            symbolNames.addAll(readLines(symbolsFile));
+        }
+        if (symbolNames.isEmpty()) {
+            System.err.println("Usage: java -jar <jar-file> <project-path> DEF -s <symbol> [-s <symbol> ...] [-symbols <file|->] [-o <output-file>]");
             System.exit(1);
             return;
         }
-        
-        String symbolName = args[3];
-        String outputPath = getOutputPath(args, 4);
-        DefinitionFinder finder = new DefinitionFinder();
-        List<DefinitionInfo> definitions = finder.findDefinitions(projectPath, symbolName);
+
+        DefinitionFinder finder = new DefinitionFinder(createProjectParser(args), createFactCache(args));
+        boolean batch = symbolsFile != null || symbolNames.size() > 1;
+        if (!batch) {
+            List<DefinitionInfo> definitions = finder.findDefinitions(projectPath, symbolNames.get(0));
+            if (getOutputFormat(args) == OutputFormat.NDJSON) {
+                streamOutput(outputPath, "Definitions", writer -> {
+                    for (DefinitionInfo definition : definitions) {
+                        writer.write(definition);
+                    }
+                });
+                return;
+            }
+            writeOutput(definitions, outputPath, "Definitions");
+            return;
+        }
+
+        // 批量查询：一次解析，输出符号 -> 定义列表
+        Map<String, List<DefinitionInfo>> definitions = finder.findDefinitions(projectPath, symbolNames);
+        if (getOutputFormat(args) == OutputFormat.NDJSON) {
+            streamOutput(outputPath, "Definitions", writer -> {
+                for (Map.Entry<String, List<DefinitionInfo>> entry : definitions.entrySet()) {
+                    Map<String, Object> record = new LinkedHashMap<>();
+                    record.put("symbol", entry.getKey());
+                    record.put("definitions", entry.getValue());
+                    writer.write(record);
+                }
+            });
+            return;
+        }
         writeOutput(definitions, outputPath, "Definitions");
     }
+
+    private static void handleReachability(String projectPath, String[] args) throws IOException {
+        String outputPath = null;
+        String method = null;
+        String endpoint = null;
+        String reportFile = null;
+
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o":
+                    if (i + 1 < args.length) outputPath = args[++i];
+                    break;
+                case "-method":
+                    if (i + 1 < args.length) method = args[++i];
+                    break;
+                case "-endpoint":
+                    if (i + 1 < args.length) endpoint = args[++i];
+                    break;
+                case "-from":
+                    if (i + 1 < args.length) reportFile = args[++i];
+                    break;
+            }
+        }
+
+        // -from 加载之前保存的 REACH 输出，不再解析项目
+        EndpointReachability reachability = reportFile != null
+                ? EndpointReachability.read(Paths.get(reportFile))
+                : new ReachabilityAnalyzer(createProjectParser(args), createFactCache(args)).analyze(projectPath);
+        if (method != null) {
+            writeOutput(reachability.endpointsReaching(method), outputPath, "Endpoints");
+        } else if (endpoint != null) {
+            writeOutput(reachability.reachableFrom(endpoint), outputPath, "Reachable methods");
+        } else if (getOutputFormat(args) == OutputFormat.NDJSON) {
+            streamOutput(outputPath, "Reachability", writer -> {
+                for (EndpointReach entry : reachability.toReport()) {
+                    writer.write(entry);
+                }
+            });
+        } else {
+            writeOutput(reachability.toReport(), outputPath, "Reachability");
+        }
+    }
+
+    private static void handleSinkAnalysis(String projectPath, String[] args) throws IOException {
+        String outputPath = null;
+        String catalogFile = null;
+        int depth = SinkAnalyzer.DEFAULT_MAX_DEPTH;
+        int maxPaths = SinkAnalyzer.DEFAULT_MAX_PATHS;
+        CallGraphAnalyzer.CalleeSelection calleeSelection = CallGraphAnalyzer.CalleeSelection.FIRST;
+
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o":
+                    if (i + 1 < args.length) outputPath = args[++i];
+                    break;
+                case "-sinks":
+                    if (i + 1 < args.length) catalogFile = args[++i];
+                    break;
+                case "-depth":
+                    if (i + 1 < args.length) {
+                        try {
+                            depth = Integer.parseInt(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Invalid depth: " + args[i]);
+                            System.exit(1);
+                        }
+                    }
+                    break;
+                case "-max-paths":
+                    if (i + 1 < args.length) {
+                        try {
+                            maxPaths = Integer.parseInt(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Invalid path count: " + args[i]);
+                            System.exit(1);
+                        }
+                    }
+                    break;
+                case "-callees":
+                    if (i + 1 < args.length) calleeSelection = parseCalleeSelection(args[++i]);
+                    break;
+            }
+        }
+
+        SinkCatalog catalog = readSinkCatalog(catalogFile);
+        SinkAnalyzer analyzer = new SinkAnalyzer(createProjectParser(args), createFactCache(args), catalog, calleeSelection);
+        List<SinkPath> paths = analyzer.findSinkPaths(projectPath, depth, maxPaths);
+        if (getOutputFormat(args) == OutputFormat.NDJSON) {
+            streamOutput(outputPath, "Sink paths", writer -> {
+                for (SinkPath path : paths) {
+                    writer.write(path);
+                }
+            });
+            return;
+        }
+        writeOutput(paths, outputPath, "Sink paths");
+    }
+
+    private static void handleTaintAnalysis(String projectPath, String[] args) throws IOException {
+        String outputPath = null;
+        String catalogFile = null;
+        boolean summaries = false;
+        CallGraphAnalyzer.CalleeSelection calleeSelection = CallGraphAnalyzer.CalleeSelection.FIRST;
+
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o":
+                    if (i + 1 < args.length) outputPath = args[++i];
+                    break;
+                case "-sinks":
+                    if (i + 1 < args.length) catalogFile = args[++i];
+                    break;
+                case "-summaries":
+                    summaries = true;
+                    break;
+                case "-callees":
+                    if (i + 1 < args.length) calleeSelection = parseCalleeSelection(args[++i]);
+                    break;
+            }
+        }
+
+        SinkCatalog catalog = readSinkCatalog(catalogFile);
+        TaintAnalyzer analyzer = new TaintAnalyzer(createProjectParser(args), createFactCache(args), catalog, calleeSelection);
+        // -summaries 输出全部方法的污点摘要，而不是接口到 sink 的数据流
+        List<?> results = summaries
+                ? analyzer.summarize(analyzer.collect(projectPath)).toReport()
+                : analyzer.analyze(projectPath);
+        String description = summaries ? "Taint summaries" : "Taint flows";
+        if (getOutputFormat(args) == OutputFormat.NDJSON) {
+            streamOutput(outputPath, description, writer -> {
+                for (Object result : results) {
+                    writer.write(result);
+                }
+            });
+            return;
+        }
+        writeOutput(results, outputPath, description);
+    }
+
+    private static void handleImpactAnalysis(String projectPath, String[] args) throws IOException {
+        List<String> ranges = new ArrayList<>();
+        String rangesFile = null;
+        String outputPath = null;
+        CallGraphAnalyzer.CalleeSelection calleeSelection = CallGraphAnalyzer.CalleeSelection.FIRST;
+
+        // -r 可重复；-ranges 从文件读取行区间（每行一个，"-" 表示标准输入）
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "-r":
+                    if (i + 1 < args.length) ranges.add(args[++i]);
+                    break;
+                case "-ranges":
+                    if (i + 1 < args.length) rangesFile = args[++i];
+                    break;
+                case "-o":
+                    if (i + 1 < args.length) outputPath = args[++i];
+                    break;
+                case "-callees":
+                    if (i + 1 < args.length) calleeSelection = parseCalleeSelection(args[++i]);
+                    break;
+            }
+        }
+        if (rangesFile != null) {
+            ranges.addAll(readLines(rangesFile));
+        }
+        if (ranges.isEmpty()) {
+            System.err.println("Usage: java -jar <jar-file> <project-path> IMPACT -r <file:L<start>-L<end>> [-r ...] [-ranges <file|->] [-callees <first|all>] [-o <output-file>]");
+            System.exit(1);
+            return;
+        }
+
+        ImpactAnalyzer analyzer = new ImpactAnalyzer(createProjectParser(args), createFactCache(args), calleeSelection);
+        List<ApiImpact> impacts = analyzer.analyze(projectPath, ranges);
+        if (getOutputFormat(args) == OutputFormat.NDJSON) {
+            streamOutput(outputPath, "Affected APIs", writer -> {
+                for (ApiImpact impact : impacts) {
+                    writer.write(impact);
+                }
+            });
+            return;
+        }
+        writeOutput(impacts, outputPath, "Affected APIs");
+    }
+
+    private static void handleFullAnalysis(String projectPath, String[] args) throws IOException {
+        String outputPath = getOutputPath(args, 2);
+        if (outputPath == null) {
+            System.err.println("Usage: java -jar <jar-file> <project-path> ALL -o <session-dir> [-callees <first|all>] [-incremental [-changed <file|->]]");
+            System.exit(1);
+            return;
+        }
+        CallGraphAnalyzer.CalleeSelection calleeSelection = CallGraphAnalyzer.CalleeSelection.FIRST;
+        boolean incremental = false;
+        String changedFile = null;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "-callees":
+                    if (i + 1 < args.length) calleeSelection = parseCalleeSelection(args[++i]);
+                    break;
+                case "-incremental":
+                    incremental = true;
+                    break;
+                case "-changed":
+                    if (i + 1 < args.length) changedFile = args[++i];
+                    incremental = true;
+                    break;
+            }
+        }
+
+        Path sessionDir = Paths.get(outputPath);
+        FactCache factCache = createFactCache(args);
+        if (incremental && factCache == null) {
+            // 增量分析的事实默认保存在会话目录中
+            factCache = new FactCache(sessionDir.resolve("cache"));
+        }
+        ProjectAnalyzer analyzer = new ProjectAnalyzer(createProjectParser(args), factCache, calleeSelection);
+        AnalysisMetadata metadata = incremental
+                ? analyzer.update(projectPath, sessionDir, changedFile != null ? readLines(changedFile) : null)
+                : analyzer.analyze(projectPath, sessionDir);
+        System.out.println("Analysis completed: " + metadata.getTotalApis() + " APIs, " + metadata.getTotalSymbols()
+                + " symbols. Results saved to " + outputPath + "/data/");
+    }
+
+    /**
+     * 每行一项的列表文件（符号或文件路径），"-" 表示标准输入，忽略空行
+     */
+    private static List<String> readLines(String listFile) throws IOException {
+        List<String> lines;
+        if ("-".equals(listFile)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            lines = reader.lines().toList();
+        } else {
+            lines = Files.readAllLines(Paths.get(listFile), StandardCharsets.UTF_8);
+        }
+        List<String> items = new ArrayList<>();
+        for (String line : lines) {
+            String item = line.trim();
+            if (!item.isEmpty()) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+    
+    private static void handleServe(String projectPath, String[] args) throws IOException {
+        String socketPath = null;
+        int threads = 0;
+
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "-socket":
+                    if (i + 1 < args.length) socketPath = args[++i];
+                    break;
+                case "-threads":
+                    if (i + 1 < args.length) {
+                        try {
+                            threads = Integer.parseInt(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Invalid thread count: " + args[i]);
+                            System.exit(1);
+                        }
+                    }
+                    break;
+            }
+        }
+
+        // stdio 模式下标准输出专用于协议，分析过程中的日志统一转到标准错误
+        PrintStream protocolOut = System.out;
+        System.setOut(System.err);
+
+        ProjectSession session = new ProjectSession(Paths.get(projectPath), createProjectParser(args), createFactCache(args));
+        long start = System.currentTimeMillis();
+        session.reload();
+        System.err.println("Loaded " + session.getFileCount() + " files in " + (System.currentTimeMillis() - start) + " ms");
+
+        AnalysisServer server = new AnalysisServer(session, threads);
+        if (socketPath != null) {
+            server.serveSocket(Paths.get(socketPath));
+        } else {
+            server.serveStdio(System.in, protocolOut);
+        }
+    }
     
+    /**
+     * 所有命令通用的解析选项：-parse-threads <n> 指定解析线程数，-virtual-threads 改用虚拟线程
+     */
+    private static ProjectParser createProjectParser(String[] args) {
+        int parseThreads = 0;
+        boolean virtualThreads = false;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "-parse-threads":
+                    if (i + 1 < args.length) {
+                        try {
+                            parseThreads = Integer.parseInt(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Invalid parse thread count: " + args[i]);
+                            System.exit(1);
+                        }
+                    }
+                    break;
+                case "-virtual-threads":
+                    virtualThreads = true;
+                    break;
+            }
+        }
+        return new ProjectParser(parseThreads, virtualThreads);
+    }
 
+    /**
+     * 通用选项 -cache <dir>：按文件内容哈希缓存分析事实，未指定时返回 null（不缓存）
+     */
+    private static FactCache createFactCache(String[] args) throws IOException {
+        for (int i = 2; i < args.length - 1; i++) {
+            if ("-cache".equals(args[i])) {
+                return new FactCache(Paths.get(args[i + 1]));
+            }
+        }
+        return null;
+    }
     
+    /**
+     * 通用选项 -format <json|ndjson>，默认 json
+     */
+    private static OutputFormat getOutputFormat(String[] args) {
+        for (int i = 2; i < args.length - 1; i++) {
+            if ("-format".equals(args[i])) {
+                try {
+                    return OutputFormat.valueOf(args[i + 1].toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Unknown output format: " + args[i + 1] + ", using JSON");
+                }
+            }
+        }
+        return OutputFormat.JSON;
+    }
+
+    /**
+     * 通用选项 -stats [<file>]：记录各阶段的耗时、CPU、分配字节数和文件数，-stats-top <n> 指定列出解析最慢的文件数（默认 10）
+     */
+    private static AnalysisStats enableStats(String[] args) {
+        int top = 10;
+        boolean enabled = false;
+        for (int i = 2; i < args.length; i++) {
+            if ("-stats".equals(args[i])) {
+                enabled = true;
+            } else if ("-stats-top".equals(args[i]) && i + 1 < args.length) {
+                try {
+                    top = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid stats file count: " + args[i]);
+                }
+            }
+        }
+        return enabled ? AnalysisStats.enable(top) : null;
+    }
+
+    /**
+     * 写出统计报告：-stats 后跟文件路径时写入该文件，否则以单行 JSON 写到标准错误
+     */
+    private static void reportStats(AnalysisStats stats, String[] args) {
+        if (stats == null) {
+            return;
+        }
+        String statsPath = null;
+        for (int i = 2; i < args.length - 1; i++) {
+            if ("-stats".equals(args[i]) && !args[i + 1].startsWith("-")) {
+                statsPath = args[i + 1];
+            }
+        }
+        try {
+            stats.report(statsPath);
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to write stats: " + e.getMessage());
+        } finally {
+            AnalysisStats.disable();
+        }
+    }
+
     private static String getOutputPath(String[] args, int startIndex) {
         for (int i = startIndex; i < args.length - 1; i++) {
             if ("-o".equals(args[i])) {
@@ -206,26 +786,115 @@ public class Main {
         return null;
     }
     
+    private static CallGraphAnalyzer.CalleeSelection parseCalleeSelection(String value) {
+        String selection = value.toUpperCase();
+        try {
+            return CallGraphAnalyzer.CalleeSelection.valueOf(selection);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown callee selection: " + selection + ", using FIRST");
+            return CallGraphAnalyzer.CalleeSelection.FIRST;
+        }
+    }
+
+    /**
+     * -sinks 指定的目录替换内置目录；目录格式错误时报告出错的行并退出
+     */
+    private static SinkCatalog readSinkCatalog(String catalogFile) throws IOException {
+        if (catalogFile == null) {
+            return SinkCatalog.defaults();
+        }
+        try {
+            return SinkCatalog.read(Paths.get(catalogFile));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
     private static void writeOutput(Object data, String outputPath, String description) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
 
-        if (outputPath != null) {
-            try (Writer writer = new OutputStreamWriter(new FileOutputStream(outputPath), StandardCharsets.UTF_8)) {
-                objectMapper.writeValue(writer, data);
+        JsonWriteEvent event = new JsonWriteEvent();
+        event.begin();
+        try (Phase phase = AnalysisStats.phase("output")) {
+            if (outputPath != null) {
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream(outputPath), StandardCharsets.UTF_8)) {
+                    objectMapper.writeValue(writer, data);
+                }
+                System.out.println(description + " successfully written to " + outputPath);
+            } else {
+                String jsonOutput = objectMapper.writeValueAsString(data);
+                System.out.println(jsonOutput);
             }
-            System.out.println(description + " successfully written to " + outputPath);
-        } else {
-            String jsonOutput = objectMapper.writeValueAsString(data);
-            System.out.println(jsonOutput);
+            phase.count("records", 1);
+        }
+        commitJsonWrite(event, description, outputPath, 1);
+    }
+
+    private static void commitJsonWrite(JsonWriteEvent event, String description, String outputPath, long records) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.description = description;
+            event.target = outputPath != null ? outputPath : "stdout";
+            event.records = records;
+            event.commit();
+        }
+    }
+    
+    /**
+     * NDJSON 输出：每条记录一行，产生后立即写出。输出到标准输出时逐条刷新，
+     * 并把分析过程中的日志转到标准错误，保证标准输出只有记录。
+     */
+    private static void streamOutput(String outputPath, String description, RecordProducer producer) throws IOException {
+        // 记录边产生边写出，分析阶段嵌套在 output 阶段（以及 JSON 写出事件）之内
+        JsonWriteEvent event = new JsonWriteEvent();
+        event.begin();
+        long count;
+        try (Phase phase = AnalysisStats.phase("output")) {
+            if (outputPath != null) {
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath));
+                     NdjsonWriter writer = new NdjsonWriter(out, false)) {
+                    producer.produce(writer);
+                    count = writer.getCount();
+                }
+                System.out.println(description + " (" + count + " records) successfully written to " + outputPath);
+            } else {
+                PrintStream recordOut = System.out;
+                System.setOut(System.err);
+                try (NdjsonWriter writer = new NdjsonWriter(recordOut, true)) {
+                    producer.produce(writer);
+                    count = writer.getCount();
+                } finally {
+                    System.setOut(recordOut);
+                }
+            }
+            phase.count("records", count);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        commitJsonWrite(event, description, outputPath, count);
     }
     
     private static void printUsage() {
         System.err.println("Usage:");
         System.err.println("  java -jar <jar-file> <project-path> API [-o <output-file>]");
         System.err.println("  java -jar <jar-file> <project-path> REF -s <symbol> [-f <file> -l <line>] [-o <output-file>]");
-        System.err.println("  java -jar <jar-file> <project-path> CG [-o <output-file>] [-img <image-file>] [-layout <engine>] [-filter <classes>] [-keep-isolated] [-no-image]");
-        System.err.println("  java -jar <jar-file> <project-path> DEF -s <symbol> [-o <output-file>]");
+        System.err.println("  java -jar <jar-file> <project-path> CG [-o <output-file>] [-img <image-file>] [-layout <engine>] [-renderer <auto|graphviz|native>] [-filter <classes>] [-keep-isolated] [-no-image] [-callees <first|all>] [-root <method> ...] [-depth <n>] [-direction <callees|callers|both>]");
+        System.err.println("  java -jar <jar-file> <project-path> DEF -s <symbol> [-s <symbol> ...] [-symbols <file|->] [-o <output-file>]");
+        System.err.println("  java -jar <jar-file> <project-path> REACH [-method <method> | -endpoint <controller.method>] [-from <reach-file>] [-o <output-file>]");
+        System.err.println("  java -jar <jar-file> <project-path> SINK [-sinks <catalog-file>] [-depth <n>] [-max-paths <n>] [-callees <first|all>] [-o <output-file>]");
+        System.err.println("  java -jar <jar-file> <project-path> TAINT [-sinks <catalog-file>] [-callees <first|all>] [-summaries] [-o <output-file>]");
+        System.err.println("  java -jar <jar-file> <project-path> IMPACT -r <file:L<start>-L<end>> [-r ...] [-ranges <file|->] [-callees <first|all>] [-o <output-file>]");
+        System.err.println("  java -jar <jar-file> <project-path> ALL -o <session-dir> [-callees <first|all>] [-incremental [-changed <file|->]]");
+        System.err.println("  java -jar <jar-file> <project-path> SERVE [-socket <socket-path>] [-threads <n>]");
+        System.err.println("Common options:");
+        System.err.println("  -parse-threads <n>   number of parser threads (default: CPU cores)");
+        System.err.println("  -virtual-threads     parse on virtual threads instead of a ForkJoin pool");
+        System.err.println("  -format <json|ndjson> write one JSON record per line as results are produced");
+        System.err.println("  -cache <dir>         reuse per-file facts keyed by content hash (API, DEF, REF -f/-l, CG, REACH, SINK, TAINT, IMPACT, ALL, SERVE)");
+        System.err.println("  -stats [<file>]      report per-phase wall/CPU time, allocation and file counts as JSON (default: stderr)");
+        System.err.println("  -stats-top <n>       number of slowest files to parse listed in the stats report (default: 10)");
     }
 } 
\ No newline at end of file
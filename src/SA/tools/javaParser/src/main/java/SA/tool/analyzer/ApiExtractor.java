@@ -2,12 +2,15 @@ package SA.tool.analyzer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.utils.SourceRoot;
+import SA.tool.cache.FactCache;
 import SA.tool.model.ApiInfo;
 import SA.tool.model.ControllerAnalysisResult;
+import SA.tool.model.FileFacts;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+import SA.tool.parser.SourcePrefilter;
 
 import java.io.File;
 import java.io.IOException;
@@ -15,57 +18,91 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class ApiExtractor {
-    private final SymbolAnalyzer symbolAnalyzer = new SymbolAnalyzer();
+    // 只有出现 Controller 字样的文件才可能声明 @RestController / @Controller（含全限定名写法）
+    private static final SourcePrefilter CONTROLLER_PREFILTER = SourcePrefilter.anyOf("Controller");
+
+    private final ProjectParser projectParser;
+    private final FactCollector factCollector;
+
+    public ApiExtractor() {
+        this(new ProjectParser());
+    }
+
+    public ApiExtractor(ProjectParser projectParser) {
+        this(projectParser, null);
+    }
+
+    public ApiExtractor(ProjectParser projectParser, FactCache factCache) {
+        this.projectParser = projectParser;
+        this.factCollector = new FactCollector(projectParser, factCache);
+    }
     
     public List<ApiInfo> extractApiInfo(String targetPath, Path outputDir) throws IOException {
+        return extractApiInfo(collectControllers(targetPath), outputDir);
+    }
+
+    /**
+     * 基于已解析的项目提取API，供常驻分析会话复用解析结果
+     */
+    public List<ApiInfo> extractApiInfo(ParsedProject project, Path outputDir) throws IOException {
+        return extractApiInfo(factCollector.collect(project, EnumSet.of(FactKind.CONTROLLERS)), outputDir);
+    }
+
+    /**
+     * 基于已提取的文件事实汇总API（Controller 的符号分析在提取事实时已完成）
+     */
+    public List<ApiInfo> extractApiInfo(ProjectFacts facts, Path outputDir) throws IOException {
         List<ApiInfo> apiInfos = new ArrayList<>();
+        extractApiInfo(facts, outputDir, apiInfos::add);
+        return apiInfos;
+    }
+
+    /**
+     * 流式版本：每个API产生后立即交给 sink，不汇总成列表
+     */
+    public void extractApiInfo(String targetPath, Path outputDir, Consumer<? super ApiInfo> sink) throws IOException {
+        extractApiInfo(collectControllers(targetPath), outputDir, sink);
+    }
+
+    private ProjectFacts collectControllers(String targetPath) throws IOException {
+        ParsedProject project = projectParser.load(Paths.get(targetPath), CONTROLLER_PREFILTER);
+        return factCollector.collect(project, EnumSet.of(FactKind.CONTROLLERS));
+    }
+
+    public void extractApiInfo(ProjectFacts facts, Path outputDir, Consumer<? super ApiInfo> sink) throws IOException {
         Map<String, ControllerAnalysisResult> controllerResults = new HashMap<>();
-        
-        Path rootPath = Paths.get(targetPath).normalize();
-        SourceRoot sourceRoot = new SourceRoot(rootPath);
-        List<ParseResult<CompilationUnit>> parseResults = sourceRoot.tryToParse("");
 
-        for (ParseResult<CompilationUnit> parseResult : parseResults) {
-            if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
-                CompilationUnit cu = parseResult.getResult().get();
-                
-                // 查找Controller类
-                Optional<ClassOrInterfaceDeclaration> controllerClass = findControllerClass(cu);
-                
-                if (controllerClass.isPresent()) {
-                    String controllerName = controllerClass.get().getNameAsString();
-                    String filePath = getRelativeFilePath(cu, rootPath);
-                    
-                    // 使用符号分析器分析整个Controller
-                    ControllerAnalysisResult controllerResult = symbolAnalyzer.analyzeController(cu, controllerName, filePath);
-                    controllerResults.put(controllerName, controllerResult);
-                    
-                    // 添加API信息到总列表（保持向后兼容）
-                    apiInfos.addAll(controllerResult.getApis());
-                }
+        for (FileFacts file : facts.getFiles()) {
+            ControllerAnalysisResult controllerResult = file.getController();
+            if (controllerResult != null) {
+                controllerResults.put(controllerResult.getControllerName(), controllerResult);
+
+                // 输出API信息（保持向后兼容）
+                controllerResult.getApis().forEach(sink);
             }
         }
         
         // 如果指定了输出目录，按Controller分别保存JSON文件
         if (outputDir != null) {
-            saveControllerResults(controllerResults, String.valueOf(outputDir));
+            saveControllerResults(controllerResults.values(), outputDir);
         }
-        
-        return apiInfos;
     }
     
-    private Optional<ClassOrInterfaceDeclaration> findControllerClass(CompilationUnit cu) {
+    static Optional<ClassOrInterfaceDeclaration> findControllerClass(CompilationUnit cu) {
         return cu.findFirst(ClassOrInterfaceDeclaration.class, clazz -> 
             clazz.isAnnotationPresent("RestController") || clazz.isAnnotationPresent("Controller"));
     }
     
-    private String getRelativeFilePath(CompilationUnit cu, Path rootPath) {
+    static String getRelativeFilePath(CompilationUnit cu, Path rootPath) {
         return cu.getStorage()
             .map(storage -> {
                 String rootAbs = rootPath.toAbsolutePath().toString();
@@ -82,17 +119,23 @@ public class ApiExtractor {
             .orElse("Unknown");
     }
     
-    private void saveControllerResults(Map<String, ControllerAnalysisResult> controllerResults, String outputDir) throws IOException {
+    /**
+     * 每个 Controller 一个 JSON 文件：{@code <outputDir>/data/API/<ControllerName>.json}
+     */
+    static Path apiDirectory(Path outputDir) {
+        return outputDir.resolve("data").resolve("API");
+    }
+
+    static void saveControllerResults(Collection<ControllerAnalysisResult> controllerResults, Path outputDir) throws IOException {
         // 创建输出目录
-        Path outputPath = Paths.get(outputDir, "data", "API");
+        Path outputPath = apiDirectory(outputDir);
         Files.createDirectories(outputPath);
         
         ObjectMapper mapper = new ObjectMapper();
         mapper.enable(SerializationFeature.INDENT_OUTPUT);
         
-        for (Map.Entry<String, ControllerAnalysisResult> entry : controllerResults.entrySet()) {
-            String controllerName = entry.getKey();
-            ControllerAnalysisResult result = entry.getValue();
+        for (ControllerAnalysisResult result : controllerResults) {
+            String controllerName = result.getControllerName();
             
             File outputFile = outputPath.resolve(controllerName + ".json").toFile();
             mapper.writeValue(outputFile, result);
@@ -100,4 +143,4 @@ public class ApiExtractor {
             System.out.println("Saved controller analysis: " + outputFile.getAbsolutePath());
         }
     }
-} 
\ No newline at end of file
+}
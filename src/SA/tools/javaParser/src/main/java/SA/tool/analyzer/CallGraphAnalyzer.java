@@ -1,50 +1,206 @@
 package SA.tool.analyzer;
 
-import com.github.javaparser.ParseResult;
-import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.utils.SourceRoot;
+import SA.tool.cache.FactCache;
+import SA.tool.graph.CallGraph;
+import SA.tool.graph.CallGraphBuilder;
+import SA.tool.model.CallFact;
 import SA.tool.model.CallGraphNode;
-import SA.tool.visitor.CallGraphVisitor;
+import SA.tool.model.FileFacts;
+import SA.tool.model.MethodFact;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.CallGraphEvent;
+import SA.tool.stats.CallResolutionEvent;
+import SA.tool.stats.Phase;
 
 import java.io.IOException;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class CallGraphAnalyzer {
+
+    private final FactCollector factCollector;
+    private final CalleeSelection calleeSelection;
+
+    public CallGraphAnalyzer() {
+        this(new ProjectParser());
+    }
+
+    public CallGraphAnalyzer(ProjectParser projectParser) {
+        this(projectParser, null);
+    }
+
+    public CallGraphAnalyzer(ProjectParser projectParser, FactCache factCache) {
+        this(projectParser, factCache, CalleeSelection.FIRST);
+    }
+
+    public CallGraphAnalyzer(ProjectParser projectParser, FactCache factCache, CalleeSelection calleeSelection) {
+        this.factCollector = new FactCollector(projectParser, factCache);
+        this.calleeSelection = calleeSelection;
+    }
     
     public Map<String, CallGraphNode> buildCallGraph(String targetPath) throws IOException {
-        Map<String, CallGraphNode> callGraph = new HashMap<>();
-        Path rootPath = Paths.get(targetPath).normalize();
-
-        SourceRoot sourceRoot = new SourceRoot(rootPath);
-        List<ParseResult<CompilationUnit>> parseResults = sourceRoot.tryToParse("");
-
-        // 第一遍：收集所有方法定义
-        for (ParseResult<CompilationUnit> parseResult : parseResults) {
-            if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
-                CompilationUnit cu = parseResult.getResult().get();
-                CallGraphVisitor visitor = new CallGraphVisitor(rootPath, true); // 第一遍扫描
-                visitor.visit(cu, callGraph);
+        return buildCallGraph(factCollector.collect(Paths.get(targetPath), EnumSet.of(FactKind.METHODS)));
+    }
+
+    public Map<String, CallGraphNode> buildCallGraph(ParsedProject project) throws IOException {
+        return buildCallGraph(factCollector.collect(project, EnumSet.of(FactKind.METHODS)));
+    }
+
+    public Map<String, CallGraphNode> buildCallGraph(ProjectFacts facts) {
+        CallGraph graph = buildCompactGraph(facts);
+        try (Phase phase = AnalysisStats.phase("call_graph.nodes")) {
+            phase.count("nodes", graph.size());
+            return graph.toNodeMap();
+        }
+    }
+
+    public CallGraph buildCompactGraph(String targetPath) throws IOException {
+        return buildCompactGraph(factCollector.collect(Paths.get(targetPath), EnumSet.of(FactKind.METHODS)));
+    }
+
+    public CallGraph buildCompactGraph(ProjectFacts facts) {
+        CallGraphEvent event = new CallGraphEvent();
+        event.begin();
+        CallGraph graph = buildCompactGraphInternal(facts);
+        event.end();
+        if (event.shouldCommit()) {
+            event.project = String.valueOf(facts.getRootPath());
+            event.files = facts.getFiles().size();
+            event.methods = graph.size();
+            event.edges = graph.edgeCount();
+            event.commit();
+        }
+        return graph;
+    }
+
+    private CallGraph buildCompactGraphInternal(ProjectFacts facts) {
+        CallGraphBuilder builder = new CallGraphBuilder();
+        MethodIndex methodIndex = new MethodIndex();
+
+        // 第一遍：收集所有方法定义，同时按方法名和参数个数建立索引
+        try (Phase phase = AnalysisStats.phase("call_graph.methods")) {
+            for (FileFacts file : facts.getFiles()) {
+                for (MethodFact method : file.getMethods()) {
+                    if (builder.idOf(method.getMethodSignature()) < 0) {
+                        int id = builder.addMethod(method.getMethodSignature(), method.getClassName(),
+                                method.getMethodName(), method.getCodePos());
+                        methodIndex.add(method, id);
+                    }
+                }
             }
+            phase.count("files", facts.getFiles().size());
         }
 
         // 第二遍：分析方法调用关系
-        for (ParseResult<CompilationUnit> parseResult : parseResults) {
-            if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
-                CompilationUnit cu = parseResult.getResult().get();
-                CallGraphVisitor visitor = new CallGraphVisitor(rootPath, false); // 第二遍扫描
-                visitor.visit(cu, callGraph);
+        try (Phase phase = AnalysisStats.phase("call_graph.calls")) {
+            BitSet indexed = new BitSet(builder.size());
+            for (FileFacts file : facts.getFiles()) {
+                CallResolutionEvent event = new CallResolutionEvent();
+                event.begin();
+                int calls = 0;
+                int edges = 0;
+                for (MethodFact method : file.getMethods()) {
+                    int caller = builder.idOf(method.getMethodSignature());
+                    // 只有节点所取的（同签名的第一个）方法事实的调用点记录调用下标
+                    boolean first = !indexed.get(caller);
+                    indexed.set(caller);
+                    List<CallFact> methodCalls = method.getCalls();
+                    for (int i = 0; i < methodCalls.size(); i++) {
+                        edges += resolveCall(builder, methodIndex, caller, first ? i : -1, methodCalls.get(i));
+                    }
+                    calls += method.getCalls().size();
+                }
+                event.end();
+                if (event.shouldCommit()) {
+                    event.file = file.getFilePath();
+                    event.methods = file.getMethods().size();
+                    event.calls = calls;
+                    event.edges = edges;
+                    event.commit();
+                }
             }
+            CallGraph graph = builder.build();
+            phase.count("methods", graph.size()).count("edges", graph.edgeCount());
+            return graph;
         }
+    }
 
-        return callGraph;
+    /**
+     * @return 为该调用点添加的边数
+     */
+    private int resolveCall(CallGraphBuilder builder, MethodIndex methodIndex, int caller, int callIndex, CallFact call) {
+        // 简化的方法匹配：只根据方法名和参数个数匹配
+        // 实际实现中需要更复杂的类型解析
+        List<Integer> candidates = methodIndex.candidates(call.getMethodName(), call.getArgCount());
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        if (calleeSelection == CalleeSelection.FIRST) {
+            candidates = candidates.subList(0, 1); // 只取第一个匹配的方法
+        }
+        String callType = candidates.size() == 1 ? CallGraph.CALL_TYPE_DIRECT : CallGraph.CALL_TYPE_AMBIGUOUS;
+        for (int callee : candidates) {
+            builder.addCall(caller, callee, callIndex, call.getCodePos(), callType);
+        }
+        return candidates.size();
     }
     
+    public CalleeSelection getCalleeSelection() {
+        return calleeSelection;
+    }
+
     public CallGraphNode analyzeMethod(String targetPath, String methodSignature) throws IOException {
         Map<String, CallGraphNode> callGraph = buildCallGraph(targetPath);
         return callGraph.get(methodSignature);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 方法名 + 参数个数 -> 方法签名（按声明顺序）的多值索引，使每个调用点的候选查找为常数时间。
+     * 可变参数方法按方法名单独索引，参数个数不少于固定参数个数的调用都视为兼容。
+     */
+    private static class MethodIndex {
+        private final Map<String, List<Integer>> byArity = new HashMap<>();
+        private final Map<String, List<int[]>> varargsByName = new HashMap<>(); // {方法 ID, 参数个数}
+
+        void add(MethodFact method, int id) {
+            if (method.isVarargs()) {
+                varargsByName.computeIfAbsent(method.getMethodName(), k -> new ArrayList<>())
+                        .add(new int[]{id, method.getParameterCount()});
+            } else {
+                byArity.computeIfAbsent(key(method.getMethodName(), method.getParameterCount()), k -> new ArrayList<>()).add(id);
+            }
+        }
+
+        List<Integer> candidates(String methodName, int argCount) {
+            List<Integer> fixed = byArity.getOrDefault(key(methodName, argCount), Collections.emptyList());
+            List<int[]> varargs = varargsByName.get(methodName);
+            if (varargs == null) {
+                return fixed;
+            }
+            List<Integer> result = new ArrayList<>(fixed);
+            for (int[] method : varargs) {
+                if (argCount >= method[1] - 1) {
+                    result.add(method[0]);
+                }
+            }
+            return result;
+        }
+
+        private static String key(String methodName, int parameterCount) {
+            return methodName + "/" + parameterCount;
+        }
+    }
+
+    public enum CalleeSelection {
+        FIRST,   // 每个调用点只连接第一个参数个数兼容的方法 (默认)
+        ALL      // 连接所有参数个数兼容的候选方法
+    }
+}
@@ -1,61 +1,146 @@
 package SA.tool.analyzer;
 
-import com.github.javaparser.ParseResult;
-import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.utils.SourceRoot;
+import SA.tool.cache.FactCache;
 import SA.tool.model.DefinitionInfo;
-import SA.tool.visitor.DefinitionFinderVisitor;
-import SA.tool.visitor.InterfaceImplementorVisitor;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+import SA.tool.stats.QueryEvent;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public class DefinitionFinder {
+
+    private static final Set<FactKind> KINDS = EnumSet.of(FactKind.DEFINITIONS, FactKind.IMPLEMENTORS);
+
+    private final ProjectParser projectParser;
+    private final FactCollector factCollector;
+
+    public DefinitionFinder() {
+        this(new ProjectParser());
+    }
+
+    public DefinitionFinder(ProjectParser projectParser) {
+        this(projectParser, null);
+    }
+
+    public DefinitionFinder(ProjectParser projectParser, FactCache factCache) {
+        this.projectParser = projectParser;
+        this.factCollector = new FactCollector(projectParser, factCache);
+    }
     
     public List<DefinitionInfo> findDefinitions(String targetPath, String symbolName) throws IOException {
-        Path rootPath = Paths.get(targetPath).normalize();
-        SourceRoot sourceRoot = new SourceRoot(rootPath);
-        List<ParseResult<CompilationUnit>> parseResults = sourceRoot.tryToParse("");
-
-        // Step 1: Build the interface-to-implementation map
-        Map<String, List<String>> interfaceImplementors = new HashMap<>();
-        InterfaceImplementorVisitor implementorVisitor = new InterfaceImplementorVisitor();
-        for (ParseResult<CompilationUnit> parseResult : parseResults) {
-            parseResult.ifSuccessful(cu -> implementorVisitor.visit(cu, interfaceImplementors));
+        if (symbolName.contains(".")) {
+            List<DefinitionInfo> definitions = findByQualifiedName(Paths.get(targetPath), symbolName);
+            if (definitions != null) {
+                return definitions;
+            }
+        }
+        return findDefinitions(factCollector.collect(Paths.get(targetPath), KINDS), symbolName);
+    }
+
+    /**
+     * 全限定名的快速路径：只读取和解析按包路径推出的候选文件
+     * （如 com.example.Foo.bar 对应任意源码根下的 com/example/Foo.java 或 com/example/Foo/bar.java）。
+     *
+     * @return 候选文件中的查找结果；未命中，或找到的是需要全量实现关系的接口方法时返回 null，由调用方回退到全量扫描
+     */
+    private List<DefinitionInfo> findByQualifiedName(Path rootPath, String symbolName) throws IOException {
+        List<String> candidates = candidateFiles(symbolName);
+        ParsedProject project = projectParser.load(rootPath,
+                relativePath -> candidates.stream().anyMatch(c -> relativePath.equals(c) || relativePath.endsWith("/" + c)));
+        if (project.size() == 0) {
+            return null;
+        }
+        SymbolIndex index = SymbolIndex.build(factCollector.collect(project, KINDS), project);
+        List<DefinitionInfo> found = index.lookup(symbolName);
+        if (found.isEmpty() || isInterfaceMethod(index, found)) {
+            return null;
+        }
+        return findDefinitions(index, symbolName);
+    }
+
+    /**
+     * a.b.C.d -> [a/b/C/d.java, a/b/C.java, a/b.java]：符号本身可能是类型，也可能是某个（外部）类型的成员
+     */
+    private List<String> candidateFiles(String symbolName) {
+        String[] segments = symbolName.split("\\.");
+        List<String> candidates = new ArrayList<>();
+        for (int end = segments.length; end >= 2; end--) {
+            candidates.add(String.join("/", Arrays.copyOfRange(segments, 0, end)) + ".java");
+        }
+        return candidates;
+    }
+
+    private boolean isInterfaceMethod(SymbolIndex index, List<DefinitionInfo> found) {
+        if (found.size() != 1 || !"METHOD".equals(found.get(0).getDefinitionType())) {
+            return false;
         }
+        String scope = found.get(0).getScope();
+        return scope != null && index.lookup(scope).stream().anyMatch(d -> "INTERFACE".equals(d.getDefinitionType()));
+    }
+
+    public List<DefinitionInfo> findDefinitions(ParsedProject project, String symbolName) throws IOException {
+        return findDefinitions(SymbolIndex.build(factCollector.collect(project, KINDS), project), symbolName);
+    }
+
+    /**
+     * 批量查询：所有符号共享一次解析和一个符号索引，结果按输入顺序从符号映射到定义列表
+     */
+    public Map<String, List<DefinitionInfo>> findDefinitions(String targetPath, Collection<String> symbolNames) throws IOException {
+        return findDefinitions(SymbolIndex.build(factCollector.collect(Paths.get(targetPath), KINDS)), symbolNames);
+    }
+
+    public Map<String, List<DefinitionInfo>> findDefinitions(SymbolIndex index, Collection<String> symbolNames) {
+        Map<String, List<DefinitionInfo>> results = new LinkedHashMap<>();
+        for (String symbolName : symbolNames) {
+            results.computeIfAbsent(symbolName, s -> findDefinitions(index, s));
+        }
+        return results;
+    }
 
-        // Step 2: Find all possible definitions
-        List<DefinitionInfo> allDefinitions = new ArrayList<>();
-        DefinitionFinderVisitor initialVisitor = new DefinitionFinderVisitor(rootPath, symbolName);
-        for (ParseResult<CompilationUnit> parseResult : parseResults) {
-            parseResult.ifSuccessful(cu -> initialVisitor.visit(cu, allDefinitions));
+    public List<DefinitionInfo> findDefinitions(ProjectFacts facts, String symbolName) {
+        return findDefinitions(SymbolIndex.build(facts), symbolName);
+    }
+
+    public List<DefinitionInfo> findDefinitions(SymbolIndex index, String symbolName) {
+        QueryEvent event = new QueryEvent();
+        event.begin();
+        List<DefinitionInfo> definitions = lookup(index, symbolName);
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = "DEF";
+            event.symbol = symbolName;
+            event.results = definitions.size();
+            event.commit();
         }
+        return definitions;
+    }
+
+    private List<DefinitionInfo> lookup(SymbolIndex index, String symbolName) {
+        // Step 1: Look up all possible definitions
+        List<SymbolIndex.Entry> allDefinitions = index.entries(symbolName);
         
-        // Step 3: Post-process to find implementation if only an interface method is found
-        if (allDefinitions.size() == 1 && "METHOD".equals(allDefinitions.get(0).getDefinitionType())) {
-            DefinitionInfo interfaceDef = allDefinitions.get(0);
+        // Step 2: Post-process to find implementation if only an interface method is found
+        if (allDefinitions.size() == 1 && "METHOD".equals(allDefinitions.get(0).fact().getDefinition().getDefinitionType())) {
+            DefinitionInfo interfaceDef = allDefinitions.get(0).fact().getDefinition();
             String interfaceFqn = interfaceDef.getScope();
             
-            if (interfaceFqn != null && interfaceImplementors.containsKey(interfaceFqn)) {
-                List<String> implementorClasses = interfaceImplementors.get(interfaceFqn);
+            if (interfaceFqn != null) {
                 String methodName = symbolName.substring(symbolName.lastIndexOf('.') + 1);
                 
                 List<DefinitionInfo> implementationDefs = new ArrayList<>();
-                for (String implClassFqn : implementorClasses) {
-                     // Create a new targeted search for the implementation
-                     DefinitionFinderVisitor implVisitor = new DefinitionFinderVisitor(rootPath, implClassFqn + "." + methodName);
-                     for (ParseResult<CompilationUnit> parseResult : parseResults) {
-                         parseResult.ifSuccessful(cu -> implVisitor.visit(cu, implementationDefs));
-                     }
+                for (String implClassFqn : index.getImplementors(interfaceFqn)) {
+                     implementationDefs.addAll(copyAll(index, index.entries(implClassFqn + "." + methodName), implClassFqn + "." + methodName));
                 }
 
                 if (!implementationDefs.isEmpty()) {
@@ -64,6 +149,31 @@ public class DefinitionFinder {
             }
         }
 
-        return allDefinitions;
+        return copyAll(index, allDefinitions, symbolName);
+    }
+
+    /**
+     * 索引中的定义是共享的，返回前按查询的符号名复制，并从源码截取定义代码
+     */
+    private List<DefinitionInfo> copyAll(SymbolIndex index, List<SymbolIndex.Entry> entries, String symbolName) {
+        List<DefinitionInfo> result = new ArrayList<>(entries.size());
+        for (SymbolIndex.Entry entry : entries) {
+            result.add(copy(entry.fact().getDefinition(), index.definitionCode(entry), symbolName));
+        }
+        return result;
+    }
+
+    private DefinitionInfo copy(DefinitionInfo source, String definitionCode, String symbolName) {
+        DefinitionInfo definition = new DefinitionInfo();
+        definition.setSymbolName(symbolName);
+        definition.setDefinitionType(source.getDefinitionType());
+        definition.setCodePos(source.getCodePos());
+        definition.setDefinitionCode(definitionCode);
+        definition.setSignature(source.getSignature());
+        definition.setModifiers(source.getModifiers());
+        definition.setScope(source.getScope());
+        definition.setReturnType(source.getReturnType());
+        definition.setParameters(source.getParameters());
+        return definition;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package SA.tool.analyzer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import SA.tool.graph.CallGraph;
+import SA.tool.graph.Reachability;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.EndpointReach;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * API 接口与方法之间的可达关系。可以由分析结果计算，也可以从保存的 REACH 输出重新加载，
+ * 加载后无需重新解析项目即可回答查询。
+ */
+public class EndpointReachability {
+
+    private final List<ApiInfo> endpoints;
+    private final List<List<String>> entryMethods;
+    private final Reachability reachability;
+
+    private EndpointReachability(List<ApiInfo> endpoints, List<List<String>> entryMethods, Reachability reachability) {
+        this.endpoints = endpoints;
+        this.entryMethods = entryMethods;
+        this.reachability = reachability;
+    }
+
+    public static EndpointReachability build(List<ApiInfo> apis, CallGraph graph) {
+        try (Phase phase = AnalysisStats.phase("reachability")) {
+            int[][] roots = new int[apis.size()][];
+            List<List<String>> entryMethods = new ArrayList<>(apis.size());
+            for (int i = 0; i < apis.size(); i++) {
+                roots[i] = graph.findMethods(apis.get(i));
+                entryMethods.add(Arrays.stream(roots[i]).mapToObj(graph::signature).toList());
+            }
+            Reachability reachability = Reachability.compute(graph, roots);
+            phase.count("endpoints", apis.size()).count("components", reachability.componentCount());
+            return new EndpointReachability(apis, entryMethods, reachability);
+        }
+    }
+
+    /**
+     * 从 {@link #toReport()} 写出的 JSON 重新加载
+     */
+    public static EndpointReachability read(Path reportFile) throws IOException {
+        List<EndpointReach> report = new ObjectMapper().readValue(reportFile.toFile(), new TypeReference<List<EndpointReach>>() {});
+        List<ApiInfo> endpoints = new ArrayList<>(report.size());
+        List<List<String>> entryMethods = new ArrayList<>(report.size());
+        List<List<String>> reachable = new ArrayList<>(report.size());
+        for (EndpointReach entry : report) {
+            endpoints.add(entry.getApi());
+            entryMethods.add(entry.getEntryMethods());
+            reachable.add(entry.getReachableMethods());
+        }
+        return new EndpointReachability(endpoints, entryMethods, Reachability.of(reachable));
+    }
+
+    public List<ApiInfo> getEndpoints() {
+        return endpoints;
+    }
+
+    public Reachability getReachability() {
+        return reachability;
+    }
+
+    /**
+     * 能到达该方法（签名或 类名.方法名，后者包含所有重载）的 API 接口
+     */
+    public List<ApiInfo> endpointsReaching(String method) {
+        BitSet matched = new BitSet(endpoints.size());
+        for (int id : reachability.findMethods(method)) {
+            for (int endpoint : reachability.endpointsReaching(id)) {
+                matched.set(endpoint);
+            }
+        }
+        List<ApiInfo> result = new ArrayList<>(matched.cardinality());
+        matched.stream().forEach(endpoint -> result.add(endpoints.get(endpoint)));
+        return result;
+    }
+
+    /**
+     * API 接口（Controller类名.方法名，或入口方法签名）可达的方法签名
+     */
+    public List<String> reachableFrom(String endpoint) {
+        BitSet methods = new BitSet(reachability.methodCount());
+        for (int e = 0; e < endpoints.size(); e++) {
+            ApiInfo api = endpoints.get(e);
+            if (endpoint.equals(api.getControllerName() + "." + api.getMethodName()) || entryMethods.get(e).contains(endpoint)) {
+                for (int id : reachability.reachableFrom(e)) {
+                    methods.set(id);
+                }
+            }
+        }
+        List<String> result = new ArrayList<>(methods.cardinality());
+        methods.stream().forEach(id -> result.add(reachability.signature(id)));
+        return result;
+    }
+
+    /**
+     * 每个接口一条：接口信息、入口方法和全部可达方法
+     */
+    public List<EndpointReach> toReport() {
+        List<EndpointReach> report = new ArrayList<>(endpoints.size());
+        for (int e = 0; e < endpoints.size(); e++) {
+            EndpointReach entry = new EndpointReach();
+            entry.setApi(endpoints.get(e));
+            entry.setEntryMethods(entryMethods.get(e));
+            int[] reachable = reachability.reachableFrom(e);
+            List<String> signatures = new ArrayList<>(reachable.length);
+            for (int id : reachable) {
+                signatures.add(reachability.signature(id));
+            }
+            entry.setReachableMethods(signatures);
+            report.add(entry);
+        }
+        return report;
+    }
+}
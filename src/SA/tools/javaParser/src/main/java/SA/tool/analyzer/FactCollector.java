@@ -0,0 +1,152 @@
+package SA.tool.analyzer;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import SA.tool.cache.FactCache;
+import SA.tool.model.ControllerAnalysisResult;
+import SA.tool.model.FileFacts;
+import SA.tool.parser.ParsedFile;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+import SA.tool.stats.VisitorEvent;
+import SA.tool.visitor.CallGraphVisitor;
+import SA.tool.visitor.DefinitionFinderVisitor;
+import SA.tool.visitor.InterfaceImplementorVisitor;
+import SA.tool.visitor.ReferenceIndexVisitor;
+import SA.tool.visitor.SymbolRangeVisitor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 为项目中的每个文件提取分析事实（方法与调用、符号定义、Controller API、接口实现关系、名字引用、声明的行区间）。
+ * 同一文件的各类事实在同一个解析任务中依次提取，AST 只解析一次。
+ * 配置了 FactCache 时，内容未变化的文件直接从缓存读取，不会被解析。
+ */
+public class FactCollector {
+
+    private final ProjectParser projectParser;
+    private final FactCache factCache; // 可为 null，表示不使用磁盘缓存
+    private final SymbolAnalyzer symbolAnalyzer = new SymbolAnalyzer();
+
+    public FactCollector(ProjectParser projectParser, FactCache factCache) {
+        this.projectParser = projectParser;
+        this.factCache = factCache;
+    }
+
+    public ProjectFacts collect(Path rootPath, Set<FactKind> kinds) throws IOException {
+        return collect(projectParser.load(rootPath), kinds);
+    }
+
+    public ProjectFacts collect(ParsedProject project) throws IOException {
+        return collect(project, FactKind.all());
+    }
+
+    public ProjectFacts collect(ParsedProject project, Set<FactKind> kinds) throws IOException {
+        Path rootPath = project.getRootPath();
+        AtomicInteger cacheHits = new AtomicInteger();
+        // 未解析的文件在这里按需解析，耗时计入本阶段
+        try (Phase phase = AnalysisStats.phase("facts")) {
+            List<FileFacts> files = collectFiles(project, rootPath, kinds, cacheHits);
+            phase.count("files", files.size()).count("cache_hits", cacheHits.get());
+            return new ProjectFacts(rootPath, files, cacheHits.get());
+        }
+    }
+
+    private List<FileFacts> collectFiles(ParsedProject project, Path rootPath, Set<FactKind> kinds,
+                                         AtomicInteger cacheHits) throws IOException {
+        return projectParser.map(project.getFiles(), file -> {
+            if (factCache == null) {
+                return extract(rootPath, file, kinds);
+            }
+            String contentHash = FactCache.contentHash(rootPath, file);
+            FileFacts cached = factCache.get(contentHash);
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                return cached;
+            }
+            FileFacts facts = extract(rootPath, file, FactKind.all());
+            facts.setContentHash(contentHash);
+            factCache.put(facts);
+            return facts;
+        });
+    }
+
+    public FileFacts extract(Path rootPath, ParsedFile file, Set<FactKind> kinds) {
+        FileFacts facts = new FileFacts();
+        facts.setFilePath(file.getRelativePath());
+        facts.setParsed(file.isSuccessful());
+        file.getCompilationUnit().ifPresent(cu -> {
+            String packageName = cu.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+            cu.getPrimaryTypeName().ifPresent(typeName ->
+                    facts.setPrimaryTypeFqn((packageName.isEmpty() ? "" : packageName + ".") + typeName));
+
+            if (kinds.contains(FactKind.METHODS)) {
+                VisitorEvent event = beginVisitor();
+                new CallGraphVisitor(rootPath, kinds.contains(FactKind.FLOWS)).visit(cu, facts.getMethods());
+                commitVisitor(event, file, FactKind.METHODS, facts.getMethods().size());
+            }
+            if (kinds.contains(FactKind.DEFINITIONS)) {
+                VisitorEvent event = beginVisitor();
+                new DefinitionFinderVisitor(rootPath).visit(cu, facts.getDefinitions());
+                commitVisitor(event, file, FactKind.DEFINITIONS, facts.getDefinitions().size());
+            }
+            if (kinds.contains(FactKind.IMPLEMENTORS)) {
+                VisitorEvent event = beginVisitor();
+                new InterfaceImplementorVisitor().visit(cu, facts.getImplementors());
+                commitVisitor(event, file, FactKind.IMPLEMENTORS, facts.getImplementors().size());
+            }
+            if (kinds.contains(FactKind.REFERENCES)) {
+                VisitorEvent event = beginVisitor();
+                new ReferenceIndexVisitor().visit(cu, facts.getReferences());
+                commitVisitor(event, file, FactKind.REFERENCES, facts.getReferences().size());
+            }
+            if (kinds.contains(FactKind.RANGES)) {
+                VisitorEvent event = beginVisitor();
+                new SymbolRangeVisitor().visit(cu, facts.getRanges());
+                commitVisitor(event, file, FactKind.RANGES, facts.getRanges().size());
+            }
+            if (kinds.contains(FactKind.CONTROLLERS)) {
+                VisitorEvent event = beginVisitor();
+                facts.setController(analyzeController(cu, rootPath));
+                commitVisitor(event, file, FactKind.CONTROLLERS,
+                        facts.getController() == null ? 0 : facts.getController().getApis().size());
+            }
+        });
+        return facts;
+    }
+
+    private static VisitorEvent beginVisitor() {
+        VisitorEvent event = new VisitorEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void commitVisitor(VisitorEvent event, ParsedFile file, FactKind kind, int facts) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file.getRelativePath();
+            event.visitor = kind.name();
+            event.facts = facts;
+            event.commit();
+        }
+    }
+
+    private ControllerAnalysisResult analyzeController(CompilationUnit cu, Path rootPath) {
+        // 查找Controller类
+        Optional<ClassOrInterfaceDeclaration> controllerClass = ApiExtractor.findControllerClass(cu);
+        if (controllerClass.isEmpty()) {
+            return null;
+        }
+        String controllerName = controllerClass.get().getNameAsString();
+        String filePath = ApiExtractor.getRelativeFilePath(cu, rootPath);
+        return symbolAnalyzer.analyzeController(cu, controllerName, filePath);
+    }
+}
@@ -0,0 +1,21 @@
+package SA.tool.analyzer;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 文件事实的种类。不使用缓存时只提取命令需要的种类；写入缓存的条目总是包含全部种类。
+ */
+public enum FactKind {
+    METHODS,      // 方法定义与调用（CG）
+    DEFINITIONS,  // 符号定义（DEF）
+    CONTROLLERS,  // Controller API（API）
+    IMPLEMENTORS, // 接口实现关系（DEF）
+    FLOWS,        // 方法内参数数据流，附加在 METHODS 的事实上（TAINT），需与 METHODS 一起提取
+    REFERENCES,   // 名字引用（REF 索引）
+    RANGES;       // 类、方法、字段声明的行区间（位置 -> 符号）
+
+    public static Set<FactKind> all() {
+        return EnumSet.allOf(FactKind.class);
+    }
+}
@@ -0,0 +1,196 @@
+package SA.tool.analyzer;
+
+import SA.tool.cache.FactCache;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.ApiImpact;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.FileFacts;
+import SA.tool.model.MethodFact;
+import SA.tool.model.SymbolRange;
+import SA.tool.parser.ProjectParser;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 变更影响分析：把改动的行区间映射到所在方法，再沿调用者方向回溯到 Controller 入口方法，
+ * 得到行为可能改变的 API 接口。
+ *
+ * 行区间按文件建立 {@link IntervalIndex}，每个区间 O(log n) 定位到方法；
+ * 每个被改动方法做一次反向 BFS，只访问它的调用者闭包，与项目规模无关。
+ */
+public class ImpactAnalyzer {
+
+    // path:L10-L20、path:10-20 或 path:10
+    private static final Pattern RANGE = Pattern.compile("(.+):L?(\\d+)(?:-L?(\\d+))?");
+
+    private final FactCollector factCollector;
+    private final ApiExtractor apiExtractor;
+    private final CallGraphAnalyzer callGraphAnalyzer;
+
+    public ImpactAnalyzer() {
+        this(new ProjectParser());
+    }
+
+    public ImpactAnalyzer(ProjectParser projectParser) {
+        this(projectParser, null);
+    }
+
+    public ImpactAnalyzer(ProjectParser projectParser, FactCache factCache) {
+        this(projectParser, factCache, CallGraphAnalyzer.CalleeSelection.FIRST);
+    }
+
+    public ImpactAnalyzer(ProjectParser projectParser, FactCache factCache, CallGraphAnalyzer.CalleeSelection calleeSelection) {
+        this.factCollector = new FactCollector(projectParser, factCache);
+        this.apiExtractor = new ApiExtractor(projectParser, factCache);
+        this.callGraphAnalyzer = new CallGraphAnalyzer(projectParser, factCache, calleeSelection);
+    }
+
+    public List<ApiImpact> analyze(String targetPath, List<String> ranges) throws IOException {
+        return analyze(factCollector.collect(Paths.get(targetPath), EnumSet.of(FactKind.METHODS, FactKind.CONTROLLERS, FactKind.RANGES)), ranges);
+    }
+
+    public List<ApiImpact> analyze(ProjectFacts facts, List<String> ranges) throws IOException {
+        List<ApiInfo> apis = apiExtractor.extractApiInfo(facts, null);
+        CallGraph graph = callGraphAnalyzer.buildCompactGraph(facts);
+        return analyze(facts, apis, graph, ranges);
+    }
+
+    /**
+     * @param ranges 改动的行区间，格式为 {@code 文件:L起始-L结束}、{@code 文件:起始-结束} 或 {@code 文件:行}；
+     *               文件可以是相对项目根目录的路径、绝对路径或路径后缀
+     * @return 受影响的接口，保持 apis 中的顺序
+     */
+    public List<ApiImpact> analyze(ProjectFacts facts, List<ApiInfo> apis, CallGraph graph, List<String> ranges) {
+        try (Phase phase = AnalysisStats.phase("impact")) {
+            int[] changed = changedMethods(methodIndex(facts, graph), SymbolRanges.build(facts), ranges);
+
+            // 入口方法 ID -> 接口下标
+            Map<Integer, List<Integer>> apisByEntry = new HashMap<>();
+            for (int i = 0; i < apis.size(); i++) {
+                for (int entry : graph.findMethods(apis.get(i))) {
+                    apisByEntry.computeIfAbsent(entry, k -> new ArrayList<>()).add(i);
+                }
+            }
+
+            List<Set<String>> changedByApi = new ArrayList<>(apis.size());
+            for (int i = 0; i < apis.size(); i++) {
+                changedByApi.add(null);
+            }
+            int[] stamp = new int[graph.size()];
+            Arrays.fill(stamp, -1);
+            int[] queue = new int[graph.size()];
+            int visited = 0;
+            for (int k = 0; k < changed.length; k++) {
+                int tail = 0;
+                queue[tail++] = changed[k];
+                stamp[changed[k]] = k;
+                for (int head = 0; head < tail; head++) {
+                    int node = queue[head];
+                    List<Integer> entryOf = apisByEntry.get(node);
+                    if (entryOf != null) {
+                        for (int api : entryOf) {
+                            if (changedByApi.get(api) == null) {
+                                changedByApi.set(api, new LinkedHashSet<>());
+                            }
+                            changedByApi.get(api).add(graph.signature(changed[k]));
+                        }
+                    }
+                    for (int caller : graph.callers(node)) {
+                        if (stamp[caller] != k) {
+                            stamp[caller] = k;
+                            queue[tail++] = caller;
+                        }
+                    }
+                }
+                visited += tail;
+            }
+
+            List<ApiImpact> result = new ArrayList<>();
+            for (int i = 0; i < apis.size(); i++) {
+                if (changedByApi.get(i) != null) {
+                    ApiImpact impact = new ApiImpact();
+                    impact.setApi(apis.get(i));
+                    impact.setChangedMethods(new ArrayList<>(changedByApi.get(i)));
+                    result.add(impact);
+                }
+            }
+            phase.count("changed_methods", changed.length).count("visited", visited).count("apis", result.size());
+            return result;
+        }
+    }
+
+    /**
+     * 每个方法声明的行区间 -> 调用图中的方法 ID
+     */
+    private static IntervalIndex<Integer> methodIndex(ProjectFacts facts, CallGraph graph) {
+        IntervalIndex.Builder<Integer> builder = IntervalIndex.builder();
+        for (FileFacts file : facts.getFiles()) {
+            for (MethodFact method : file.getMethods()) {
+                int id = graph.idOf(method.getMethodSignature());
+                int[] lines = lineRange(method.getCodePos());
+                if (id >= 0 && lines != null) {
+                    builder.add(file.getFilePath(), lines[0], lines[1], id);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 与改动区间相交的方法 ID（去重，按首次出现排序）。区间落在方法之外（字段初始化、注解等）时，
+     * 保守地视为影响所在类的全部方法，落在类之外（import 等）时视为影响整个文件；无法定位的区间输出到 stderr
+     */
+    private static int[] changedMethods(IntervalIndex<Integer> index, SymbolRanges symbols, List<String> ranges) {
+        Set<Integer> changed = new LinkedHashSet<>();
+        for (String range : ranges) {
+            Matcher matcher = RANGE.matcher(range.trim());
+            if (!matcher.matches()) {
+                System.err.println("Invalid range: " + range);
+                continue;
+            }
+            String file = index.resolveFile(matcher.group(1));
+            if (file == null) {
+                System.err.println("No methods found for range: " + range);
+                continue;
+            }
+            int begin = Integer.parseInt(matcher.group(2));
+            int end = matcher.group(3) != null ? Integer.parseInt(matcher.group(3)) : begin;
+            List<Integer> methods = index.overlapping(file, Math.min(begin, end), Math.max(begin, end));
+            if (methods.isEmpty()) {
+                SymbolRange type = symbols.innermost(file, Math.min(begin, end), SymbolRanges.TYPE_KINDS);
+                methods = type != null
+                        ? index.overlapping(file, type.getBeginLine(), type.getEndLine())
+                        : index.overlapping(file, 1, Integer.MAX_VALUE);
+            }
+            changed.addAll(methods);
+        }
+        return changed.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * "文件:L起始-L结束" 中的行区间，格式不符时返回 null
+     */
+    static int[] lineRange(String codePos) {
+        if (codePos == null) {
+            return null;
+        }
+        Matcher matcher = RANGE.matcher(codePos);
+        if (!matcher.matches() || matcher.group(3) == null) {
+            return null;
+        }
+        return new int[]{Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3))};
+    }
+}
@@ -0,0 +1,182 @@
+package SA.tool.analyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按文件的行区间索引，用于"某行属于哪个方法/类"的查询。
+ *
+ * 源码中的类、方法、字段区间要么嵌套要么不相交，每个文件的区间按（起始行升序，结束行降序）排序，
+ * 并记录父区间（包含它的最内层区间）。查询某行时二分找到最后一个起始行不大于该行的区间，
+ * 沿父指针上溯到第一个包含该行的区间，代价为 O(log n + 嵌套深度)。
+ */
+public final class IntervalIndex<T> {
+
+    private final Map<String, FileIntervals<T>> files;
+
+    private IntervalIndex(Map<String, FileIntervals<T>> files) {
+        this.files = files;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public boolean containsFile(String file) {
+        return files.containsKey(file);
+    }
+
+    /**
+     * 按查询串确定索引中的文件：相对路径精确匹配，否则按路径后缀匹配（查询串可以是绝对路径或更短的相对路径）
+     *
+     * @return 匹配的文件，没有或有多个匹配时返回 null
+     */
+    public String resolveFile(String spec) {
+        String normalized = spec.replace('\\', '/');
+        if (files.containsKey(normalized)) {
+            return normalized;
+        }
+        String match = null;
+        for (String file : files.keySet()) {
+            String path = file.replace('\\', '/');
+            if (path.endsWith("/" + normalized) || normalized.endsWith("/" + path)) {
+                if (match != null) {
+                    return null;
+                }
+                match = file;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * 包含该行的最内层区间的值，没有时返回 null
+     */
+    public T innermost(String file, int line) {
+        FileIntervals<T> intervals = files.get(file);
+        if (intervals == null) {
+            return null;
+        }
+        int i = intervals.innermost(line);
+        return i >= 0 ? intervals.values[i] : null;
+    }
+
+    /**
+     * 包含该行的全部区间的值，由内到外
+     */
+    public List<T> enclosing(String file, int line) {
+        FileIntervals<T> intervals = files.get(file);
+        if (intervals == null) {
+            return Collections.emptyList();
+        }
+        List<T> result = new ArrayList<>();
+        for (int i = intervals.innermost(line); i >= 0; i = intervals.parents[i]) {
+            result.add(intervals.values[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 与行区间 [begin, end] 相交的全部区间的值，按起始行排序（外层在前）
+     */
+    public List<T> overlapping(String file, int begin, int end) {
+        FileIntervals<T> intervals = files.get(file);
+        if (intervals == null) {
+            return Collections.emptyList();
+        }
+        // 起始行在 begin 之前的相交区间都包含 begin 行，即 begin 处的外层链
+        List<T> result = new ArrayList<>();
+        for (int i = intervals.innermost(begin); i >= 0; i = intervals.parents[i]) {
+            if (intervals.begins[i] < begin) {
+                result.add(intervals.values[i]);
+            }
+        }
+        Collections.reverse(result);
+        // 其余相交区间的起始行落在 [begin, end] 内，在排序后的数组中连续
+        for (int i = intervals.firstBeginAtLeast(begin); i < intervals.begins.length && intervals.begins[i] <= end; i++) {
+            result.add(intervals.values[i]);
+        }
+        return result;
+    }
+
+    public static final class Builder<T> {
+        private final Map<String, List<Interval<T>>> files = new HashMap<>();
+
+        public Builder<T> add(String file, int begin, int end, T value) {
+            files.computeIfAbsent(file, k -> new ArrayList<>()).add(new Interval<>(begin, end, value));
+            return this;
+        }
+
+        public IntervalIndex<T> build() {
+            Map<String, FileIntervals<T>> built = new HashMap<>(files.size() * 2);
+            files.forEach((file, intervals) -> built.put(file, FileIntervals.of(intervals)));
+            return new IntervalIndex<>(built);
+        }
+    }
+
+    private record Interval<T>(int begin, int end, T value) {
+    }
+
+    private static final class FileIntervals<T> {
+        final int[] begins;
+        final int[] ends;
+        final int[] parents; // 包含该区间的最内层区间下标，-1 表示顶层
+        final T[] values;
+
+        private FileIntervals(int[] begins, int[] ends, int[] parents, T[] values) {
+            this.begins = begins;
+            this.ends = ends;
+            this.parents = parents;
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> FileIntervals<T> of(List<Interval<T>> intervals) {
+            List<Interval<T>> sorted = new ArrayList<>(intervals);
+            sorted.sort((a, b) -> a.begin() != b.begin() ? Integer.compare(a.begin(), b.begin()) : Integer.compare(b.end(), a.end()));
+            int n = sorted.size();
+            int[] begins = new int[n];
+            int[] ends = new int[n];
+            int[] parents = new int[n];
+            T[] values = (T[]) new Object[n];
+            int[] stack = new int[n];
+            int depth = 0;
+            for (int i = 0; i < n; i++) {
+                Interval<T> interval = sorted.get(i);
+                begins[i] = interval.begin();
+                ends[i] = interval.end();
+                values[i] = interval.value();
+                // 栈中保存当前区间的外层链，结束得比当前区间早的不再是外层
+                while (depth > 0 && ends[stack[depth - 1]] < ends[i]) {
+                    depth--;
+                }
+                parents[i] = depth > 0 ? stack[depth - 1] : -1;
+                stack[depth++] = i;
+            }
+            return new FileIntervals<>(begins, ends, parents, values);
+        }
+
+        int innermost(int line) {
+            int i = firstBeginAtLeast(line + 1) - 1; // 最后一个起始行不大于 line 的区间
+            while (i >= 0 && ends[i] < line) {
+                i = parents[i];
+            }
+            return i;
+        }
+
+        int firstBeginAtLeast(int line) {
+            int index = Arrays.binarySearch(begins, line);
+            if (index < 0) {
+                return -index - 1;
+            }
+            while (index > 0 && begins[index - 1] == line) {
+                index--;
+            }
+            return index;
+        }
+    }
+}
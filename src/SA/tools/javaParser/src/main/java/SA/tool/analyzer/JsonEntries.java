@@ -0,0 +1,105 @@
+package SA.tool.analyzer;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 缩进输出（INDENT_OUTPUT）的 JSON 对象文件按顶层键拆成条目文本，替换部分条目后按给定顺序拼回。
+ *
+ * 顶层条目以换行加两个空格和引号开始，更深的行缩进更多，字符串中的换行已转义，因此拆分只需查找该前缀。
+ * 拼回的结果与 ObjectMapper 直接输出整个 Map 逐字节相同；未替换的条目不做反序列化。
+ */
+final class JsonEntries {
+
+    private static final String NEWLINE = System.lineSeparator(); // DefaultPrettyPrinter 使用系统换行符
+    private static final String ENTRY_START = NEWLINE + "  \"";
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, String> entries = new HashMap<>(); // 键 -> 条目文本（含缩进，不含分隔的逗号）
+
+    private JsonEntries(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    static JsonEntries read(Path file, ObjectMapper objectMapper) throws IOException {
+        JsonEntries result = new JsonEntries(objectMapper);
+        String json = Files.readString(file, StandardCharsets.UTF_8);
+        int start = json.indexOf(ENTRY_START);
+        while (start >= 0) {
+            int next = json.indexOf(ENTRY_START, start + 1);
+            // 中间的条目以 "," 结束，最后一个条目之后是换行和 "}"
+            int end = next >= 0 ? next - 1 : json.length() - NEWLINE.length() - 1;
+            String text = json.substring(start + NEWLINE.length(), end);
+            result.entries.put(result.key(text), text);
+            start = next;
+        }
+        return result;
+    }
+
+    /**
+     * 条目文本开头的键：两个空格之后的 JSON 字符串
+     */
+    private String key(String text) throws IOException {
+        int end = 3;
+        boolean escaped = false;
+        while (text.charAt(end) != '"') {
+            escaped |= text.charAt(end) == '\\';
+            end += text.charAt(end) == '\\' ? 2 : 1;
+        }
+        return escaped ? objectMapper.readValue(text.substring(2, end + 1), String.class) : text.substring(3, end);
+    }
+
+    Set<String> keys() {
+        return entries.keySet();
+    }
+
+    /**
+     * 反序列化一个条目的值，键不存在时返回 null
+     */
+    <T> T value(String key, JavaType type) throws IOException {
+        String text = entries.get(key);
+        if (text == null) {
+            return null;
+        }
+        JavaType mapType = objectMapper.getTypeFactory().constructMapType(HashMap.class,
+                objectMapper.getTypeFactory().constructType(String.class), type);
+        Map<String, T> entry = objectMapper.readValue("{" + text + "}", mapType);
+        return entry.get(key);
+    }
+
+    void put(String key, Object value) throws IOException {
+        String json = objectMapper.writeValueAsString(Collections.singletonMap(key, value));
+        entries.put(key, json.substring(1 + NEWLINE.length(), json.length() - NEWLINE.length() - 1));
+    }
+
+    void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * 按 keys 的顺序写出条目；keys 中的每个键都必须有条目
+     */
+    void write(Path file, Iterable<String> keys) throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        boolean first = true;
+        for (String key : keys) {
+            String text = entries.get(key);
+            if (text == null) {
+                throw new IllegalStateException("No entry for " + key + " in " + file);
+            }
+            json.append(first ? "" : ",").append(NEWLINE).append(text);
+            first = false;
+        }
+        json.append(first ? " }" : NEWLINE + "}");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,597 @@
+package SA.tool.analyzer;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.CallFact;
+import SA.tool.model.CallGraphNode;
+import SA.tool.model.DefinitionInfo;
+import SA.tool.model.FileFacts;
+import SA.tool.model.FileKeys;
+import SA.tool.model.MethodFact;
+import SA.tool.model.ReferenceInfo;
+import SA.tool.model.SourceManifest;
+import SA.tool.parser.ParsedProject;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * ALL -incremental 的输出修补：由清单中每个文件的键（{@link FileKeys}）找出受变化文件影响的输出键，
+ * 只重新计算这些键的值，其余条目保留上次输出的文本（{@link JsonEntries}）。结果与全量分析逐字节相同。
+ *
+ * 定义、实现类和引用的每个值都是各文件贡献的条目按文件顺序拼接：未变化文件的部分按清单中的条数从旧值切出，
+ * 变化文件的部分由它们的事实重新计算。
+ *
+ * 调用图中，调用点的目标只取决于调用的方法名和参数个数的候选方法。重新解析调用点的方法为：变化文件中的方法，
+ * 以及方法声明的变化改变了某个名字的解析结果时调用该名字的文件中的方法；调用者列表需要重算的是这些调用点的旧目标和新目标。
+ * 两者都在只含相关文件的子图上求出（被调用名字的候选方法只需声明，取自清单），其余节点原样保留。
+ */
+final class OutputPatch {
+
+    /**
+     * 按相对路径取回文件的事实（未变化的文件，从事实缓存或重新解析），结果与参数顺序相同
+     */
+    interface FactLoader {
+        List<FileFacts> load(List<String> paths) throws IOException;
+    }
+
+    private final Path rootPath;
+    private final ObjectMapper objectMapper;
+    private final CallGraphAnalyzer callGraphAnalyzer;
+    private final FactLoader loader;
+    private final List<SourceManifest.Entry> before; // 上次的清单
+    private final List<SourceManifest.Entry> after; // 本次的清单
+    private final Map<String, SourceManifest.Entry> beforeByPath = new HashMap<>();
+    private final Map<String, Integer> afterIndex = new HashMap<>(); // 相对路径 -> 本次的文件顺序
+    private final Set<String> dirty; // 变化的文件（上次或本次存在）
+    private final ProjectFacts changedFacts; // 变化文件的事实，按文件顺序
+    private final ParsedProject changedProject;
+    private final Map<String, FileFacts> facts = new HashMap<>(); // 已取回的事实
+    private int loadedFiles;
+
+    OutputPatch(Path rootPath, ObjectMapper objectMapper, CallGraphAnalyzer callGraphAnalyzer, FactLoader loader,
+                List<SourceManifest.Entry> before, List<SourceManifest.Entry> after, Set<String> dirty,
+                ProjectFacts changedFacts, ParsedProject changedProject) {
+        this.rootPath = rootPath;
+        this.objectMapper = objectMapper;
+        this.callGraphAnalyzer = callGraphAnalyzer;
+        this.loader = loader;
+        this.before = before;
+        this.after = after;
+        for (SourceManifest.Entry entry : before) {
+            beforeByPath.put(entry.getPath(), entry);
+        }
+        for (int i = 0; i < after.size(); i++) {
+            afterIndex.put(after.get(i).getPath(), i);
+        }
+        this.dirty = dirty;
+        this.changedFacts = changedFacts;
+        this.changedProject = changedProject;
+        for (FileFacts file : changedFacts.getFiles()) {
+            facts.put(file.getFilePath(), file);
+        }
+    }
+
+    /**
+     * 为修补额外取回事实的未变化文件数
+     */
+    int loadedFiles() {
+        return loadedFiles;
+    }
+
+    void patchDefinitions(Path file) throws IOException {
+        JsonEntries entries = JsonEntries.read(file, objectMapper);
+        Map<String, List<DefinitionInfo>> changed = SymbolIndex.build(changedFacts).definitionsByName();
+        JavaType type = listOf(DefinitionInfo.class);
+        Set<String> names = affected(keys -> keys.getDefinitions().keySet());
+        Counts counts = new Counts(FileKeys::getDefinitions, names);
+        for (String name : names) {
+            List<DefinitionInfo> value = merge(name, entries.value(name, type), counts, changed.getOrDefault(name, List.of()),
+                    facts -> SymbolIndex.build(facts).definitionsByName().getOrDefault(name, List.of()));
+            put(entries, name, value);
+        }
+        entries.write(file, new TreeSet<>(entries.keys()));
+    }
+
+    void patchImplementors(Path file) throws IOException {
+        JsonEntries entries = JsonEntries.read(file, objectMapper);
+        Map<String, List<String>> changed = SymbolIndex.build(changedFacts).allImplementors();
+        JavaType type = listOf(String.class);
+        Set<String> interfaces = affected(keys -> keys.getImplementors().keySet());
+        Counts counts = new Counts(FileKeys::getImplementors, interfaces);
+        for (String name : interfaces) {
+            List<String> value = merge(name, entries.value(name, type), counts, changed.getOrDefault(name, List.of()),
+                    facts -> SymbolIndex.build(facts).allImplementors().getOrDefault(name, List.of()));
+            put(entries, name, value);
+        }
+        entries.write(file, new TreeSet<>(entries.keys()));
+    }
+
+    /**
+     * 受影响的名字还包括变化文件中定义的类型和成员名：名字是否输出引用取决于项目中是否有这样的定义
+     */
+    void patchReferences(Path file) throws IOException {
+        JsonEntries entries = JsonEntries.read(file, objectMapper);
+        ReferenceIndex changed = ReferenceIndex.build(changedFacts, changedProject);
+        JavaType type = listOf(ReferenceInfo.class);
+        Set<String> names = affected(keys -> keys.getReferences().keySet());
+        names.addAll(affected(FileKeys::getMemberDefinitions));
+        Counts counts = new Counts(FileKeys::getReferences, names);
+        Postings members = new Postings(after, FileKeys::getMemberDefinitions, names);
+        for (String name : names) {
+            List<ReferenceInfo> value = List.of();
+            if (!members.files(name).isEmpty()) {
+                value = merge(name, entries.value(name, type), counts, changed.lookup(name),
+                        facts -> ReferenceIndex.build(facts, null).lookup(name));
+            }
+            put(entries, name, value);
+        }
+        entries.write(file, new TreeSet<>(entries.keys()));
+    }
+
+    void patchCallGraph(Path file) throws IOException {
+        JsonEntries graph = JsonEntries.read(file, objectMapper);
+        Postings signatures = new Postings(after, OutputPatch::signatures, null);
+        Postings previousSignatures = new Postings(before, OutputPatch::signatures, null);
+        Postings declaring = new Postings(after, OutputPatch::methodNames, null);
+        Postings calling = new Postings(after, FileKeys::getCallNames, null);
+
+        // 声明有变化的方法名：这些名字的候选方法或其顺序可能变化。文件中同名的声明序列不变时，
+        // 这些声明的首次出现位置和相对其他文件中声明的顺序都不变
+        Set<String> changedNames = new HashSet<>();
+        TreeSet<Integer> recomputedFiles = new TreeSet<>();
+        Set<String> recomputed = new HashSet<>(); // 重新解析调用点的方法
+        for (String path : dirty) {
+            List<FileKeys.MethodKey> previousMethods = methods(beforeByPath.get(path));
+            Integer index = afterIndex.get(path);
+            List<FileKeys.MethodKey> currentMethods = index == null ? List.of() : after.get(index).getKeys().getMethods();
+            if (!previousMethods.equals(currentMethods)) {
+                Map<String, List<FileKeys.MethodKey>> previousByName = byName(previousMethods);
+                Map<String, List<FileKeys.MethodKey>> currentByName = byName(currentMethods);
+                for (String name : union(previousByName.keySet(), currentByName.keySet())) {
+                    if (!previousByName.getOrDefault(name, List.of()).equals(currentByName.getOrDefault(name, List.of()))) {
+                        changedNames.add(name);
+                    }
+                }
+            }
+            previousMethods.forEach(method -> recomputed.add(method.getSignature()));
+            if (index != null) {
+                recomputedFiles.add(index);
+            }
+        }
+        // 其中各参数个数的调用实际连接的方法（FIRST 时只有第一个候选）不变的名字，调用它们的方法不必重新解析
+        Postings previousDeclaring = new Postings(before, OutputPatch::methodNames, changedNames);
+        changedNames.removeIf(name -> {
+            int arities = Math.max(maxParameterCount(name, before, previousDeclaring), maxParameterCount(name, after, declaring)) + 1;
+            return resolutions(name, before, previousDeclaring, arities).equals(resolutions(name, after, declaring, arities));
+        });
+        for (String name : changedNames) {
+            recomputedFiles.addAll(calling.files(name));
+        }
+        for (int index : recomputedFiles) {
+            recomputed.addAll(signatures(after.get(index).getKeys()));
+        }
+
+        // 子图：重新解析的方法的全部声明文件取完整的事实，它们调用的名字的全部声明文件只需方法声明（取自清单）
+        TreeSet<Integer> graphFiles = new TreeSet<>(recomputedFiles);
+        TreeSet<Integer> declarationFiles = new TreeSet<>();
+        for (String signature : recomputed) {
+            graphFiles.addAll(signatures.files(signature));
+        }
+        for (FileFacts fileFacts : load(graphFiles).getFiles()) {
+            for (MethodFact method : fileFacts.getMethods()) {
+                if (recomputed.contains(method.getMethodSignature())) {
+                    for (CallFact call : method.getCalls()) {
+                        declarationFiles.addAll(declaring.files(call.getMethodName()));
+                    }
+                }
+            }
+        }
+        CallGraph subgraph = subgraph(graphFiles, declarationFiles);
+
+        Map<String, CallGraphNode> previousNodes = new HashMap<>();
+        JavaType nodeType = objectMapper.getTypeFactory().constructType(CallGraphNode.class);
+        for (String signature : recomputed) {
+            previousNodes.put(signature, graph.value(signature, nodeType));
+        }
+        Set<String> retargeted = new HashSet<>(); // 调用者列表需要重算的方法
+        for (String signature : recomputed) {
+            CallGraphNode previous = previousNodes.get(signature);
+            if (previous != null) {
+                previous.getCallSites().forEach(site -> retargeted.add(site.getTargetMethod()));
+            }
+            int id = subgraph.idOf(signature);
+            if (id >= 0) {
+                for (int callee : subgraph.callees(id)) {
+                    retargeted.add(subgraph.signature(callee));
+                }
+            }
+        }
+
+        // 调用者有同签名的多个声明时，调用者的顺序取决于各声明所在的文件，改为载入调用该名字的全部文件求出
+        Set<String> exhaustive = new HashSet<>();
+        for (String signature : retargeted) {
+            if (!previousNodes.containsKey(signature)) {
+                previousNodes.put(signature, graph.value(signature, nodeType));
+            }
+            int id = subgraph.idOf(signature);
+            if (id < 0) {
+                continue;
+            }
+            List<String> callers = new ArrayList<>(signatures(subgraph, subgraph.callers(id)));
+            CallGraphNode previous = previousNodes.get(signature);
+            if (previous != null) {
+                callers.addAll(previous.getCallers());
+            }
+            boolean duplicated = callers.stream().anyMatch(caller ->
+                    signatures.files(caller).size() > 1 || previousSignatures.files(caller).size() > 1);
+            if (duplicated) {
+                exhaustive.add(signature);
+                graphFiles.addAll(calling.files(subgraph.methodName(id)));
+                declarationFiles.addAll(declaring.files(subgraph.methodName(id)));
+            }
+        }
+        if (!exhaustive.isEmpty()) {
+            subgraph = subgraph(graphFiles, declarationFiles);
+        }
+
+        Set<String> patched = new HashSet<>(recomputed);
+        patched.addAll(retargeted);
+        for (String signature : patched) {
+            if (signatures.files(signature).isEmpty()) {
+                graph.remove(signature); // 方法已删除
+                continue;
+            }
+            CallGraphNode previous = previousNodes.get(signature);
+            CallGraphNode node = recomputed.contains(signature) ? subgraph.toNode(subgraph.idOf(signature)) : previous;
+            if (retargeted.contains(signature)) {
+                node.setCallers(callers(signature, subgraph, previous, recomputed, exhaustive.contains(signature), signatures));
+            } else {
+                node.setCallers(previous != null ? previous.getCallers() : new ArrayList<>());
+            }
+            graph.put(signature, node);
+        }
+
+        // 节点按方法首次声明的顺序排列
+        Set<String> order = new LinkedHashSet<>();
+        for (SourceManifest.Entry entry : after) {
+            order.addAll(signatures(entry.getKeys()));
+        }
+        graph.write(file, order);
+    }
+
+    /**
+     * 由 graphFiles 的事实和其余 declarationFiles 的方法声明构建子图，文件按项目中的顺序
+     */
+    private CallGraph subgraph(Set<Integer> graphFiles, Set<Integer> declarationFiles) throws IOException {
+        Map<Integer, FileFacts> loaded = new HashMap<>();
+        List<Integer> ordered = new ArrayList<>(graphFiles);
+        List<FileFacts> graphFacts = load(ordered).getFiles();
+        for (int i = 0; i < ordered.size(); i++) {
+            loaded.put(ordered.get(i), graphFacts.get(i));
+        }
+        TreeSet<Integer> indexes = new TreeSet<>(graphFiles);
+        indexes.addAll(declarationFiles);
+        List<FileFacts> files = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            FileFacts file = loaded.get(index);
+            files.add(file != null ? file : declarations(after.get(index)));
+        }
+        return callGraphAnalyzer.buildCompactGraph(new ProjectFacts(rootPath, files, 0));
+    }
+
+    /**
+     * 只含方法声明的文件事实：在子图中只作为候选方法，节点的类名和位置不会输出
+     */
+    private static FileFacts declarations(SourceManifest.Entry entry) {
+        FileFacts file = new FileFacts();
+        file.setFilePath(entry.getPath());
+        for (FileKeys.MethodKey key : entry.getKeys().getMethods()) {
+            MethodFact method = new MethodFact();
+            method.setMethodSignature(key.getSignature());
+            method.setMethodName(key.getName());
+            method.setParameterCount(key.getParameterCount());
+            method.setVarargs(key.isVarargs());
+            file.getMethods().add(method);
+        }
+        return file;
+    }
+
+    /**
+     * 方法的新调用者列表。调用者都只有一个声明时，调用边按调用者所在的文件顺序加入：
+     * 未重新解析的调用者沿用旧列表中的顺序，重新解析的调用者取子图中的顺序，两者按文件归并
+     */
+    private static List<String> callers(String signature, CallGraph subgraph, CallGraphNode previous, Set<String> recomputed,
+                                        boolean exhaustive, Postings signatures) {
+        int id = subgraph.idOf(signature);
+        // 不在子图中的方法不再被重新解析的方法调用
+        List<String> current = id >= 0 ? signatures(subgraph, subgraph.callers(id)) : List.of();
+        if (exhaustive) {
+            return current;
+        }
+        List<String> kept = new ArrayList<>();
+        if (previous != null) {
+            for (String caller : previous.getCallers()) {
+                if (!recomputed.contains(caller)) {
+                    kept.add(caller);
+                }
+            }
+        }
+        List<String> added = new ArrayList<>();
+        for (String caller : current) {
+            if (recomputed.contains(caller)) {
+                added.add(caller);
+            }
+        }
+        List<String> merged = new ArrayList<>(kept.size() + added.size());
+        int i = 0;
+        int j = 0;
+        while (i < kept.size() || j < added.size()) {
+            boolean takeKept = j == added.size() || (i < kept.size()
+                    && signatures.files(kept.get(i)).get(0) < signatures.files(added.get(j)).get(0));
+            merged.add(takeKept ? kept.get(i++) : added.get(j++));
+        }
+        return merged;
+    }
+
+    /**
+     * 键 key 的新值：未变化文件的部分从旧值按各文件的条数切出，变化文件的部分取自 changed，按文件顺序拼接。
+     * 上次没有输出该键（如名字刚成为项目中的成员名）而未变化的文件中有条目时，由 compute 从这些文件的事实求出
+     */
+    private <T> List<T> merge(String key, List<T> previous, Counts counts, List<T> changed,
+                              Function<ProjectFacts, List<T>> compute) throws IOException {
+        TreeMap<Integer, List<T>> segments = new TreeMap<>();
+        List<String> unchanged = new ArrayList<>();
+        int offset = 0;
+        for (int index : counts.before.files(key)) {
+            SourceManifest.Entry entry = before.get(index);
+            int count = counts.of(entry, key);
+            if (!dirty.contains(entry.getPath())) {
+                if (previous == null) {
+                    unchanged.add(entry.getPath());
+                } else if (offset + count <= previous.size()) {
+                    segments.put(afterIndex.get(entry.getPath()), previous.subList(offset, offset + count));
+                }
+            }
+            offset += count;
+        }
+        if (previous != null && offset != previous.size()) {
+            throw new IllegalStateException("Output for " + key + " does not match the manifest");
+        }
+        List<String> changedFiles = new ArrayList<>();
+        for (int index : counts.after.files(key)) {
+            if (dirty.contains(after.get(index).getPath())) {
+                changedFiles.add(after.get(index).getPath());
+            }
+        }
+        split(key, changed, changedFiles, counts, segments);
+        if (!unchanged.isEmpty()) {
+            split(key, compute.apply(load(unchanged)), unchanged, counts, segments);
+        }
+        List<T> result = new ArrayList<>();
+        segments.values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * 按文件顺序排列的条目按各文件的条数切分
+     */
+    private <T> void split(String key, List<T> items, List<String> paths, Counts counts, Map<Integer, List<T>> segments) {
+        int offset = 0;
+        for (String path : paths) {
+            int index = afterIndex.get(path);
+            int count = counts.of(after.get(index), key);
+            if (offset + count > items.size()) {
+                break;
+            }
+            segments.put(index, items.subList(offset, offset + count));
+            offset += count;
+        }
+        if (offset != items.size()) {
+            throw new IllegalStateException("Facts for " + key + " do not match the manifest");
+        }
+    }
+
+    private static <T> void put(JsonEntries entries, String key, List<T> value) throws IOException {
+        if (value.isEmpty()) {
+            entries.remove(key);
+        } else {
+            entries.put(key, value);
+        }
+    }
+
+    /**
+     * 变化文件在上次或本次贡献的键
+     */
+    private Set<String> affected(Function<FileKeys, Collection<String>> keys) {
+        Set<String> result = new HashSet<>();
+        for (String path : dirty) {
+            SourceManifest.Entry previous = beforeByPath.get(path);
+            if (previous != null) {
+                result.addAll(keys.apply(previous.getKeys()));
+            }
+            Integer index = afterIndex.get(path);
+            if (index != null) {
+                result.addAll(keys.apply(after.get(index).getKeys()));
+            }
+        }
+        return result;
+    }
+
+    private ProjectFacts load(Collection<Integer> indexes) throws IOException {
+        List<String> paths = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            paths.add(after.get(index).getPath());
+        }
+        return load(paths);
+    }
+
+    /**
+     * 取回文件的事实，结果按 paths 的顺序
+     */
+    private ProjectFacts load(List<String> paths) throws IOException {
+        List<String> missing = new ArrayList<>();
+        for (String path : paths) {
+            if (!facts.containsKey(path)) {
+                missing.add(path);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<FileFacts> loaded = loader.load(missing);
+            for (int i = 0; i < missing.size(); i++) {
+                facts.put(missing.get(i), loaded.get(i));
+            }
+            loadedFiles += missing.size();
+        }
+        List<FileFacts> files = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            files.add(facts.get(path));
+        }
+        return new ProjectFacts(rootPath, files, 0);
+    }
+
+    private JavaType listOf(Class<?> elementType) {
+        return objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
+    private static List<FileKeys.MethodKey> methods(SourceManifest.Entry entry) {
+        return entry == null ? List.of() : entry.getKeys().getMethods();
+    }
+
+    /**
+     * 方法名在 0 到 arities 个参数的调用中连接的方法，与 CallGraphAnalyzer 的候选查找相同：
+     * 同签名的方法取首次声明，参数个数相同的方法按声明顺序在前，可变参数方法在后。
+     * 超过 arities 个参数的调用只可能连接可变参数方法，结果与 arities 个参数时相同
+     */
+    private List<List<String>> resolutions(String name, List<SourceManifest.Entry> entries, Postings declaring, int arities) {
+        List<FileKeys.MethodKey> methods = declarations(name, entries, declaring);
+        List<List<String>> result = new ArrayList<>(arities + 1);
+        for (int argCount = 0; argCount <= arities; argCount++) {
+            List<String> candidates = new ArrayList<>();
+            for (FileKeys.MethodKey method : methods) {
+                if (!method.isVarargs() && method.getParameterCount() == argCount) {
+                    candidates.add(method.getSignature());
+                }
+            }
+            for (FileKeys.MethodKey method : methods) {
+                if (method.isVarargs() && argCount >= method.getParameterCount() - 1) {
+                    candidates.add(method.getSignature());
+                }
+            }
+            if (callGraphAnalyzer.getCalleeSelection() == CallGraphAnalyzer.CalleeSelection.FIRST && candidates.size() > 1) {
+                candidates = candidates.subList(0, 1);
+            }
+            result.add(candidates);
+        }
+        return result;
+    }
+
+    private static int maxParameterCount(String name, List<SourceManifest.Entry> entries, Postings declaring) {
+        int max = 0;
+        for (FileKeys.MethodKey method : declarations(name, entries, declaring)) {
+            max = Math.max(max, method.getParameterCount());
+        }
+        return max;
+    }
+
+    /**
+     * 方法名的声明，按文件和文件内的顺序，同签名的只取第一个
+     */
+    private static List<FileKeys.MethodKey> declarations(String name, List<SourceManifest.Entry> entries, Postings declaring) {
+        List<FileKeys.MethodKey> methods = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int index : declaring.files(name)) {
+            for (FileKeys.MethodKey method : entries.get(index).getKeys().getMethods()) {
+                if (method.getName().equals(name) && seen.add(method.getSignature())) {
+                    methods.add(method);
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static List<String> methodNames(FileKeys keys) {
+        return keys.getMethods().stream().map(FileKeys.MethodKey::getName).toList();
+    }
+
+    private static Map<String, List<FileKeys.MethodKey>> byName(List<FileKeys.MethodKey> methods) {
+        Map<String, List<FileKeys.MethodKey>> result = new HashMap<>();
+        for (FileKeys.MethodKey method : methods) {
+            result.computeIfAbsent(method.getName(), k -> new ArrayList<>()).add(method);
+        }
+        return result;
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        Set<String> result = new HashSet<>(first);
+        result.addAll(second);
+        return result;
+    }
+
+    private static List<String> signatures(FileKeys keys) {
+        return keys.getMethods().stream().map(FileKeys.MethodKey::getSignature).toList();
+    }
+
+    private static List<String> signatures(CallGraph graph, int[] ids) {
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(graph.signature(id));
+        }
+        return result;
+    }
+
+    /**
+     * 键 -> 包含该键的文件（按文件顺序）；wanted 为 null 时索引全部键
+     */
+    private static final class Postings {
+        private final Map<String, List<Integer>> files = new HashMap<>();
+
+        Postings(List<SourceManifest.Entry> entries, Function<FileKeys, Collection<String>> keys, Set<String> wanted) {
+            for (int i = 0; i < entries.size(); i++) {
+                for (String key : keys.apply(entries.get(i).getKeys())) {
+                    if (wanted == null || wanted.contains(key)) {
+                        List<Integer> list = files.computeIfAbsent(key, k -> new ArrayList<>());
+                        if (list.isEmpty() || list.get(list.size() - 1) != i) {
+                            list.add(i);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Integer> files(String key) {
+            return files.getOrDefault(key, List.of());
+        }
+    }
+
+    /**
+     * 一种输出的各文件条数，及上次和本次包含受影响键的文件
+     */
+    private final class Counts {
+        private final Function<FileKeys, Map<String, Integer>> counts;
+        private final Postings before;
+        private final Postings after;
+
+        Counts(Function<FileKeys, Map<String, Integer>> counts, Set<String> keys) {
+            this.counts = counts;
+            this.before = new Postings(OutputPatch.this.before, file -> counts.apply(file).keySet(), keys);
+            this.after = new Postings(OutputPatch.this.after, file -> counts.apply(file).keySet(), keys);
+        }
+
+        int of(SourceManifest.Entry entry, String key) {
+            return counts.apply(entry.getKeys()).get(key);
+        }
+    }
+}
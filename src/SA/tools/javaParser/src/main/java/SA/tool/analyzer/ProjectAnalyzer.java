@@ -0,0 +1,418 @@
+package SA.tool.analyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import SA.tool.cache.FactCache;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.AnalysisMetadata;
+import SA.tool.model.CallFact;
+import SA.tool.model.ControllerAnalysisResult;
+import SA.tool.model.DefinitionFact;
+import SA.tool.model.DefinitionInfo;
+import SA.tool.model.FileFacts;
+import SA.tool.model.FileKeys;
+import SA.tool.model.MethodFact;
+import SA.tool.model.ReferenceFact;
+import SA.tool.model.ReferenceInfo;
+import SA.tool.model.SourceManifest;
+import SA.tool.parser.ParsedFile;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 一次性全量分析（ALL）：项目只遍历、读入和解析一次，每个文件在同一个解析任务中提取全部种类的事实，
+ * 之后的 API、调用图、符号表、接口实现关系和引用索引都由这一份事实汇总，写入会话目录：
+ * <pre>
+ * data/API/&lt;Controller&gt;.json   同 API -o
+ * data/CG/call_graph.json      同 CG 的 JSON 输出
+ * data/DEF/definitions.json    简单名 -&gt; 定义
+ * data/DEF/implementors.json   接口全限定名 -&gt; 实现类
+ * data/REF/references.json     项目中定义的类型和成员名 -&gt; 引用
+ * data/metadata.json           汇总计数
+ * data/manifest.json           源文件清单及各文件贡献的输出键（配置了事实缓存时），供 {@link #update} 使用
+ * </pre>
+ *
+ * {@link #update} 只重新解析变化的文件，并由清单找出受影响的输出键，在上次的输出上逐键修补
+ * （{@link OutputPatch}），未受影响的条目不读取事实、不重新生成；结果与全量分析相同。
+ * 重新计算的部分随变化的文件及受其影响的调用点和名字增长，但每个输出文件仍整体读入和写回一次。
+ */
+public class ProjectAnalyzer {
+
+    static final String MANIFEST_FILE = "manifest.json";
+
+    // 只为这些定义的名字输出引用；参数和局部变量的名字在项目中大量重复，按需用 REF 查询
+    private static final Set<String> REFERENCED_DEFINITION_TYPES = Set.of(
+            "CLASS", "INTERFACE", "ENUM", "ENUM_CONSTANT", "METHOD", "FIELD");
+
+    private final ProjectParser projectParser;
+    private final FactCache factCache; // 可为 null，此时不写清单，不支持 update
+    private final FactCollector factCollector;
+    private final ApiExtractor apiExtractor;
+    private final CallGraphAnalyzer callGraphAnalyzer;
+    private final CallGraphAnalyzer.CalleeSelection calleeSelection;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public ProjectAnalyzer() {
+        this(new ProjectParser());
+    }
+
+    public ProjectAnalyzer(ProjectParser projectParser) {
+        this(projectParser, null);
+    }
+
+    public ProjectAnalyzer(ProjectParser projectParser, FactCache factCache) {
+        this(projectParser, factCache, CallGraphAnalyzer.CalleeSelection.FIRST);
+    }
+
+    public ProjectAnalyzer(ProjectParser projectParser, FactCache factCache, CallGraphAnalyzer.CalleeSelection calleeSelection) {
+        this.projectParser = projectParser;
+        this.factCache = factCache;
+        this.factCollector = new FactCollector(projectParser, factCache);
+        this.apiExtractor = new ApiExtractor(projectParser, factCache);
+        this.callGraphAnalyzer = new CallGraphAnalyzer(projectParser, factCache, calleeSelection);
+        this.calleeSelection = calleeSelection;
+    }
+
+    public AnalysisMetadata analyze(String targetPath, Path outputDir) throws IOException {
+        // 清单最后写出：中途失败时不留下与输出不一致的清单
+        Files.deleteIfExists(outputDir.resolve("data").resolve(MANIFEST_FILE));
+        ParsedProject project = projectParser.load(Paths.get(targetPath));
+        ProjectFacts facts = factCollector.collect(project, FactKind.all());
+        int apiCount = apiExtractor.extractApiInfo(facts, outputDir).size();
+        AnalysisMetadata metadata = writeResults(facts, project, apiCount, outputDir);
+        if (factCache != null) {
+            Map<String, SourceManifest.Entry> entries = entries(facts, project.getFiles());
+            writeManifest(outputDir, facts.getRootPath(), new ArrayList<>(entries.values()));
+        }
+        return metadata;
+    }
+
+    /**
+     * 在上次分析的输出上修补：与上次分析（清单）相比变化的文件重新读入和解析，受它们影响的输出键重新计算，
+     * 其余输出保持不变。没有可用的清单（首次运行、项目根目录、事实格式或候选方法选择变化）、
+     * 上次的输出缺失或与清单不一致时退化为全量分析。
+     *
+     * @param changedPaths 变化（新增、修改、删除）的文件，相对项目根目录或绝对路径；
+     *                     为 null 时按清单中的大小和修改时间比对整个目录
+     */
+    public AnalysisMetadata update(String targetPath, Path outputDir, Collection<String> changedPaths) throws IOException {
+        if (factCache == null) {
+            throw new IllegalStateException("Incremental analysis requires a fact cache");
+        }
+        Path rootPath = Paths.get(targetPath).normalize();
+        Path dataDir = outputDir.resolve("data");
+        SourceManifest manifest = readManifest(outputDir, rootPath);
+        if (manifest == null) {
+            System.out.println("No usable manifest in " + outputDir + ", running full analysis");
+            return analyze(targetPath, outputDir);
+        }
+
+        Map<String, SourceManifest.Entry> previous = new LinkedHashMap<>();
+        for (SourceManifest.Entry entry : manifest.getFiles()) {
+            previous.put(entry.getPath(), entry);
+        }
+        Set<String> dirty;
+        ProjectFacts changedFacts;
+        ParsedProject changedProject;
+        List<SourceManifest.Entry> entries = new ArrayList<>();
+        try (Phase phase = AnalysisStats.phase("incremental")) {
+            dirty = changedPaths != null ? normalize(rootPath, changedPaths) : diff(rootPath, previous);
+
+            // 当前的文件集合：上次的文件去掉已删除的，加上新增的；按全量分析收集源文件的规则过滤
+            TreeSet<String> paths = new TreeSet<>(previous.keySet());
+            List<Path> toLoad = new ArrayList<>();
+            for (String path : dirty) {
+                if (projectParser.isSourceFile(rootPath, rootPath.resolve(path))) {
+                    paths.add(path);
+                    toLoad.add(rootPath.resolve(path));
+                } else {
+                    paths.remove(path);
+                }
+            }
+            dirty.removeIf(path -> !paths.contains(path) && !previous.containsKey(path));
+
+            changedProject = new ParsedProject(rootPath, projectParser.map(toLoad, file -> projectParser.loadFile(rootPath, file)));
+            changedFacts = factCollector.collect(changedProject, FactKind.all());
+
+            // 本次的清单：变化的文件记录新的大小、修改时间和输出键，其余文件沿用上次的条目
+            Map<String, SourceManifest.Entry> changed = entries(changedFacts, changedProject.getFiles());
+            for (String path : paths) {
+                entries.add(dirty.contains(path) ? changed.get(path) : previous.get(path));
+            }
+            phase.count("files", paths.size()).count("changed", dirty.size()).count("reparsed", toLoad.size());
+        }
+
+        OutputPatch patch = new OutputPatch(rootPath, objectMapper, callGraphAnalyzer,
+                paths -> loadFacts(rootPath, previous, paths), manifest.getFiles(), entries, dirty, changedFacts, changedProject);
+        AnalysisMetadata metadata = new AnalysisMetadata();
+        try (Phase phase = AnalysisStats.phase("output")) {
+            // 修补期间没有清单：中途失败时下次退化为全量分析
+            Files.delete(dataDir.resolve(MANIFEST_FILE));
+            patch.patchCallGraph(dataDir.resolve("CG").resolve("call_graph.json"));
+            patch.patchDefinitions(dataDir.resolve("DEF").resolve("definitions.json"));
+            patch.patchImplementors(dataDir.resolve("DEF").resolve("implementors.json"));
+            patch.patchReferences(dataDir.resolve("REF").resolve("references.json"));
+            int removed = patchControllers(outputDir, previous, dirty, changedFacts, entries);
+
+            for (SourceManifest.Entry entry : entries) {
+                metadata.setTotalApis(metadata.getTotalApis() + entry.getKeys().getApis());
+                for (int count : entry.getKeys().getDefinitions().values()) {
+                    metadata.setTotalSymbols(metadata.getTotalSymbols() + count);
+                }
+            }
+            write(dataDir.resolve("metadata.json"), metadata);
+            phase.count("loaded", patch.loadedFiles()).count("removed_controllers", removed);
+        } catch (IllegalStateException e) {
+            System.out.println("Previous output does not match the manifest (" + e.getMessage() + "), running full analysis");
+            return analyze(targetPath, outputDir);
+        }
+        writeManifest(outputDir, rootPath, entries);
+        System.out.println("Incremental update: " + dirty.size() + " changed, " + changedProject.getFiles().size()
+                + " reparsed, " + patch.loadedFiles() + " unchanged files loaded for patching");
+        return metadata;
+    }
+
+    /**
+     * 取回未变化文件的事实：按清单中的内容哈希从缓存读取，缓存条目已失效时重新解析
+     */
+    private List<FileFacts> loadFacts(Path rootPath, Map<String, SourceManifest.Entry> previous, List<String> paths) throws IOException {
+        List<FileFacts> files = new ArrayList<>(projectParser.map(paths, path -> factCache.get(previous.get(path).getContentHash())));
+        List<Path> missing = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i++) {
+            if (files.get(i) == null) {
+                missing.add(rootPath.resolve(paths.get(i)));
+            }
+        }
+        if (!missing.isEmpty()) {
+            ParsedProject project = new ParsedProject(rootPath, projectParser.map(missing, file -> projectParser.loadFile(rootPath, file)));
+            Map<String, FileFacts> parsed = new HashMap<>();
+            for (FileFacts file : factCollector.collect(project, FactKind.all()).getFiles()) {
+                parsed.put(file.getFilePath(), file);
+            }
+            for (int i = 0; i < paths.size(); i++) {
+                if (files.get(i) == null) {
+                    files.set(i, parsed.get(paths.get(i)));
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 只重写变化文件中的 Controller；不再存在的 Controller 删除其 API 文件
+     *
+     * @return 删除的 API 文件数
+     */
+    private int patchControllers(Path outputDir, Map<String, SourceManifest.Entry> previous, Set<String> dirty,
+                                 ProjectFacts changedFacts, List<SourceManifest.Entry> entries) throws IOException {
+        Set<String> remaining = new HashSet<>();
+        for (SourceManifest.Entry entry : entries) {
+            if (entry.getKeys().getController() != null) {
+                remaining.add(entry.getKeys().getController());
+            }
+        }
+        int removed = 0;
+        for (String path : dirty) {
+            SourceManifest.Entry entry = previous.get(path);
+            String controller = entry == null ? null : entry.getKeys().getController();
+            if (controller != null && !remaining.contains(controller)) {
+                if (Files.deleteIfExists(ApiExtractor.apiDirectory(outputDir).resolve(controller + ".json"))) {
+                    removed++;
+                }
+            }
+        }
+        List<ControllerAnalysisResult> changed = new ArrayList<>();
+        for (FileFacts file : changedFacts.getFiles()) {
+            if (file.getController() != null) {
+                changed.add(file.getController());
+            }
+        }
+        ApiExtractor.saveControllerResults(changed, outputDir);
+        return removed;
+    }
+
+    /**
+     * 按大小和修改时间找出变化的文件（只读文件属性，不读内容），包括新增和删除的文件
+     */
+    private Set<String> diff(Path rootPath, Map<String, SourceManifest.Entry> previous) throws IOException {
+        Set<String> dirty = new TreeSet<>();
+        Set<String> seen = new HashSet<>();
+        for (Path file : projectParser.collectSourceFiles(rootPath)) {
+            String path = rootPath.relativize(file).toString();
+            seen.add(path);
+            SourceManifest.Entry entry = previous.get(path);
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (entry == null || entry.getSize() != attributes.size() || entry.getMtime() != attributes.lastModifiedTime().toMillis()) {
+                dirty.add(path);
+            }
+        }
+        for (String path : previous.keySet()) {
+            if (!seen.contains(path)) {
+                dirty.add(path);
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * 变化文件列表统一为相对项目根目录的路径。相对路径先按项目根目录解析，不存在时再按当前目录解析
+     * （兼容 git diff --name-only 输出的仓库相对路径在项目根目录下运行的情况）
+     */
+    private static Set<String> normalize(Path rootPath, Collection<String> changedPaths) {
+        Path absoluteRoot = rootPath.toAbsolutePath().normalize();
+        Set<String> dirty = new TreeSet<>();
+        for (String changed : changedPaths) {
+            Path path = Paths.get(changed);
+            if (!path.isAbsolute()) {
+                Path underRoot = absoluteRoot.resolve(path).normalize();
+                path = Files.exists(underRoot) || !Files.exists(path) ? underRoot : path.toAbsolutePath().normalize();
+            }
+            if (path.startsWith(absoluteRoot)) {
+                dirty.add(absoluteRoot.relativize(path.normalize()).toString());
+            }
+        }
+        return dirty;
+    }
+
+    private SourceManifest readManifest(Path outputDir, Path rootPath) throws IOException {
+        Path dataDir = outputDir.resolve("data");
+        Path file = dataDir.resolve(MANIFEST_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        SourceManifest manifest = objectMapper.readValue(file.toFile(), SourceManifest.class);
+        boolean usable = rootPath.toAbsolutePath().normalize().toString().equals(manifest.getRootPath())
+                && FileFacts.PARSER_VERSION.equals(manifest.getParserVersion())
+                && calleeSelection.name().equals(manifest.getCalleeSelection())
+                && manifest.getFiles().stream().allMatch(entry -> entry.getKeys() != null)
+                && Files.exists(dataDir.resolve("CG").resolve("call_graph.json"))
+                && Files.exists(dataDir.resolve("DEF").resolve("definitions.json"))
+                && Files.exists(dataDir.resolve("DEF").resolve("implementors.json"))
+                && Files.exists(dataDir.resolve("REF").resolve("references.json"));
+        return usable ? manifest : null;
+    }
+
+    /**
+     * 读入的文件的清单条目：当前的大小、修改时间和输出键，按相对路径
+     */
+    private static Map<String, SourceManifest.Entry> entries(ProjectFacts facts, List<ParsedFile> loaded) throws IOException {
+        Map<String, ParsedFile> loadedByPath = new HashMap<>();
+        for (ParsedFile file : loaded) {
+            loadedByPath.put(file.getRelativePath(), file);
+        }
+        Map<String, SourceManifest.Entry> entries = new LinkedHashMap<>();
+        for (FileFacts file : facts.getFiles()) {
+            BasicFileAttributes attributes = Files.readAttributes(loadedByPath.get(file.getFilePath()).getPath(), BasicFileAttributes.class);
+            entries.put(file.getFilePath(), new SourceManifest.Entry(file.getFilePath(), attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), file.getContentHash(), keys(file)));
+        }
+        return entries;
+    }
+
+    /**
+     * 文件对各项输出贡献的键和条数，与 {@link #writeResults} 的汇总方式对应
+     */
+    private static FileKeys keys(FileFacts file) {
+        FileKeys keys = new FileKeys();
+        Set<String> callNames = new LinkedHashSet<>();
+        for (MethodFact method : file.getMethods()) {
+            keys.getMethods().add(new FileKeys.MethodKey(method));
+            for (CallFact call : method.getCalls()) {
+                callNames.add(call.getMethodName());
+            }
+        }
+        keys.getCallNames().addAll(callNames);
+        Set<String> members = new LinkedHashSet<>();
+        for (DefinitionFact definition : file.getDefinitions()) {
+            keys.getDefinitions().merge(definition.getName(), 1, Integer::sum);
+            if (REFERENCED_DEFINITION_TYPES.contains(definition.getDefinition().getDefinitionType())) {
+                members.add(definition.getName());
+            }
+        }
+        keys.getMemberDefinitions().addAll(members);
+        for (ReferenceFact reference : file.getReferences()) {
+            keys.getReferences().merge(reference.getName(), 1, Integer::sum);
+        }
+        file.getImplementors().forEach((interfaceFqn, classes) -> keys.getImplementors().put(interfaceFqn, classes.size()));
+        if (file.getController() != null) {
+            keys.setApis(file.getController().getApis().size());
+            keys.setController(file.getController().getControllerName());
+        }
+        return keys;
+    }
+
+    /**
+     * 清单只供本类读取，不缩进输出
+     */
+    private void writeManifest(Path outputDir, Path rootPath, List<SourceManifest.Entry> entries) throws IOException {
+        SourceManifest manifest = new SourceManifest();
+        manifest.setRootPath(rootPath.toAbsolutePath().normalize().toString());
+        manifest.setCalleeSelection(calleeSelection.name());
+        manifest.setFiles(entries);
+        Path file = outputDir.resolve("data").resolve(MANIFEST_FILE);
+        Files.createDirectories(file.getParent());
+        objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), manifest);
+    }
+
+    private AnalysisMetadata writeResults(ProjectFacts facts, ParsedProject project, int apiCount, Path outputDir) throws IOException {
+        CallGraph graph = callGraphAnalyzer.buildCompactGraph(facts);
+        SymbolIndex symbolIndex = SymbolIndex.build(facts);
+        ReferenceIndex referenceIndex = ReferenceIndex.build(facts, project);
+
+        AnalysisMetadata metadata = new AnalysisMetadata();
+        metadata.setTotalApis(apiCount);
+        metadata.setTotalSymbols(symbolIndex.size());
+        try (Phase phase = AnalysisStats.phase("output")) {
+            Path dataDir = outputDir.resolve("data");
+            write(dataDir.resolve("CG").resolve("call_graph.json"), graph.toNodeMap());
+            write(dataDir.resolve("DEF").resolve("definitions.json"), symbolIndex.definitionsByName());
+            write(dataDir.resolve("DEF").resolve("implementors.json"), symbolIndex.allImplementors());
+            Map<String, List<ReferenceInfo>> references = projectReferences(symbolIndex, referenceIndex);
+            write(dataDir.resolve("REF").resolve("references.json"), references);
+            write(dataDir.resolve("metadata.json"), metadata);
+            phase.count("methods", graph.size()).count("symbols", symbolIndex.size()).count("referenced_symbols", references.size());
+        }
+        return metadata;
+    }
+
+    /**
+     * 项目中定义的类型和成员名 -> 引用（按名字排序，没有引用的名字省略）
+     */
+    private static Map<String, List<ReferenceInfo>> projectReferences(SymbolIndex symbolIndex, ReferenceIndex referenceIndex) {
+        Map<String, List<ReferenceInfo>> references = new LinkedHashMap<>();
+        for (Map.Entry<String, List<DefinitionInfo>> entry : symbolIndex.definitionsByName().entrySet()) {
+            boolean member = entry.getValue().stream()
+                    .anyMatch(definition -> REFERENCED_DEFINITION_TYPES.contains(definition.getDefinitionType()));
+            if (member) {
+                List<ReferenceInfo> found = referenceIndex.lookup(entry.getKey());
+                if (!found.isEmpty()) {
+                    references.put(entry.getKey(), found);
+                }
+            }
+        }
+        return references;
+    }
+
+    private void write(Path file, Object value) throws IOException {
+        Files.createDirectories(file.getParent());
+        objectMapper.writeValue(file.toFile(), value);
+    }
+}
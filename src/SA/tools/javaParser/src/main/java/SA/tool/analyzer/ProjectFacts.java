@@ -0,0 +1,42 @@
+package SA.tool.analyzer;
+
+import SA.tool.model.FileFacts;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 整个项目的分析事实，顺序与 ParsedProject 中的文件顺序一致
+ */
+public class ProjectFacts {
+
+    private final Path rootPath;
+    private final List<FileFacts> files;
+    private final int cacheHits;
+
+    public ProjectFacts(Path rootPath, List<FileFacts> files, int cacheHits) {
+        this.rootPath = rootPath;
+        this.files = Collections.unmodifiableList(files);
+        this.cacheHits = cacheHits;
+    }
+
+    public Path getRootPath() {
+        return rootPath;
+    }
+
+    public List<FileFacts> getFiles() {
+        return files;
+    }
+
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * 本次实际解析的文件数
+     */
+    public int getParsedFiles() {
+        return files.size() - cacheHits;
+    }
+}
@@ -0,0 +1,45 @@
+package SA.tool.analyzer;
+
+import SA.tool.cache.FactCache;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.ApiInfo;
+import SA.tool.parser.ProjectParser;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * 计算每个 API 接口传递可达的方法：API 提取和调用图共享一次事实提取
+ */
+public class ReachabilityAnalyzer {
+
+    private final FactCollector factCollector;
+    private final ApiExtractor apiExtractor;
+    private final CallGraphAnalyzer callGraphAnalyzer;
+
+    public ReachabilityAnalyzer() {
+        this(new ProjectParser());
+    }
+
+    public ReachabilityAnalyzer(ProjectParser projectParser) {
+        this(projectParser, null);
+    }
+
+    public ReachabilityAnalyzer(ProjectParser projectParser, FactCache factCache) {
+        this.factCollector = new FactCollector(projectParser, factCache);
+        this.apiExtractor = new ApiExtractor(projectParser, factCache);
+        this.callGraphAnalyzer = new CallGraphAnalyzer(projectParser, factCache);
+    }
+
+    public EndpointReachability analyze(String targetPath) throws IOException {
+        return analyze(factCollector.collect(Paths.get(targetPath), EnumSet.of(FactKind.METHODS, FactKind.CONTROLLERS)));
+    }
+
+    public EndpointReachability analyze(ProjectFacts facts) throws IOException {
+        List<ApiInfo> apis = apiExtractor.extractApiInfo(facts, null);
+        CallGraph graph = callGraphAnalyzer.buildCompactGraph(facts);
+        return EndpointReachability.build(apis, graph);
+    }
+}
@@ -1,37 +1,121 @@
 package SA.tool.analyzer;
 
-import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.utils.SourceRoot;
+import SA.tool.cache.FactCache;
 import SA.tool.model.ReferenceInfo;
+import SA.tool.parser.ParsedFile;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+import SA.tool.parser.SourcePrefilter;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+import SA.tool.stats.QueryEvent;
 import SA.tool.visitor.ReferenceFinderVisitor;
 
 import java.io.IOException;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public class ReferenceFinder {
+
+    private final ProjectParser projectParser;
+    private final FactCollector factCollector;
+
+    public ReferenceFinder() {
+        this(new ProjectParser());
+    }
+
+    public ReferenceFinder(ProjectParser projectParser) {
+        this(projectParser, null);
+    }
+
+    /**
+     * @param factCache 按位置查询时使用的事实缓存，可为 null
+     */
+    public ReferenceFinder(ProjectParser projectParser, FactCache factCache) {
+        this.projectParser = projectParser;
+        this.factCollector = new FactCollector(projectParser, factCache);
+    }
     
     public List<ReferenceInfo> findReferences(String targetPath, String symbolName, String targetFile, int targetLine) throws IOException {
+        return findReferences(load(targetPath, symbolName), symbolName, targetFile, targetLine);
+    }
+
+    public List<ReferenceInfo> findReferences(ParsedProject project, String symbolName, String targetFile, int targetLine) throws IOException {
         List<ReferenceInfo> references = new ArrayList<>();
-        Path rootPath = Paths.get(targetPath).normalize();
+        findReferences(project, symbolName, targetFile, targetLine, references::add);
+        return references;
+    }
+
+    /**
+     * 流式版本：每个文件的引用在该文件访问完成后立即交给 sink
+     */
+    public void findReferences(String targetPath, String symbolName, String targetFile, int targetLine, Consumer<? super ReferenceInfo> sink) throws IOException {
+        findReferences(load(targetPath, symbolName), symbolName, targetFile, targetLine, sink);
+    }
+
+    /**
+     * 引用按简单名精确匹配，不包含该标识符的文件不可能产生引用，无需解析
+     */
+    private ParsedProject load(String targetPath, String symbolName) throws IOException {
+        return projectParser.load(Paths.get(targetPath), SourcePrefilter.anyOf(symbolName));
+    }
 
-        SourceRoot sourceRoot = new SourceRoot(rootPath);
-        List<ParseResult<CompilationUnit>> parseResults = sourceRoot.tryToParse("");
+    /**
+     * 不限定位置时遍历全部 AST；指定文件和行时先解析该位置上的符号，再查引用索引（见 {@link ReferenceIndex#lookup(String, String, int, SymbolRanges)}）
+     */
+    public void findReferences(ParsedProject project, String symbolName, String targetFile, int targetLine, Consumer<? super ReferenceInfo> sink) throws IOException {
+        QueryEvent event = new QueryEvent();
+        event.begin();
+        int count = targetFile == null || targetLine == -1
+                ? visitReferences(project, symbolName, sink)
+                : lookupReferences(project, symbolName, targetFile, targetLine, sink);
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = "REF";
+            event.symbol = symbolName;
+            event.files = project.size();
+            event.results = count;
+            event.commit();
+        }
+    }
 
-        for (ParseResult<CompilationUnit> parseResult : parseResults) {
-            if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
-                CompilationUnit cu = parseResult.getResult().get();
-                ReferenceFinderVisitor visitor = new ReferenceFinderVisitor(rootPath, symbolName, targetFile, targetLine);
-                visitor.visit(cu, references);
+    private int visitReferences(ParsedProject project, String symbolName, Consumer<? super ReferenceInfo> sink) throws IOException {
+        projectParser.parseAll(project); // 源码按需解析，REF 需要全部 AST
+        int count = 0;
+        try (Phase phase = AnalysisStats.phase("references")) {
+            for (ParsedFile file : project.getFiles()) {
+                Optional<CompilationUnit> cu = file.getCompilationUnit();
+                if (cu.isPresent()) {
+                    List<ReferenceInfo> fileReferences = new ArrayList<>();
+                    ReferenceFinderVisitor visitor = new ReferenceFinderVisitor(project.getRootPath(), symbolName, file.getLineIndex());
+                    visitor.visit(cu.get(), fileReferences);
+                    fileReferences.forEach(sink);
+                    count += fileReferences.size();
+                }
             }
+            phase.count("files", project.size()).count("references", count);
         }
-        return references;
+        return count;
+    }
+
+    /**
+     * 预过滤后的文件就包含了该名字的全部声明和引用，只对这些文件提取声明区间和引用事实（配置缓存时直接读取）
+     */
+    private int lookupReferences(ParsedProject project, String symbolName, String targetFile, int targetLine,
+                                 Consumer<? super ReferenceInfo> sink) throws IOException {
+        ProjectFacts facts = factCollector.collect(project, EnumSet.of(FactKind.REFERENCES, FactKind.RANGES));
+        ReferenceIndex index = ReferenceIndex.build(facts, project);
+        List<ReferenceInfo> references = index.lookup(symbolName, targetFile, targetLine, SymbolRanges.build(facts));
+        references.forEach(sink);
+        return references.size();
     }
     
     public List<ReferenceInfo> findReferences(String targetPath, String symbolName) throws IOException {
         return findReferences(targetPath, symbolName, null, -1);
     }
-} 
\ No newline at end of file
+}
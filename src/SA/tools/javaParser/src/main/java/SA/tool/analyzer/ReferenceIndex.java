@@ -0,0 +1,145 @@
+package SA.tool.analyzer;
+
+import SA.tool.model.FileFacts;
+import SA.tool.model.ReferenceFact;
+import SA.tool.model.ReferenceInfo;
+import SA.tool.model.SymbolRange;
+import SA.tool.parser.LineIndex;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.SourceFiles;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 项目级引用索引：由文件事实一次构建，名字 -> 引用位置。按名查引用是一次哈希查找，不再遍历 AST。
+ *
+ * 引用事实不保存行内容，查询时由 {@link SourceFiles} 从已读入的源码取出；
+ * ALL -incremental 中未重新读入的文件在首次取行时从磁盘读取（只读不解析）。
+ * 结果与 {@link ReferenceFinder} 对同一符号的输出一致（引用按文件顺序、文件内按遍历顺序排列）。
+ */
+public class ReferenceIndex {
+
+    private static final Set<String> METHOD_KINDS = Set.of("METHOD", "CONSTRUCTOR");
+
+    private final Map<String, List<Entry>> byName = new HashMap<>();
+    private SourceFiles sources; // 用于取行内容
+    private int size;
+
+    public static ReferenceIndex build(ProjectFacts facts, ParsedProject project) {
+        ReferenceIndex index = new ReferenceIndex();
+        index.sources = new SourceFiles(facts.getRootPath(), project);
+        try (Phase phase = AnalysisStats.phase("reference_index")) {
+            for (FileFacts file : facts.getFiles()) {
+                for (ReferenceFact fact : file.getReferences()) {
+                    index.byName.computeIfAbsent(fact.getName(), k -> new ArrayList<>()).add(new Entry(file.getFilePath(), fact));
+                }
+                index.size += file.getReferences().size();
+            }
+            phase.count("files", facts.getFiles().size()).count("references", index.size);
+        }
+        return index;
+    }
+
+    public List<ReferenceInfo> lookup(String symbolName) {
+        List<Entry> entries = byName.getOrDefault(symbolName, Collections.emptyList());
+        List<ReferenceInfo> references = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            references.add(toReferenceInfo(entry));
+        }
+        return references;
+    }
+
+    /**
+     * 按位置查引用：先用符号区间把 targetFile 第 targetLine 行上的 symbolName 解析到声明，再从索引中取出可能指向它的引用。
+     * 方法只保留调用，字段只保留字段和变量访问，类型只保留类型引用和限定名中的访问；private 成员只保留所在文件中的引用；
+     * 项目中没有声明的名字（参数、局部变量）只保留光标所在方法内的引用，外部库的名字和无法区分的同名声明不过滤。
+     * 该行上既没有此名字的声明也没有此名字的引用时返回空列表
+     */
+    public List<ReferenceInfo> lookup(String symbolName, String targetFile, int targetLine, SymbolRanges ranges) {
+        String file = ranges.resolveFile(targetFile);
+        if (file == null) {
+            return Collections.emptyList();
+        }
+        List<Entry> entries = byName.getOrDefault(symbolName, Collections.emptyList());
+        boolean declared = ranges.enclosing(file, targetLine).stream()
+                .anyMatch(range -> range.getName().equals(symbolName) && range.getNameLine() == targetLine);
+        boolean referenced = entries.stream().anyMatch(entry -> entry.file().equals(file) && entry.fact().getLine() == targetLine);
+        if (!declared && !referenced) {
+            return Collections.emptyList();
+        }
+
+        Predicate<Entry> filter = entry -> true;
+        SymbolRanges.Declaration target = ranges.resolve(file, targetLine, symbolName);
+        if (target != null) {
+            Set<String> referenceTypes = referenceTypesOf(target.range());
+            boolean fileLocal = "private".equals(target.range().getVisibility());
+            filter = entry -> referenceTypes.contains(entry.fact().getReferenceType()) && (!fileLocal || entry.file().equals(target.file()));
+        } else if (ranges.declarations(symbolName).isEmpty()) {
+            SymbolRange scope = ranges.innermost(file, targetLine, METHOD_KINDS);
+            if (scope != null) {
+                filter = entry -> entry.file().equals(file)
+                        && entry.fact().getLine() >= scope.getBeginLine() && entry.fact().getLine() <= scope.getEndLine();
+            }
+        }
+        List<ReferenceInfo> references = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (filter.test(entry)) {
+                references.add(toReferenceInfo(entry));
+            }
+        }
+        return references;
+    }
+
+    private static Set<String> referenceTypesOf(SymbolRange declaration) {
+        return switch (declaration.getSymbolType()) {
+            case "METHOD" -> Set.of("METHOD_CALL");
+            case "FIELD", "ENUM_CONSTANT" -> Set.of("FIELD_ACCESS", "VARIABLE_ACCESS");
+            default -> Set.of("TYPE_REFERENCE", "VARIABLE_ACCESS", "FIELD_ACCESS"); // 类型和构造器：new、类型声明、静态访问的限定名
+        };
+    }
+
+    private ReferenceInfo toReferenceInfo(Entry entry) {
+        ReferenceFact fact = entry.fact();
+        ReferenceInfo reference = new ReferenceInfo();
+        reference.setSymbolName(fact.getName());
+        reference.setReferenceType(fact.getReferenceType());
+        reference.setCodePos(String.format("%s:L%d:C%d", entry.file(), fact.getLine(), fact.getColumn()));
+        reference.setContext(fact.getContext());
+        reference.setLineContent(lineContent(entry.file(), fact));
+        return reference;
+    }
+
+    private String lineContent(String filePath, ReferenceFact fact) {
+        Optional<LineIndex> lineIndex = sources.lineIndex(filePath);
+        if (lineIndex.isPresent() && fact.getLine() > 0) {
+            String line = lineIndex.get().getLine(fact.getLine());
+            if (line != null) {
+                return line.trim();
+            }
+        }
+        return fact.getName();
+    }
+
+    public Set<String> names() {
+        return Collections.unmodifiableSet(byName.keySet());
+    }
+
+    /**
+     * 索引中的引用总数
+     */
+    public int size() {
+        return size;
+    }
+
+    private record Entry(String file, ReferenceFact fact) {
+    }
+}
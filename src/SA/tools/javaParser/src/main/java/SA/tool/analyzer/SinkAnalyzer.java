@@ -0,0 +1,138 @@
+package SA.tool.analyzer;
+
+import SA.tool.cache.FactCache;
+import SA.tool.graph.BoundedPaths;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.CallFact;
+import SA.tool.model.FileFacts;
+import SA.tool.model.MethodFact;
+import SA.tool.model.SinkPath;
+import SA.tool.model.SinkSite;
+import SA.tool.parser.ProjectParser;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从 API 接口到危险调用（sink）的调用链，作为注入类漏洞的候选。
+ *
+ * 先用 {@link SinkCatalog} 逐个匹配调用点，再从所有 sink 所在方法沿调用者方向做一次有界 BFS，
+ * 最后只在能到达 sink 的方法上从各接口正向展开，每个 sink 调用点报告一条最短调用链。
+ */
+public class SinkAnalyzer {
+
+    public static final int DEFAULT_MAX_DEPTH = 8;
+    public static final int DEFAULT_MAX_PATHS = 20;
+
+    private final FactCollector factCollector;
+    private final ApiExtractor apiExtractor;
+    private final CallGraphAnalyzer callGraphAnalyzer;
+    private final SinkCatalog catalog;
+
+    public SinkAnalyzer() {
+        this(new ProjectParser());
+    }
+
+    public SinkAnalyzer(ProjectParser projectParser) {
+        this(projectParser, null);
+    }
+
+    public SinkAnalyzer(ProjectParser projectParser, FactCache factCache) {
+        this(projectParser, factCache, SinkCatalog.defaults());
+    }
+
+    public SinkAnalyzer(ProjectParser projectParser, FactCache factCache, SinkCatalog catalog) {
+        this(projectParser, factCache, catalog, CallGraphAnalyzer.CalleeSelection.FIRST);
+    }
+
+    /**
+     * @param calleeSelection 调用图的候选方法选择，ALL 会连接所有同名同参数个数的方法，召回更高
+     */
+    public SinkAnalyzer(ProjectParser projectParser, FactCache factCache, SinkCatalog catalog,
+                        CallGraphAnalyzer.CalleeSelection calleeSelection) {
+        this.factCollector = new FactCollector(projectParser, factCache);
+        this.apiExtractor = new ApiExtractor(projectParser, factCache);
+        this.callGraphAnalyzer = new CallGraphAnalyzer(projectParser, factCache, calleeSelection);
+        this.catalog = catalog;
+    }
+
+    public List<SinkPath> findSinkPaths(String targetPath, int maxDepth, int maxPaths) throws IOException {
+        return findSinkPaths(factCollector.collect(Paths.get(targetPath), EnumSet.of(FactKind.METHODS, FactKind.CONTROLLERS)),
+                maxDepth, maxPaths);
+    }
+
+    public List<SinkPath> findSinkPaths(ProjectFacts facts, int maxDepth, int maxPaths) throws IOException {
+        List<ApiInfo> apis = apiExtractor.extractApiInfo(facts, null);
+        CallGraph graph = callGraphAnalyzer.buildCompactGraph(facts);
+        return findSinkPaths(facts, apis, graph, maxDepth, maxPaths);
+    }
+
+    /**
+     * @param maxDepth 调用链的最大跳数，负数表示不限制
+     * @param maxPaths 每个接口最多报告的调用链条数，负数表示不限制
+     */
+    public List<SinkPath> findSinkPaths(ProjectFacts facts, List<ApiInfo> apis, CallGraph graph, int maxDepth, int maxPaths) {
+        try (Phase phase = AnalysisStats.phase("sinks")) {
+            Map<Integer, List<SinkSite>> sitesByMethod = collectSinkSites(facts, graph);
+            int[] targets = sitesByMethod.keySet().stream().mapToInt(Integer::intValue).toArray();
+            BoundedPaths paths = BoundedPaths.toTargets(graph, targets, maxDepth);
+            int limit = maxPaths < 0 ? Integer.MAX_VALUE : maxPaths;
+
+            List<SinkPath> result = new ArrayList<>();
+            for (ApiInfo api : apis) {
+                int[] count = {0};
+                paths.search(graph.findMethods(api), (method, chain) -> {
+                    List<String> callChain = new ArrayList<>(chain.length);
+                    for (int id : chain) {
+                        callChain.add(graph.signature(id));
+                    }
+                    for (SinkSite site : sitesByMethod.get(method)) {
+                        if (count[0]++ == limit) {
+                            return false;
+                        }
+                        SinkPath path = new SinkPath();
+                        path.setApi(api);
+                        path.setSink(site);
+                        path.setCallChain(callChain);
+                        result.add(path);
+                    }
+                    return true;
+                });
+            }
+            phase.count("sink_sites", sitesByMethod.values().stream().mapToInt(List::size).sum())
+                    .count("paths", result.size());
+            return result;
+        }
+    }
+
+    /**
+     * 方法 ID -> 方法体内命中目录的调用点（按出现顺序）
+     */
+    private Map<Integer, List<SinkSite>> collectSinkSites(ProjectFacts facts, CallGraph graph) {
+        Map<Integer, List<SinkSite>> sitesByMethod = new HashMap<>();
+        for (FileFacts file : facts.getFiles()) {
+            for (MethodFact method : file.getMethods()) {
+                for (CallFact call : method.getCalls()) {
+                    SinkCatalog.Sink sink = catalog.match(call);
+                    if (sink == null) {
+                        continue;
+                    }
+                    int id = graph.idOf(method.getMethodSignature());
+                    if (id >= 0) {
+                        sitesByMethod.computeIfAbsent(id, k -> new ArrayList<>())
+                                .add(new SinkSite(sink.category(), sink.pattern(), call.getCodePos(), method.getMethodSignature()));
+                    }
+                }
+            }
+        }
+        return sitesByMethod;
+    }
+}
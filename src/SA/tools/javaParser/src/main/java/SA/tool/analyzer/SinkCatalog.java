@@ -0,0 +1,171 @@
+package SA.tool.analyzer;
+
+import SA.tool.model.CallFact;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 危险调用（sink）目录：每行一条 "类别 模式"，# 开头为注释。模式有三种写法：
+ * <ul>
+ *   <li>{@code Type.method}：接收者类型为 Type（简单类名）的方法调用，包括静态调用</li>
+ *   <li>{@code new Type}：构造 Type 的实例</li>
+ *   <li>{@code *.method}：任意接收者（包括类型未知）的同名方法，只适合 executeQuery 这类专用名字</li>
+ * </ul>
+ * 所有模式编译进以方法名为键的哈希表（构造器为 {@link CallFact#CONSTRUCTOR}），值为接收者类型 -> sink 的小表。
+ * 绝大多数调用点的方法名不在表中，一次查找即可排除，不产生任何临时对象。
+ */
+public class SinkCatalog {
+
+    private static final String WILDCARD = "*";
+
+    private static final String[] DEFAULT_SINKS = {
+            "# SQL",
+            "sql Statement.execute",
+            "sql Statement.executeQuery",
+            "sql Statement.executeUpdate",
+            "sql Statement.executeLargeUpdate",
+            "sql Statement.addBatch",
+            "sql Connection.prepareStatement",
+            "sql Connection.prepareCall",
+            "sql Connection.nativeSQL",
+            "sql *.executeQuery",
+            "sql *.executeUpdate",
+            "sql JdbcTemplate.execute",
+            "sql JdbcTemplate.query",
+            "sql JdbcTemplate.queryForObject",
+            "sql JdbcTemplate.queryForList",
+            "sql JdbcTemplate.queryForMap",
+            "sql JdbcTemplate.queryForRowSet",
+            "sql JdbcTemplate.update",
+            "sql JdbcTemplate.batchUpdate",
+            "sql EntityManager.createQuery",
+            "sql EntityManager.createNativeQuery",
+            "sql Session.createQuery",
+            "sql Session.createSQLQuery",
+            "sql Session.createNativeQuery",
+            "# 命令执行",
+            "command Runtime.exec",
+            "command new ProcessBuilder",
+            "command ProcessBuilder.command",
+            "command ScriptEngine.eval",
+            "# 文件读写",
+            "file new FileInputStream",
+            "file new FileOutputStream",
+            "file new FileReader",
+            "file new FileWriter",
+            "file new RandomAccessFile",
+            "file new PrintWriter",
+            "file Files.newInputStream",
+            "file Files.newOutputStream",
+            "file Files.newBufferedReader",
+            "file Files.newBufferedWriter",
+            "file Files.readAllBytes",
+            "file Files.readAllLines",
+            "file Files.readString",
+            "file Files.lines",
+            "file Files.write",
+            "file Files.writeString",
+            "file Files.copy",
+            "file Files.move",
+            "file Files.delete",
+            "file Files.deleteIfExists",
+            "file MultipartFile.transferTo",
+            "# 反序列化",
+            "deserialization new ObjectInputStream",
+            "deserialization ObjectInputStream.readObject",
+            "deserialization ObjectInputStream.readUnshared",
+            "deserialization new XMLDecoder",
+            "deserialization XMLDecoder.readObject",
+            "deserialization Yaml.load",
+            "deserialization Yaml.loadAll",
+            "deserialization XStream.fromXML",
+            "deserialization JSON.parseObject",
+            "deserialization JSON.parse",
+            "deserialization Kryo.readClassAndObject",
+            "# 模板与表达式",
+            "template Template.process",
+            "template Velocity.evaluate",
+            "template VelocityEngine.evaluate",
+            "template TemplateEngine.process",
+            "template SpelExpressionParser.parseExpression",
+            "template ExpressionParser.parseExpression",
+            "template Ognl.getValue",
+    };
+
+    private final Map<String, Map<String, Sink>> sinksByMethod = new HashMap<>();
+    private int size;
+
+    private SinkCatalog() {
+    }
+
+    /**
+     * 内置目录：JDBC/JPA、命令执行、文件读写、反序列化、模板与表达式
+     */
+    public static SinkCatalog defaults() {
+        return parse(Arrays.asList(DEFAULT_SINKS), "<defaults>");
+    }
+
+    /**
+     * 从文件加载目录（替换内置目录）
+     */
+    public static SinkCatalog read(Path catalogFile) throws IOException {
+        return parse(Files.readAllLines(catalogFile, StandardCharsets.UTF_8), catalogFile.toString());
+    }
+
+    public static SinkCatalog parse(List<String> lines, String source) {
+        SinkCatalog catalog = new SinkCatalog();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            String type;
+            String method;
+            if (parts.length == 3 && "new".equals(parts[1])) {
+                type = parts[2];
+                method = CallFact.CONSTRUCTOR;
+            } else if (parts.length == 2 && parts[1].lastIndexOf('.') > 0) {
+                type = parts[1].substring(0, parts[1].lastIndexOf('.'));
+                method = parts[1].substring(parts[1].lastIndexOf('.') + 1);
+            } else {
+                throw new IllegalArgumentException("Invalid sink at " + source + ":" + (i + 1) + ": " + line);
+            }
+            Sink sink = new Sink(parts[0], line.substring(parts[0].length()).trim());
+            if (catalog.sinksByMethod.computeIfAbsent(method, k -> new HashMap<>()).put(type, sink) == null) {
+                catalog.size++;
+            }
+        }
+        return catalog;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 调用点命中的 sink，未命中返回 null
+     */
+    public Sink match(CallFact call) {
+        Map<String, Sink> byType = sinksByMethod.get(call.getMethodName());
+        if (byType == null) {
+            return null;
+        }
+        Sink sink = call.getReceiverType() != null ? byType.get(call.getReceiverType()) : null;
+        return sink != null ? sink : byType.get(WILDCARD);
+    }
+
+    /**
+     * @param category 类别，如 sql、command
+     * @param pattern  目录中的模式，如 Runtime.exec、new ProcessBuilder
+     */
+    public record Sink(String category, String pattern) {
+    }
+}
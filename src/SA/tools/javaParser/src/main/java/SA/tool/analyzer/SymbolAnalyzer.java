@@ -1,6 +1,7 @@
 package SA.tool.analyzer;
 
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.FieldDeclaration;
@@ -9,13 +10,18 @@ import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.expr.*;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.github.javaparser.ast.stmt.ExplicitConstructorInvocationStmt;
+import SA.tool.dataflow.MethodDataflow;
 import SA.tool.model.ApiInfo;
 import SA.tool.model.ControllerAnalysisResult;
 import SA.tool.model.HttpRequest;
+import SA.tool.model.ParamFlow;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -76,30 +82,96 @@ public class SymbolAnalyzer {
             if (isApiMethod(method)) {
                 ApiInfo apiInfo = createApiInfo(method, result.getControllerName(), result.getFilePath());
                 
-                // Simplified analysis
-                method.findAll(MethodCallExpr.class).forEach(call -> {
-                    call.getScope().ifPresent(scope -> {
-                        if (scope instanceof NameExpr) {
-                            String varName = ((NameExpr) scope).getNameAsString();
-                            if (classFields.containsKey(varName)) {
-                                String type = classFields.get(varName);
-                                String fqn = importMap.getOrDefault(type, type);
-                                apiInfo.addReference(fqn + "." + call.getNameAsString());
+                // Simplified analysis：一次遍历方法体同时收集字段调用和对象创建，创建的类型排在调用之后
+                List<String> createdTypes = new ArrayList<>();
+                method.walk(node -> {
+                    if (node instanceof MethodCallExpr call) {
+                        call.getScope().ifPresent(scope -> {
+                            if (scope instanceof NameExpr) {
+                                String varName = ((NameExpr) scope).getNameAsString();
+                                if (classFields.containsKey(varName)) {
+                                    String type = classFields.get(varName);
+                                    String fqn = importMap.getOrDefault(type, type);
+                                    apiInfo.addReference(fqn + "." + call.getNameAsString());
+                                }
                             }
-                        }
-                    });
-                });
-
-                method.findAll(ObjectCreationExpr.class).forEach(creation -> {
-                    String type = creation.getType().getNameAsString();
-                    String fqn = importMap.getOrDefault(type, type);
-                    apiInfo.addReference(fqn);
+                        });
+                    } else if (node instanceof ObjectCreationExpr creation) {
+                        String type = creation.getType().getNameAsString();
+                        createdTypes.add(importMap.getOrDefault(type, type));
+                    }
                 });
+                createdTypes.forEach(apiInfo::addReference);
 
+                apiInfo.setParamFlows(analyzeParamFlows(method));
                 result.addApi(apiInfo);
             }
         }
 
+        /**
+         * 参数流入的调用实参：方法体内的定义-使用分析，比按字段名匹配调用更精确，也覆盖局部变量中转的情况
+         */
+        private List<ParamFlow> analyzeParamFlows(MethodDeclaration method) {
+            MethodDataflow dataflow = MethodDataflow.analyze(method);
+            List<ParamFlow> flows = new ArrayList<>();
+            for (MethodDataflow.CallFlow flow : dataflow.getCallFlows()) {
+                if (flow.argument() == MethodDataflow.CallFlow.RECEIVER) {
+                    continue;
+                }
+                String callee = calleeName(flow.call(), dataflow);
+                String codePos = String.format("%s:L%d:C%d", result.getFilePath(),
+                        flow.call().getBegin().map(pos -> pos.line).orElse(-1),
+                        flow.call().getBegin().map(pos -> pos.column).orElse(-1));
+                for (String param : dataflow.parameterNames(flow.parameters())) {
+                    flows.add(new ParamFlow(param, callee, flow.argument(), codePos));
+                }
+            }
+            return flows;
+        }
+
+        private String calleeName(Node call, MethodDataflow dataflow) {
+            if (call instanceof ObjectCreationExpr creation) {
+                return "new " + qualify(creation.getType().getNameAsString());
+            }
+            if (call instanceof ExplicitConstructorInvocationStmt invocation) {
+                return invocation.isThis() ? "this" : "super";
+            }
+            MethodCallExpr methodCall = (MethodCallExpr) call;
+            Optional<Expression> scope = methodCall.getScope();
+            String type = scope.isEmpty() || scope.get().isThisExpr()
+                    ? result.getControllerName()
+                    : scopeType(scope.get(), dataflow);
+            return type == null ? methodCall.getNameAsString() : type + "." + methodCall.getNameAsString();
+        }
+
+        /**
+         * 接收者的类型：局部变量与参数的声明类型、字段类型，或首字母大写的静态调用类名
+         */
+        private String scopeType(Expression scope, MethodDataflow dataflow) {
+            String type = null;
+            if (scope instanceof NameExpr nameExpr) {
+                String name = nameExpr.getNameAsString();
+                type = dataflow.variableType(name);
+                if (type == null) {
+                    type = classFields.get(name);
+                }
+                if (type == null && Character.isUpperCase(name.charAt(0))) {
+                    type = name;
+                }
+            } else if (scope instanceof FieldAccessExpr fieldAccess && fieldAccess.getScope().isThisExpr()) {
+                type = classFields.get(fieldAccess.getNameAsString());
+            }
+            if (type == null || "var".equals(type)) {
+                return null;
+            }
+            int generic = type.indexOf('<');
+            return qualify(generic >= 0 ? type.substring(0, generic) : type);
+        }
+
+        private String qualify(String type) {
+            return importMap.getOrDefault(type, type);
+        }
+
         private boolean isApiMethod(MethodDeclaration method) {
             return method.getAnnotations().stream()
                        .anyMatch(a -> API_MAPPING_ANNOTATIONS.contains(a.getNameAsString()));
@@ -0,0 +1,171 @@
+package SA.tool.analyzer;
+
+import SA.tool.model.DefinitionFact;
+import SA.tool.model.DefinitionInfo;
+import SA.tool.model.FileFacts;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.SourceFiles;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 项目级符号表：由文件事实一次构建，按简单名和全限定名两个哈希索引查找定义。
+ *
+ * 简单名索引包含全部定义（类、接口、枚举、枚举常量、方法、字段、参数、局部变量）；
+ * 全限定名索引包含类型自身（{@code com.example.UserService}）和类型成员（{@code com.example.UserService.createUser}），
+ * 参数和局部变量没有全限定名。
+ *
+ * 索引中的定义不含代码，{@link #definitionCode(Entry)} 按定义的位置从源码截取，只用于查询实际返回的定义。
+ */
+public class SymbolIndex {
+
+    private final Map<String, List<Entry>> bySimpleName = new HashMap<>();
+    private final Map<String, List<Entry>> byQualifiedName = new HashMap<>();
+    private final Map<String, List<String>> implementors = new HashMap<>(); // 接口全限定名 -> 实现类
+    private SourceFiles sources; // 用于截取定义代码
+    private int size;
+
+    public static SymbolIndex build(ProjectFacts facts) {
+        return build(facts, null);
+    }
+
+    /**
+     * @param project 已读入的文件，截取定义代码时优先使用其中的源码，可为 null
+     */
+    public static SymbolIndex build(ProjectFacts facts, ParsedProject project) {
+        SymbolIndex index = new SymbolIndex();
+        index.sources = new SourceFiles(facts.getRootPath(), project);
+        try (Phase phase = AnalysisStats.phase("symbol_index")) {
+            for (FileFacts file : facts.getFiles()) {
+                for (DefinitionFact fact : file.getDefinitions()) {
+                    index.add(new Entry(file.getFilePath(), fact));
+                }
+                file.getImplementors().forEach((interfaceFqn, classes) ->
+                        index.implementors.computeIfAbsent(interfaceFqn, k -> new ArrayList<>()).addAll(classes));
+            }
+            phase.count("files", facts.getFiles().size());
+        }
+        return index;
+    }
+
+    private void add(Entry entry) {
+        bySimpleName.computeIfAbsent(entry.fact().getName(), k -> new ArrayList<>()).add(entry);
+        String qualifiedName = qualifiedName(entry.fact());
+        if (qualifiedName != null) {
+            byQualifiedName.computeIfAbsent(qualifiedName, k -> new ArrayList<>()).add(entry);
+        }
+        size++;
+    }
+
+    private static String qualifiedName(DefinitionFact fact) {
+        if (fact.getClassFqn() == null) {
+            return null;
+        }
+        switch (fact.getDefinition().getDefinitionType()) {
+            case "CLASS":
+            case "INTERFACE":
+            case "ENUM":
+                return fact.getClassFqn();
+            case "METHOD":
+            case "FIELD":
+            case "ENUM_CONSTANT":
+                return fact.getClassFqn() + "." + fact.getName();
+            default:
+                return null; // 参数和局部变量只能按简单名查找
+        }
+    }
+
+    /**
+     * 含 '.' 的符号按全限定名查找，否则按简单名查找。返回的定义不含代码
+     */
+    public List<DefinitionInfo> lookup(String symbolName) {
+        return definitions(entries(symbolName));
+    }
+
+    /**
+     * 同 {@link #lookup(String)}，带有定义所在的文件和位置
+     */
+    public List<Entry> entries(String symbolName) {
+        Map<String, List<Entry>> index = symbolName.contains(".") ? byQualifiedName : bySimpleName;
+        return Collections.unmodifiableList(index.getOrDefault(symbolName, Collections.emptyList()));
+    }
+
+    /**
+     * 从源码截取定义代码，之后各行去掉与首行相同宽度的缩进；源码不可读或定义没有位置时返回 null
+     */
+    public String definitionCode(Entry entry) {
+        DefinitionFact fact = entry.fact();
+        if (fact.getBeginLine() <= 0) {
+            return null;
+        }
+        return sources.lineIndex(entry.file())
+                .map(lines -> lines.slice(fact.getBeginLine(), fact.getBeginColumn(), fact.getEndLine(), fact.getEndColumn()))
+                .map(code -> dedent(code, fact.getBeginColumn() - 1))
+                .orElse(null);
+    }
+
+    private static String dedent(String code, int indent) {
+        if (indent <= 0 || code.indexOf('\n') < 0) {
+            return code;
+        }
+        String[] lines = code.split("\n", -1);
+        StringBuilder result = new StringBuilder(code.length()).append(lines[0]);
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i];
+            int strip = 0;
+            while (strip < indent && strip < line.length() && (line.charAt(strip) == ' ' || line.charAt(strip) == '\t')) {
+                strip++;
+            }
+            result.append('\n').append(line, strip, line.length());
+        }
+        return result.toString();
+    }
+
+    private static List<DefinitionInfo> definitions(List<Entry> entries) {
+        List<DefinitionInfo> definitions = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            definitions.add(entry.fact().getDefinition());
+        }
+        return Collections.unmodifiableList(definitions);
+    }
+
+    public List<String> getImplementors(String interfaceFqn) {
+        return Collections.unmodifiableList(implementors.getOrDefault(interfaceFqn, Collections.emptyList()));
+    }
+
+    /**
+     * 简单名 -> 定义（不含代码），按名字排序
+     */
+    public Map<String, List<DefinitionInfo>> definitionsByName() {
+        Map<String, List<DefinitionInfo>> byName = new TreeMap<>();
+        bySimpleName.forEach((name, entries) -> byName.put(name, definitions(entries)));
+        return Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * 接口全限定名 -> 实现类，按接口名排序
+     */
+    public Map<String, List<String>> allImplementors() {
+        return Collections.unmodifiableMap(new TreeMap<>(implementors));
+    }
+
+    /**
+     * 索引中的定义总数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 定义及其所在文件（相对项目根目录）
+     */
+    public record Entry(String file, DefinitionFact fact) {
+    }
+}
@@ -0,0 +1,134 @@
+package SA.tool.analyzer;
+
+import SA.tool.model.FileFacts;
+import SA.tool.model.SymbolRange;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 项目级的位置 -> 符号索引：每个文件的类、方法、字段声明区间建成 {@link IntervalIndex}，
+ * 某行所在的符号是一次 O(log n) 查找；另按名字索引全部声明，用于把光标处的名字解析到声明。
+ *
+ * 区间来自文件事实（{@link FactKind#RANGES}），随事实缓存持久化，内容未变化的文件无需重新解析即可建立索引。
+ */
+public class SymbolRanges {
+
+    public static final Set<String> TYPE_KINDS = Set.of("CLASS", "INTERFACE", "ENUM", "RECORD", "ANNOTATION");
+
+    private final IntervalIndex<SymbolRange> index;
+    private final Map<String, List<Declaration>> byName;
+
+    private SymbolRanges(IntervalIndex<SymbolRange> index, Map<String, List<Declaration>> byName) {
+        this.index = index;
+        this.byName = byName;
+    }
+
+    public static SymbolRanges build(ProjectFacts facts) {
+        try (Phase phase = AnalysisStats.phase("symbol_ranges")) {
+            IntervalIndex.Builder<SymbolRange> builder = IntervalIndex.builder();
+            Map<String, List<Declaration>> byName = new HashMap<>();
+            int count = 0;
+            for (FileFacts file : facts.getFiles()) {
+                for (SymbolRange range : file.getRanges()) {
+                    builder.add(file.getFilePath(), range.getBeginLine(), range.getEndLine(), range);
+                    byName.computeIfAbsent(range.getName(), k -> new ArrayList<>()).add(new Declaration(file.getFilePath(), range));
+                }
+                count += file.getRanges().size();
+            }
+            phase.count("files", facts.getFiles().size()).count("ranges", count);
+            return new SymbolRanges(builder.build(), byName);
+        }
+    }
+
+    public static boolean isType(SymbolRange range) {
+        return TYPE_KINDS.contains(range.getSymbolType());
+    }
+
+    /**
+     * @see IntervalIndex#resolveFile(String)
+     */
+    public String resolveFile(String spec) {
+        return index.resolveFile(spec);
+    }
+
+    /**
+     * 包含该行的声明，由内到外
+     */
+    public List<SymbolRange> enclosing(String file, int line) {
+        return index.enclosing(file, line);
+    }
+
+    /**
+     * 包含该行的最内层声明，没有时返回 null
+     */
+    public SymbolRange innermost(String file, int line) {
+        return index.innermost(file, line);
+    }
+
+    /**
+     * 包含该行的最内层指定种类的声明，没有时返回 null
+     */
+    public SymbolRange innermost(String file, int line, Set<String> symbolTypes) {
+        for (SymbolRange range : index.enclosing(file, line)) {
+            if (symbolTypes.contains(range.getSymbolType())) {
+                return range;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 与行区间 [begin, end] 相交的声明，外层在前
+     */
+    public List<SymbolRange> overlapping(String file, int begin, int end) {
+        return index.overlapping(file, begin, end);
+    }
+
+    /**
+     * 项目中该简单名的全部声明，按文件顺序
+     */
+    public List<Declaration> declarations(String name) {
+        return byName.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * 把文件 file 第 line 行上的名字解析到声明（不做类型解析，按作用域就近匹配）：
+     * 依次尝试包含该行的同名声明（光标在声明上或在其内部自引用）、外层类型的同名成员和成员类型、
+     * 项目中唯一的同名声明。无法确定时返回 null
+     */
+    public Declaration resolve(String file, int line, String name) {
+        List<SymbolRange> chain = index.enclosing(file, line);
+        for (SymbolRange range : chain) {
+            if (range.getName().equals(name)) {
+                return new Declaration(file, range);
+            }
+        }
+        List<Declaration> candidates = declarations(name);
+        for (SymbolRange type : chain) {
+            if (!isType(type)) {
+                continue;
+            }
+            String memberType = type.getClassFqn() + "." + name;
+            for (Declaration candidate : candidates) {
+                SymbolRange range = candidate.range();
+                if (isType(range) ? range.getClassFqn().equals(memberType) : range.getClassFqn().equals(type.getClassFqn())) {
+                    return candidate;
+                }
+            }
+        }
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+    /**
+     * 声明及其所在文件（相对项目根目录）
+     */
+    public record Declaration(String file, SymbolRange range) {
+    }
+}
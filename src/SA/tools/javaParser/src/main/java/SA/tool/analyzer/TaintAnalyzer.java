@@ -0,0 +1,68 @@
+package SA.tool.analyzer;
+
+import SA.tool.cache.FactCache;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.TaintFlow;
+import SA.tool.parser.ProjectParser;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * 全程序污点分析：计算所有方法的污点摘要，再从每个 API 接口的入口方法读出参数流入的 sink
+ */
+public class TaintAnalyzer {
+
+    private final FactCollector factCollector;
+    private final ApiExtractor apiExtractor;
+    private final CallGraphAnalyzer callGraphAnalyzer;
+    private final SinkCatalog catalog;
+
+    public TaintAnalyzer() {
+        this(new ProjectParser());
+    }
+
+    public TaintAnalyzer(ProjectParser projectParser) {
+        this(projectParser, null);
+    }
+
+    public TaintAnalyzer(ProjectParser projectParser, FactCache factCache) {
+        this(projectParser, factCache, SinkCatalog.defaults());
+    }
+
+    public TaintAnalyzer(ProjectParser projectParser, FactCache factCache, SinkCatalog catalog) {
+        this(projectParser, factCache, catalog, CallGraphAnalyzer.CalleeSelection.FIRST);
+    }
+
+    public TaintAnalyzer(ProjectParser projectParser, FactCache factCache, SinkCatalog catalog,
+                         CallGraphAnalyzer.CalleeSelection calleeSelection) {
+        this.factCollector = new FactCollector(projectParser, factCache);
+        this.apiExtractor = new ApiExtractor(projectParser, factCache);
+        this.callGraphAnalyzer = new CallGraphAnalyzer(projectParser, factCache, calleeSelection);
+        this.catalog = catalog;
+    }
+
+    public ProjectFacts collect(String targetPath) throws IOException {
+        return factCollector.collect(Paths.get(targetPath), EnumSet.of(FactKind.METHODS, FactKind.FLOWS, FactKind.CONTROLLERS));
+    }
+
+    public TaintSummaries summarize(ProjectFacts facts) {
+        return summarize(facts, callGraphAnalyzer.buildCompactGraph(facts));
+    }
+
+    public TaintSummaries summarize(ProjectFacts facts, CallGraph graph) {
+        return TaintSummaries.compute(facts, graph, catalog);
+    }
+
+    public List<TaintFlow> analyze(String targetPath) throws IOException {
+        return analyze(collect(targetPath));
+    }
+
+    public List<TaintFlow> analyze(ProjectFacts facts) throws IOException {
+        List<ApiInfo> apis = apiExtractor.extractApiInfo(facts, null);
+        return summarize(facts).flowsFrom(apis);
+    }
+}
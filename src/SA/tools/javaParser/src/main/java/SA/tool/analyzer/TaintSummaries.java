@@ -0,0 +1,285 @@
+package SA.tool.analyzer;
+
+import SA.tool.graph.CallGraph;
+import SA.tool.graph.Condensation;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.CallFact;
+import SA.tool.model.FileFacts;
+import SA.tool.model.MethodFact;
+import SA.tool.model.MethodSummary;
+import SA.tool.model.SinkSite;
+import SA.tool.model.TaintFlow;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.Phase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 全部方法的污点摘要：每个参数（传递地）流向哪些 sink 调用点和字段，以及返回值依赖哪些参数。
+ *
+ * 局部摘要来自方法内数据流（{@link FactKind#FLOWS}，随文件事实按内容哈希缓存）：调用点每个实参依赖的参数位图、
+ * 返回值和字段写入依赖的参数位图。跨方法的摘要在调用图的强连通分量上自底向上合成：被调方法的摘要经调用点的实参位图
+ * 映射回调用方的参数，分量内部迭代到不动点；同一层的分量互不依赖，并行计算。返回值不做跨方法合成，
+ * 方法内分析已保守地认为调用结果依赖全部实参。
+ *
+ * 调用图的调用点按 {@link CallGraph#siteCall} 记录的下标对应到调用方方法事实中的调用，不按位置匹配
+ * （链式调用的各调用起始位置相同）。同签名的重复方法只使用第一个的事实，与调用图的节点合并方式一致。
+ */
+public class TaintSummaries {
+
+    private static final int PARALLEL_THRESHOLD = 64; // 一层的分量数超过该值时并行处理
+
+    private final CallGraph graph;
+    private final MethodFact[] factOf;
+    private final List<SinkSite> sites;
+    private final Summary[] summaries;
+
+    private TaintSummaries(CallGraph graph, MethodFact[] factOf, List<SinkSite> sites, Summary[] summaries) {
+        this.graph = graph;
+        this.factOf = factOf;
+        this.sites = sites;
+        this.summaries = summaries;
+    }
+
+    public static TaintSummaries compute(ProjectFacts facts, CallGraph graph, SinkCatalog catalog) {
+        try (Phase phase = AnalysisStats.phase("taint.summaries")) {
+            int n = graph.size();
+            MethodFact[] factOf = new MethodFact[n];
+            for (FileFacts file : facts.getFiles()) {
+                for (MethodFact method : file.getMethods()) {
+                    int id = graph.idOf(method.getMethodSignature());
+                    if (id >= 0 && factOf[id] == null) {
+                        factOf[id] = method;
+                    }
+                }
+            }
+
+            // 局部摘要：方法内直接流入 sink 的参数和写入的字段
+            List<SinkSite> sites = new ArrayList<>();
+            Summary[] summaries = new Summary[n];
+            for (int id = 0; id < n; id++) {
+                MethodFact method = factOf[id];
+                if (method != null) {
+                    for (CallFact call : method.getCalls()) {
+                        SinkCatalog.Sink sink = catalog.match(call);
+                        long flow = call.getReceiverFlow() | or(call.getArgFlows());
+                        if (sink != null && flow != 0) {
+                            sites.add(new SinkSite(sink.category(), sink.pattern(), call.getCodePos(), method.getMethodSignature()));
+                            summary(summaries, id).addSink(sites.size() - 1, flow, -1);
+                        }
+                    }
+                    for (Map.Entry<String, Long> field : method.getFieldFlows().entrySet()) {
+                        summary(summaries, id).addField(method.getClassName() + "." + field.getKey(), field.getValue());
+                    }
+                }
+            }
+
+            TaintSummaries result = new TaintSummaries(graph, factOf, sites, summaries);
+            Condensation condensation = Condensation.of(graph);
+            for (int level = 0; level < condensation.levelCount(); level++) {
+                int[] components = condensation.level(level);
+                IntStream stream = Arrays.stream(components);
+                (components.length > PARALLEL_THRESHOLD ? stream.parallel() : stream)
+                        .forEach(component -> result.solve(condensation.members(component)));
+            }
+            phase.count("methods", n).count("components", condensation.componentCount())
+                    .count("levels", condensation.levelCount()).count("sink_sites", sites.size());
+            return result;
+        }
+    }
+
+    /**
+     * 分量内迭代到不动点。只写本分量成员的摘要，读取的被调摘要要么在更低层（已完成），要么在本分量内
+     */
+    private void solve(int[] members) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int method : members) {
+                if (factOf[method] == null) {
+                    continue;
+                }
+                List<CallFact> calls = factOf[method].getCalls();
+                for (int site = graph.siteStart(method); site < graph.siteStart(method + 1); site++) {
+                    int index = graph.siteCall(site);
+                    CallFact call = index >= 0 && index < calls.size() ? calls.get(index) : null;
+                    int callee = graph.siteTarget(site);
+                    if (call != null && call.getArgFlows() != null && summaries[callee] != null) {
+                        changed |= apply(method, callee, call);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean apply(int caller, int callee, CallFact call) {
+        Summary calleeSummary = summaries[callee];
+        MethodFact calleeFact = factOf[callee];
+        boolean varargs = calleeFact != null && calleeFact.isVarargs();
+        int varargsIndex = calleeFact == null ? -1 : calleeFact.getParameterCount() - 1;
+        // 递归调用自身时先复制，避免边遍历边修改
+        Map<Integer, long[]> sinks = caller == callee ? new LinkedHashMap<>(calleeSummary.sinks) : calleeSummary.sinks;
+        Map<String, Long> fields = caller == callee ? new LinkedHashMap<>(calleeSummary.fields) : calleeSummary.fields;
+
+        boolean changed = false;
+        for (Map.Entry<Integer, long[]> sink : sinks.entrySet()) {
+            long mapped = map(sink.getValue()[0], call.getArgFlows(), varargs, varargsIndex);
+            if (mapped != 0) {
+                changed |= summary(summaries, caller).addSink(sink.getKey(), mapped, callee);
+            }
+        }
+        for (Map.Entry<String, Long> field : fields.entrySet()) {
+            long mapped = map(field.getValue(), call.getArgFlows(), varargs, varargsIndex);
+            if (mapped != 0) {
+                changed |= summary(summaries, caller).addField(field.getKey(), mapped);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 被调方法的参数位图经实参映射为调用方的参数位图；可变参数对应其后的全部实参
+     */
+    private static long map(long calleeParams, long[] argFlows, boolean varargs, int varargsIndex) {
+        long mapped = 0;
+        for (long bits = calleeParams; bits != 0; bits &= bits - 1) {
+            int p = Long.numberOfTrailingZeros(bits);
+            if (varargs && p == varargsIndex) {
+                for (int i = p; i < argFlows.length; i++) {
+                    mapped |= argFlows[i];
+                }
+            } else if (p < argFlows.length) {
+                mapped |= argFlows[p];
+            }
+        }
+        return mapped;
+    }
+
+    private static long or(long[] flows) {
+        long result = 0;
+        if (flows != null) {
+            for (long flow : flows) {
+                result |= flow;
+            }
+        }
+        return result;
+    }
+
+    private static Summary summary(Summary[] summaries, int id) {
+        if (summaries[id] == null) {
+            summaries[id] = new Summary();
+        }
+        return summaries[id];
+    }
+
+    public int sinkSiteCount() {
+        return sites.size();
+    }
+
+    /**
+     * 各接口参数流入的 sink 调用点，每个 (接口, sink) 一条，附一条见证调用链
+     */
+    public List<TaintFlow> flowsFrom(List<ApiInfo> apis) {
+        List<TaintFlow> flows = new ArrayList<>();
+        for (ApiInfo api : apis) {
+            for (int entry : graph.findMethods(api)) {
+                Summary summary = summaries[entry];
+                if (summary == null) {
+                    continue;
+                }
+                for (Map.Entry<Integer, long[]> sink : summary.sinks.entrySet()) {
+                    TaintFlow flow = new TaintFlow();
+                    flow.setApi(api);
+                    flow.setParams(parameterNames(entry, sink.getValue()[0]));
+                    flow.setSink(sites.get(sink.getKey()));
+                    flow.setCallChain(chain(entry, sink.getKey()));
+                    flows.add(flow);
+                }
+            }
+        }
+        return flows;
+    }
+
+    /**
+     * 沿记录的下一跳走到 sink 所在方法。下一跳在首次发现时确定，发现时间单调，因此不会成环
+     */
+    private List<String> chain(int entry, int sink) {
+        List<String> chain = new ArrayList<>();
+        for (int method = entry; method >= 0 && chain.size() <= graph.size(); ) {
+            chain.add(graph.signature(method));
+            method = (int) summaries[method].sinks.get(sink)[1];
+        }
+        return chain;
+    }
+
+    /**
+     * 非空的方法摘要（按方法 ID 顺序）
+     */
+    public List<MethodSummary> toReport() {
+        List<MethodSummary> report = new ArrayList<>();
+        for (int id = 0; id < summaries.length; id++) {
+            long returnFlow = factOf[id] == null ? 0 : factOf[id].getReturnFlow();
+            if (summaries[id] == null && returnFlow == 0) {
+                continue;
+            }
+            MethodSummary entry = new MethodSummary();
+            entry.setMethodSignature(graph.signature(id));
+            entry.setReturnParams(parameterNames(id, returnFlow));
+            if (summaries[id] != null) {
+                for (Map.Entry<String, Long> field : summaries[id].fields.entrySet()) {
+                    entry.getFieldParams().put(field.getKey(), parameterNames(id, field.getValue()));
+                }
+                for (Map.Entry<Integer, long[]> sink : summaries[id].sinks.entrySet()) {
+                    entry.getSinks().add(new MethodSummary.SinkParams(sites.get(sink.getKey()),
+                            parameterNames(id, sink.getValue()[0])));
+                }
+            }
+            report.add(entry);
+        }
+        return report;
+    }
+
+    private List<String> parameterNames(int id, long flow) {
+        List<String> names = factOf[id] == null ? List.of() : factOf[id].getParameterNames();
+        List<String> result = new ArrayList<>(Long.bitCount(flow));
+        for (long bits = flow; bits != 0; bits &= bits - 1) {
+            int p = Long.numberOfTrailingZeros(bits);
+            if (p < names.size()) {
+                result.add(names.get(p));
+            }
+        }
+        return result;
+    }
+
+    private static final class Summary {
+        final Map<Integer, long[]> sinks = new LinkedHashMap<>(); // sink 下标 -> {参数位图, 下一跳方法 ID（-1 表示在本方法内）}
+        final Map<String, Long> fields = new LinkedHashMap<>();  // 类名.字段名 -> 参数位图
+
+        boolean addSink(int sink, long flow, int next) {
+            long[] entry = sinks.get(sink);
+            if (entry == null) {
+                sinks.put(sink, new long[]{flow, next});
+                return true;
+            }
+            if ((entry[0] | flow) == entry[0]) {
+                return false;
+            }
+            entry[0] |= flow;
+            return true;
+        }
+
+        boolean addField(String field, long flow) {
+            Long existing = fields.get(field);
+            if (existing != null && (existing | flow) == existing) {
+                return false;
+            }
+            fields.put(field, existing == null ? flow : existing | flow);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package SA.tool.cache;
+
+import SA.tool.model.FileFacts;
+import SA.tool.parser.ParsedFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 按文件内容哈希缓存单文件分析事实的磁盘目录。
+ *
+ * 目录结构：{@code <cache-dir>/<parser-version>/<hash 前两位>/<hash>.json}。
+ * 哈希由项目根目录、文件相对根目录的路径和内容共同计算（事实中的 file_path、code_pos 都相对项目根目录，
+ * 同一文件在不同根目录下分析得到不同的事实），解析器版本不同的条目互不可见。
+ */
+public class FactCache {
+
+    private final Path versionDir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public FactCache(Path cacheDir) throws IOException {
+        this.versionDir = cacheDir.resolve(FileFacts.PARSER_VERSION);
+        Files.createDirectories(versionDir);
+    }
+
+    public Path getDirectory() {
+        return versionDir;
+    }
+
+    public static String contentHash(Path rootPath, ParsedFile file) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(rootPath.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(file.getRelativePath().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(file.getSource().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @return 缓存的事实，未命中或条目损坏时返回 null
+     */
+    public FileFacts get(String contentHash) {
+        Path entry = entryPath(contentHash);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        try {
+            FileFacts facts = objectMapper.readValue(entry.toFile(), FileFacts.class);
+            if (!FileFacts.PARSER_VERSION.equals(facts.getParserVersion()) || !contentHash.equals(facts.getContentHash())) {
+                return null;
+            }
+            return facts;
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring corrupt cache entry " + entry + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(FileFacts facts) {
+        Path entry = entryPath(facts.getContentHash());
+        try {
+            Files.createDirectories(entry.getParent());
+            // 先写临时文件再原子替换，避免并发写入或中断留下半个条目
+            Path tmp = Files.createTempFile(entry.getParent(), facts.getContentHash(), ".tmp");
+            objectMapper.writeValue(tmp.toFile(), facts);
+            Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to write cache entry " + entry + ": " + e.getMessage());
+        }
+    }
+
+    private Path entryPath(String contentHash) {
+        return versionDir.resolve(contentHash.substring(0, 2)).resolve(contentHash + ".json");
+    }
+}
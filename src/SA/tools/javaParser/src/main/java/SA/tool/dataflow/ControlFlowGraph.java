@@ -0,0 +1,555 @@
+package SA.tool.dataflow;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.InstanceOfExpr;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.expr.PatternExpr;
+import com.github.javaparser.ast.expr.UnaryExpr;
+import com.github.javaparser.ast.stmt.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 方法体的语句级控制流图，同时登记变量、定义和调用点，供 {@link MethodDataflow} 做到达定义分析。
+ *
+ * 每个节点对应一次求值（表达式语句、单个变量声明、条件、返回值等），节点内的读取都看到进入节点时的定义；
+ * 分支汇合处插入空节点。跟踪的变量只有参数和局部变量（按名字区分，不处理同名遮蔽），
+ * 对局部变量的数组元素或字段赋值视为该变量的弱定义（不杀死已有定义）。
+ * 异常边做保守近似：try 块中的每个节点都连到各个 catch 和 finally 的入口；try 中的 return 不经过 finally。
+ * lambda 体不建图，其中的调用算作所在节点的调用，lambda 内声明的变量不跟踪。
+ */
+final class ControlFlowGraph {
+
+    private static final int[] EMPTY = new int[0];
+
+    // 节点：后继与本节点内的定义
+    final List<int[]> successors = new ArrayList<>();
+    final List<int[]> nodeDefs = new ArrayList<>();
+    private final List<Integer> successorCounts = new ArrayList<>();
+
+    // 变量：参数在前，编号与参数位置一致
+    final Map<String, Integer> variables = new HashMap<>();
+    final Map<String, String> variableTypes = new HashMap<>();
+    final int parameterCount;
+
+    // 定义：所属变量、所在节点、右值读取的变量、是否为弱定义
+    final List<Integer> defVariable = new ArrayList<>();
+    final List<Integer> defNode = new ArrayList<>();
+    final List<int[]> defReads = new ArrayList<>();
+    final List<Boolean> defWeak = new ArrayList<>();
+
+    // 调用点、返回值和字段写入：所在节点与读取的变量
+    final List<CallSite> calls = new ArrayList<>();
+    final List<int[]> returnReads = new ArrayList<>();
+    final List<Integer> returnNodes = new ArrayList<>();
+    final List<FieldWrite> fieldWrites = new ArrayList<>();
+
+    private final Deque<JumpTarget> targets = new ArrayDeque<>();
+    private String pendingLabel; // 带标签循环的标签，由紧接着构建的循环取走
+    private final List<Integer> currentTry = new ArrayList<>(); // 外层 try 的异常出口，try 块内新建的节点都连到这里
+
+    private ControlFlowGraph(CallableDeclaration<?> method) {
+        NodeList<Parameter> parameters = method.getParameters();
+        parameterCount = parameters.size();
+        int entry = newNode();
+        for (Parameter parameter : parameters) {
+            int variable = declare(parameter.getNameAsString(), parameter.getTypeAsString());
+            addDef(variable, entry, EMPTY, false);
+        }
+        Statement body = method.isMethodDeclaration()
+                ? method.asMethodDeclaration().getBody().orElse(null)
+                : method.asConstructorDeclaration().getBody();
+        if (body != null) {
+            build(body, entry);
+        }
+    }
+
+    static ControlFlowGraph of(CallableDeclaration<?> method) {
+        return new ControlFlowGraph(method);
+    }
+
+    int size() {
+        return successors.size();
+    }
+
+    int successorCount(int node) {
+        return successorCounts.get(node);
+    }
+
+    // ---- 语句 ----
+
+    /**
+     * @return 语句正常结束后的节点，控制流不会落到语句之后时为 -1
+     */
+    private int build(Statement statement, int current) {
+        if (statement.isBlockStmt()) {
+            for (Statement child : statement.asBlockStmt().getStatements()) {
+                current = build(child, current);
+            }
+            return current;
+        }
+        if (statement.isExpressionStmt()) {
+            return expression(statement.asExpressionStmt().getExpression(), current);
+        }
+        if (statement.isIfStmt()) {
+            IfStmt ifStmt = statement.asIfStmt();
+            int condition = step(ifStmt.getCondition(), current);
+            int thenEnd = build(ifStmt.getThenStmt(), condition);
+            int elseEnd = ifStmt.getElseStmt().map(s -> build(s, condition)).orElse(condition);
+            return join(thenEnd, elseEnd);
+        }
+        if (statement.isWhileStmt()) {
+            WhileStmt whileStmt = statement.asWhileStmt();
+            int head = join(current);
+            int condition = step(whileStmt.getCondition(), head);
+            int exit = newNode();
+            addEdge(condition, exit);
+            loop(whileStmt.getBody(), condition, exit, head);
+            return exit;
+        }
+        if (statement.isDoStmt()) {
+            DoStmt doStmt = statement.asDoStmt();
+            int head = join(current);
+            int next = newNode();
+            int exit = newNode();
+            loop(doStmt.getBody(), head, exit, next);
+            int condition = step(doStmt.getCondition(), next);
+            addEdge(condition, head);
+            addEdge(condition, exit);
+            return exit;
+        }
+        if (statement.isForStmt()) {
+            ForStmt forStmt = statement.asForStmt();
+            for (Expression init : forStmt.getInitialization()) {
+                current = expression(init, current);
+            }
+            int head = join(current);
+            int condition = forStmt.getCompare().map(c -> step(c, head)).orElse(head);
+            int exit = newNode();
+            addEdge(condition, exit);
+            int next = newNode();
+            int update = next;
+            for (Expression expression : forStmt.getUpdate()) {
+                update = expression(expression, update);
+            }
+            addEdge(update, head);
+            loop(forStmt.getBody(), condition, exit, next);
+            return exit;
+        }
+        if (statement.isForEachStmt()) {
+            ForEachStmt forEach = statement.asForEachStmt();
+            int iterable = step(forEach.getIterable(), current);
+            int head = join(iterable);
+            // 循环变量的每次取值都来自被迭代的表达式
+            VariableDeclarator variable = forEach.getVariable().getVariable(0);
+            int binding = newNode();
+            addEdge(head, binding);
+            addDef(declare(variable.getNameAsString(), variable.getTypeAsString()), binding,
+                    reads(forEach.getIterable()), false);
+            int exit = newNode();
+            addEdge(head, exit);
+            loop(forEach.getBody(), binding, exit, head);
+            return exit;
+        }
+        if (statement.isLabeledStmt()) {
+            LabeledStmt labeled = statement.asLabeledStmt();
+            Statement inner = labeled.getStatement();
+            if (inner.isWhileStmt() || inner.isDoStmt() || inner.isForStmt() || inner.isForEachStmt()) {
+                pendingLabel = labeled.getLabel().asString();
+                return build(inner, current);
+            }
+            int exit = newNode();
+            targets.push(new JumpTarget(labeled.getLabel().asString(), exit, -1, JumpKind.BLOCK));
+            addEdge(build(inner, current), exit);
+            targets.pop();
+            return exit;
+        }
+        if (statement.isSwitchStmt()) {
+            SwitchStmt switchStmt = statement.asSwitchStmt();
+            int selector = step(switchStmt.getSelector(), current);
+            int exit = newNode();
+            targets.push(new JumpTarget(null, exit, -1, JumpKind.SWITCH));
+            int fallthrough = -1;
+            boolean hasDefault = false;
+            for (SwitchEntry entry : switchStmt.getEntries()) {
+                hasDefault |= entry.getLabels().isEmpty();
+                int end = join(selector, fallthrough);
+                for (Statement child : entry.getStatements()) {
+                    end = build(child, end);
+                }
+                // 箭头形式的分支不会贯穿
+                fallthrough = entry.getType() == SwitchEntry.Type.STATEMENT_GROUP ? end : -1;
+                if (entry.getType() != SwitchEntry.Type.STATEMENT_GROUP) {
+                    addEdge(end, exit);
+                }
+            }
+            targets.pop();
+            addEdge(fallthrough, exit);
+            if (!hasDefault) {
+                addEdge(selector, exit);
+            }
+            return exit;
+        }
+        if (statement.isTryStmt()) {
+            return tryStatement(statement.asTryStmt(), current);
+        }
+        if (statement.isReturnStmt()) {
+            Expression value = statement.asReturnStmt().getExpression().orElse(null);
+            if (value != null) {
+                returnNodes.add(step(value, current));
+                returnReads.add(reads(value));
+            }
+            return -1;
+        }
+        if (statement.isThrowStmt()) {
+            step(statement.asThrowStmt().getExpression(), current);
+            return -1;
+        }
+        if (statement.isBreakStmt()) {
+            String label = statement.asBreakStmt().getLabel().map(l -> l.asString()).orElse(null);
+            JumpTarget target = findTarget(label, false);
+            if (target != null) {
+                addEdge(current, target.breakNode);
+            }
+            return -1;
+        }
+        if (statement.isContinueStmt()) {
+            String label = statement.asContinueStmt().getLabel().map(l -> l.asString()).orElse(null);
+            JumpTarget target = findTarget(label, true);
+            if (target != null) {
+                addEdge(current, target.continueNode);
+            }
+            return -1;
+        }
+        if (statement.isSynchronizedStmt()) {
+            SynchronizedStmt sync = statement.asSynchronizedStmt();
+            return build(sync.getBody(), step(sync.getExpression(), current));
+        }
+        if (statement.isAssertStmt()) {
+            return step(statement.asAssertStmt().getCheck(), current);
+        }
+        if (statement.isYieldStmt()) {
+            step(statement.asYieldStmt().getExpression(), current);
+            return -1;
+        }
+        if (statement.isExplicitConstructorInvocationStmt()) {
+            ExplicitConstructorInvocationStmt invocation = statement.asExplicitConstructorInvocationStmt();
+            int node = newNode();
+            addEdge(current, node);
+            recordCall(invocation, invocation.getExpression().orElse(null), invocation.getArguments(), node);
+            return node;
+        }
+        // 空语句、局部类声明等不影响数据流
+        return current;
+    }
+
+    /**
+     * 循环体：break 到 exit，continue 与正常结束都到 next
+     */
+    private void loop(Statement body, int bodyEntry, int exit, int next) {
+        targets.push(new JumpTarget(pendingLabel, exit, next, JumpKind.LOOP));
+        pendingLabel = null;
+        addEdge(build(body, bodyEntry), next);
+        targets.pop();
+    }
+
+    /**
+     * 不带标签的 break 找最近的循环或 switch，continue 找最近的循环；带标签时按标签匹配
+     */
+    private JumpTarget findTarget(String label, boolean isContinue) {
+        for (JumpTarget target : targets) {
+            boolean matches = label != null ? label.equals(target.label) : target.kind != JumpKind.BLOCK;
+            if (matches && (!isContinue || target.kind == JumpKind.LOOP)) {
+                return target;
+            }
+            if (label != null && matches) {
+                return null; // 标签指向的不是循环
+            }
+        }
+        return null;
+    }
+
+    private int tryStatement(TryStmt tryStmt, int current) {
+        int finallyEntry = tryStmt.getFinallyBlock().isPresent() ? newNode() : -1;
+        List<Integer> handlers = new ArrayList<>();
+        for (CatchClause clause : tryStmt.getCatchClauses()) {
+            int handler = newNode();
+            Parameter parameter = clause.getParameter();
+            addDef(declare(parameter.getNameAsString(), parameter.getTypeAsString()), handler, EMPTY, false);
+            handlers.add(handler);
+        }
+        if (finallyEntry >= 0) {
+            handlers.add(finallyEntry);
+        }
+
+        int outerSize = currentTry.size();
+        currentTry.addAll(handlers);
+        for (int handler : handlers) {
+            addEdge(current, handler);
+        }
+        for (Expression resource : tryStmt.getResources()) {
+            current = expression(resource, current);
+        }
+        int tryEnd = build(tryStmt.getTryBlock(), current);
+        currentTry.subList(outerSize, currentTry.size()).clear();
+
+        int after = newNode();
+        List<Integer> ends = new ArrayList<>();
+        ends.add(tryEnd);
+        for (int i = 0; i < tryStmt.getCatchClauses().size(); i++) {
+            int catchEnd = build(tryStmt.getCatchClauses().get(i).getBody(), handlers.get(i));
+            ends.add(catchEnd);
+            if (finallyEntry >= 0) {
+                addEdge(catchEnd, finallyEntry);
+            }
+        }
+        if (finallyEntry < 0) {
+            for (int end : ends) {
+                addEdge(end, after);
+            }
+            return after;
+        }
+        addEdge(tryEnd, finallyEntry);
+        addEdge(build(tryStmt.getFinallyBlock().get(), finallyEntry), after);
+        return after;
+    }
+
+    // ---- 表达式 ----
+
+    /**
+     * 表达式语句：变量声明的每个声明符单独成为一个节点，其余表达式一个节点
+     */
+    private int expression(Expression expression, int current) {
+        if (expression.isVariableDeclarationExpr()) {
+            for (VariableDeclarator declarator : expression.asVariableDeclarationExpr().getVariables()) {
+                int node = newNode();
+                addEdge(current, node);
+                declarator.getInitializer().ifPresent(init -> collect(init, node, false));
+                int variable = declare(declarator.getNameAsString(), declarator.getTypeAsString());
+                declarator.getInitializer().ifPresent(init -> addDef(variable, node, reads(init), false));
+                current = node;
+            }
+            return current;
+        }
+        return step(expression, current);
+    }
+
+    private int step(Expression expression, int current) {
+        int node = newNode();
+        addEdge(current, node);
+        collect(expression, node, false);
+        return node;
+    }
+
+    /**
+     * 收集表达式中的定义与调用（先序遍历），inLambda 时只收集调用
+     */
+    private void collect(Node node, int cfgNode, boolean inLambda) {
+        if (node instanceof LambdaExpr lambda) {
+            collect(lambda.getBody(), cfgNode, true);
+            return;
+        }
+        if (node instanceof ObjectCreationExpr creation) {
+            recordCall(creation, creation.getScope().orElse(null), creation.getArguments(), cfgNode);
+            creation.getScope().ifPresent(scope -> collect(scope, cfgNode, inLambda));
+            creation.getArguments().forEach(argument -> collect(argument, cfgNode, inLambda));
+            return; // 匿名类体不分析
+        }
+        if (node instanceof MethodCallExpr call) {
+            recordCall(call, call.getScope().orElse(null), call.getArguments(), cfgNode);
+        }
+        if (!inLambda) {
+            if (node instanceof AssignExpr assign) {
+                assignment(assign, cfgNode);
+            } else if (node instanceof UnaryExpr unary && isIncrementOrDecrement(unary)
+                    && unary.getExpression().isNameExpr()) {
+                Integer variable = variables.get(unary.getExpression().asNameExpr().getNameAsString());
+                if (variable != null) {
+                    addDef(variable, cfgNode, new int[]{variable}, false);
+                }
+            } else if (node instanceof InstanceOfExpr instanceOf && instanceOf.getPattern().isPresent()) {
+                PatternExpr pattern = instanceOf.getPattern().get();
+                addDef(declare(pattern.getNameAsString(), pattern.getTypeAsString()), cfgNode,
+                        reads(instanceOf.getExpression()), false);
+            }
+        }
+        for (Node child : node.getChildNodes()) {
+            if (!(child instanceof Statement) || inLambda) {
+                collect(child, cfgNode, inLambda);
+            }
+        }
+    }
+
+    private void assignment(AssignExpr assign, int cfgNode) {
+        Expression target = assign.getTarget();
+        int[] valueReads = reads(assign.getValue());
+        boolean compound = assign.getOperator() != AssignExpr.Operator.ASSIGN;
+        if (target.isNameExpr()) {
+            String name = target.asNameExpr().getNameAsString();
+            Integer variable = variables.get(name);
+            if (variable != null) {
+                addDef(variable, cfgNode, compound ? append(valueReads, variable) : valueReads, false);
+            } else {
+                fieldWrites.add(new FieldWrite(name, cfgNode, valueReads));
+            }
+            return;
+        }
+        if (target.isFieldAccessExpr() && target.asFieldAccessExpr().getScope().isThisExpr()) {
+            fieldWrites.add(new FieldWrite(target.asFieldAccessExpr().getNameAsString(), cfgNode, valueReads));
+            return;
+        }
+        // a[i] = x、obj.f = x：弱定义被写入的局部变量
+        Expression base = target;
+        while (base.isArrayAccessExpr() || base.isFieldAccessExpr()) {
+            base = base.isArrayAccessExpr() ? base.asArrayAccessExpr().getName() : base.asFieldAccessExpr().getScope();
+        }
+        if (base.isNameExpr()) {
+            Integer variable = variables.get(base.asNameExpr().getNameAsString());
+            if (variable != null) {
+                addDef(variable, cfgNode, append(valueReads, variable), true);
+            }
+        }
+    }
+
+    private void recordCall(Node call, Expression scope, NodeList<Expression> arguments, int cfgNode) {
+        int[][] argumentReads = new int[arguments.size()][];
+        for (int i = 0; i < arguments.size(); i++) {
+            argumentReads[i] = reads(arguments.get(i));
+        }
+        calls.add(new CallSite(call, cfgNode, scope == null ? EMPTY : reads(scope), argumentReads));
+    }
+
+    /**
+     * 表达式读取的跟踪变量（去重，不含简单赋值的左值）
+     */
+    private int[] reads(Expression expression) {
+        int[] result = EMPTY;
+        int count = 0;
+        for (NameExpr name : expression.findAll(NameExpr.class)) {
+            Integer variable = variables.get(name.getNameAsString());
+            if (variable == null || isAssignTarget(name)) {
+                continue;
+            }
+            boolean seen = false;
+            for (int i = 0; i < count && !seen; i++) {
+                seen = result[i] == variable;
+            }
+            if (!seen) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, Math.max(4, count * 2));
+                }
+                result[count++] = variable;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static boolean isAssignTarget(NameExpr name) {
+        return name.getParentNode().filter(parent -> parent instanceof AssignExpr assign
+                && assign.getTarget() == name && assign.getOperator() == AssignExpr.Operator.ASSIGN).isPresent();
+    }
+
+    private static boolean isIncrementOrDecrement(UnaryExpr unary) {
+        return unary.getOperator() == UnaryExpr.Operator.PREFIX_INCREMENT
+                || unary.getOperator() == UnaryExpr.Operator.PREFIX_DECREMENT
+                || unary.getOperator() == UnaryExpr.Operator.POSTFIX_INCREMENT
+                || unary.getOperator() == UnaryExpr.Operator.POSTFIX_DECREMENT;
+    }
+
+    private static int[] append(int[] values, int value) {
+        for (int existing : values) {
+            if (existing == value) {
+                return values;
+            }
+        }
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    // ---- 图与登记 ----
+
+    private int declare(String name, String type) {
+        variableTypes.put(name, type);
+        return variables.computeIfAbsent(name, k -> variables.size());
+    }
+
+    private void addDef(int variable, int node, int[] reads, boolean weak) {
+        int def = defVariable.size();
+        defVariable.add(variable);
+        defNode.add(node);
+        defReads.add(reads);
+        defWeak.add(weak);
+        int[] defs = nodeDefs.get(node);
+        defs = Arrays.copyOf(defs, defs.length + 1);
+        defs[defs.length - 1] = def;
+        nodeDefs.set(node, defs);
+    }
+
+    private int newNode() {
+        int node = successors.size();
+        successors.add(EMPTY);
+        successorCounts.add(0);
+        nodeDefs.add(EMPTY);
+        for (int handler : currentTry) {
+            addEdge(node, handler);
+        }
+        return node;
+    }
+
+    /**
+     * 汇合节点：所有可达前驱都连到新的空节点
+     */
+    private int join(int... predecessors) {
+        int node = newNode();
+        for (int predecessor : predecessors) {
+            addEdge(predecessor, node);
+        }
+        return node;
+    }
+
+    private void addEdge(int from, int to) {
+        if (from < 0 || to < 0) {
+            return;
+        }
+        int[] edges = successors.get(from);
+        int count = successorCounts.get(from);
+        for (int i = 0; i < count; i++) {
+            if (edges[i] == to) {
+                return;
+            }
+        }
+        if (count == edges.length) {
+            edges = Arrays.copyOf(edges, Math.max(2, count * 2));
+            successors.set(from, edges);
+        }
+        edges[count] = to;
+        successorCounts.set(from, count + 1);
+    }
+
+    record CallSite(Node call, int node, int[] scopeReads, int[][] argumentReads) {
+    }
+
+    record FieldWrite(String field, int node, int[] reads) {
+    }
+
+    private enum JumpKind { LOOP, SWITCH, BLOCK }
+
+    private record JumpTarget(String label, int breakNode, int continueNode, JumpKind kind) {
+    }
+}
@@ -0,0 +1,247 @@
+package SA.tool.dataflow;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个方法体内的参数数据流：参数的值流到了哪些调用的哪些实参、返回值和字段。
+ *
+ * 在 {@link ControlFlowGraph} 上做基于工作表的到达定义分析，每个节点的到达定义集合是一个 long 位图；
+ * 再沿定义-使用链传播每个定义依赖的参数集合（同样是位图，第 p 位表示第 p 个参数，超过 64 个的参数不跟踪），
+ * 直到不动点。值经过方法调用时保守地认为结果依赖接收者和全部实参。
+ *
+ * 分析只依赖单个方法的语法树，各方法之间互不影响，可以在解析线程上并行执行。
+ */
+public final class MethodDataflow {
+
+    private final List<String> parameters;
+    private final Map<String, String> variableTypes;
+    private final List<CallFlow> callFlows;
+    private final long returnFlow;
+    private final Map<String, Long> fieldFlows;
+
+    private MethodDataflow(List<String> parameters, Map<String, String> variableTypes, List<CallFlow> callFlows,
+                           long returnFlow, Map<String, Long> fieldFlows) {
+        this.parameters = parameters;
+        this.variableTypes = variableTypes;
+        this.callFlows = callFlows;
+        this.returnFlow = returnFlow;
+        this.fieldFlows = fieldFlows;
+    }
+
+    public static MethodDataflow analyze(CallableDeclaration<?> method) {
+        ControlFlowGraph cfg = ControlFlowGraph.of(method);
+        int defCount = cfg.defVariable.size();
+        int words = Math.max(1, (defCount + 63) >>> 6);
+        long[][] in = reachingDefinitions(cfg, words);
+
+        // 每个变量的定义列表，用于读取时取出到达的定义
+        int[][] defsOfVariable = defsOfVariable(cfg);
+        long[] taint = new long[defCount];
+        for (int p = 0; p < Math.min(cfg.parameterCount, 64); p++) {
+            taint[p] = 1L << p; // 参数的定义编号与参数位置一致
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int d = cfg.parameterCount; d < defCount; d++) {
+                long value = taint[d] | flowOf(cfg.defReads.get(d), in[cfg.defNode.get(d)], defsOfVariable, taint);
+                if (value != taint[d]) {
+                    taint[d] = value;
+                    changed = true;
+                }
+            }
+        }
+
+        List<CallFlow> callFlows = new ArrayList<>();
+        for (ControlFlowGraph.CallSite call : cfg.calls) {
+            long[] reaching = in[call.node()];
+            long scope = flowOf(call.scopeReads(), reaching, defsOfVariable, taint);
+            if (scope != 0) {
+                callFlows.add(new CallFlow(call.call(), CallFlow.RECEIVER, scope));
+            }
+            for (int i = 0; i < call.argumentReads().length; i++) {
+                long argument = flowOf(call.argumentReads()[i], reaching, defsOfVariable, taint);
+                if (argument != 0) {
+                    callFlows.add(new CallFlow(call.call(), i, argument));
+                }
+            }
+        }
+        long returnFlow = 0;
+        for (int i = 0; i < cfg.returnNodes.size(); i++) {
+            returnFlow |= flowOf(cfg.returnReads.get(i), in[cfg.returnNodes.get(i)], defsOfVariable, taint);
+        }
+        Map<String, Long> fieldFlows = new LinkedHashMap<>();
+        for (ControlFlowGraph.FieldWrite write : cfg.fieldWrites) {
+            long value = flowOf(write.reads(), in[write.node()], defsOfVariable, taint);
+            if (value != 0) {
+                fieldFlows.merge(write.field(), value, (a, b) -> a | b);
+            }
+        }
+
+        List<String> parameters = method.getParameters().stream().map(p -> p.getNameAsString()).toList();
+        return new MethodDataflow(parameters, cfg.variableTypes, callFlows, returnFlow, fieldFlows);
+    }
+
+    /**
+     * 工作表迭代：OUT = GEN ∪ (IN − KILL)，沿后继合并到 IN，直到不再变化。返回每个节点的 IN 位图
+     */
+    private static long[][] reachingDefinitions(ControlFlowGraph cfg, int words) {
+        int n = cfg.size();
+        int defCount = cfg.defVariable.size();
+        long[][] defsOfVariableBits = new long[cfg.variables.size()][words];
+        for (int d = 0; d < defCount; d++) {
+            defsOfVariableBits[cfg.defVariable.get(d)][d >>> 6] |= 1L << d;
+        }
+        long[][] gen = new long[n][];
+        long[][] kill = new long[n][];
+        for (int node = 0; node < n; node++) {
+            gen[node] = new long[words];
+            kill[node] = new long[words];
+            for (int d : cfg.nodeDefs.get(node)) {
+                if (!cfg.defWeak.get(d)) {
+                    // 强定义杀死同一变量的其他定义（包括本节点内更早的定义）
+                    long[] sameVariable = defsOfVariableBits[cfg.defVariable.get(d)];
+                    for (int w = 0; w < words; w++) {
+                        kill[node][w] |= sameVariable[w];
+                        gen[node][w] &= ~sameVariable[w];
+                    }
+                }
+                gen[node][d >>> 6] |= 1L << d;
+            }
+        }
+
+        long[][] in = new long[n][words];
+        long[] out = new long[words];
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        int head = 0;
+        int size = n;
+        for (int node = 0; node < n; node++) {
+            queue[node] = node;
+            queued[node] = true;
+        }
+        while (size > 0) {
+            int node = queue[head];
+            head = (head + 1) % n;
+            size--;
+            queued[node] = false;
+            for (int w = 0; w < words; w++) {
+                out[w] = gen[node][w] | (in[node][w] & ~kill[node][w]);
+            }
+            int[] successors = cfg.successors.get(node);
+            for (int i = 0; i < cfg.successorCount(node); i++) {
+                int successor = successors[i];
+                boolean grew = false;
+                for (int w = 0; w < words; w++) {
+                    long merged = in[successor][w] | out[w];
+                    if (merged != in[successor][w]) {
+                        in[successor][w] = merged;
+                        grew = true;
+                    }
+                }
+                if (grew && !queued[successor]) {
+                    queue[(head + size) % n] = successor;
+                    queued[successor] = true;
+                    size++;
+                }
+            }
+        }
+        return in;
+    }
+
+    private static int[][] defsOfVariable(ControlFlowGraph cfg) {
+        int[] counts = new int[cfg.variables.size()];
+        for (int variable : cfg.defVariable) {
+            counts[variable]++;
+        }
+        int[][] result = new int[counts.length][];
+        for (int v = 0; v < counts.length; v++) {
+            result[v] = new int[counts[v]];
+            counts[v] = 0;
+        }
+        for (int d = 0; d < cfg.defVariable.size(); d++) {
+            int variable = cfg.defVariable.get(d);
+            result[variable][counts[variable]++] = d;
+        }
+        return result;
+    }
+
+    /**
+     * 读取一组变量得到的值依赖的参数：到达该点的各个定义的参数集合之并
+     */
+    private static long flowOf(int[] reads, long[] reaching, int[][] defsOfVariable, long[] taint) {
+        long flow = 0;
+        for (int variable : reads) {
+            for (int d : defsOfVariable[variable]) {
+                if ((reaching[d >>> 6] & (1L << d)) != 0) {
+                    flow |= taint[d];
+                }
+            }
+        }
+        return flow;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * 参数或局部变量的声明类型（源码写法），未声明时为 null
+     */
+    public String variableType(String name) {
+        return variableTypes.get(name);
+    }
+
+    /**
+     * 依赖参数的调用实参（含接收者），按调用在方法体中的先序位置排列
+     */
+    public List<CallFlow> getCallFlows() {
+        return callFlows;
+    }
+
+    /**
+     * 返回值依赖的参数位图
+     */
+    public long getReturnFlow() {
+        return returnFlow;
+    }
+
+    /**
+     * 被写入的字段 -> 写入值依赖的参数位图
+     */
+    public Map<String, Long> getFieldFlows() {
+        return Collections.unmodifiableMap(fieldFlows);
+    }
+
+    /**
+     * 位图中的参数名
+     */
+    public List<String> parameterNames(long flow) {
+        List<String> names = new ArrayList<>(Long.bitCount(flow));
+        for (long bits = flow; bits != 0; bits &= bits - 1) {
+            int p = Long.numberOfTrailingZeros(bits);
+            if (p < parameters.size()) {
+                names.add(parameters.get(p));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 一次调用的一个实参依赖的参数
+     *
+     * @param call       MethodCallExpr、ObjectCreationExpr 或 ExplicitConstructorInvocationStmt
+     * @param argument   实参位置，{@link #RECEIVER} 表示接收者
+     * @param parameters 参数位图
+     */
+    public record CallFlow(Node call, int argument, long parameters) {
+        public static final int RECEIVER = -1;
+    }
+}
@@ -0,0 +1,139 @@
+package SA.tool.graph;
+
+import java.util.Arrays;
+
+/**
+ * 有界的入口 → 目标方法最短调用链。
+ *
+ * 构造时从所有目标方法沿调用者方向做一次多源 BFS，得到每个方法到最近目标的跳数（超过上限的记为不可达）；
+ * 之后对每组入口做正向 BFS，只走"已走步数 + 剩余距离 ≤ 上限"的被调方法，因此只访问确实能在上限内到达目标的方法，
+ * 每个目标方法报告一条最短调用链。遍历用的数组在多次查询间复用（按轮次打标记），不随入口数重新分配。
+ */
+public final class BoundedPaths {
+
+    private final CallGraph graph;
+    private final int maxDepth;
+    private final int[] distance; // 到最近目标方法的跳数，-1 表示上限内不可达
+    private final boolean[] target;
+    private final int[] parent;
+    private final int[] depth;
+    private final int[] visitedRound;
+    private final int[] queue;
+    private int round;
+
+    private BoundedPaths(CallGraph graph, int maxDepth, int[] distance, boolean[] target) {
+        int n = graph.size();
+        this.graph = graph;
+        this.maxDepth = maxDepth;
+        this.distance = distance;
+        this.target = target;
+        this.parent = new int[n];
+        this.depth = new int[n];
+        this.visitedRound = new int[n];
+        this.queue = new int[n];
+    }
+
+    /**
+     * @param targets  目标方法 ID
+     * @param maxDepth 调用链的最大跳数（入口到目标之间的边数），负数表示不限制
+     */
+    public static BoundedPaths toTargets(CallGraph graph, int[] targets, int maxDepth) {
+        int n = graph.size();
+        int limit = maxDepth < 0 ? Integer.MAX_VALUE : maxDepth;
+        int[] offsets = graph.callerOffsets();
+        int[] callers = graph.callerTargets();
+        int[] distance = new int[n];
+        boolean[] target = new boolean[n];
+        int[] queue = new int[n];
+        Arrays.fill(distance, -1);
+        int head = 0;
+        int tail = 0;
+        for (int id : targets) {
+            if (!target[id]) {
+                target[id] = true;
+                distance[id] = 0;
+                queue[tail++] = id;
+            }
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            if (distance[node] >= limit) {
+                continue;
+            }
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int caller = callers[i];
+                if (distance[caller] < 0) {
+                    distance[caller] = distance[node] + 1;
+                    queue[tail++] = caller;
+                }
+            }
+        }
+        return new BoundedPaths(graph, limit, distance, target);
+    }
+
+    /**
+     * 方法到最近目标的跳数，上限内不可达时为 -1
+     */
+    public int distance(int id) {
+        return distance[id];
+    }
+
+    /**
+     * 从 roots 出发做受限的正向 BFS，按距离从近到远对每个可达的目标方法回调一次（附带最短调用链）
+     *
+     * @return 回调的次数
+     */
+    public int search(int[] roots, PathVisitor visitor) {
+        int[] offsets = graph.calleeOffsets();
+        int[] callees = graph.calleeTargets();
+        int current = ++round;
+        int head = 0;
+        int tail = 0;
+        for (int root : roots) {
+            if (distance[root] >= 0 && visitedRound[root] != current) {
+                visitedRound[root] = current;
+                parent[root] = -1;
+                depth[root] = 0;
+                queue[tail++] = root;
+            }
+        }
+        int found = 0;
+        while (head < tail) {
+            int node = queue[head++];
+            if (target[node]) {
+                found++;
+                if (!visitor.visit(node, chain(node))) {
+                    break;
+                }
+            }
+            int next = depth[node] + 1;
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int callee = callees[i];
+                if (visitedRound[callee] != current && distance[callee] >= 0 && distance[callee] <= maxDepth - next) {
+                    visitedRound[callee] = current;
+                    parent[callee] = node;
+                    depth[callee] = next;
+                    queue[tail++] = callee;
+                }
+            }
+        }
+        return found;
+    }
+
+    private int[] chain(int node) {
+        int[] chain = new int[depth[node] + 1];
+        for (int i = chain.length - 1, v = node; i >= 0; i--, v = parent[v]) {
+            chain[i] = v;
+        }
+        return chain;
+    }
+
+    @FunctionalInterface
+    public interface PathVisitor {
+        /**
+         * @param chain 从入口到目标的方法 ID
+         * @return false 停止本次搜索
+         */
+        boolean visit(int target, int[] chain);
+    }
+}
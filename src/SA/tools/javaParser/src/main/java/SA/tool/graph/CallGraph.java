@@ -0,0 +1,341 @@
+package SA.tool.graph;
+
+import SA.tool.model.ApiInfo;
+import SA.tool.model.CallGraphNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑的只读调用图：方法签名映射为连续的 int ID，邻接关系以压缩稀疏行（CSR）数组保存。
+ *
+ * 节点 i 的被调方法为 {@code calleeTargets[calleeOffsets[i] .. calleeOffsets[i + 1])}，
+ * 调用者和调用点同理。{@code Map<String, CallGraphNode>} 只在输出 JSON 时通过 {@link #toNodeMap()} 生成。
+ */
+public class CallGraph {
+
+    public static final String CALL_TYPE_DIRECT = "DIRECT";
+    public static final String CALL_TYPE_AMBIGUOUS = "AMBIGUOUS";
+
+    static final String[] CALL_TYPES = {CALL_TYPE_DIRECT, CALL_TYPE_AMBIGUOUS};
+
+    private final String[] signatures;
+    private final String[] classNames;
+    private final String[] methodNames;
+    private final String[] codePositions;
+    private final Map<String, Integer> ids;
+    private volatile Map<String, int[]> methodsByName; // 首次按方法名查找时建立
+
+    private final int[] calleeOffsets;
+    private final int[] calleeTargets;
+    private final int[] callerOffsets;
+    private final int[] callerTargets;
+
+    private final int[] siteOffsets;
+    private final int[] siteTargets;
+    private final String[] siteFilePaths; // 调用点所在文件（驻留），siteFiles 为其下标
+    private final int[] siteFiles;
+    private final int[] siteLines;
+    private final int[] siteColumns;
+    private final byte[] siteTypes;
+    private final int[] siteCalls; // 调用点在调用方方法事实的调用列表中的下标，-1 表示不对应
+
+    CallGraph(Map<String, Integer> ids, String[] signatures, String[] classNames, String[] methodNames, String[] codePositions,
+              int[] calleeOffsets, int[] calleeTargets, int[] callerOffsets, int[] callerTargets,
+              int[] siteOffsets, int[] siteTargets, String[] siteFilePaths,
+              int[] siteFiles, int[] siteLines, int[] siteColumns, byte[] siteTypes, int[] siteCalls) {
+        this.signatures = signatures;
+        this.classNames = classNames;
+        this.methodNames = methodNames;
+        this.codePositions = codePositions;
+        this.calleeOffsets = calleeOffsets;
+        this.calleeTargets = calleeTargets;
+        this.callerOffsets = callerOffsets;
+        this.callerTargets = callerTargets;
+        this.siteOffsets = siteOffsets;
+        this.siteTargets = siteTargets;
+        this.siteFilePaths = siteFilePaths;
+        this.siteFiles = siteFiles;
+        this.siteLines = siteLines;
+        this.siteColumns = siteColumns;
+        this.siteTypes = siteTypes;
+        this.siteCalls = siteCalls;
+        this.ids = ids;
+    }
+
+    public int size() {
+        return signatures.length;
+    }
+
+    public int edgeCount() {
+        return calleeTargets.length;
+    }
+
+    public int callSiteCount() {
+        return siteTargets.length;
+    }
+
+    /**
+     * @return 方法签名对应的 ID，不存在时返回 -1
+     */
+    public int idOf(String signature) {
+        Integer id = ids.get(signature);
+        return id != null ? id : -1;
+    }
+
+    public String signature(int id) {
+        return signatures[id];
+    }
+
+    public String className(int id) {
+        return classNames[id];
+    }
+
+    public String methodName(int id) {
+        return methodNames[id];
+    }
+
+    public String codePos(int id) {
+        return codePositions[id];
+    }
+
+    public int[] callees(int id) {
+        return Arrays.copyOfRange(calleeTargets, calleeOffsets[id], calleeOffsets[id + 1]);
+    }
+
+    public int[] callers(int id) {
+        return Arrays.copyOfRange(callerTargets, callerOffsets[id], callerOffsets[id + 1]);
+    }
+
+    public int outDegree(int id) {
+        return calleeOffsets[id + 1] - calleeOffsets[id];
+    }
+
+    public int inDegree(int id) {
+        return callerOffsets[id + 1] - callerOffsets[id];
+    }
+
+    /**
+     * 方法的调用点下标范围为 [siteStart(id), siteStart(id + 1))，同一调用点解析到多个方法时占多个下标
+     */
+    public int siteStart(int id) {
+        return siteOffsets[id];
+    }
+
+    public int siteTarget(int site) {
+        return siteTargets[site];
+    }
+
+    /**
+     * 调用点在调用方（同签名的第一个）方法事实的 calls 中的下标，不对应方法事实时为 -1
+     */
+    public int siteCall(int site) {
+        return siteCalls[site];
+    }
+
+    /**
+     * 调用点位置 "文件:L行:C列"，每次调用时拼接
+     */
+    public String siteCodePos(int site) {
+        int file = siteFiles[site];
+        if (file < 0) {
+            return null;
+        }
+        if (siteLines[site] < 0) {
+            return siteFilePaths[file];
+        }
+        return siteFilePaths[file] + ":L" + siteLines[site] + ":C" + siteColumns[site];
+    }
+
+    // 供同包的图算法直接遍历 CSR 数组，避免逐节点复制
+    int[] calleeOffsets() {
+        return calleeOffsets;
+    }
+
+    int[] calleeTargets() {
+        return calleeTargets;
+    }
+
+    int[] callerOffsets() {
+        return callerOffsets;
+    }
+
+    int[] callerTargets() {
+        return callerTargets;
+    }
+
+    /**
+     * 按查询串查找方法节点：完整签名（{@code UserService.createUser(String)}）精确匹配；
+     * 不带参数表时（{@code UserService.createUser}）匹配该方法的所有重载，类名可以带包名
+     *
+     * @return 匹配的节点 ID，按 ID 升序
+     */
+    public int[] findMethods(String spec) {
+        Map<String, int[]> index = methodsByName;
+        if (index == null) {
+            index = indexByName(signatures); // 并发时可能重复建立，结果相同
+            methodsByName = index;
+        }
+        return findMethods(spec, ids, index);
+    }
+
+    static int[] findMethods(String spec, Map<String, Integer> ids, Map<String, int[]> methodsByName) {
+        Integer id = ids.get(spec);
+        if (id != null) {
+            return new int[]{id};
+        }
+        if (spec.indexOf('(') >= 0) {
+            return new int[0];
+        }
+        // 签名中的类名是简单名，去掉包名部分
+        int methodDot = spec.lastIndexOf('.');
+        int classDot = methodDot > 0 ? spec.lastIndexOf('.', methodDot - 1) : -1;
+        int[] matches = methodsByName.get(spec.substring(classDot + 1));
+        return matches != null ? matches.clone() : new int[0];
+    }
+
+    /**
+     * "类名.方法名" -> 该方法所有重载的节点 ID（升序）
+     */
+    static Map<String, int[]> indexByName(String[] signatures) {
+        Map<String, IntArrayList> lists = new HashMap<>();
+        for (int i = 0; i < signatures.length; i++) {
+            int paren = signatures[i].indexOf('(');
+            String name = paren >= 0 ? signatures[i].substring(0, paren) : signatures[i];
+            lists.computeIfAbsent(name, k -> new IntArrayList(1)).add(i);
+        }
+        Map<String, int[]> index = new HashMap<>(lists.size() * 2);
+        lists.forEach((name, list) -> index.put(name, list.toArray()));
+        return index;
+    }
+
+    /**
+     * API 接口对应的 Controller 方法；有重载时按代码行范围区分
+     */
+    public int[] findMethods(ApiInfo api) {
+        int[] candidates = findMethods(api.getControllerName() + "." + api.getMethodName());
+        if (candidates.length <= 1 || api.getCodePos() == null) {
+            return candidates;
+        }
+        String lines = lineRange(api.getCodePos());
+        IntArrayList matches = new IntArrayList();
+        for (int candidate : candidates) {
+            if (codePositions[candidate] != null && lineRange(codePositions[candidate]).equals(lines)) {
+                matches.add(candidate);
+            }
+        }
+        return matches.size() > 0 ? matches.toArray() : candidates;
+    }
+
+    private static String lineRange(String codePos) {
+        return codePos.substring(codePos.lastIndexOf(':') + 1);
+    }
+
+    /**
+     * 以 roots 为起点沿调用边（或反向）做 BFS，返回 maxDepth 跳以内的节点构成的子图。
+     *
+     * 子图包含这些节点之间的全部调用边和调用点，节点保持原图中的相对顺序；
+     * 只访问可达部分，耗时与子图大小成正比，与整个图无关。
+     *
+     * @param maxDepth 最大跳数，负数表示不限
+     */
+    public CallGraph subgraph(int[] roots, int maxDepth, Direction direction) {
+        Map<Integer, Integer> depths = new HashMap<>();
+        IntArrayList queue = new IntArrayList();
+        for (int root : roots) {
+            if (depths.putIfAbsent(root, 0) == null) {
+                queue.add(root);
+            }
+        }
+        for (int head = 0; head < queue.size(); head++) {
+            int node = queue.get(head);
+            int depth = depths.get(node);
+            if (maxDepth >= 0 && depth >= maxDepth) {
+                continue;
+            }
+            if (direction != Direction.CALLERS) {
+                visit(calleeTargets, calleeOffsets[node], calleeOffsets[node + 1], depth + 1, depths, queue);
+            }
+            if (direction != Direction.CALLEES) {
+                visit(callerTargets, callerOffsets[node], callerOffsets[node + 1], depth + 1, depths, queue);
+            }
+        }
+
+        int[] nodes = queue.toArray();
+        Arrays.sort(nodes);
+        CallGraphBuilder builder = new CallGraphBuilder();
+        for (int node : nodes) {
+            builder.addMethod(signatures[node], classNames[node], methodNames[node], codePositions[node]);
+        }
+        // 调用点按原顺序重放，边由调用点去重得到，与原图一致
+        for (int node : nodes) {
+            int caller = builder.idOf(signatures[node]);
+            for (int i = siteOffsets[node]; i < siteOffsets[node + 1]; i++) {
+                int callee = builder.idOf(signatures[siteTargets[i]]);
+                if (callee >= 0) {
+                    builder.addCall(caller, callee, siteCalls[i], siteFiles[i] < 0 ? null : siteFilePaths[siteFiles[i]],
+                            siteLines[i], siteColumns[i], siteTypes[i]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static void visit(int[] targets, int from, int to, int depth, Map<Integer, Integer> depths, IntArrayList queue) {
+        for (int i = from; i < to; i++) {
+            if (depths.putIfAbsent(targets[i], depth) == null) {
+                queue.add(targets[i]);
+            }
+        }
+    }
+
+    /**
+     * 生成 JSON 输出使用的节点映射，按节点 ID（即方法声明顺序）排列
+     */
+    public Map<String, CallGraphNode> toNodeMap() {
+        Map<String, CallGraphNode> nodes = new LinkedHashMap<>(signatures.length * 2);
+        for (int id = 0; id < signatures.length; id++) {
+            nodes.put(signatures[id], toNode(id));
+        }
+        return nodes;
+    }
+
+    public CallGraphNode toNode(int id) {
+        CallGraphNode node = new CallGraphNode();
+        node.setMethodSignature(signatures[id]);
+        node.setClassName(classNames[id]);
+        node.setMethodName(methodNames[id]);
+        node.setCodePos(codePositions[id]);
+        node.setCallees(toSignatures(calleeTargets, calleeOffsets[id], calleeOffsets[id + 1]));
+        node.setCallers(toSignatures(callerTargets, callerOffsets[id], callerOffsets[id + 1]));
+
+        List<CallGraphNode.CallSite> callSites = new ArrayList<>(siteOffsets[id + 1] - siteOffsets[id]);
+        for (int i = siteOffsets[id]; i < siteOffsets[id + 1]; i++) {
+            CallGraphNode.CallSite callSite = new CallGraphNode.CallSite();
+            callSite.setTargetMethod(signatures[siteTargets[i]]);
+            callSite.setCodePos(siteCodePos(i));
+            callSite.setCallType(CALL_TYPES[siteTypes[i]]);
+            callSites.add(callSite);
+        }
+        node.setCallSites(callSites);
+        return node;
+    }
+
+    private List<String> toSignatures(int[] targets, int from, int to) {
+        List<String> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(signatures[targets[i]]);
+        }
+        return result;
+    }
+
+    public enum Direction {
+        CALLEES,  // 沿调用边向下：被调方法
+        CALLERS,  // 沿调用边向上：调用者
+        BOTH
+    }
+}
@@ -0,0 +1,197 @@
+package SA.tool.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 增量构建 {@link CallGraph}：签名驻留为 int ID，边用打包的 long 去重（O(1)），
+ * {@link #build()} 时用计数排序一次性生成 CSR 数组。同一节点的边和调用点保持添加顺序。
+ * 调用点位置 "文件:L行:C列" 拆成驻留的文件 ID 和行、列两个 int 保存，不为每个调用点保留字符串。
+ * 调用点另记录它在调用方方法事实的调用列表中的下标：链式调用 {@code a.b(x).c(y)} 的各调用起始位置相同，不能按位置对应。
+ */
+public class CallGraphBuilder {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> signatures = new ArrayList<>();
+    private final List<String> classNames = new ArrayList<>();
+    private final List<String> methodNames = new ArrayList<>();
+    private final List<String> codePositions = new ArrayList<>();
+
+    private final LongHashSet edgeSet = new LongHashSet();
+    private final IntArrayList edgeSources = new IntArrayList();
+    private final IntArrayList edgeTargets = new IntArrayList();
+
+    private final IntArrayList siteSources = new IntArrayList();
+    private final IntArrayList siteTargets = new IntArrayList();
+    private final IntArrayList siteFiles = new IntArrayList();
+    private final IntArrayList siteLines = new IntArrayList();
+    private final IntArrayList siteColumns = new IntArrayList();
+    private final IntArrayList siteTypes = new IntArrayList();
+    private final IntArrayList siteCalls = new IntArrayList();
+
+    private final Map<String, Integer> fileIds = new HashMap<>();
+    private final List<String> files = new ArrayList<>();
+
+    /**
+     * 添加方法节点；签名已存在时保留先添加的节点并返回其 ID
+     */
+    public int addMethod(String signature, String className, String methodName, String codePos) {
+        Integer existing = ids.get(signature);
+        if (existing != null) {
+            return existing;
+        }
+        int id = signatures.size();
+        ids.put(signature, id);
+        signatures.add(signature);
+        classNames.add(className);
+        methodNames.add(methodName);
+        codePositions.add(codePos);
+        return id;
+    }
+
+    /**
+     * @return 方法签名对应的 ID，不存在时返回 -1
+     */
+    public int idOf(String signature) {
+        Integer id = ids.get(signature);
+        return id != null ? id : -1;
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    /**
+     * 记录一次调用：总是添加调用点，调用边只在首次出现时添加
+     */
+    public void addCall(int caller, int callee, String codePos, String callType) {
+        addCall(caller, callee, -1, codePos, callType);
+    }
+
+    /**
+     * @param call 调用在调用方方法事实的调用列表中的下标，不对应方法事实时为 -1
+     */
+    public void addCall(int caller, int callee, int call, String codePos, String callType) {
+        if (codePos == null) {
+            addCall(caller, callee, call, null, -1, 0, callTypeCode(callType));
+            return;
+        }
+        int columnMark = codePos.lastIndexOf(":C");
+        int lineMark = columnMark > 0 ? codePos.lastIndexOf(":L", columnMark - 1) : -1;
+        int line = lineMark >= 0 ? parsePosition(codePos, lineMark + 2, columnMark) : -1;
+        int column = line >= 0 ? parsePosition(codePos, columnMark + 2, codePos.length()) : -1;
+        if (column < 0) {
+            // 不是 "文件:L行:C列" 形式的位置原样作为文件保存
+            addCall(caller, callee, call, codePos, -1, 0, callTypeCode(callType));
+            return;
+        }
+        addCall(caller, callee, call, codePos.substring(0, lineMark), line, column, callTypeCode(callType));
+    }
+
+    /**
+     * @param line 小于 0 时 file 为完整的位置字符串
+     */
+    void addCall(int caller, int callee, int call, String file, int line, int column, int callType) {
+        if (edgeSet.add(((long) caller << 32) | callee)) {
+            edgeSources.add(caller);
+            edgeTargets.add(callee);
+        }
+        siteSources.add(caller);
+        siteTargets.add(callee);
+        siteFiles.add(file == null ? -1 : fileIds.computeIfAbsent(file, k -> {
+            files.add(k);
+            return files.size() - 1;
+        }));
+        siteLines.add(line);
+        siteColumns.add(column);
+        siteTypes.add(callType);
+        siteCalls.add(call);
+    }
+
+    /**
+     * 非负十进制整数，格式不符时返回 -1
+     */
+    private static int parsePosition(String text, int from, int to) {
+        if (from >= to || to - from > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    public CallGraph build() {
+        int nodeCount = signatures.size();
+        int edgeCount = edgeSources.size();
+        int siteCount = siteSources.size();
+
+        int[] calleeOffsets = offsets(edgeSources, nodeCount);
+        int[] calleeTargets = new int[edgeCount];
+        int[] callerOffsets = offsets(edgeTargets, nodeCount);
+        int[] callerTargets = new int[edgeCount];
+        int[] calleeFill = calleeOffsets.clone();
+        int[] callerFill = callerOffsets.clone();
+        for (int i = 0; i < edgeCount; i++) {
+            int source = edgeSources.get(i);
+            int target = edgeTargets.get(i);
+            calleeTargets[calleeFill[source]++] = target;
+            callerTargets[callerFill[target]++] = source;
+        }
+
+        int[] siteOffsets = offsets(siteSources, nodeCount);
+        int[] sortedSiteTargets = new int[siteCount];
+        int[] sortedSiteFiles = new int[siteCount];
+        int[] sortedSiteLines = new int[siteCount];
+        int[] sortedSiteColumns = new int[siteCount];
+        byte[] sortedSiteTypes = new byte[siteCount];
+        int[] sortedSiteCalls = new int[siteCount];
+        int[] siteFill = siteOffsets.clone();
+        for (int i = 0; i < siteCount; i++) {
+            int slot = siteFill[siteSources.get(i)]++;
+            sortedSiteTargets[slot] = siteTargets.get(i);
+            sortedSiteFiles[slot] = siteFiles.get(i);
+            sortedSiteLines[slot] = siteLines.get(i);
+            sortedSiteColumns[slot] = siteColumns.get(i);
+            sortedSiteTypes[slot] = (byte) siteTypes.get(i);
+            sortedSiteCalls[slot] = siteCalls.get(i);
+        }
+
+        return new CallGraph(new HashMap<>(ids),
+                signatures.toArray(new String[0]), classNames.toArray(new String[0]),
+                methodNames.toArray(new String[0]), codePositions.toArray(new String[0]),
+                calleeOffsets, calleeTargets, callerOffsets, callerTargets,
+                siteOffsets, sortedSiteTargets, files.toArray(new String[0]),
+                sortedSiteFiles, sortedSiteLines, sortedSiteColumns, sortedSiteTypes, sortedSiteCalls);
+    }
+
+    /**
+     * 计数排序的前缀和：offsets[i] 为第 i 个节点的起始位置，offsets[nodeCount] 为总数
+     */
+    private static int[] offsets(IntArrayList keys, int nodeCount) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < keys.size(); i++) {
+            offsets[keys.get(i) + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        return offsets;
+    }
+
+    private static int callTypeCode(String callType) {
+        for (int i = 0; i < CallGraph.CALL_TYPES.length; i++) {
+            if (CallGraph.CALL_TYPES[i].equals(callType)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown call type: " + callType);
+    }
+}
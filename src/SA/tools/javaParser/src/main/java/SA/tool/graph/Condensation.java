@@ -0,0 +1,95 @@
+package SA.tool.graph;
+
+import java.util.Arrays;
+
+/**
+ * 调用图的强连通分量缩点，并按层分组：第 0 层的分量不调用其他分量，第 k 层只调用低于 k 层的分量。
+ * 自底向上的摘要计算按层推进，同一层的分量互不依赖，可以并行处理。
+ */
+public final class Condensation {
+
+    private final int[] componentOf;
+    private final int[] memberOffsets;
+    private final int[] members;
+    private final int[][] levels;
+
+    private Condensation(int[] componentOf, int[] memberOffsets, int[] members, int[][] levels) {
+        this.componentOf = componentOf;
+        this.memberOffsets = memberOffsets;
+        this.members = members;
+        this.levels = levels;
+    }
+
+    public static Condensation of(CallGraph graph) {
+        int n = graph.size();
+        int[] offsets = graph.calleeOffsets();
+        int[] targets = graph.calleeTargets();
+        int[] componentOf = new int[n];
+        int count = Reachability.stronglyConnectedComponents(offsets, targets, componentOf);
+
+        int[] memberOffsets = new int[count + 1];
+        for (int id = 0; id < n; id++) {
+            memberOffsets[componentOf[id] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        int[] members = new int[n];
+        int[] fill = Arrays.copyOf(memberOffsets, count);
+        for (int id = 0; id < n; id++) {
+            members[fill[componentOf[id]]++] = id;
+        }
+
+        // 分量按逆拓扑序编号（被调分量编号更小），按编号递增一遍即可算出层号
+        int[] level = new int[count];
+        int maxLevel = 0;
+        for (int c = 0; c < count; c++) {
+            for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                int id = members[i];
+                for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                    int callee = componentOf[targets[e]];
+                    if (callee != c) {
+                        level[c] = Math.max(level[c], level[callee] + 1);
+                    }
+                }
+            }
+            maxLevel = Math.max(maxLevel, level[c]);
+        }
+        int[] levelSizes = new int[count == 0 ? 0 : maxLevel + 1];
+        for (int c = 0; c < count; c++) {
+            levelSizes[level[c]]++;
+        }
+        int[][] levels = new int[levelSizes.length][];
+        for (int l = 0; l < levels.length; l++) {
+            levels[l] = new int[levelSizes[l]];
+            levelSizes[l] = 0;
+        }
+        for (int c = 0; c < count; c++) {
+            levels[level[c]][levelSizes[level[c]]++] = c;
+        }
+        return new Condensation(componentOf, memberOffsets, members, levels);
+    }
+
+    public int componentCount() {
+        return memberOffsets.length - 1;
+    }
+
+    public int componentOf(int method) {
+        return componentOf[method];
+    }
+
+    public int[] members(int component) {
+        return Arrays.copyOfRange(members, memberOffsets[component], memberOffsets[component + 1]);
+    }
+
+    public int levelCount() {
+        return levels.length;
+    }
+
+    /**
+     * 第 level 层的分量，返回内部数组，调用方不应修改
+     */
+    public int[] level(int level) {
+        return levels[level];
+    }
+}
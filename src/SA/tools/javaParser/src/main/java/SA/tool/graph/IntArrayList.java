@@ -0,0 +1,39 @@
+package SA.tool.graph;
+
+import java.util.Arrays;
+
+/**
+ * 不装箱的可增长 int 数组
+ */
+final class IntArrayList {
+
+    private int[] values;
+    private int size;
+
+    IntArrayList() {
+        this(16);
+    }
+
+    IntArrayList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
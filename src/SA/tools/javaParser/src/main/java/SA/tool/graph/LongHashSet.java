@@ -0,0 +1,66 @@
+package SA.tool.graph;
+
+import java.util.Arrays;
+
+/**
+ * 开放寻址的 long 集合，用于 O(1) 判断边 (caller << 32 | callee) 是否已存在，不产生装箱对象
+ */
+final class LongHashSet {
+
+    private static final long EMPTY = -1L; // 节点 ID 非负，打包后的键不会等于 -1
+
+    private long[] table;
+    private int size;
+
+    LongHashSet() {
+        table = new long[64];
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * @return 集合中原本没有该值时返回 true
+     */
+    boolean add(long value) {
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        if (insert(table, value)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static boolean insert(long[] table, long value) {
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        long[] newTable = new long[capacity];
+        Arrays.fill(newTable, EMPTY);
+        for (long value : table) {
+            if (value != EMPTY) {
+                insert(newTable, value);
+            }
+        }
+        table = newTable;
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,274 @@
+package SA.tool.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 入口到方法的可达关系：一次计算出所有入口（如 API 接口）的传递闭包，之后的查询都是查表。
+ *
+ * 先用 Tarjan 算法把调用图缩成强连通分量的 DAG（同一分量内的方法可达性相同），
+ * 再为每个分量维护一个入口位图（第 e 位表示入口 e 能到达该分量），按拓扑序沿边做按字或运算传播，
+ * 一次 OR 处理 64 个入口。总代价为 O((V + E) · 入口数 / 64)。
+ *
+ * 查询：{@link #endpointsReaching} 读取方法所在分量的位图，{@link #reachableFrom} 返回预先展开的方法列表，
+ * {@link #reaches} 为单次位测试。
+ */
+public final class Reachability {
+
+    private final String[] signatures;
+    private final Map<String, Integer> ids;
+    private volatile Map<String, int[]> methodsByName;
+    private final int[] componentOf;
+    private final int componentCount;
+    private final int words;         // 每个位图的 long 个数
+    private final long[] reachedBy;  // 分量 c 的位图为 reachedBy[c * words .. (c + 1) * words)
+    private final int[][] reachable; // 入口 -> 可达方法 ID（升序）
+
+    private Reachability(String[] signatures, Map<String, Integer> ids, int[] componentOf, int componentCount,
+                         int endpointCount, long[] reachedBy) {
+        this.signatures = signatures;
+        this.ids = ids;
+        this.componentOf = componentOf;
+        this.componentCount = componentCount;
+        this.words = wordsFor(endpointCount);
+        this.reachedBy = reachedBy;
+        this.reachable = expand(endpointCount);
+    }
+
+    /**
+     * @param endpointRoots 每个入口对应的方法 ID（一个入口可以对应零个或多个方法）
+     */
+    public static Reachability compute(CallGraph graph, int[][] endpointRoots) {
+        int n = graph.size();
+        int[] offsets = graph.calleeOffsets();
+        int[] targets = graph.calleeTargets();
+        int[] componentOf = new int[n];
+        int componentCount = stronglyConnectedComponents(offsets, targets, componentOf);
+
+        int words = wordsFor(endpointRoots.length);
+        long[] reachedBy = new long[componentCount * words];
+        for (int e = 0; e < endpointRoots.length; e++) {
+            for (int root : endpointRoots[e]) {
+                reachedBy[componentOf[root] * words + (e >>> 6)] |= 1L << e;
+            }
+        }
+
+        // 缩点后的边按源分量分组（计数排序），分量内部的边丢弃
+        int[] edgeOffsets = new int[componentCount + 1];
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (componentOf[targets[i]] != componentOf[u]) {
+                    edgeOffsets[componentOf[u] + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < componentCount; c++) {
+            edgeOffsets[c + 1] += edgeOffsets[c];
+        }
+        int[] edgeTargets = new int[edgeOffsets[componentCount]];
+        int[] fill = Arrays.copyOf(edgeOffsets, componentCount);
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int target = componentOf[targets[i]];
+                if (target != componentOf[u]) {
+                    edgeTargets[fill[componentOf[u]]++] = target;
+                }
+            }
+        }
+
+        // Tarjan 按逆拓扑序给分量编号（被调分量编号更小），从大到小遍历即为拓扑序
+        for (int c = componentCount - 1; c >= 0; c--) {
+            int from = c * words;
+            for (int i = edgeOffsets[c]; i < edgeOffsets[c + 1]; i++) {
+                int to = edgeTargets[i] * words;
+                for (int w = 0; w < words; w++) {
+                    reachedBy[to + w] |= reachedBy[from + w];
+                }
+            }
+        }
+
+        String[] signatures = new String[n];
+        Map<String, Integer> ids = new HashMap<>(n * 2);
+        for (int id = 0; id < n; id++) {
+            signatures[id] = graph.signature(id);
+            ids.put(signatures[id], id);
+        }
+        return new Reachability(signatures, ids, componentOf, componentCount, endpointRoots.length, reachedBy);
+    }
+
+    /**
+     * 从保存的结果（每个入口的可达方法签名）重建，每个方法自成一个分量
+     */
+    public static Reachability of(List<List<String>> reachableSignatures) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (List<String> methods : reachableSignatures) {
+            for (String signature : methods) {
+                ids.putIfAbsent(signature, ids.size());
+            }
+        }
+        String[] signatures = new String[ids.size()];
+        ids.forEach((signature, id) -> signatures[id] = signature);
+        int[] componentOf = new int[signatures.length];
+        Arrays.setAll(componentOf, id -> id);
+
+        int words = wordsFor(reachableSignatures.size());
+        long[] reachedBy = new long[signatures.length * words];
+        for (int e = 0; e < reachableSignatures.size(); e++) {
+            for (String signature : reachableSignatures.get(e)) {
+                reachedBy[ids.get(signature) * words + (e >>> 6)] |= 1L << e;
+            }
+        }
+        return new Reachability(signatures, ids, componentOf, signatures.length, reachableSignatures.size(), reachedBy);
+    }
+
+    public int endpointCount() {
+        return reachable.length;
+    }
+
+    public int methodCount() {
+        return signatures.length;
+    }
+
+    public int componentCount() {
+        return componentCount;
+    }
+
+    public String signature(int id) {
+        return signatures[id];
+    }
+
+    /**
+     * 同 {@link CallGraph#findMethods(String)}
+     */
+    public int[] findMethods(String spec) {
+        Map<String, int[]> index = methodsByName;
+        if (index == null) {
+            index = CallGraph.indexByName(signatures);
+            methodsByName = index;
+        }
+        return CallGraph.findMethods(spec, ids, index);
+    }
+
+    public boolean reaches(int endpoint, int method) {
+        return (reachedBy[componentOf[method] * words + (endpoint >>> 6)] & (1L << endpoint)) != 0;
+    }
+
+    /**
+     * 能到达该方法的入口（升序）
+     */
+    public int[] endpointsReaching(int method) {
+        int from = componentOf[method] * words;
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(reachedBy[from + w]);
+        }
+        int[] endpoints = new int[count];
+        int k = 0;
+        for (int w = 0; w < words; w++) {
+            for (long bits = reachedBy[from + w]; bits != 0; bits &= bits - 1) {
+                endpoints[k++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return endpoints;
+    }
+
+    /**
+     * 入口可达的方法 ID（升序，包含入口方法本身），返回内部数组，调用方不应修改
+     */
+    public int[] reachableFrom(int endpoint) {
+        return reachable[endpoint];
+    }
+
+    /**
+     * 把分量位图展开为每个入口的方法列表：逐个方法枚举其分量位图中的置位
+     */
+    private int[][] expand(int endpointCount) {
+        IntArrayList[] lists = new IntArrayList[endpointCount];
+        for (int e = 0; e < endpointCount; e++) {
+            lists[e] = new IntArrayList();
+        }
+        for (int method = 0; method < signatures.length; method++) {
+            int from = componentOf[method] * words;
+            for (int w = 0; w < words; w++) {
+                for (long bits = reachedBy[from + w]; bits != 0; bits &= bits - 1) {
+                    lists[(w << 6) + Long.numberOfTrailingZeros(bits)].add(method);
+                }
+            }
+        }
+        int[][] result = new int[endpointCount][];
+        for (int e = 0; e < endpointCount; e++) {
+            result[e] = lists[e].toArray();
+        }
+        return result;
+    }
+
+    private static int wordsFor(int endpointCount) {
+        return Math.max(1, (endpointCount + 63) >>> 6);
+    }
+
+    /**
+     * 迭代版 Tarjan 算法（避免深调用链导致栈溢出），分量按完成顺序编号，即逆拓扑序
+     *
+     * @return 分量个数
+     */
+    static int stronglyConnectedComponents(int[] offsets, int[] targets, int[] componentOf) {
+        int n = componentOf.length;
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        int[] nextEdge = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        Arrays.fill(index, -1);
+        int stackSize = 0;
+        int counter = 0;
+        int components = 0;
+
+        for (int start = 0; start < n; start++) {
+            if (index[start] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = start;
+            index[start] = lowLink[start] = counter++;
+            nextEdge[start] = offsets[start];
+            stack[stackSize++] = start;
+            onStack[start] = true;
+
+            while (depth > 0) {
+                int u = callStack[depth - 1];
+                if (nextEdge[u] < offsets[u + 1]) {
+                    int v = targets[nextEdge[u]++];
+                    if (index[v] < 0) {
+                        index[v] = lowLink[v] = counter++;
+                        nextEdge[v] = offsets[v];
+                        stack[stackSize++] = v;
+                        onStack[v] = true;
+                        callStack[depth++] = v;
+                    } else if (onStack[v]) {
+                        lowLink[u] = Math.min(lowLink[u], index[v]);
+                    }
+                    continue;
+                }
+                // u 的边已处理完：若为分量的根则出栈整个分量
+                if (lowLink[u] == index[u]) {
+                    int v;
+                    do {
+                        v = stack[--stackSize];
+                        onStack[v] = false;
+                        componentOf[v] = components;
+                    } while (v != u);
+                    components++;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[u]);
+                }
+            }
+        }
+        return components;
+    }
+}
@@ -0,0 +1,33 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 受代码改动影响的 API 接口（IMPACT 命令的输出条目）
+ */
+public class ApiImpact {
+
+    @JsonProperty("api")
+    private ApiInfo api;
+
+    @JsonProperty("changed_methods")
+    private List<String> changedMethods = new ArrayList<>(); // 接口入口方法传递调用到的被改动方法签名
+
+    public ApiInfo getApi() {
+        return api;
+    }
+
+    public void setApi(ApiInfo api) {
+        this.api = api;
+    }
+
+    public List<String> getChangedMethods() {
+        return changedMethods;
+    }
+
+    public void setChangedMethods(List<String> changedMethods) {
+        this.changedMethods = changedMethods;
+    }
+}
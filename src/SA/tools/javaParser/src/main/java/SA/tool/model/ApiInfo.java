@@ -21,6 +21,9 @@ public class ApiInfo {
     @JsonProperty("references")
     private List<String> references = new ArrayList<>();
 
+    @JsonProperty("param_flows")
+    private List<ParamFlow> paramFlows = new ArrayList<>(); // 参数流入的调用实参
+
     // Getters and Setters
     public String getControllerName() {
         return controllerName;
@@ -65,4 +68,12 @@ public class ApiInfo {
     public void addReference(String reference) {
         this.references.add(reference);
     }
+
+    public List<ParamFlow> getParamFlows() {
+        return paramFlows;
+    }
+
+    public void setParamFlows(List<ParamFlow> paramFlows) {
+        this.paramFlows = paramFlows;
+    }
 } 
\ No newline at end of file
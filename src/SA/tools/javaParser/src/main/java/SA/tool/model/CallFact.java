@@ -0,0 +1,61 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 方法体内的一次调用（尚未解析到具体被调方法）；构造器调用的方法名为 {@link #CONSTRUCTOR}
+ */
+public class CallFact {
+    public static final String CONSTRUCTOR = "<init>";
+
+    @JsonProperty("method_name")
+    private String methodName;
+
+    @JsonProperty("arg_count")
+    private int argCount;
+
+    @JsonProperty("code_pos")
+    private String codePos; // file.java:L10:C5
+
+    @JsonProperty("receiver_type")
+    private String receiverType; // 接收者的简单类型名（按声明推断），未知时为 null
+
+    @JsonProperty("arg_flows")
+    private long[] argFlows; // 每个实参依赖的调用方参数位图（仅 FLOWS），都不依赖时为 null
+
+    @JsonProperty("receiver_flow")
+    private long receiverFlow; // 接收者依赖的调用方参数位图（仅 FLOWS）
+
+    // Constructors
+    public CallFact() {}
+
+    public CallFact(String methodName, int argCount, String codePos) {
+        this(methodName, argCount, codePos, null);
+    }
+
+    public CallFact(String methodName, int argCount, String codePos, String receiverType) {
+        this.methodName = methodName;
+        this.argCount = argCount;
+        this.codePos = codePos;
+        this.receiverType = receiverType;
+    }
+
+    // Getters and Setters
+    public String getMethodName() { return methodName; }
+    public void setMethodName(String methodName) { this.methodName = methodName; }
+
+    public int getArgCount() { return argCount; }
+    public void setArgCount(int argCount) { this.argCount = argCount; }
+
+    public String getCodePos() { return codePos; }
+    public void setCodePos(String codePos) { this.codePos = codePos; }
+
+    public String getReceiverType() { return receiverType; }
+    public void setReceiverType(String receiverType) { this.receiverType = receiverType; }
+
+    public long[] getArgFlows() { return argFlows; }
+    public void setArgFlows(long[] argFlows) { this.argFlows = argFlows; }
+
+    public long getReceiverFlow() { return receiverFlow; }
+    public void setReceiverFlow(long receiverFlow) { this.receiverFlow = receiverFlow; }
+}
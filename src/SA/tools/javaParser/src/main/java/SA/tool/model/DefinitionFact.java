@@ -0,0 +1,67 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 文件中的一个符号定义，DEF 查询在这些事实上匹配，不再需要遍历 AST
+ */
+public class DefinitionFact {
+    @JsonProperty("name")
+    private String name; // 符号的简单名
+
+    @JsonProperty("class_fqn")
+    private String classFqn; // 类型为自身的全限定名，成员为所在类的全限定名
+
+    @JsonProperty("definition")
+    private DefinitionInfo definition; // 不含定义代码，查询时按下面的区间从源码截取
+
+    @JsonProperty("begin_line")
+    private int beginLine;
+
+    @JsonProperty("begin_column")
+    private int beginColumn;
+
+    @JsonProperty("end_line")
+    private int endLine;
+
+    @JsonProperty("end_column")
+    private int endColumn;
+
+    // Constructors
+    public DefinitionFact() {}
+
+    public DefinitionFact(String name, String classFqn, DefinitionInfo definition) {
+        this.name = name;
+        this.classFqn = classFqn;
+        this.definition = definition;
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getClassFqn() { return classFqn; }
+    public void setClassFqn(String classFqn) { this.classFqn = classFqn; }
+
+    public DefinitionInfo getDefinition() { return definition; }
+    public void setDefinition(DefinitionInfo definition) { this.definition = definition; }
+
+    public int getBeginLine() { return beginLine; }
+    public void setBeginLine(int beginLine) { this.beginLine = beginLine; }
+
+    public int getBeginColumn() { return beginColumn; }
+    public void setBeginColumn(int beginColumn) { this.beginColumn = beginColumn; }
+
+    public int getEndLine() { return endLine; }
+    public void setEndLine(int endLine) { this.endLine = endLine; }
+
+    public int getEndColumn() { return endColumn; }
+    public void setEndColumn(int endColumn) { this.endColumn = endColumn; }
+
+    public void setRange(int beginLine, int beginColumn, int endLine, int endColumn) {
+        this.beginLine = beginLine;
+        this.beginColumn = beginColumn;
+        this.endLine = endLine;
+        this.endColumn = endColumn;
+    }
+}
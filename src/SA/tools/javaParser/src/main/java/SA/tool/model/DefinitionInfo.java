@@ -1,5 +1,6 @@
 package SA.tool.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class DefinitionInfo {
@@ -14,7 +15,8 @@ public class DefinitionInfo {
     private String codePos; // file.java:L10-L15
     
     @JsonProperty("definition_code")
-    private String definitionCode; // 定义的完整源代码
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String definitionCode; // 定义的完整源代码，只在查询结果中填充
     
     @JsonProperty("signature")
     private String signature; // 方法签名或类声明
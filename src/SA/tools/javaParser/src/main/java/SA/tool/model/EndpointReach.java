@@ -0,0 +1,44 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个 API 接口的可达方法（REACH 命令的输出条目）
+ */
+public class EndpointReach {
+
+    @JsonProperty("api")
+    private ApiInfo api;
+
+    @JsonProperty("entry_methods")
+    private List<String> entryMethods = new ArrayList<>(); // 接口对应的 Controller 方法签名
+
+    @JsonProperty("reachable_methods")
+    private List<String> reachableMethods = new ArrayList<>(); // 传递可达的方法签名，包含入口方法
+
+    public ApiInfo getApi() {
+        return api;
+    }
+
+    public void setApi(ApiInfo api) {
+        this.api = api;
+    }
+
+    public List<String> getEntryMethods() {
+        return entryMethods;
+    }
+
+    public void setEntryMethods(List<String> entryMethods) {
+        this.entryMethods = entryMethods;
+    }
+
+    public List<String> getReachableMethods() {
+        return reachableMethods;
+    }
+
+    public void setReachableMethods(List<String> reachableMethods) {
+        this.reachableMethods = reachableMethods;
+    }
+}
@@ -0,0 +1,86 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.javaparser.JavaParserBuild;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个源文件提取出的全部分析事实，可按内容哈希缓存到磁盘
+ */
+public class FileFacts {
+
+    /** 事实结构或提取逻辑变化时递增，使旧缓存自动失效 */
+    public static final int FORMAT_VERSION = 8;
+
+    public static final String PARSER_VERSION = "javaparser-" + JavaParserBuild.PROJECT_VERSION + "-facts-v" + FORMAT_VERSION;
+
+    @JsonProperty("file_path")
+    private String filePath;
+
+    @JsonProperty("content_hash")
+    private String contentHash;
+
+    @JsonProperty("parser_version")
+    private String parserVersion = PARSER_VERSION;
+
+    @JsonProperty("parsed")
+    private boolean parsed; // 解析失败的文件只保留空事实
+
+    @JsonProperty("primary_type_fqn")
+    private String primaryTypeFqn; // 包名 + 文件名，用于全限定名查询
+
+    @JsonProperty("methods")
+    private List<MethodFact> methods = new ArrayList<>();
+
+    @JsonProperty("definitions")
+    private List<DefinitionFact> definitions = new ArrayList<>();
+
+    @JsonProperty("controller")
+    private ControllerAnalysisResult controller; // 非 Controller 文件为 null
+
+    @JsonProperty("implementors")
+    private Map<String, List<String>> implementors = new LinkedHashMap<>(); // 接口全限定名 -> 实现类
+
+    @JsonProperty("references")
+    private List<ReferenceFact> references = new ArrayList<>();
+
+    @JsonProperty("ranges")
+    private List<SymbolRange> ranges = new ArrayList<>();
+
+    // Getters and Setters
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public String getParserVersion() { return parserVersion; }
+    public void setParserVersion(String parserVersion) { this.parserVersion = parserVersion; }
+
+    public boolean isParsed() { return parsed; }
+    public void setParsed(boolean parsed) { this.parsed = parsed; }
+
+    public String getPrimaryTypeFqn() { return primaryTypeFqn; }
+    public void setPrimaryTypeFqn(String primaryTypeFqn) { this.primaryTypeFqn = primaryTypeFqn; }
+
+    public List<MethodFact> getMethods() { return methods; }
+    public void setMethods(List<MethodFact> methods) { this.methods = methods; }
+
+    public List<DefinitionFact> getDefinitions() { return definitions; }
+    public void setDefinitions(List<DefinitionFact> definitions) { this.definitions = definitions; }
+
+    public ControllerAnalysisResult getController() { return controller; }
+    public void setController(ControllerAnalysisResult controller) { this.controller = controller; }
+
+    public Map<String, List<String>> getImplementors() { return implementors; }
+    public void setImplementors(Map<String, List<String>> implementors) { this.implementors = implementors; }
+
+    public List<ReferenceFact> getReferences() { return references; }
+    public void setReferences(List<ReferenceFact> references) { this.references = references; }
+
+    public List<SymbolRange> getRanges() { return ranges; }
+    public void setRanges(List<SymbolRange> ranges) { this.ranges = ranges; }
+}
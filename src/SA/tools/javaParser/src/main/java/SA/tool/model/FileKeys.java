@@ -0,0 +1,121 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 一个文件对 ALL 各项输出的贡献（只记录键和条数，不含内容），保存在清单中。
+ * 增量分析据此找出受变化文件影响的输出键，以及包含某个键的其他文件，不必读取全部文件的事实
+ */
+public class FileKeys {
+
+    @JsonProperty("methods")
+    private List<MethodKey> methods = new ArrayList<>(); // 按声明顺序，决定调用图的节点和候选方法
+
+    @JsonProperty("call_names")
+    private List<String> callNames = new ArrayList<>(); // 调用的方法名（去重）
+
+    @JsonProperty("definitions")
+    private Map<String, Integer> definitions = new LinkedHashMap<>(); // 简单名 -> 定义条数
+
+    @JsonProperty("member_definitions")
+    private List<String> memberDefinitions = new ArrayList<>(); // 其中类型和成员的名字，决定是否输出其引用
+
+    @JsonProperty("references")
+    private Map<String, Integer> references = new LinkedHashMap<>(); // 名字 -> 引用条数
+
+    @JsonProperty("implementors")
+    private Map<String, Integer> implementors = new LinkedHashMap<>(); // 接口全限定名 -> 实现类条数
+
+    @JsonProperty("apis")
+    private int apis;
+
+    @JsonProperty("controller")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String controller; // Controller 名，非 Controller 文件为 null
+
+    // Getters and Setters
+    public List<MethodKey> getMethods() { return methods; }
+    public void setMethods(List<MethodKey> methods) { this.methods = methods; }
+
+    public List<String> getCallNames() { return callNames; }
+    public void setCallNames(List<String> callNames) { this.callNames = callNames; }
+
+    public Map<String, Integer> getDefinitions() { return definitions; }
+    public void setDefinitions(Map<String, Integer> definitions) { this.definitions = definitions; }
+
+    public List<String> getMemberDefinitions() { return memberDefinitions; }
+    public void setMemberDefinitions(List<String> memberDefinitions) { this.memberDefinitions = memberDefinitions; }
+
+    public Map<String, Integer> getReferences() { return references; }
+    public void setReferences(Map<String, Integer> references) { this.references = references; }
+
+    public Map<String, Integer> getImplementors() { return implementors; }
+    public void setImplementors(Map<String, Integer> implementors) { this.implementors = implementors; }
+
+    public int getApis() { return apis; }
+    public void setApis(int apis) { this.apis = apis; }
+
+    public String getController() { return controller; }
+    public void setController(String controller) { this.controller = controller; }
+
+    /**
+     * 方法声明中参与调用解析的部分：签名、方法名、参数个数和是否可变参数
+     */
+    public static class MethodKey {
+        @JsonProperty("signature")
+        private String signature;
+
+        @JsonProperty("name")
+        private String name;
+
+        @JsonProperty("parameter_count")
+        private int parameterCount;
+
+        @JsonProperty("varargs")
+        private boolean varargs;
+
+        // Constructors
+        public MethodKey() {}
+
+        public MethodKey(MethodFact method) {
+            this.signature = method.getMethodSignature();
+            this.name = method.getMethodName();
+            this.parameterCount = method.getParameterCount();
+            this.varargs = method.isVarargs();
+        }
+
+        // Getters and Setters
+        public String getSignature() { return signature; }
+        public void setSignature(String signature) { this.signature = signature; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public int getParameterCount() { return parameterCount; }
+        public void setParameterCount(int parameterCount) { this.parameterCount = parameterCount; }
+
+        public boolean isVarargs() { return varargs; }
+        public void setVarargs(boolean varargs) { this.varargs = varargs; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof MethodKey other)) {
+                return false;
+            }
+            return parameterCount == other.parameterCount && varargs == other.varargs
+                    && Objects.equals(signature, other.signature) && Objects.equals(name, other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(signature, name, parameterCount, varargs);
+        }
+    }
+}
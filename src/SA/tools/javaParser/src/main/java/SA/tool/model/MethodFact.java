@@ -0,0 +1,76 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个方法声明及其方法体内的调用，调用图的两遍构建都只依赖这些事实。
+ * 提取 {@code FLOWS} 时还带有方法内的参数数据流（参数位图：第 p 位表示第 p 个参数），作为污点分析的局部摘要。
+ */
+public class MethodFact {
+    @JsonProperty("method_signature")
+    private String methodSignature;
+
+    @JsonProperty("class_name")
+    private String className;
+
+    @JsonProperty("method_name")
+    private String methodName;
+
+    @JsonProperty("code_pos")
+    private String codePos;
+
+    @JsonProperty("parameter_count")
+    private int parameterCount;
+
+    @JsonProperty("varargs")
+    private boolean varargs; // 最后一个参数为可变参数
+
+    @JsonProperty("calls")
+    private List<CallFact> calls = new ArrayList<>();
+
+    @JsonProperty("parameter_names")
+    private List<String> parameterNames = new ArrayList<>(); // 仅 FLOWS
+
+    @JsonProperty("return_flow")
+    private long returnFlow; // 返回值依赖的参数
+
+    @JsonProperty("field_flows")
+    private Map<String, Long> fieldFlows = new LinkedHashMap<>(); // 本类字段 -> 写入值依赖的参数
+
+    // Getters and Setters
+    public String getMethodSignature() { return methodSignature; }
+    public void setMethodSignature(String methodSignature) { this.methodSignature = methodSignature; }
+
+    public String getClassName() { return className; }
+    public void setClassName(String className) { this.className = className; }
+
+    public String getMethodName() { return methodName; }
+    public void setMethodName(String methodName) { this.methodName = methodName; }
+
+    public String getCodePos() { return codePos; }
+    public void setCodePos(String codePos) { this.codePos = codePos; }
+
+    public int getParameterCount() { return parameterCount; }
+    public void setParameterCount(int parameterCount) { this.parameterCount = parameterCount; }
+
+    public boolean isVarargs() { return varargs; }
+    public void setVarargs(boolean varargs) { this.varargs = varargs; }
+
+    public List<CallFact> getCalls() { return calls; }
+    public void setCalls(List<CallFact> calls) { this.calls = calls; }
+
+    public void addCall(CallFact call) { this.calls.add(call); }
+
+    public List<String> getParameterNames() { return parameterNames; }
+    public void setParameterNames(List<String> parameterNames) { this.parameterNames = parameterNames; }
+
+    public long getReturnFlow() { return returnFlow; }
+    public void setReturnFlow(long returnFlow) { this.returnFlow = returnFlow; }
+
+    public Map<String, Long> getFieldFlows() { return fieldFlows; }
+    public void setFieldFlows(Map<String, Long> fieldFlows) { this.fieldFlows = fieldFlows; }
+}
@@ -0,0 +1,82 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 方法的污点摘要：各参数（传递地）流向返回值、字段和 sink 实参的情况（TAINT -summaries 的输出条目）
+ */
+public class MethodSummary {
+
+    @JsonProperty("method_signature")
+    private String methodSignature;
+
+    @JsonProperty("return_params")
+    private List<String> returnParams = new ArrayList<>();
+
+    @JsonProperty("field_params")
+    private Map<String, List<String>> fieldParams = new LinkedHashMap<>(); // 类名.字段名 -> 参数
+
+    @JsonProperty("sinks")
+    private List<SinkParams> sinks = new ArrayList<>();
+
+    public String getMethodSignature() {
+        return methodSignature;
+    }
+
+    public void setMethodSignature(String methodSignature) {
+        this.methodSignature = methodSignature;
+    }
+
+    public List<String> getReturnParams() {
+        return returnParams;
+    }
+
+    public void setReturnParams(List<String> returnParams) {
+        this.returnParams = returnParams;
+    }
+
+    public Map<String, List<String>> getFieldParams() {
+        return fieldParams;
+    }
+
+    public void setFieldParams(Map<String, List<String>> fieldParams) {
+        this.fieldParams = fieldParams;
+    }
+
+    public List<SinkParams> getSinks() {
+        return sinks;
+    }
+
+    public void setSinks(List<SinkParams> sinks) {
+        this.sinks = sinks;
+    }
+
+    /**
+     * 流入某个 sink 调用点的参数
+     */
+    public static class SinkParams {
+
+        @JsonProperty("sink")
+        private SinkSite sink;
+
+        @JsonProperty("params")
+        private List<String> params = new ArrayList<>();
+
+        public SinkParams() {}
+
+        public SinkParams(SinkSite sink, List<String> params) {
+            this.sink = sink;
+            this.params = params;
+        }
+
+        public SinkSite getSink() { return sink; }
+        public void setSink(SinkSite sink) { this.sink = sink; }
+
+        public List<String> getParams() { return params; }
+        public void setParams(List<String> params) { this.params = params; }
+    }
+}
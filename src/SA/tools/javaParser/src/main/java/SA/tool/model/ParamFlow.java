@@ -0,0 +1,42 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 接口方法的参数流入方法体内某次调用的某个实参（方法内数据流分析的结果）
+ */
+public class ParamFlow {
+
+    @JsonProperty("param")
+    private String param; // 接口方法的参数名
+
+    @JsonProperty("callee")
+    private String callee; // 被调方法：类型.方法名（类型可推断时为全限定名），构造器为 new 类型
+
+    @JsonProperty("arg_index")
+    private int argIndex; // 实参位置，从 0 开始
+
+    @JsonProperty("code_pos")
+    private String codePos; // 调用位置 file.java:L10:C5
+
+    public ParamFlow() {}
+
+    public ParamFlow(String param, String callee, int argIndex, String codePos) {
+        this.param = param;
+        this.callee = callee;
+        this.argIndex = argIndex;
+        this.codePos = codePos;
+    }
+
+    public String getParam() { return param; }
+    public void setParam(String param) { this.param = param; }
+
+    public String getCallee() { return callee; }
+    public void setCallee(String callee) { this.callee = callee; }
+
+    public int getArgIndex() { return argIndex; }
+    public void setArgIndex(int argIndex) { this.argIndex = argIndex; }
+
+    public String getCodePos() { return codePos; }
+    public void setCodePos(String codePos) { this.codePos = codePos; }
+}
@@ -0,0 +1,50 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 文件中一处按名字出现的引用，REF 索引由这些事实构建。文件路径和行内容不重复保存，查询时由所在文件补全
+ */
+public class ReferenceFact {
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("reference_type")
+    private String referenceType; // METHOD_CALL, FIELD_ACCESS, TYPE_REFERENCE, VARIABLE_ACCESS
+
+    @JsonProperty("line")
+    private int line;
+
+    @JsonProperty("column")
+    private int column;
+
+    @JsonProperty("context")
+    private String context; // 类名.方法名
+
+    // Constructors
+    public ReferenceFact() {}
+
+    public ReferenceFact(String name, String referenceType, int line, int column, String context) {
+        this.name = name;
+        this.referenceType = referenceType;
+        this.line = line;
+        this.column = column;
+        this.context = context;
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getReferenceType() { return referenceType; }
+    public void setReferenceType(String referenceType) { this.referenceType = referenceType; }
+
+    public int getLine() { return line; }
+    public void setLine(int line) { this.line = line; }
+
+    public int getColumn() { return column; }
+    public void setColumn(int column) { this.column = column; }
+
+    public String getContext() { return context; }
+    public void setContext(String context) { this.context = context; }
+}
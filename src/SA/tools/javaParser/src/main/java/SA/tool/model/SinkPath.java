@@ -0,0 +1,44 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 从 API 接口到 sink 调用点的一条调用链（SINK 命令的输出条目）
+ */
+public class SinkPath {
+
+    @JsonProperty("api")
+    private ApiInfo api;
+
+    @JsonProperty("sink")
+    private SinkSite sink;
+
+    @JsonProperty("call_chain")
+    private List<String> callChain = new ArrayList<>(); // 从入口方法到 sink 所在方法的签名
+
+    public ApiInfo getApi() {
+        return api;
+    }
+
+    public void setApi(ApiInfo api) {
+        this.api = api;
+    }
+
+    public SinkSite getSink() {
+        return sink;
+    }
+
+    public void setSink(SinkSite sink) {
+        this.sink = sink;
+    }
+
+    public List<String> getCallChain() {
+        return callChain;
+    }
+
+    public void setCallChain(List<String> callChain) {
+        this.callChain = callChain;
+    }
+}
@@ -0,0 +1,42 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 命中 sink 目录的调用点
+ */
+public class SinkSite {
+
+    @JsonProperty("category")
+    private String category; // sql、command、file、deserialization、template
+
+    @JsonProperty("sink")
+    private String sink; // 目录中的模式，如 Runtime.exec
+
+    @JsonProperty("code_pos")
+    private String codePos; // 调用点位置
+
+    @JsonProperty("method_signature")
+    private String methodSignature; // 调用点所在方法
+
+    public SinkSite() {}
+
+    public SinkSite(String category, String sink, String codePos, String methodSignature) {
+        this.category = category;
+        this.sink = sink;
+        this.codePos = codePos;
+        this.methodSignature = methodSignature;
+    }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getSink() { return sink; }
+    public void setSink(String sink) { this.sink = sink; }
+
+    public String getCodePos() { return codePos; }
+    public void setCodePos(String codePos) { this.codePos = codePos; }
+
+    public String getMethodSignature() { return methodSignature; }
+    public void setMethodSignature(String methodSignature) { this.methodSignature = methodSignature; }
+}
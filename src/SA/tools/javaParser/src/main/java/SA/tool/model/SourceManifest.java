@@ -0,0 +1,83 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上次分析时项目源文件的清单，ALL -incremental 据此判断哪些文件变化：
+ * 大小和修改时间相同的文件视为未变化，按内容哈希从事实缓存中取回上次的事实。
+ * 每个文件还记录它对各项输出贡献的键（{@link FileKeys}），增量分析据此只修补受影响的输出键
+ */
+public class SourceManifest {
+
+    @JsonProperty("root_path")
+    private String rootPath; // 项目根目录的绝对路径，根目录不同时清单作废
+
+    @JsonProperty("parser_version")
+    private String parserVersion = FileFacts.PARSER_VERSION;
+
+    @JsonProperty("callee_selection")
+    private String calleeSelection; // 生成调用图时的候选方法选择，不同时清单作废
+
+    @JsonProperty("files")
+    private List<Entry> files = new ArrayList<>(); // 按相对路径排序
+
+    // Getters and Setters
+    public String getRootPath() { return rootPath; }
+    public void setRootPath(String rootPath) { this.rootPath = rootPath; }
+
+    public String getParserVersion() { return parserVersion; }
+    public void setParserVersion(String parserVersion) { this.parserVersion = parserVersion; }
+
+    public String getCalleeSelection() { return calleeSelection; }
+    public void setCalleeSelection(String calleeSelection) { this.calleeSelection = calleeSelection; }
+
+    public List<Entry> getFiles() { return files; }
+    public void setFiles(List<Entry> files) { this.files = files; }
+
+    public static class Entry {
+        @JsonProperty("path")
+        private String path; // 相对路径，与 FileFacts 的 file_path 相同
+
+        @JsonProperty("size")
+        private long size;
+
+        @JsonProperty("mtime")
+        private long mtime; // 毫秒
+
+        @JsonProperty("content_hash")
+        private String contentHash;
+
+        @JsonProperty("keys")
+        private FileKeys keys;
+
+        // Constructors
+        public Entry() {}
+
+        public Entry(String path, long size, long mtime, String contentHash, FileKeys keys) {
+            this.path = path;
+            this.size = size;
+            this.mtime = mtime;
+            this.contentHash = contentHash;
+            this.keys = keys;
+        }
+
+        // Getters and Setters
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public long getSize() { return size; }
+        public void setSize(long size) { this.size = size; }
+
+        public long getMtime() { return mtime; }
+        public void setMtime(long mtime) { this.mtime = mtime; }
+
+        public String getContentHash() { return contentHash; }
+        public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+        public FileKeys getKeys() { return keys; }
+        public void setKeys(FileKeys keys) { this.keys = keys; }
+    }
+}
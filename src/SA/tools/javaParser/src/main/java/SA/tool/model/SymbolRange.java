@@ -0,0 +1,72 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 文件中一个类、方法或字段声明的行区间，按文件缓存，用于"某行属于哪个符号"的查询
+ */
+public class SymbolRange {
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("symbol_type")
+    private String symbolType; // CLASS, INTERFACE, ENUM, RECORD, ANNOTATION, METHOD, CONSTRUCTOR, FIELD, ENUM_CONSTANT
+
+    @JsonProperty("class_fqn")
+    private String classFqn; // 类型为自身的全限定名，成员为所在类的全限定名
+
+    @JsonProperty("begin_line")
+    private int beginLine;
+
+    @JsonProperty("end_line")
+    private int endLine;
+
+    @JsonProperty("name_line")
+    private int nameLine; // 声明中名字所在的行和列
+
+    @JsonProperty("name_column")
+    private int nameColumn;
+
+    @JsonProperty("visibility")
+    private String visibility; // public, protected, private, package
+
+    // Constructors
+    public SymbolRange() {}
+
+    public SymbolRange(String name, String symbolType, String classFqn, int beginLine, int endLine,
+                       int nameLine, int nameColumn, String visibility) {
+        this.name = name;
+        this.symbolType = symbolType;
+        this.classFqn = classFqn;
+        this.beginLine = beginLine;
+        this.endLine = endLine;
+        this.nameLine = nameLine;
+        this.nameColumn = nameColumn;
+        this.visibility = visibility;
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getSymbolType() { return symbolType; }
+    public void setSymbolType(String symbolType) { this.symbolType = symbolType; }
+
+    public String getClassFqn() { return classFqn; }
+    public void setClassFqn(String classFqn) { this.classFqn = classFqn; }
+
+    public int getBeginLine() { return beginLine; }
+    public void setBeginLine(int beginLine) { this.beginLine = beginLine; }
+
+    public int getEndLine() { return endLine; }
+    public void setEndLine(int endLine) { this.endLine = endLine; }
+
+    public int getNameLine() { return nameLine; }
+    public void setNameLine(int nameLine) { this.nameLine = nameLine; }
+
+    public int getNameColumn() { return nameColumn; }
+    public void setNameColumn(int nameColumn) { this.nameColumn = nameColumn; }
+
+    public String getVisibility() { return visibility; }
+    public void setVisibility(String visibility) { this.visibility = visibility; }
+}
@@ -0,0 +1,55 @@
+package SA.tool.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 接口参数经调用链流入 sink 调用（TAINT 命令的输出条目）
+ */
+public class TaintFlow {
+
+    @JsonProperty("api")
+    private ApiInfo api;
+
+    @JsonProperty("params")
+    private List<String> params = new ArrayList<>(); // 流入 sink 的接口方法参数
+
+    @JsonProperty("sink")
+    private SinkSite sink;
+
+    @JsonProperty("call_chain")
+    private List<String> callChain = new ArrayList<>(); // 一条见证调用链：从入口方法到 sink 所在方法的签名
+
+    public ApiInfo getApi() {
+        return api;
+    }
+
+    public void setApi(ApiInfo api) {
+        this.api = api;
+    }
+
+    public List<String> getParams() {
+        return params;
+    }
+
+    public void setParams(List<String> params) {
+        this.params = params;
+    }
+
+    public SinkSite getSink() {
+        return sink;
+    }
+
+    public void setSink(SinkSite sink) {
+        this.sink = sink;
+    }
+
+    public List<String> getCallChain() {
+        return callChain;
+    }
+
+    public void setCallChain(List<String> callChain) {
+        this.callChain = callChain;
+    }
+}
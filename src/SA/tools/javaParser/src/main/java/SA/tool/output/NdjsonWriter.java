@@ -0,0 +1,66 @@
+package SA.tool.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * 按行写出 JSON 记录（NDJSON）：每条记录产生后立即通过 JsonGenerator 序列化并写出，
+ * 不在内存中保留完整结果或完整的 JSON 文本，读取端可以在运行结束前开始消费。
+ */
+public class NdjsonWriter implements Consumer<Object>, Closeable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonGenerator generator;
+    private final boolean flushEachRecord;
+    private long count;
+
+    /**
+     * @param flushEachRecord 每条记录后刷新（输出到管道时使用，便于读取端实时消费）
+     */
+    public NdjsonWriter(OutputStream out, boolean flushEachRecord) throws IOException {
+        objectMapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        // 记录之间只用换行分隔（默认的根值分隔符是空格）
+        this.generator.setRootValueSeparator(null);
+        // 输出到标准输出时不关闭底层流
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.flushEachRecord = flushEachRecord;
+    }
+
+    public void write(Object record) throws IOException {
+        objectMapper.writeValue(generator, record);
+        generator.writeRaw('\n');
+        if (flushEachRecord) {
+            generator.flush();
+        }
+        count++;
+    }
+
+    /**
+     * 作为分析器的结果回调使用，写出失败时抛出 UncheckedIOException
+     */
+    @Override
+    public void accept(Object record) {
+        try {
+            write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
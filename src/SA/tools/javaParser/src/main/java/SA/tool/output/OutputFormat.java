@@ -0,0 +1,6 @@
+package SA.tool.output;
+
+public enum OutputFormat {
+    JSON,    // 完整结果序列化为一个格式化的 JSON 文档 (默认)
+    NDJSON   // 每行一条记录，边产生边写出
+}
@@ -0,0 +1,85 @@
+package SA.tool.parser;
+
+import java.util.Arrays;
+
+/**
+ * 源文件的行起始偏移索引：一次扫描建立，之后按行号取行内容是 O(1) 的子串操作。
+ * 与 Files.readAllLines 一致，\n、\r 和 \r\n 都视为换行，文件末尾的换行不产生额外的空行。
+ */
+public final class LineIndex {
+
+    private final String source;
+    private final int[] lineStarts;
+    private final int lineCount;
+
+    private LineIndex(String source, int[] lineStarts, int lineCount) {
+        this.source = source;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+    }
+
+    public static LineIndex of(String source) {
+        int[] starts = new int[64];
+        int count = 0;
+        starts[count++] = 0;
+        int length = source.length();
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            if (c == '\r' && i + 1 < length && source.charAt(i + 1) == '\n') {
+                i++;
+            } else if (c != '\n' && c != '\r') {
+                continue;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = i + 1;
+        }
+        // 末尾换行之后的空串不算一行
+        int lineCount = starts[count - 1] == length && count > 1 ? count - 1 : count;
+        if (length == 0) {
+            lineCount = 0;
+        }
+        return new LineIndex(source, Arrays.copyOf(starts, count), lineCount);
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @param lineNumber 从 1 开始的行号
+     * @return 不含换行符的行内容，行号越界时返回 null
+     */
+    public String getLine(int lineNumber) {
+        if (lineNumber < 1 || lineNumber > lineCount) {
+            return null;
+        }
+        int start = lineStarts[lineNumber - 1];
+        int end = lineNumber < lineStarts.length ? lineStarts[lineNumber] : source.length();
+        if (end > start && source.charAt(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && source.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return source.substring(start, end);
+    }
+
+    /**
+     * 取 (beginLine, beginColumn) 到 (endLine, endColumn)（含）之间的源码，行列号从 1 开始，与 javaparser 的位置一致
+     *
+     * @return 位置越界时返回 null
+     */
+    public String slice(int beginLine, int beginColumn, int endLine, int endColumn) {
+        if (beginLine < 1 || endLine > lineCount || beginLine > endLine || beginColumn < 1 || endColumn < 1) {
+            return null;
+        }
+        int start = lineStarts[beginLine - 1] + beginColumn - 1;
+        int end = lineStarts[endLine - 1] + endColumn;
+        if (start >= end || end > source.length()) {
+            return null;
+        }
+        return source.substring(start, end);
+    }
+}
@@ -0,0 +1,79 @@
+package SA.tool.parser;
+
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * 单个源文件：源码在加载时读入，AST 在首次访问时才解析（缓存命中的文件永远不会被解析）
+ */
+public class ParsedFile {
+
+    private final Path path;
+    private final String relativePath;
+    private final String source;
+    private final ProjectParser parser;
+    private volatile ParseResult<CompilationUnit> parseResult;
+    private volatile LineIndex lineIndex;
+
+    ParsedFile(Path path, String relativePath, String source, ProjectParser parser) {
+        this.path = path;
+        this.relativePath = relativePath;
+        this.source = source;
+        this.parser = parser;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 由已读入的源码懒加载的行索引，取行内容不再访问磁盘
+     */
+    public LineIndex getLineIndex() {
+        LineIndex index = lineIndex;
+        if (index == null) {
+            // 构建是幂等的，并发时重复构建也无妨
+            index = LineIndex.of(source);
+            lineIndex = index;
+        }
+        return index;
+    }
+
+    public boolean isParsed() {
+        return parseResult != null;
+    }
+
+    public ParseResult<CompilationUnit> getParseResult() {
+        ParseResult<CompilationUnit> result = parseResult;
+        if (result == null) {
+            synchronized (this) {
+                result = parseResult;
+                if (result == null) {
+                    result = parser.parseSource(path, source);
+                    parseResult = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isSuccessful() {
+        ParseResult<CompilationUnit> result = getParseResult();
+        return result.isSuccessful() && result.getResult().isPresent();
+    }
+
+    public Optional<CompilationUnit> getCompilationUnit() {
+        return isSuccessful() ? getParseResult().getResult() : Optional.empty();
+    }
+}
@@ -0,0 +1,58 @@
+package SA.tool.parser;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 整个项目的解析结果，文件按相对路径排序，保证各分析器的遍历顺序稳定
+ */
+public class ParsedProject {
+
+    private final Path rootPath;
+    private final List<ParsedFile> files;
+    private final int skippedFiles;
+
+    public ParsedProject(Path rootPath, List<ParsedFile> files) {
+        this(rootPath, files, 0);
+    }
+
+    public ParsedProject(Path rootPath, List<ParsedFile> files, int skippedFiles) {
+        this.rootPath = rootPath;
+        this.files = Collections.unmodifiableList(files);
+        this.skippedFiles = skippedFiles;
+    }
+
+    public Path getRootPath() {
+        return rootPath;
+    }
+
+    public List<ParsedFile> getFiles() {
+        return files;
+    }
+
+    /**
+     * 解析成功的编译单元
+     */
+    public List<CompilationUnit> getCompilationUnits() {
+        List<CompilationUnit> units = new ArrayList<>(files.size());
+        for (ParsedFile file : files) {
+            file.getCompilationUnit().ifPresent(units::add);
+        }
+        return units;
+    }
+
+    public int size() {
+        return files.size();
+    }
+
+    /**
+     * 被预过滤跳过、未读入的源文件数
+     */
+    public int getSkippedFiles() {
+        return skippedFiles;
+    }
+}
@@ -0,0 +1,264 @@
+package SA.tool.parser;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.printer.DefaultPrettyPrinter;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.stats.ParseEvent;
+import SA.tool.stats.Phase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 共享的并行解析引擎：遍历源码目录并在线程池上并发读取、解析所有 .java 文件。
+ * 结果按相对路径排序，与线程数无关。
+ *
+ * {@link #load} 只读取源码，AST 按需解析；{@link #parse} 额外并行解析全部文件。
+ */
+public class ProjectParser {
+
+    // 与 SourceRoot 一致：只进入可能是包名的目录
+    private static final Pattern JAVA_IDENTIFIER = Pattern.compile("\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*");
+
+    private final int parallelism;
+    private final boolean virtualThreads;
+    private final ParserConfiguration configuration = new ParserConfiguration();
+
+    public ProjectParser() {
+        this(0, false);
+    }
+
+    /**
+     * @param parallelism    解析线程数，<= 0 时使用 CPU 核数
+     * @param virtualThreads 是否使用虚拟线程（每个文件一个），此时忽略 parallelism
+     */
+    public ProjectParser(int parallelism, boolean virtualThreads) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public ParsedProject parse(Path rootPath) throws IOException {
+        ParsedProject project = load(rootPath);
+        parseAll(project);
+        return project;
+    }
+
+    public ParsedProject load(Path rootPath) throws IOException {
+        return load(rootPath, relativePath -> true);
+    }
+
+    /**
+     * 只读取相对路径满足 filter 的源文件（路径分隔符统一为 '/'）
+     */
+    public ParsedProject load(Path rootPath, Predicate<String> filter) throws IOException {
+        Path root = rootPath.normalize();
+        List<Path> sourceFiles = new ArrayList<>();
+        for (Path file : walk(root)) {
+            if (filter.test(relativize(root, file).replace('\\', '/'))) {
+                sourceFiles.add(file);
+            }
+        }
+        try (Phase phase = AnalysisStats.phase("read")) {
+            List<ParsedFile> files = map(sourceFiles, file -> loadFile(root, file));
+            phase.count("files", files.size());
+            return new ParsedProject(root, files);
+        }
+    }
+
+    /**
+     * 只读取原始字节中包含预过滤关键字的源文件，其余文件既不读入也不解析
+     */
+    public ParsedProject load(Path rootPath, SourcePrefilter prefilter) throws IOException {
+        Path root = rootPath.normalize();
+        List<Path> sourceFiles = walk(root);
+        try (Phase phase = AnalysisStats.phase("read")) {
+            List<ParsedFile> loaded = map(sourceFiles, file -> {
+                try {
+                    return prefilter.matches(file) ? loadFile(root, file) : null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            List<ParsedFile> files = loaded.stream().filter(Objects::nonNull).toList();
+            int skipped = sourceFiles.size() - files.size();
+            phase.count("files", files.size()).count("skipped", skipped);
+            System.err.println("Prefilter skipped " + skipped + " of " + sourceFiles.size() + " files");
+            return new ParsedProject(root, files, skipped);
+        }
+    }
+
+    /**
+     * 并行解析项目中尚未解析的文件
+     */
+    public void parseAll(ParsedProject project) throws IOException {
+        List<ParsedFile> pending = project.getFiles().stream().filter(f -> !f.isParsed()).toList();
+        try (Phase phase = AnalysisStats.phase("parse")) {
+            map(pending, ParsedFile::getParseResult);
+            phase.count("files", pending.size());
+        }
+    }
+
+    private List<Path> walk(Path root) throws IOException {
+        try (Phase phase = AnalysisStats.phase("walk")) {
+            List<Path> sourceFiles = collectSourceFiles(root);
+            phase.count("files", sourceFiles.size());
+            return sourceFiles;
+        }
+    }
+
+    /**
+     * 按 SourceRoot 的规则收集源文件：跳过隐藏目录和不能作为包名的目录
+     */
+    public List<Path> collectSourceFiles(Path root) throws IOException {
+        List<Path> sourceFiles = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                return isSourceDirectory(root, dir) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isDirectory() && file.toString().endsWith(".java")) {
+                    sourceFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        sourceFiles.sort(Comparator.comparing(Path::toString));
+        return sourceFiles;
+    }
+
+    /**
+     * 文件是否会被 {@link #collectSourceFiles} 收集：存在的 .java 普通文件，且根目录下的每一级目录都不被跳过
+     */
+    public boolean isSourceFile(Path root, Path file) throws IOException {
+        if (!Files.isRegularFile(file) || !file.toString().endsWith(".java")) {
+            return false;
+        }
+        for (Path dir = file.getParent(); dir != null && !dir.equals(root); dir = dir.getParent()) {
+            if (!isSourceDirectory(root, dir)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSourceDirectory(Path root, Path dir) throws IOException {
+        return dir.equals(root) || !Files.isHidden(dir) && JAVA_IDENTIFIER.matcher(dir.getFileName().toString()).matches();
+    }
+
+    public ParsedFile loadFile(Path root, Path file) {
+        try {
+            String source = new String(Files.readAllBytes(file), configuration.getCharacterEncoding());
+            return new ParsedFile(file, relativize(root, file), source, this);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    ParseResult<CompilationUnit> parseSource(Path file, String source) {
+        // JavaParser 实例不是线程安全的，每个文件单独创建（创建开销很小）
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        ParseResult<CompilationUnit> result = new JavaParser(configuration).parse(source);
+        AnalysisStats.recordParse(file.toString(), System.nanoTime() - start);
+        result.getResult().ifPresent(cu -> {
+            cu.setStorage(file, configuration.getCharacterEncoding());
+            // 预先安装打印器：CompilationUnit 默认在首次 toString 时懒加载打印器，并发访问时会产生竞争
+            cu.printer(new DefaultPrettyPrinter());
+        });
+        event.end();
+        if (event.shouldCommit()) {
+            // 未开启记录时 shouldCommit 为 false，不会统计节点数
+            event.file = file.toString();
+            event.sourceLength = source.length();
+            event.successful = result.isSuccessful();
+            event.nodes = result.getResult().map(cu -> cu.findAll(Node.class).size()).orElse(0);
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * 在解析线程池上并行执行 fn，结果顺序与输入顺序一致
+     */
+    public <T, R> List<R> map(List<T> items, Function<T, R> fn) throws IOException {
+        try {
+            if (virtualThreads) {
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    List<Future<R>> futures = new ArrayList<>(items.size());
+                    for (T item : items) {
+                        futures.add(executor.submit(() -> fn.apply(item)));
+                    }
+                    List<R> results = new ArrayList<>(items.size());
+                    for (Future<R> future : futures) {
+                        results.add(future.get());
+                    }
+                    return results;
+                }
+            }
+            if (parallelism == 1) {
+                List<R> results = new ArrayList<>(items.size());
+                for (T item : items) {
+                    results.add(fn.apply(item));
+                }
+                return results;
+            }
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                return pool.submit(() -> items.parallelStream().map(fn).toList()).get();
+            } finally {
+                pool.shutdown();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Parsing interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private String relativize(Path root, Path file) {
+        try {
+            return root.relativize(file).toString();
+        } catch (IllegalArgumentException e) {
+            return file.toAbsolutePath().toString();
+        }
+    }
+}
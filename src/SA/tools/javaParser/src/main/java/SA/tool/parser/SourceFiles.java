@@ -0,0 +1,50 @@
+package SA.tool.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按相对路径取源文件的行索引，供查询结果补全源码（引用的行内容、定义的代码）。
+ * 已读入的文件直接使用内存中的源码；其余文件（事实来自缓存、或 ALL -incremental 中未重新读入）在首次使用时从磁盘读取，只读不解析。
+ */
+public class SourceFiles {
+
+    private final Path rootPath;
+    private final Map<String, ParsedFile> loaded = new HashMap<>();
+    private final Map<String, Optional<LineIndex>> unloaded = new ConcurrentHashMap<>();
+
+    /**
+     * @param project 已读入的文件，可为 null
+     */
+    public SourceFiles(Path rootPath, ParsedProject project) {
+        this.rootPath = rootPath;
+        if (project != null) {
+            for (ParsedFile file : project.getFiles()) {
+                loaded.put(file.getRelativePath(), file);
+            }
+        }
+    }
+
+    /**
+     * @return 文件不存在或无法读取时为空
+     */
+    public Optional<LineIndex> lineIndex(String relativePath) {
+        ParsedFile file = loaded.get(relativePath);
+        if (file != null) {
+            return Optional.of(file.getLineIndex());
+        }
+        return unloaded.computeIfAbsent(relativePath, path -> {
+            try {
+                return Optional.of(LineIndex.of(Files.readString(rootPath.resolve(path), StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        });
+    }
+}
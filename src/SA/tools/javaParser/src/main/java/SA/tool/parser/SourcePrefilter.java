@@ -0,0 +1,110 @@
+package SA.tool.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 字节级预过滤：在读入和解析之前扫描源文件的原始字节，只有包含任一关键字的文件才交给 JavaParser。
+ *
+ * 较大的文件通过内存映射扫描；查找首字节时一次比较 8 个字节（SWAR），命中后再逐字节校验。
+ * 关键字按源码编码转换为字节，因此只对 ASCII 标识符可靠（Unicode 转义写法的标识符会被漏掉）。
+ */
+public final class SourcePrefilter {
+
+    // 小文件直接读入比建立映射更快
+    private static final long MAP_THRESHOLD = 64 * 1024;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+
+    private final byte[][] tokens;
+
+    private SourcePrefilter(byte[][] tokens) {
+        this.tokens = tokens;
+    }
+
+    public static SourcePrefilter anyOf(String... tokens) {
+        return anyOf(StandardCharsets.UTF_8, tokens);
+    }
+
+    public static SourcePrefilter anyOf(Charset charset, String... tokens) {
+        byte[][] bytes = new byte[tokens.length][];
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].isEmpty()) {
+                throw new IllegalArgumentException("Prefilter token must not be empty");
+            }
+            bytes[i] = tokens[i].getBytes(charset);
+        }
+        return new SourcePrefilter(bytes);
+    }
+
+    /**
+     * 文件是否包含任一关键字
+     */
+    public boolean matches(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAP_THRESHOLD && size <= Integer.MAX_VALUE) {
+                return matches(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+        }
+        return matches(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    public boolean matches(ByteBuffer content) {
+        ByteBuffer buffer = content.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (byte[] token : tokens) {
+            if (indexOf(buffer, token) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在 buffer 的 [position, limit) 中查找 token，返回绝对下标，未找到返回 -1
+     */
+    static int indexOf(ByteBuffer buffer, byte[] token) {
+        int start = buffer.position();
+        int last = buffer.limit() - token.length; // token 可能的最后起点
+        if (last < start) {
+            return -1;
+        }
+        long pattern = ONES * (token[0] & 0xFF);
+        int i = start;
+        // 小端序读取，最低字节对应最低地址，trailing zeros / 8 即命中字节的偏移
+        for (; i + Long.BYTES <= last + 1; i += Long.BYTES) {
+            long x = buffer.getLong(i) ^ pattern;
+            // 为零的字节即首字节命中；借位可能带来误报，但不会漏报，逐个校验即可
+            long found = (x - ONES) & ~x & HIGHS;
+            while (found != 0) {
+                int candidate = i + (Long.numberOfTrailingZeros(found) >>> 3);
+                if (regionMatches(buffer, candidate, token)) {
+                    return candidate;
+                }
+                found &= found - 1;
+            }
+        }
+        for (; i <= last; i++) {
+            if (regionMatches(buffer, i, token)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(ByteBuffer buffer, int offset, byte[] token) {
+        for (int k = 0; k < token.length; k++) {
+            if (buffer.get(offset + k) != token[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,296 @@
+package SA.tool.server;
+
+import SA.tool.analyzer.EndpointReachability;
+import SA.tool.analyzer.SinkAnalyzer;
+import SA.tool.graph.CallGraph;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 常驻分析服务：按行读取 JSON 请求，并发执行查询，按行写回 JSON 响应。
+ *
+ * 请求：{"id": 1, "command": "DEF", "symbol": "UserService"}
+ * 响应：{"id": 1, "ok": true, "result": [...]} 或 {"id": 1, "ok": false, "error": "..."}
+ *
+ * 响应顺序不保证与请求顺序一致，客户端需要按 id 匹配。
+ */
+public class AnalysisServer {
+
+    private final ProjectSession session;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile boolean running = true;
+    private volatile ServerSocketChannel serverChannel;
+
+    public AnalysisServer(ProjectSession session, int threads) {
+        this.session = session;
+        this.executor = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 通过标准输入输出提供服务，直到输入结束或收到 SHUTDOWN。
+     */
+    public void serveStdio(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        serveConnection(reader, writer);
+        awaitTermination();
+    }
+
+    /**
+     * 通过 Unix domain socket 提供服务，每个连接一个读取线程，查询共享同一个线程池。
+     */
+    public void serveSocket(Path socketPath) throws IOException {
+        Files.deleteIfExists(socketPath);
+        try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.bind(UnixDomainSocketAddress.of(socketPath));
+            serverChannel = channel;
+            System.err.println("SA analysis server listening on " + socketPath);
+            while (running) {
+                SocketChannel client;
+                try {
+                    client = channel.accept();
+                } catch (IOException e) {
+                    if (!running) {
+                        break; // SHUTDOWN 关闭了监听通道
+                    }
+                    throw e;
+                }
+                Thread connectionThread = new Thread(() -> {
+                    try (SocketChannel c = client) {
+                        BufferedReader reader = new BufferedReader(Channels.newReader(c, StandardCharsets.UTF_8));
+                        Writer writer = Channels.newWriter(c, StandardCharsets.UTF_8);
+                        serveConnection(reader, writer);
+                    } catch (IOException e) {
+                        System.err.println("Warning: connection closed with error: " + e.getMessage());
+                    }
+                }, "sa-connection");
+                connectionThread.setDaemon(true);
+                connectionThread.start();
+            }
+        } finally {
+            Files.deleteIfExists(socketPath);
+            awaitTermination();
+        }
+    }
+
+    /**
+     * 读取一个连接的请求直到输入结束，返回前等待该连接已提交的查询都写回响应，调用方随后才能关闭连接
+     */
+    private void serveConnection(BufferedReader reader, Writer writer) throws IOException {
+        PendingRequests pending = new PendingRequests();
+        try {
+            readRequests(reader, writer, pending);
+        } finally {
+            pending.awaitAll();
+        }
+    }
+
+    private void readRequests(BufferedReader reader, Writer writer, PendingRequests pending) throws IOException {
+        String line;
+        while (running && (line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode request;
+            try {
+                request = objectMapper.readTree(line);
+            } catch (IOException e) {
+                writeResponse(writer, error(null, "Malformed request: " + e.getMessage()));
+                continue;
+            }
+            JsonNode id = request.get("id");
+            String command = request.path("command").asText().toUpperCase();
+            if ("SHUTDOWN".equals(command)) {
+                shutdown();
+                writeResponse(writer, ok(id, objectMapper.getNodeFactory().textNode("bye")));
+                break;
+            }
+            pending.start();
+            try {
+                executor.execute(() -> {
+                    try {
+                        writeResponse(writer, handle(id, command, request));
+                    } finally {
+                        pending.finish();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pending.finish();
+                writeResponse(writer, error(id, "Server is shutting down"));
+            }
+        }
+    }
+
+    private ObjectNode handle(JsonNode id, String command, JsonNode request) {
+        try {
+            Object result = switch (command) {
+                case "PING" -> "pong";
+                case "RELOAD" -> {
+                    session.reload();
+                    yield session.getFileCount();
+                }
+                case "API" -> {
+                    String outputDir = textOrNull(request, "output");
+                    yield session.extractApis(outputDir != null ? Paths.get(outputDir) : null);
+                }
+                case "REF" -> session.findReferences(requiredText(request, "symbol"),
+                        textOrNull(request, "file"), request.path("line").asInt(-1));
+                case "DEF" -> request.has("symbols")
+                        ? session.findDefinitions(requiredTextList(request, "symbols"))
+                        : session.findDefinitions(requiredText(request, "symbol"));
+                case "CG" -> request.has("roots")
+                        ? session.getCallGraph(requiredTextList(request, "roots"), request.path("depth").asInt(3),
+                                request.has("direction")
+                                        ? CallGraph.Direction.valueOf(request.path("direction").asText().toUpperCase())
+                                        : CallGraph.Direction.CALLEES)
+                        : session.getCallGraph();
+                case "REACH" -> {
+                    EndpointReachability reachability = session.getReachability();
+                    if (request.has("method")) {
+                        yield reachability.endpointsReaching(requiredText(request, "method"));
+                    }
+                    if (request.has("endpoint")) {
+                        yield reachability.reachableFrom(requiredText(request, "endpoint"));
+                    }
+                    yield reachability.toReport();
+                }
+                case "SINK" -> session.findSinkPaths(request.path("depth").asInt(SinkAnalyzer.DEFAULT_MAX_DEPTH),
+                        request.path("max_paths").asInt(SinkAnalyzer.DEFAULT_MAX_PATHS));
+                case "TAINT" -> request.path("summaries").asBoolean(false)
+                        ? session.getMethodSummaries()
+                        : session.findTaintFlows();
+                case "IMPACT" -> session.findImpact(requiredTextList(request, "ranges"));
+                case "SYMBOL" -> session.findEnclosingSymbols(requiredText(request, "file"), request.path("line").asInt());
+                default -> throw new IllegalArgumentException("Unknown command: " + command);
+            };
+            return ok(id, objectMapper.valueToTree(result));
+        } catch (Exception e) {
+            return error(id, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private void writeResponse(Writer writer, ObjectNode response) {
+        try {
+            String json = objectMapper.writeValueAsString(response);
+            synchronized (writer) {
+                writer.write(json);
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to write response: " + e.getMessage());
+        }
+    }
+
+    private ObjectNode ok(JsonNode id, JsonNode result) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("id", id);
+        response.put("ok", true);
+        response.set("result", result);
+        return response;
+    }
+
+    private ObjectNode error(JsonNode id, String message) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("id", id);
+        response.put("ok", false);
+        response.put("error", message);
+        return response;
+    }
+
+    private String textOrNull(JsonNode request, String field) {
+        JsonNode value = request.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private String requiredText(JsonNode request, String field) {
+        String value = textOrNull(request, field);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing required field: " + field);
+        }
+        return value;
+    }
+
+    private List<String> requiredTextList(JsonNode request, String field) {
+        JsonNode value = request.get(field);
+        if (value == null || !value.isArray()) {
+            throw new IllegalArgumentException("Field must be an array: " + field);
+        }
+        List<String> values = new ArrayList<>(value.size());
+        value.forEach(item -> values.add(item.asText()));
+        return values;
+    }
+
+    private void shutdown() {
+        running = false;
+        ServerSocketChannel channel = serverChannel;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 监听通道已关闭
+            }
+        }
+    }
+
+    private void awaitTermination() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 一个连接已提交但尚未写回响应的查询数
+     */
+    private static final class PendingRequests {
+        private int count;
+
+        synchronized void start() {
+            count++;
+        }
+
+        synchronized void finish() {
+            if (--count == 0) {
+                notifyAll();
+            }
+        }
+
+        synchronized void awaitAll() {
+            try {
+                while (count > 0) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package SA.tool.server;
+
+import SA.tool.analyzer.ApiExtractor;
+import SA.tool.analyzer.CallGraphAnalyzer;
+import SA.tool.analyzer.DefinitionFinder;
+import SA.tool.analyzer.EndpointReachability;
+import SA.tool.analyzer.FactCollector;
+import SA.tool.analyzer.ImpactAnalyzer;
+import SA.tool.analyzer.ProjectFacts;
+import SA.tool.analyzer.ReferenceIndex;
+import SA.tool.analyzer.SinkAnalyzer;
+import SA.tool.analyzer.SymbolIndex;
+import SA.tool.analyzer.SymbolRanges;
+import SA.tool.analyzer.TaintAnalyzer;
+import SA.tool.analyzer.TaintSummaries;
+import SA.tool.cache.FactCache;
+import SA.tool.graph.CallGraph;
+import SA.tool.model.ApiImpact;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.CallGraphNode;
+import SA.tool.model.DefinitionInfo;
+import SA.tool.model.ReferenceInfo;
+import SA.tool.model.MethodSummary;
+import SA.tool.model.SinkPath;
+import SA.tool.model.SymbolRange;
+import SA.tool.model.TaintFlow;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 常驻分析会话：项目只加载一次，之后的 API/DEF/REF/CG 查询都复用同一份文件事实和解析结果。
+ * 查询可以并发执行。一次加载的结果和由其派生的调用图等组成一个快照，reload 整体替换快照；
+ * 每个查询只读取一次快照，不会混用新旧两次加载的结果。
+ */
+public class ProjectSession {
+
+    private final Path rootPath;
+    private final ProjectParser projectParser;
+    private final FactCollector factCollector;
+    private final ApiExtractor apiExtractor;
+    private final DefinitionFinder definitionFinder;
+    private final CallGraphAnalyzer callGraphAnalyzer;
+    private final SinkAnalyzer sinkAnalyzer;
+    private final TaintAnalyzer taintAnalyzer;
+    private final ImpactAnalyzer impactAnalyzer;
+
+    private volatile Snapshot snapshot; // 未加载时为 null
+
+    public ProjectSession(Path rootPath) {
+        this(rootPath, new ProjectParser());
+    }
+
+    public ProjectSession(Path rootPath, ProjectParser projectParser) {
+        this(rootPath, projectParser, null);
+    }
+
+    public ProjectSession(Path rootPath, ProjectParser projectParser, FactCache factCache) {
+        this.rootPath = rootPath.normalize();
+        this.projectParser = projectParser;
+        this.factCollector = new FactCollector(projectParser, factCache);
+        this.apiExtractor = new ApiExtractor(projectParser, factCache);
+        this.definitionFinder = new DefinitionFinder(projectParser, factCache);
+        this.callGraphAnalyzer = new CallGraphAnalyzer(projectParser, factCache);
+        this.sinkAnalyzer = new SinkAnalyzer(projectParser, factCache);
+        this.taintAnalyzer = new TaintAnalyzer(projectParser, factCache);
+        this.impactAnalyzer = new ImpactAnalyzer(projectParser, factCache);
+    }
+
+    public Path getRootPath() {
+        return rootPath;
+    }
+
+    /**
+     * 重新加载项目，完成后一次发布新的快照；进行中的查询继续使用旧快照
+     */
+    public synchronized void reload() throws IOException {
+        ParsedProject loaded = projectParser.load(rootPath);
+        ProjectFacts collected = factCollector.collect(loaded);
+        this.snapshot = new Snapshot(loaded, collected, SymbolIndex.build(collected, loaded),
+                ReferenceIndex.build(collected, loaded), SymbolRanges.build(collected));
+    }
+
+    public int getFileCount() {
+        return snapshot().project.size();
+    }
+
+    public List<ApiInfo> extractApis(Path outputDir) throws IOException {
+        return apiExtractor.extractApiInfo(snapshot().facts, outputDir);
+    }
+
+    /**
+     * 不限定位置时直接查引用索引，否则先由符号区间解析该位置上的符号再查索引
+     */
+    public List<ReferenceInfo> findReferences(String symbolName, String targetFile, int targetLine) {
+        Snapshot loaded = snapshot();
+        if (targetFile == null || targetLine == -1) {
+            return loaded.referenceIndex.lookup(symbolName);
+        }
+        return loaded.referenceIndex.lookup(symbolName, targetFile, targetLine, loaded.symbolRanges);
+    }
+
+    /**
+     * 包含文件某行的类、方法、字段声明，由内到外；文件可以是相对路径、绝对路径或路径后缀
+     */
+    public List<SymbolRange> findEnclosingSymbols(String targetFile, int targetLine) {
+        SymbolRanges symbolRanges = snapshot().symbolRanges;
+        String file = symbolRanges.resolveFile(targetFile);
+        if (file == null) {
+            throw new IllegalArgumentException("No symbols found in file: " + targetFile);
+        }
+        return symbolRanges.enclosing(file, targetLine);
+    }
+
+    public List<DefinitionInfo> findDefinitions(String symbolName) {
+        return definitionFinder.findDefinitions(snapshot().symbolIndex, symbolName);
+    }
+
+    public Map<String, List<DefinitionInfo>> findDefinitions(Collection<String> symbolNames) {
+        return definitionFinder.findDefinitions(snapshot().symbolIndex, symbolNames);
+    }
+
+    public CallGraph getCompactCallGraph() {
+        return callGraph(snapshot());
+    }
+
+    public Map<String, CallGraphNode> getCallGraph() {
+        return getCompactCallGraph().toNodeMap();
+    }
+
+    /**
+     * 从 roots（方法签名或 类名.方法名）出发 depth 跳以内的子图，复用已构建的调用图
+     */
+    public Map<String, CallGraphNode> getCallGraph(List<String> roots, int depth, CallGraph.Direction direction) {
+        CallGraph graph = getCompactCallGraph();
+        int[] ids = roots.stream().flatMapToInt(root -> Arrays.stream(graph.findMethods(root))).distinct().toArray();
+        if (ids.length == 0) {
+            throw new IllegalArgumentException("No method matches roots: " + roots);
+        }
+        return graph.subgraph(ids, depth, direction).toNodeMap();
+    }
+
+    public EndpointReachability getReachability() throws IOException {
+        Snapshot loaded = snapshot();
+        synchronized (loaded) {
+            if (loaded.reachability == null) {
+                loaded.reachability = EndpointReachability.build(apiExtractor.extractApiInfo(loaded.facts, null), callGraph(loaded));
+            }
+            return loaded.reachability;
+        }
+    }
+
+    /**
+     * 接口到 sink 的调用链，复用已构建的调用图
+     */
+    public List<SinkPath> findSinkPaths(int maxDepth, int maxPaths) throws IOException {
+        Snapshot loaded = snapshot();
+        return sinkAnalyzer.findSinkPaths(loaded.facts, apiExtractor.extractApiInfo(loaded.facts, null), callGraph(loaded),
+                maxDepth, maxPaths);
+    }
+
+    public TaintSummaries getTaintSummaries() {
+        return taintSummaries(snapshot());
+    }
+
+    /**
+     * 接口参数流入 sink 的数据流，复用已计算的方法摘要
+     */
+    public List<TaintFlow> findTaintFlows() throws IOException {
+        Snapshot loaded = snapshot();
+        return taintSummaries(loaded).flowsFrom(apiExtractor.extractApiInfo(loaded.facts, null));
+    }
+
+    public List<MethodSummary> getMethodSummaries() {
+        return getTaintSummaries().toReport();
+    }
+
+    /**
+     * 改动的行区间影响到的接口，复用已构建的调用图
+     */
+    public List<ApiImpact> findImpact(List<String> ranges) throws IOException {
+        Snapshot loaded = snapshot();
+        return impactAnalyzer.analyze(loaded.facts, apiExtractor.extractApiInfo(loaded.facts, null), callGraph(loaded), ranges);
+    }
+
+    private CallGraph callGraph(Snapshot loaded) {
+        synchronized (loaded) {
+            if (loaded.callGraph == null) {
+                loaded.callGraph = callGraphAnalyzer.buildCompactGraph(loaded.facts);
+            }
+            return loaded.callGraph;
+        }
+    }
+
+    private TaintSummaries taintSummaries(Snapshot loaded) {
+        synchronized (loaded) {
+            if (loaded.taintSummaries == null) {
+                loaded.taintSummaries = taintAnalyzer.summarize(loaded.facts, callGraph(loaded));
+            }
+            return loaded.taintSummaries;
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot loaded = snapshot;
+        if (loaded == null) {
+            throw new IllegalStateException("Project not loaded: " + rootPath);
+        }
+        return loaded;
+    }
+
+    /**
+     * 一次加载的结果；调用图、可达性和污点摘要在首次使用时由这次加载的事实构建，受快照自身的锁保护
+     */
+    private static final class Snapshot {
+        final ParsedProject project;
+        final ProjectFacts facts;
+        final SymbolIndex symbolIndex;
+        final ReferenceIndex referenceIndex;
+        final SymbolRanges symbolRanges;
+        CallGraph callGraph;
+        EndpointReachability reachability;
+        TaintSummaries taintSummaries;
+
+        Snapshot(ParsedProject project, ProjectFacts facts, SymbolIndex symbolIndex, ReferenceIndex referenceIndex,
+                 SymbolRanges symbolRanges) {
+            this.project = project;
+            this.facts = facts;
+            this.symbolIndex = symbolIndex;
+            this.referenceIndex = referenceIndex;
+            this.symbolRanges = symbolRanges;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package SA.tool.stats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分阶段的耗时与内存统计（-stats）：每个阶段记录墙钟时间、进程 CPU 时间、分配字节数和文件数，
+ * 另外记录解析最慢的若干个文件。
+ *
+ * 未启用时 {@link #phase} 返回空操作的 Phase，各分析器可以无条件埋点。
+ * CPU 时间取整个进程（包括并行解析线程和 GC），分配字节数取所有平台线程的累计值，
+ * 因此并行阶段也能如实反映；阶段可以嵌套，嵌套阶段的开销同时计入外层阶段。
+ */
+public final class AnalysisStats {
+
+    private static volatile AnalysisStats current; // 为 null 表示未启用
+
+    private final int slowestFileLimit;
+    private final long startNanos = System.nanoTime();
+    private final long startCpuNanos = processCpuNanos();
+    private final long startAllocatedBytes = allocatedBytes();
+    private final List<Phase> phases = new ArrayList<>();
+    private final PriorityQueue<ParseTiming> slowestFiles = new PriorityQueue<>(Comparator.comparingLong(t -> t.nanos));
+    private final AtomicLong parsedFiles = new AtomicLong();
+    private final AtomicLong parseNanos = new AtomicLong();
+
+    private AnalysisStats(int slowestFileLimit) {
+        this.slowestFileLimit = slowestFileLimit;
+    }
+
+    /**
+     * 开始统计（进程内全局），返回新的统计对象
+     */
+    public static AnalysisStats enable(int slowestFileLimit) {
+        AnalysisStats stats = new AnalysisStats(slowestFileLimit);
+        current = stats;
+        return stats;
+    }
+
+    public static void disable() {
+        current = null;
+    }
+
+    public static AnalysisStats current() {
+        return current;
+    }
+
+    /**
+     * 开始一个阶段，用 try-with-resources 结束
+     */
+    public static Phase phase(String name) {
+        AnalysisStats stats = current;
+        if (stats == null) {
+            return Phase.NOOP;
+        }
+        Phase phase = new Phase(name);
+        synchronized (stats.phases) {
+            stats.phases.add(phase);
+        }
+        return phase;
+    }
+
+    /**
+     * 记录单个文件的解析耗时（在解析线程上调用）
+     */
+    public static void recordParse(String file, long nanos) {
+        AnalysisStats stats = current;
+        if (stats == null) {
+            return;
+        }
+        stats.parsedFiles.incrementAndGet();
+        stats.parseNanos.addAndGet(nanos);
+        synchronized (stats.slowestFiles) {
+            stats.slowestFiles.add(new ParseTiming(file, nanos));
+            if (stats.slowestFiles.size() > stats.slowestFileLimit) {
+                stats.slowestFiles.poll();
+            }
+        }
+    }
+
+    public List<Phase> getPhases() {
+        synchronized (phases) {
+            return new ArrayList<>(phases);
+        }
+    }
+
+    public Map<String, Object> toReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("wall_ms", millis(System.nanoTime() - startNanos));
+        report.put("cpu_ms", millis(processCpuNanos() - startCpuNanos));
+        report.put("allocated_bytes", allocatedBytes() - startAllocatedBytes);
+        report.put("peak_heap_bytes", peakHeapBytes());
+
+        List<Map<String, Object>> phaseReports = new ArrayList<>();
+        for (Phase phase : getPhases()) {
+            phaseReports.add(phase.toReport());
+        }
+        report.put("phases", phaseReports);
+
+        Map<String, Object> parse = new LinkedHashMap<>();
+        parse.put("files", parsedFiles.get());
+        parse.put("total_ms", millis(parseNanos.get())); // 各线程解析耗时之和
+        List<ParseTiming> slowest;
+        synchronized (slowestFiles) {
+            slowest = new ArrayList<>(slowestFiles);
+        }
+        slowest.sort(Comparator.comparingLong((ParseTiming t) -> t.nanos).reversed());
+        List<Map<String, Object>> slowestReports = new ArrayList<>();
+        for (ParseTiming timing : slowest) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("file", timing.file);
+            entry.put("ms", millis(timing.nanos));
+            slowestReports.add(entry);
+        }
+        parse.put("slowest", slowestReports);
+        report.put("parse", parse);
+        return report;
+    }
+
+    /**
+     * 以 JSON 写出报告；outputPath 为 null 时写到标准错误（单行，前缀 "SA_STATS "，便于从日志中提取）
+     */
+    public void report(String outputPath) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        if (outputPath != null) {
+            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+            objectMapper.writeValue(new File(outputPath), toReport());
+        } else {
+            System.err.println("SA_STATS " + objectMapper.writeValueAsString(toReport()));
+        }
+    }
+
+    static double millis(long nanos) {
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+
+    static long processCpuNanos() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getTotalThreadAllocatedBytes(); // 包括已结束的线程，不包括虚拟线程
+        }
+        return -1;
+    }
+
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private record ParseTiming(String file, long nanos) {
+    }
+}
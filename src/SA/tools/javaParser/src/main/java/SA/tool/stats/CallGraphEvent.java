@@ -0,0 +1,29 @@
+package SA.tool.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 由文件事实构建整个项目的调用图
+ */
+@Name("SA.CallGraph")
+@Label("Build Call Graph")
+@Category({"SA", "Analyzer"})
+@StackTrace(false)
+public class CallGraphEvent extends Event {
+
+    @Label("Project")
+    public String project;
+
+    @Label("Files")
+    public int files;
+
+    @Label("Methods")
+    public int methods;
+
+    @Label("Edges")
+    public int edges;
+}
@@ -0,0 +1,32 @@
+package SA.tool.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 调用图第二遍中单个文件的调用解析批次
+ */
+@Name("SA.CallResolution")
+@Label("Call Resolution")
+@Category({"SA", "Analyzer"})
+@StackTrace(false)
+public class CallResolutionEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Methods")
+    public int methods;
+
+    @Label("Calls")
+    @Description("文件中的调用点数")
+    public int calls;
+
+    @Label("Edges")
+    @Description("解析出的调用边数（含未去重的重复调用点）")
+    public int edges;
+}
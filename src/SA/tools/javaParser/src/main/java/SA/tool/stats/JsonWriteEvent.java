@@ -0,0 +1,29 @@
+package SA.tool.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 结果的 JSON / NDJSON 序列化与写出
+ */
+@Name("SA.JsonWrite")
+@Label("JSON Write")
+@Category({"SA", "Output"})
+@StackTrace(false)
+public class JsonWriteEvent extends Event {
+
+    @Label("Description")
+    public String description;
+
+    @Label("Target")
+    @Description("输出文件路径，写到标准输出时为 stdout")
+    public String target;
+
+    @Label("Records")
+    @Description("NDJSON 记录数，JSON 文档为 1")
+    public long records;
+}
@@ -0,0 +1,32 @@
+package SA.tool.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 单个文件的 JavaParser 解析
+ */
+@Name("SA.Parse")
+@Label("Parse File")
+@Category({"SA", "Parser"})
+@StackTrace(false)
+public class ParseEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Source Length")
+    @Description("源码字符数")
+    public int sourceLength;
+
+    @Label("Nodes")
+    @Description("AST 节点数，只在记录时统计")
+    public int nodes;
+
+    @Label("Successful")
+    public boolean successful;
+}
@@ -0,0 +1,74 @@
+package SA.tool.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一个统计阶段：创建时记录起点，close 时记录终点，期间可附加计数（如文件数）
+ */
+public class Phase implements AutoCloseable {
+
+    static final Phase NOOP = new Phase(null) {
+        @Override
+        public Phase count(String key, long value) {
+            return this;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private final String name;
+    private final long startNanos;
+    private final long startCpuNanos;
+    private final long startAllocatedBytes;
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+    private volatile long wallNanos = -1;
+    private volatile long cpuNanos;
+    private volatile long allocated;
+
+    Phase(String name) {
+        this.name = name;
+        this.startNanos = System.nanoTime();
+        this.startCpuNanos = name == null ? 0 : AnalysisStats.processCpuNanos();
+        this.startAllocatedBytes = name == null ? 0 : AnalysisStats.allocatedBytes();
+    }
+
+    /**
+     * 附加计数，如 files、skipped、cache_hits
+     */
+    public synchronized Phase count(String key, long value) {
+        counts.put(key, value);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isClosed() {
+        return wallNanos >= 0;
+    }
+
+    @Override
+    public void close() {
+        cpuNanos = AnalysisStats.processCpuNanos() - startCpuNanos;
+        allocated = AnalysisStats.allocatedBytes() - startAllocatedBytes;
+        wallNanos = System.nanoTime() - startNanos;
+    }
+
+    synchronized Map<String, Object> toReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("name", name);
+        if (isClosed()) {
+            report.put("wall_ms", AnalysisStats.millis(wallNanos));
+            report.put("cpu_ms", AnalysisStats.millis(cpuNanos));
+            report.put("allocated_bytes", allocated);
+        } else {
+            report.put("unfinished", true); // 异常退出时未结束的阶段
+        }
+        report.putAll(counts);
+        return report;
+    }
+}
@@ -0,0 +1,31 @@
+package SA.tool.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次 DEF / REF 查询
+ */
+@Name("SA.Query")
+@Label("Query")
+@Category({"SA", "Query"})
+@StackTrace(false)
+public class QueryEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Files")
+    @Description("REF 访问的文件数；DEF 查询符号表，为 0")
+    public int files;
+
+    @Label("Results")
+    public int results;
+}
@@ -0,0 +1,29 @@
+package SA.tool.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 渲染调用图图片（graphviz 或流式 DOT/SVG 写出）
+ */
+@Name("SA.Render")
+@Label("Render Call Graph")
+@Category({"SA", "Output"})
+@StackTrace(false)
+public class RenderEvent extends Event {
+
+    @Label("Output")
+    public String output;
+
+    @Label("Layout")
+    public String layout;
+
+    @Label("Nodes")
+    public int nodes;
+
+    @Label("Edges")
+    public int edges;
+}
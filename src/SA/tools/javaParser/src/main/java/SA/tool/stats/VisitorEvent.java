@@ -0,0 +1,28 @@
+package SA.tool.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 在单个文件的 AST 上执行一遍访问器（提取方法、定义、实现关系或 Controller API）
+ */
+@Name("SA.Visitor")
+@Label("Visitor Pass")
+@Category({"SA", "Analyzer"})
+@StackTrace(false)
+public class VisitorEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Visitor")
+    public String visitor;
+
+    @Label("Facts")
+    @Description("本遍提取的事实数（方法、定义、实现关系或 API 数）")
+    public int facts;
+}
@@ -0,0 +1,422 @@
+package SA.tool.synth;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 合成 Spring Boot 源码树，用于规模测试和基准测试。
+ *
+ * 生成 N 个 Controller（每个带一组嵌套的请求 DTO）、M 个 Service（按比例拆成接口 + Impl）、
+ * Repository 和 Entity。每个 Service 有 callDepth 层方法 step0..step{depth-1}，
+ * 第 d 层调用 fanOut 个其他 Service 的第 d+1 层，最后一层访问 Repository。
+ * 相同的参数和种子总是生成相同的项目。
+ *
+ * 命令行：java -cp <jar> SA.tool.synth.SpringProjectGenerator <output-dir> [-files n] [-controllers n] ...
+ */
+public class SpringProjectGenerator {
+
+    private int controllers = 10;
+    private int services = 20;
+    private int repositories = 10;
+    private int callDepth = 3;
+    private int fanOut = 2;
+    private double interfaceRatio = 0.5;
+    private int dtoNesting = 2;
+    private int classesPerPackage = 50;
+    private long seed = 42;
+    private String basePackage = "com.synthetic.app";
+
+    /**
+     * 按目标文件数估算各类组件的数量（默认比例下每个 Controller 约对应 9 个文件）
+     */
+    public static SpringProjectGenerator ofFileCount(int files) {
+        int units = Math.max(1, files / 9);
+        return new SpringProjectGenerator().controllers(units).services(units * 2).repositories(units);
+    }
+
+    public SpringProjectGenerator controllers(int controllers) {
+        this.controllers = Math.max(1, controllers);
+        return this;
+    }
+
+    public SpringProjectGenerator services(int services) {
+        this.services = Math.max(1, services);
+        return this;
+    }
+
+    public SpringProjectGenerator repositories(int repositories) {
+        this.repositories = Math.max(1, repositories);
+        return this;
+    }
+
+    public SpringProjectGenerator callDepth(int callDepth) {
+        this.callDepth = Math.max(1, callDepth);
+        return this;
+    }
+
+    public SpringProjectGenerator fanOut(int fanOut) {
+        this.fanOut = Math.max(0, fanOut);
+        return this;
+    }
+
+    /**
+     * 拆成接口 + 实现类的 Service 所占比例，取值 0~1
+     */
+    public SpringProjectGenerator interfaceRatio(double interfaceRatio) {
+        this.interfaceRatio = Math.min(1, Math.max(0, interfaceRatio));
+        return this;
+    }
+
+    public SpringProjectGenerator dtoNesting(int dtoNesting) {
+        this.dtoNesting = Math.max(0, dtoNesting);
+        return this;
+    }
+
+    public SpringProjectGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public SpringProjectGenerator basePackage(String basePackage) {
+        this.basePackage = basePackage;
+        return this;
+    }
+
+    public int getControllers() {
+        return controllers;
+    }
+
+    public int getServices() {
+        return services;
+    }
+
+    public int getRepositories() {
+        return repositories;
+    }
+
+    public int getCallDepth() {
+        return callDepth;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    /**
+     * 第 i 个 Service 是否拆成接口 + Impl（按比例均匀分布，与种子无关）
+     */
+    public boolean hasInterface(int service) {
+        return Math.floor((service + 1) * interfaceRatio) > Math.floor(service * interfaceRatio);
+    }
+
+    /**
+     * 将项目写入 outputDir/src/main/java，返回生成的文件数
+     */
+    public int generate(Path outputDir) throws IOException {
+        Path sourceRoot = outputDir.resolve("src/main/java");
+        Random random = new Random(seed);
+        int files = 0;
+
+        for (int i = 0; i < repositories; i++) {
+            write(sourceRoot, entity(i));
+            write(sourceRoot, repository(i));
+            files += 2;
+        }
+        for (int i = 0; i < services; i++) {
+            List<Integer> dependencies = pickDependencies(i, random);
+            if (hasInterface(i)) {
+                write(sourceRoot, serviceInterface(i));
+                files++;
+            }
+            write(sourceRoot, serviceClass(i, dependencies));
+            files++;
+        }
+        for (int i = 0; i < controllers; i++) {
+            for (int level = 0; level <= dtoNesting; level++) {
+                write(sourceRoot, dto(i, level));
+                files++;
+            }
+            write(sourceRoot, controller(i, random.nextInt(services)));
+            files++;
+        }
+        return files;
+    }
+
+    private List<Integer> pickDependencies(int service, Random random) {
+        Set<Integer> dependencies = new LinkedHashSet<>();
+        int wanted = Math.min(fanOut, services - 1);
+        while (dependencies.size() < wanted) {
+            int candidate = random.nextInt(services);
+            if (candidate != service) {
+                dependencies.add(candidate);
+            }
+        }
+        return new ArrayList<>(dependencies);
+    }
+
+    // ---- 各类源文件 ----
+
+    private JavaSource entity(int i) {
+        JavaSource source = new JavaSource(packageOf("entity", i), "Entity" + i);
+        source.imports("jakarta.persistence.Entity", "jakarta.persistence.Id", "jakarta.persistence.GeneratedValue");
+        source.line("@Entity");
+        source.line("public class Entity" + i + " {");
+        source.line("");
+        source.line("    @Id");
+        source.line("    @GeneratedValue");
+        source.line("    private Long id;");
+        source.line("");
+        source.line("    private String name;");
+        source.line("");
+        source.line("    private boolean active;");
+        source.line("");
+        accessors(source, "Long", "id");
+        accessors(source, "String", "name");
+        accessors(source, "boolean", "active");
+        source.line("}");
+        return source;
+    }
+
+    private JavaSource repository(int i) {
+        JavaSource source = new JavaSource(packageOf("repository", i), "Repository" + i);
+        source.imports("org.springframework.data.jpa.repository.JpaRepository",
+                "org.springframework.stereotype.Repository", "java.util.List", "java.util.Optional");
+        source.imports(fqn("entity", "Entity", i));
+        source.line("@Repository");
+        source.line("public interface Repository" + i + " extends JpaRepository<Entity" + i + ", Long> {");
+        source.line("");
+        source.line("    Optional<Entity" + i + "> findByName(String name);");
+        source.line("");
+        source.line("    List<Entity" + i + "> findByActiveTrue();");
+        source.line("}");
+        return source;
+    }
+
+    private JavaSource serviceInterface(int i) {
+        int repository = repositoryOf(i);
+        JavaSource source = new JavaSource(packageOf("service", i), "Service" + i);
+        source.imports(fqn("entity", "Entity", repository));
+        source.line("public interface Service" + i + " {");
+        for (int level = 0; level < callDepth; level++) {
+            source.line("");
+            source.line("    Entity" + repository + " step" + level + "(Long id);");
+        }
+        source.line("}");
+        return source;
+    }
+
+    private JavaSource serviceClass(int i, List<Integer> dependencies) {
+        int repository = repositoryOf(i);
+        boolean split = hasInterface(i);
+        String className = split ? "Service" + i + "Impl" : "Service" + i;
+        JavaSource source = new JavaSource(packageOf("service", i), className);
+        source.imports("org.springframework.beans.factory.annotation.Autowired", "org.springframework.stereotype.Service");
+        source.imports(fqn("entity", "Entity", repository), fqn("repository", "Repository", repository));
+        for (int dependency : dependencies) {
+            source.imports(fqn("service", "Service", dependency));
+        }
+        source.line("@Service");
+        source.line("public class " + className + (split ? " implements Service" + i : "") + " {");
+        source.line("");
+        source.line("    @Autowired");
+        source.line("    private Repository" + repository + " repository;");
+        for (int dependency : dependencies) {
+            source.line("");
+            source.line("    @Autowired");
+            source.line("    private Service" + dependency + " service" + dependency + ";");
+        }
+        for (int level = 0; level < callDepth; level++) {
+            source.line("");
+            if (split) {
+                source.line("    @Override");
+            }
+            source.line("    public Entity" + repository + " step" + level + "(Long id) {");
+            if (level + 1 < callDepth) {
+                for (int dependency : dependencies) {
+                    source.line("        service" + dependency + ".step" + (level + 1) + "(id);");
+                }
+            }
+            source.line("        return repository.findById(id).orElse(null);");
+            source.line("    }");
+        }
+        source.line("}");
+        return source;
+    }
+
+    private JavaSource dto(int i, int level) {
+        String className = dtoName(i, level);
+        JavaSource source = new JavaSource(packageOf("dto", i), className);
+        source.line("public class " + className + " {");
+        source.line("");
+        source.line("    private Long id;");
+        source.line("");
+        source.line("    private String name;");
+        boolean nested = level < dtoNesting;
+        if (nested) {
+            source.line("");
+            source.line("    private " + dtoName(i, level + 1) + " detail;");
+        }
+        source.line("");
+        accessors(source, "Long", "id");
+        accessors(source, "String", "name");
+        if (nested) {
+            accessors(source, dtoName(i, level + 1), "detail");
+        }
+        source.line("}");
+        return source;
+    }
+
+    private JavaSource controller(int i, int service) {
+        int repository = repositoryOf(service);
+        String entity = "Entity" + repository;
+        String request = dtoName(i, 0);
+        JavaSource source = new JavaSource(packageOf("controller", i), "Controller" + i);
+        source.imports("org.springframework.beans.factory.annotation.Autowired",
+                "org.springframework.web.bind.annotation.*");
+        source.imports(fqn("entity", "Entity", repository), fqn("service", "Service", service),
+                packageOf("dto", i) + "." + request);
+        source.line("@RestController");
+        source.line("@RequestMapping(\"/api/resource" + i + "\")");
+        source.line("public class Controller" + i + " {");
+        source.line("");
+        source.line("    @Autowired");
+        source.line("    private Service" + service + " service;");
+        source.line("");
+        source.line("    @GetMapping(\"/{id}\")");
+        source.line("    public " + entity + " get(@PathVariable Long id) {");
+        source.line("        return service.step0(id);");
+        source.line("    }");
+        source.line("");
+        source.line("    @PostMapping");
+        source.line("    public " + entity + " create(@RequestBody " + request + " request) {");
+        source.line("        return service.step0(request.getId());");
+        source.line("    }");
+        source.line("");
+        source.line("    @DeleteMapping(\"/{id}\")");
+        source.line("    public void delete(@PathVariable Long id, @RequestParam(required = false) String reason) {");
+        source.line("        service.step0(id);");
+        source.line("    }");
+        source.line("}");
+        return source;
+    }
+
+    private void accessors(JavaSource source, String type, String field) {
+        String suffix = Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        String getter = ("boolean".equals(type) ? "is" : "get") + suffix;
+        source.line("    public " + type + " " + getter + "() {");
+        source.line("        return " + field + ";");
+        source.line("    }");
+        source.line("");
+        source.line("    public void set" + suffix + "(" + type + " " + field + ") {");
+        source.line("        this." + field + " = " + field + ";");
+        source.line("    }");
+        source.line("");
+    }
+
+    // ---- 命名与包结构 ----
+
+    /**
+     * 每个包最多 classesPerPackage 个同类组件：base.m{k}.{layer}
+     */
+    private String packageOf(String layer, int index) {
+        return basePackage + ".m" + (index / classesPerPackage) + "." + layer;
+    }
+
+    private String fqn(String layer, String prefix, int index) {
+        return packageOf(layer, index) + "." + prefix + index;
+    }
+
+    private int repositoryOf(int service) {
+        return service % repositories;
+    }
+
+    private String dtoName(int controller, int level) {
+        return level == 0 ? "Request" + controller : "Request" + controller + "Detail" + level;
+    }
+
+    private void write(Path sourceRoot, JavaSource source) throws IOException {
+        Path file = sourceRoot.resolve(source.packageName.replace('.', '/')).resolve(source.className + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source.render(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 单个源文件：包声明、导入（去重且排除同包）和正文
+     */
+    private static final class JavaSource {
+        private final String packageName;
+        private final String className;
+        private final Set<String> imports = new LinkedHashSet<>();
+        private final StringBuilder body = new StringBuilder();
+
+        JavaSource(String packageName, String className) {
+            this.packageName = packageName;
+            this.className = className;
+        }
+
+        void imports(String... names) {
+            for (String name : names) {
+                String owner = name.substring(0, name.lastIndexOf('.'));
+                if (!owner.equals(packageName)) {
+                    imports.add(name);
+                }
+            }
+        }
+
+        void line(String text) {
+            body.append(text).append('\n');
+        }
+
+        String render() {
+            StringBuilder out = new StringBuilder();
+            out.append("package ").append(packageName).append(";\n\n");
+            for (String name : imports) {
+                out.append("import ").append(name).append(";\n");
+            }
+            if (!imports.isEmpty()) {
+                out.append('\n');
+            }
+            return out.append(body).toString();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java -cp <jar-file> SA.tool.synth.SpringProjectGenerator <output-dir> "
+                    + "[-files <n>] [-controllers <n>] [-services <n>] [-repositories <n>] [-depth <n>] "
+                    + "[-fanout <n>] [-interfaces <ratio>] [-dto-nesting <n>] [-seed <n>]");
+            System.exit(1);
+            return;
+        }
+        SpringProjectGenerator generator = new SpringProjectGenerator();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-files" -> {
+                    SpringProjectGenerator sized = ofFileCount(Integer.parseInt(value));
+                    generator.controllers(sized.controllers).services(sized.services).repositories(sized.repositories);
+                }
+                case "-controllers" -> generator.controllers(Integer.parseInt(value));
+                case "-services" -> generator.services(Integer.parseInt(value));
+                case "-repositories" -> generator.repositories(Integer.parseInt(value));
+                case "-depth" -> generator.callDepth(Integer.parseInt(value));
+                case "-fanout" -> generator.fanOut(Integer.parseInt(value));
+                case "-interfaces" -> generator.interfaceRatio(Double.parseDouble(value));
+                case "-dto-nesting" -> generator.dtoNesting(Integer.parseInt(value));
+                case "-seed" -> generator.seed(Long.parseLong(value));
+                default -> System.err.println("Unknown option: " + args[i]);
+            }
+        }
+        long start = System.currentTimeMillis();
+        int files = generator.generate(Paths.get(args[0]));
+        System.out.println("Generated " + files + " files in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -1,113 +1,229 @@
 package SA.tool.visitor;
 
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
 import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import SA.tool.model.CallGraphNode;
+import SA.tool.dataflow.MethodDataflow;
+import SA.tool.model.CallFact;
+import SA.tool.model.MethodFact;
 
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
-public class CallGraphVisitor extends VoidVisitorAdapter<Map<String, CallGraphNode>> {
-    
+/**
+ * 收集单个文件中的方法定义及方法体内的调用。
+ * 调用关系的解析（第二遍）在 CallGraphAnalyzer 中基于这些事实完成，因此缓存命中的文件无需重新解析。
+ *
+ * 每个调用还记录接收者的简单类型名（供 SINK 匹配库方法）：不做符号解析，只按当前方法的参数、局部变量
+ * 和所在类的字段声明推断，首字母大写的名字视为静态调用的类型名。
+ *
+ * flows 为 true 时对每个方法做方法内数据流分析（{@link MethodDataflow}），把参数流向记在调用事实和方法事实上。
+ */
+public class CallGraphVisitor extends VoidVisitorAdapter<List<MethodFact>> {
+
     private final Path rootPath;
-    private final boolean isFirstPass;
     private String currentClassName = "";
-    private String currentMethodSignature = "";
+    private MethodFact currentMethod;
+    private Map<String, String> fieldTypes = new HashMap<>();
+    private Map<String, String> localTypes = new HashMap<>();
+    private final boolean flows;
+    private final Map<Node, CallFact> callFacts = new IdentityHashMap<>(); // 语法节点 -> 调用事实，仅 flows
+
+    public CallGraphVisitor(Path rootPath) {
+        this(rootPath, false);
+    }
 
-    public CallGraphVisitor(Path rootPath, boolean isFirstPass) {
+    public CallGraphVisitor(Path rootPath, boolean flows) {
         this.rootPath = rootPath;
-        this.isFirstPass = isFirstPass;
+        this.flows = flows;
     }
 
     @Override
-    public void visit(ClassOrInterfaceDeclaration n, Map<String, CallGraphNode> arg) {
+    public void visit(ClassOrInterfaceDeclaration n, List<MethodFact> arg) {
         String previousClassName = currentClassName;
+        Map<String, String> previousFieldTypes = fieldTypes;
         currentClassName = n.getNameAsString();
+        fieldTypes = new HashMap<>();
+        for (FieldDeclaration field : n.getFields()) {
+            for (VariableDeclarator variable : field.getVariables()) {
+                fieldTypes.put(variable.getNameAsString(), typeName(variable.getType()));
+            }
+        }
         super.visit(n, arg);
         currentClassName = previousClassName;
+        fieldTypes = previousFieldTypes;
     }
 
     @Override
-    public void visit(MethodDeclaration n, Map<String, CallGraphNode> arg) {
-        String methodSignature = buildMethodSignature(n);
-        String previousMethodSignature = currentMethodSignature;
-        currentMethodSignature = methodSignature;
-
-        if (isFirstPass) {
-            // 第一遍：收集方法定义
-            if (!arg.containsKey(methodSignature)) {
-                CallGraphNode node = new CallGraphNode();
-                node.setMethodSignature(methodSignature);
-                node.setClassName(currentClassName);
-                node.setMethodName(n.getNameAsString());
-                
-                // 设置代码位置
-                String relativePath = getRelativePath(n);
-                int startLine = n.getBegin().map(pos -> pos.line).orElse(-1);
-                int endLine = n.getEnd().map(pos -> pos.line).orElse(-1);
-                node.setCodePos(String.format("%s:L%d-L%d", relativePath, startLine, endLine));
-                
-                arg.put(methodSignature, node);
+    public void visit(MethodDeclaration n, List<MethodFact> arg) {
+        MethodFact method = new MethodFact();
+        method.setMethodSignature(buildMethodSignature(n));
+        method.setClassName(currentClassName);
+        method.setMethodName(n.getNameAsString());
+        method.setParameterCount(n.getParameters().size());
+        method.setVarargs(n.getParameters().stream().anyMatch(Parameter::isVarArgs));
+
+        // 设置代码位置
+        String relativePath = getRelativePath(n);
+        int startLine = n.getBegin().map(pos -> pos.line).orElse(-1);
+        int endLine = n.getEnd().map(pos -> pos.line).orElse(-1);
+        method.setCodePos(String.format("%s:L%d-L%d", relativePath, startLine, endLine));
+        arg.add(method);
+
+        MethodFact previousMethod = currentMethod;
+        Map<String, String> previousLocalTypes = localTypes;
+        currentMethod = method;
+        localTypes = new HashMap<>();
+        for (Parameter parameter : n.getParameters()) {
+            localTypes.put(parameter.getNameAsString(), typeName(parameter.getType()));
+        }
+        super.visit(n, arg);
+        currentMethod = previousMethod;
+        localTypes = previousLocalTypes;
+        if (flows) {
+            recordFlows(n, method);
+        }
+    }
+
+    private void recordFlows(MethodDeclaration n, MethodFact method) {
+        MethodDataflow dataflow = MethodDataflow.analyze(n);
+        for (MethodDataflow.CallFlow flow : dataflow.getCallFlows()) {
+            CallFact call = callFacts.get(flow.call());
+            if (call == null) {
+                continue;
             }
+            if (flow.argument() == MethodDataflow.CallFlow.RECEIVER) {
+                call.setReceiverFlow(call.getReceiverFlow() | flow.parameters());
+            } else {
+                if (call.getArgFlows() == null) {
+                    call.setArgFlows(new long[call.getArgCount()]);
+                }
+                call.getArgFlows()[flow.argument()] |= flow.parameters();
+            }
+        }
+        method.setParameterNames(dataflow.getParameters());
+        method.setReturnFlow(dataflow.getReturnFlow());
+        method.setFieldFlows(new LinkedHashMap<>(dataflow.getFieldFlows()));
+    }
+
+    @Override
+    public void visit(VariableDeclarator n, List<MethodFact> arg) {
+        if (currentMethod != null) {
+            // 不区分块作用域：同名变量以后声明的为准
+            String type = n.getType().isVarType()
+                    ? n.getInitializer().filter(Expression::isObjectCreationExpr)
+                        .map(init -> typeName(init.asObjectCreationExpr().getType())).orElse(null)
+                    : typeName(n.getType());
+            localTypes.put(n.getNameAsString(), type);
         }
-        
         super.visit(n, arg);
-        currentMethodSignature = previousMethodSignature;
     }
 
     @Override
-    public void visit(MethodCallExpr n, Map<String, CallGraphNode> arg) {
-        if (!isFirstPass && !currentMethodSignature.isEmpty()) {
-            // 第二遍：分析方法调用关系
-            String calledMethodName = n.getNameAsString();
-            
-            // 简化的方法匹配：只根据方法名匹配
-            // 实际实现中需要更复杂的类型解析
-            for (String signature : arg.keySet()) {
-                if (signature.contains("." + calledMethodName + "(")) {
-                    CallGraphNode callerNode = arg.get(currentMethodSignature);
-                    CallGraphNode calleeNode = arg.get(signature);
-                    
-                    if (callerNode != null && calleeNode != null) {
-                        // 添加调用关系
-                        if (!callerNode.getCallees().contains(signature)) {
-                            callerNode.getCallees().add(signature);
-                        }
-                        if (!calleeNode.getCallers().contains(currentMethodSignature)) {
-                            calleeNode.getCallers().add(currentMethodSignature);
-                        }
-                        
-                        // 添加调用位置信息
-                        CallGraphNode.CallSite callSite = new CallGraphNode.CallSite();
-                        callSite.setTargetMethod(signature);
-                        
-                        String relativePath = getRelativePath(n);
-                        int line = n.getBegin().map(pos -> pos.line).orElse(-1);
-                        int column = n.getBegin().map(pos -> pos.column).orElse(-1);
-                        callSite.setCodePos(String.format("%s:L%d:C%d", relativePath, line, column));
-                        callSite.setCallType("DIRECT"); // 简化实现
-                        
-                        callerNode.getCallSites().add(callSite);
-                    }
-                    break; // 找到第一个匹配的方法即停止
-                }
+    public void visit(MethodCallExpr n, List<MethodFact> arg) {
+        if (currentMethod != null) {
+            String relativePath = getRelativePath(n);
+            int line = n.getBegin().map(pos -> pos.line).orElse(-1);
+            int column = n.getBegin().map(pos -> pos.column).orElse(-1);
+            String codePos = String.format("%s:L%d:C%d", relativePath, line, column);
+            CallFact call = new CallFact(n.getNameAsString(), n.getArguments().size(), codePos, receiverType(n.getScope()));
+            currentMethod.addCall(call);
+            if (flows) {
+                callFacts.put(n, call);
             }
         }
         super.visit(n, arg);
     }
 
+    @Override
+    public void visit(ObjectCreationExpr n, List<MethodFact> arg) {
+        if (currentMethod != null) {
+            String codePos = String.format("%s:L%d:C%d", getRelativePath(n),
+                    n.getBegin().map(pos -> pos.line).orElse(-1), n.getBegin().map(pos -> pos.column).orElse(-1));
+            CallFact call = new CallFact(CallFact.CONSTRUCTOR, n.getArguments().size(), codePos, typeName(n.getType()));
+            currentMethod.addCall(call);
+            if (flows) {
+                callFacts.put(n, call);
+            }
+        }
+        super.visit(n, arg);
+    }
+
+    /**
+     * 推断调用接收者的简单类型名，无法推断时返回 null
+     */
+    private String receiverType(Optional<Expression> scope) {
+        if (scope.isEmpty()) {
+            return null;
+        }
+        Expression expression = scope.get();
+        if (expression.isEnclosedExpr()) {
+            return receiverType(Optional.of(expression.asEnclosedExpr().getInner()));
+        }
+        if (expression.isCastExpr()) {
+            return typeName(expression.asCastExpr().getType());
+        }
+        if (expression.isObjectCreationExpr()) {
+            return typeName(expression.asObjectCreationExpr().getType());
+        }
+        if (expression.isNameExpr()) {
+            String name = expression.asNameExpr().getNameAsString();
+            String type = localTypes.containsKey(name) ? localTypes.get(name) : fieldTypes.get(name);
+            return type != null ? type : (isTypeName(name) ? name : null);
+        }
+        if (expression.isFieldAccessExpr()) {
+            FieldAccessExpr field = expression.asFieldAccessExpr();
+            if (field.getScope().isThisExpr()) {
+                return fieldTypes.get(field.getNameAsString());
+            }
+            return isTypeName(field.getNameAsString()) ? field.getNameAsString() : null; // java.nio.file.Files
+        }
+        if (expression.isMethodCallExpr()) {
+            // 单例访问器约定：Runtime.getRuntime()、Foo.getInstance() 返回所在类型
+            MethodCallExpr call = expression.asMethodCallExpr();
+            if (call.getNameAsString().startsWith("get") && call.getArguments().isEmpty()
+                    && call.getScope().filter(Expression::isNameExpr).isPresent()) {
+                String owner = call.getScope().get().asNameExpr().getNameAsString();
+                if (isTypeName(owner) && !localTypes.containsKey(owner) && !fieldTypes.containsKey(owner)) {
+                    return owner;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTypeName(String name) {
+        return !name.isEmpty() && Character.isUpperCase(name.charAt(0));
+    }
+
+    private static String typeName(Type type) {
+        return type.isClassOrInterfaceType() ? type.asClassOrInterfaceType().getNameAsString() : type.asString();
+    }
+
     private String buildMethodSignature(MethodDeclaration method) {
         String parameters = method.getParameters().stream()
                 .map(param -> param.getType().toString())
                 .collect(Collectors.joining(", "));
-        
-        return String.format("%s.%s(%s)", 
-                currentClassName, 
-                method.getNameAsString(), 
+
+        return String.format("%s.%s(%s)",
+                currentClassName,
+                method.getNameAsString(),
                 parameters);
     }
 
@@ -127,4 +243,4 @@ public class CallGraphVisitor extends VoidVisitorAdapter<Map<String, CallGraphNo
                 })
                 .orElse("Unknown");
     }
-} 
\ No newline at end of file
+}
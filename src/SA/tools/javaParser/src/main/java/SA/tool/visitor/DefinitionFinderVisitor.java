@@ -6,38 +6,29 @@ import com.github.javaparser.ast.expr.*;
 import com.github.javaparser.ast.nodeTypes.NodeWithModifiers;
 import com.github.javaparser.ast.stmt.*;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import SA.tool.model.DefinitionFact;
 import SA.tool.model.DefinitionInfo;
 
 import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.Collectors;
 
-public class DefinitionFinderVisitor extends VoidVisitorAdapter<List<DefinitionInfo>> {
+/**
+ * 收集单个文件中的全部符号定义（类、接口、枚举、枚举常量、方法、字段、参数、局部变量）。
+ * 与具体查询无关，匹配在 DefinitionFinder 中完成，因此结果可以按文件缓存。
+ */
+public class DefinitionFinderVisitor extends VoidVisitorAdapter<List<DefinitionFact>> {
 
     private final Path rootPath;
-    private final String targetSymbol;
-    private String fqnClassName;
-    private String memberName;
-    private boolean isFqn;
     private String currentFile;
     private String currentClassFqn;
 
-    public DefinitionFinderVisitor(Path rootPath, String targetSymbol) {
+    public DefinitionFinderVisitor(Path rootPath) {
         this.rootPath = rootPath;
-        this.targetSymbol = targetSymbol;
-        
-        if (targetSymbol.contains(".")) {
-            int lastDot = targetSymbol.lastIndexOf('.');
-            this.fqnClassName = targetSymbol.substring(0, lastDot);
-            this.memberName = targetSymbol.substring(lastDot + 1);
-            this.isFqn = true;
-        } else {
-            this.isFqn = false;
-        }
     }
 
     @Override
-    public void visit(CompilationUnit n, List<DefinitionInfo> arg) {
+    public void visit(CompilationUnit n, List<DefinitionFact> arg) {
         n.getStorage().ifPresent(storage -> {
             Path filePath = storage.getPath();
             try {
@@ -50,123 +41,84 @@ public class DefinitionFinderVisitor extends VoidVisitorAdapter<List<DefinitionI
                 this.currentFile = filePath.toAbsolutePath().toString();
             }
         });
-        
-        if (isFqn) {
-            String packageName = n.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
-            boolean fileMatches = n.getPrimaryTypeName()
-                .map(typeName -> (packageName.isEmpty() ? "" : packageName + ".") + typeName)
-                .map(fqn -> fqn.equals(fqnClassName))
-                .orElse(false);
-
-            if (fileMatches) {
-                super.visit(n, arg);
-            }
-        } else {
-            super.visit(n, arg);
-        }
+        super.visit(n, arg);
     }
 
     @Override
-    public void visit(ClassOrInterfaceDeclaration n, List<DefinitionInfo> arg) {
+    public void visit(ClassOrInterfaceDeclaration n, List<DefinitionFact> arg) {
         String oldClassFqn = currentClassFqn;
         String packageName = n.findCompilationUnit().flatMap(CompilationUnit::getPackageDeclaration)
                 .map(PackageDeclaration::getNameAsString).orElse("");
         currentClassFqn = packageName.isEmpty() ? n.getNameAsString() : packageName + "." + n.getNameAsString();
 
-        boolean nameMatches = isFqn ? currentClassFqn.equals(fqnClassName) && memberName == null : n.getNameAsString().equals(targetSymbol);
-        
-        if (nameMatches) {
-            addDefinition(n, targetSymbol, n.isInterface() ? "INTERFACE" : "CLASS", getClassSignature(n), n.toString(), getModifiers(n), currentFile, arg);
-        }
+        addDefinition(n, n.getNameAsString(), n.isInterface() ? "INTERFACE" : "CLASS", getClassSignature(n), getModifiers(n), currentFile, arg);
 
         super.visit(n, arg);
         currentClassFqn = oldClassFqn;
     }
 
     @Override
-    public void visit(MethodDeclaration n, List<DefinitionInfo> arg) {
-        boolean nameMatches = n.getNameAsString().equals(isFqn ? memberName : targetSymbol);
-        boolean classMatches = !isFqn || (currentClassFqn != null && currentClassFqn.equals(fqnClassName));
-        
-        if (nameMatches && classMatches) {
-            addDefinition(n, targetSymbol, "METHOD", getMethodSignature(n), n.toString(), getModifiers(n), currentClassFqn, arg);
-        }
+    public void visit(MethodDeclaration n, List<DefinitionFact> arg) {
+        addDefinition(n, n.getNameAsString(), "METHOD", getMethodSignature(n), getModifiers(n), currentClassFqn, arg);
         super.visit(n, arg);
     }
     
     @Override
-    public void visit(FieldDeclaration n, List<DefinitionInfo> arg) {
+    public void visit(FieldDeclaration n, List<DefinitionFact> arg) {
         for (VariableDeclarator var : n.getVariables()) {
-            boolean nameMatches = var.getNameAsString().equals(isFqn ? memberName : targetSymbol);
-            boolean classMatches = !isFqn || (currentClassFqn != null && currentClassFqn.equals(fqnClassName));
-
-            if (nameMatches && classMatches) {
-                addDefinition(n, targetSymbol, "FIELD", var.getTypeAsString() + " " + var.getNameAsString(), n.toString(), getModifiers(n), currentClassFqn, arg);
-            }
+            addDefinition(n, var.getNameAsString(), "FIELD", var.getTypeAsString() + " " + var.getNameAsString(), getModifiers(n), currentClassFqn, arg);
         }
         super.visit(n, arg);
     }
 
     @Override
-    public void visit(VariableDeclarationExpr n, List<DefinitionInfo> arg) {
-        if (!isFqn) {
-            for (VariableDeclarator var : n.getVariables()) {
-                if (var.getNameAsString().equals(targetSymbol)) {
-                     addDefinition(n, targetSymbol, "VARIABLE", var.getTypeAsString() + " " + var.getNameAsString(), n.toString(), "", currentClassFqn, arg);
-                }
-            }
+    public void visit(VariableDeclarationExpr n, List<DefinitionFact> arg) {
+        for (VariableDeclarator var : n.getVariables()) {
+            addDefinition(n, var.getNameAsString(), "VARIABLE", var.getTypeAsString() + " " + var.getNameAsString(), "", currentClassFqn, arg);
         }
         super.visit(n, arg);
     }
 
     @Override
-    public void visit(Parameter n, List<DefinitionInfo> arg) {
-        if (!isFqn) {
-            if (n.getNameAsString().equals(targetSymbol)) {
-                 addDefinition(n, targetSymbol, "PARAMETER", n.getTypeAsString() + " " + n.getNameAsString(), n.toString(), "", currentClassFqn, arg);
-            }
-        }
+    public void visit(Parameter n, List<DefinitionFact> arg) {
+        addDefinition(n, n.getNameAsString(), "PARAMETER", n.getTypeAsString() + " " + n.getNameAsString(), "", currentClassFqn, arg);
         super.visit(n, arg);
     }
     
     @Override
-    public void visit(EnumDeclaration n, List<DefinitionInfo> arg) {
+    public void visit(EnumDeclaration n, List<DefinitionFact> arg) {
         String oldClassFqn = currentClassFqn;
         String packageName = n.findCompilationUnit().flatMap(CompilationUnit::getPackageDeclaration)
                 .map(PackageDeclaration::getNameAsString).orElse("");
         currentClassFqn = packageName.isEmpty() ? n.getNameAsString() : packageName + "." + n.getNameAsString();
-        
-        boolean nameMatches = isFqn ? currentClassFqn.equals(fqnClassName) && memberName == null : n.getNameAsString().equals(targetSymbol);
 
-        if (nameMatches) {
-             addDefinition(n, targetSymbol, "ENUM", "enum " + n.getNameAsString(), n.toString(), getModifiers(n), currentFile, arg);
-        }
+        addDefinition(n, n.getNameAsString(), "ENUM", "enum " + n.getNameAsString(), getModifiers(n), currentFile, arg);
         
         super.visit(n, arg);
         currentClassFqn = oldClassFqn;
     }
 
     @Override
-    public void visit(EnumConstantDeclaration n, List<DefinitionInfo> arg) {
-        boolean nameMatches = n.getNameAsString().equals(isFqn ? memberName : targetSymbol);
-        boolean classMatches = !isFqn || (currentClassFqn != null && currentClassFqn.equals(fqnClassName));
-
-        if (nameMatches && classMatches) {
-            addDefinition(n, targetSymbol, "ENUM_CONSTANT", n.getNameAsString(), n.toString(), "", currentClassFqn, arg);
-        }
+    public void visit(EnumConstantDeclaration n, List<DefinitionFact> arg) {
+        addDefinition(n, n.getNameAsString(), "ENUM_CONSTANT", n.getNameAsString(), "", currentClassFqn, arg);
         super.visit(n, arg);
     }
 
-    private void addDefinition(Node node, String name, String type, String signature, String code, String modifiers, String scope, List<DefinitionInfo> arg) {
+    /**
+     * 定义代码不在这里生成（打印每个类型的 AST 开销大，且嵌套成员会重复打印），只记录声明的位置，
+     * 查询返回定义时再从源码截取
+     */
+    private void addDefinition(Node node, String name, String type, String signature, String modifiers, String scope, List<DefinitionFact> arg) {
         DefinitionInfo definition = new DefinitionInfo();
         definition.setSymbolName(name);
         definition.setDefinitionType(type);
         definition.setCodePos(getCodePosition(node));
-        definition.setDefinitionCode(code);
         definition.setSignature(signature);
         definition.setModifiers(modifiers);
         definition.setScope(scope);
-        arg.add(definition);
+        DefinitionFact fact = new DefinitionFact(name, currentClassFqn, definition);
+        node.getRange().ifPresent(range -> fact.setRange(range.begin.line, range.begin.column, range.end.line, range.end.column));
+        arg.add(fact);
     }
 
     private String getCodePosition(Node n) {
@@ -7,8 +7,8 @@ import com.github.javaparser.ast.expr.*;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import SA.tool.model.ReferenceInfo;
+import SA.tool.parser.LineIndex;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -16,16 +16,14 @@ public class ReferenceFinderVisitor extends VoidVisitorAdapter<List<ReferenceInf
     
     private final Path rootPath;
     private final String symbolName;
-    private final String targetFile;
-    private final int targetLine;
+    private final LineIndex lineIndex; // 当前文件的行索引，为 null 时回退到表达式文本
     private String currentClassName = "";
     private String currentMethodName = "";
 
-    public ReferenceFinderVisitor(Path rootPath, String symbolName, String targetFile, int targetLine) {
+    public ReferenceFinderVisitor(Path rootPath, String symbolName, LineIndex lineIndex) {
         this.rootPath = rootPath;
         this.symbolName = symbolName;
-        this.targetFile = targetFile;
-        this.targetLine = targetLine;
+        this.lineIndex = lineIndex;
     }
 
     @Override
@@ -77,10 +75,6 @@ public class ReferenceFinderVisitor extends VoidVisitorAdapter<List<ReferenceInf
     }
 
     private void addReference(Expression expr, String referenceType, List<ReferenceInfo> references) {
-        if (!shouldIncludeReference(expr)) {
-            return;
-        }
-
         ReferenceInfo refInfo = new ReferenceInfo();
         refInfo.setSymbolName(symbolName);
         refInfo.setReferenceType(referenceType);
@@ -102,18 +96,6 @@ public class ReferenceFinderVisitor extends VoidVisitorAdapter<List<ReferenceInf
         references.add(refInfo);
     }
 
-    private boolean shouldIncludeReference(Expression expr) {
-        if (targetFile == null || targetLine == -1) {
-            return true; // 没有指定位置，包含所有引用
-        }
-        
-        String relativePath = getRelativePath(expr);
-        int line = expr.getBegin().map(pos -> pos.line).orElse(-1);
-        
-        // 如果指定了文件和行号，只查找该位置的符号定义的引用
-        return relativePath.contains(targetFile) && line == targetLine;
-    }
-
     private String getRelativePath(Expression expr) {
         return expr.findCompilationUnit().flatMap(CompilationUnit::getStorage)
                 .map(s -> {
@@ -132,31 +114,13 @@ public class ReferenceFinderVisitor extends VoidVisitorAdapter<List<ReferenceInf
     }
 
     private String getLineContent(Expression expr) {
-        try {
-            // 获取编译单元和源文件路径
-            CompilationUnit cu = expr.findCompilationUnit().orElse(null);
-            if (cu == null || !cu.getStorage().isPresent()) {
-                return expr.toString(); // 回退到简单实现
+        int lineNumber = expr.getBegin().map(pos -> pos.line).orElse(-1);
+        if (lineIndex != null && lineNumber != -1) {
+            String line = lineIndex.getLine(lineNumber); // 行号从1开始
+            if (line != null) {
+                return line.trim();
             }
-            
-            Path sourceFile = cu.getStorage().get().getPath();
-            int lineNumber = expr.getBegin().map(pos -> pos.line).orElse(-1);
-            
-            if (lineNumber == -1) {
-                return expr.toString();
-            }
-            
-            // 读取源文件的指定行
-            List<String> lines = Files.readAllLines(sourceFile);
-            if (lineNumber > 0 && lineNumber <= lines.size()) {
-                return lines.get(lineNumber - 1).trim(); // 行号从1开始，数组从0开始
-            }
-            
-        } catch (Exception e) {
-            // 如果读取文件失败，回退到简单实现
-            System.err.println("Warning: Failed to read line content: " + e.getMessage());
         }
-        
-        return expr.toString();
+        return expr.toString(); // 回退到简单实现
     }
-} 
\ No newline at end of file
+}
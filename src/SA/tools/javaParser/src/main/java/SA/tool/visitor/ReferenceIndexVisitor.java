@@ -0,0 +1,69 @@
+package SA.tool.visitor;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import SA.tool.model.ReferenceFact;
+
+import java.util.List;
+
+/**
+ * 收集单个文件中所有名字的引用，与 ReferenceFinderVisitor 匹配的节点种类和上下文相同，
+ * 但不限定符号，结果可以按文件缓存并汇总成项目级的引用索引
+ */
+public class ReferenceIndexVisitor extends VoidVisitorAdapter<List<ReferenceFact>> {
+
+    private String currentClassName = "";
+    private String currentMethodName = "";
+
+    @Override
+    public void visit(ClassOrInterfaceDeclaration n, List<ReferenceFact> arg) {
+        String previousClassName = currentClassName;
+        currentClassName = n.getNameAsString();
+        super.visit(n, arg);
+        currentClassName = previousClassName;
+    }
+
+    @Override
+    public void visit(MethodDeclaration n, List<ReferenceFact> arg) {
+        String previousMethodName = currentMethodName;
+        currentMethodName = n.getNameAsString();
+        super.visit(n, arg);
+        currentMethodName = previousMethodName;
+    }
+
+    @Override
+    public void visit(MethodCallExpr n, List<ReferenceFact> arg) {
+        addReference(n, n.getNameAsString(), "METHOD_CALL", arg);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(FieldAccessExpr n, List<ReferenceFact> arg) {
+        addReference(n, n.getNameAsString(), "FIELD_ACCESS", arg);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(NameExpr n, List<ReferenceFact> arg) {
+        addReference(n, n.getNameAsString(), "VARIABLE_ACCESS", arg);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(ClassOrInterfaceType n, List<ReferenceFact> arg) {
+        addReference(n.getName(), n.getNameAsString(), "TYPE_REFERENCE", arg);
+        super.visit(n, arg);
+    }
+
+    private void addReference(Node node, String name, String referenceType, List<ReferenceFact> references) {
+        int line = node.getBegin().map(pos -> pos.line).orElse(-1);
+        int column = node.getBegin().map(pos -> pos.column).orElse(-1);
+        references.add(new ReferenceFact(name, referenceType, line, column, currentClassName + "." + currentMethodName));
+    }
+}
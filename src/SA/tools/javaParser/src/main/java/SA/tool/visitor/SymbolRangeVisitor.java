@@ -0,0 +1,107 @@
+package SA.tool.visitor;
+
+import com.github.javaparser.ast.AccessSpecifier;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.AnnotationDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.RecordDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.SimpleName;
+import com.github.javaparser.ast.nodeTypes.NodeWithModifiers;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import SA.tool.model.SymbolRange;
+
+import java.util.List;
+
+/**
+ * 收集单个文件中类型、方法、构造器、字段和枚举常量声明的行区间，以及声明中名字的位置。
+ * 嵌套类型的全限定名以 "." 连接外层类型名，局部类和匿名类中的成员同样被收集，区间嵌套在外层方法内。
+ */
+public class SymbolRangeVisitor extends VoidVisitorAdapter<List<SymbolRange>> {
+
+    private String packageName = "";
+    private String currentClassFqn = "";
+
+    @Override
+    public void visit(CompilationUnit n, List<SymbolRange> arg) {
+        packageName = n.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(ClassOrInterfaceDeclaration n, List<SymbolRange> arg) {
+        visitType(n, n.isInterface() ? "INTERFACE" : "CLASS", arg, () -> super.visit(n, arg));
+    }
+
+    @Override
+    public void visit(EnumDeclaration n, List<SymbolRange> arg) {
+        visitType(n, "ENUM", arg, () -> super.visit(n, arg));
+    }
+
+    @Override
+    public void visit(RecordDeclaration n, List<SymbolRange> arg) {
+        visitType(n, "RECORD", arg, () -> super.visit(n, arg));
+    }
+
+    @Override
+    public void visit(AnnotationDeclaration n, List<SymbolRange> arg) {
+        visitType(n, "ANNOTATION", arg, () -> super.visit(n, arg));
+    }
+
+    @Override
+    public void visit(MethodDeclaration n, List<SymbolRange> arg) {
+        addRange(n, n.getName(), "METHOD", currentClassFqn, visibility(n), arg);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(ConstructorDeclaration n, List<SymbolRange> arg) {
+        addRange(n, n.getName(), "CONSTRUCTOR", currentClassFqn, visibility(n), arg);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(FieldDeclaration n, List<SymbolRange> arg) {
+        // 一条声明中的多个变量共用声明的区间，名字位置各自不同
+        for (VariableDeclarator variable : n.getVariables()) {
+            addRange(n, variable.getName(), "FIELD", currentClassFqn, visibility(n), arg);
+        }
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(EnumConstantDeclaration n, List<SymbolRange> arg) {
+        addRange(n, n.getName(), "ENUM_CONSTANT", currentClassFqn, "public", arg);
+        super.visit(n, arg);
+    }
+
+    private void visitType(TypeDeclaration<?> n, String type, List<SymbolRange> arg, Runnable visitMembers) {
+        String outerClassFqn = currentClassFqn;
+        String prefix = outerClassFqn.isEmpty() ? packageName : outerClassFqn;
+        currentClassFqn = prefix.isEmpty() ? n.getNameAsString() : prefix + "." + n.getNameAsString();
+        addRange(n, n.getName(), type, currentClassFqn, visibility(n), arg);
+        visitMembers.run();
+        currentClassFqn = outerClassFqn;
+    }
+
+    private static void addRange(Node node, SimpleName name, String type, String classFqn, String visibility, List<SymbolRange> arg) {
+        node.getRange().ifPresent(range -> {
+            int nameLine = name.getBegin().map(pos -> pos.line).orElse(range.begin.line);
+            int nameColumn = name.getBegin().map(pos -> pos.column).orElse(range.begin.column);
+            arg.add(new SymbolRange(name.asString(), type, classFqn, range.begin.line, range.end.line, nameLine, nameColumn, visibility));
+        });
+    }
+
+    private static String visibility(NodeWithModifiers<?> n) {
+        AccessSpecifier access = n.getAccessSpecifier();
+        return access == AccessSpecifier.NONE ? "package" : access.asString();
+    }
+}
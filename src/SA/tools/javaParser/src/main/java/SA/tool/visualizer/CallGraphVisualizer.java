@@ -1,6 +1,7 @@
 package SA.tool.visualizer;
 
 import SA.tool.model.CallGraphNode;
+import SA.tool.stats.RenderEvent;
 import guru.nidi.graphviz.attribute.*;
 import guru.nidi.graphviz.engine.Format;
 import guru.nidi.graphviz.engine.Graphviz;
@@ -9,6 +10,7 @@ import guru.nidi.graphviz.model.MutableNode;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,12 +20,17 @@ public class CallGraphVisualizer {
     
     private final Map<String, CallGraphNode> callGraph;
     private final Set<String> classFilters;
-    private final Map<String, Color> classColors;
-    private final Color[] colorPalette = {
-        Color.LIGHTBLUE, Color.LIGHTCORAL, Color.LIMEGREEN, Color.LIGHTYELLOW,
-        Color.LIGHTPINK, Color.LIGHTCYAN, Color.CORAL, Color.WHEAT,
-        Color.PALEGREEN, Color.PLUM
+    private final Map<String, String> classColors;
+    // 颜色名同时用于 Graphviz 和流式写出的 DOT/SVG
+    private final String[] colorPalette = {
+        "lightblue", "lightcoral", "limegreen", "lightyellow",
+        "lightpink", "lightcyan", "coral", "wheat",
+        "palegreen", "plum"
     };
+    private static final String DEFAULT_COLOR = "lightgray";
+    // 超过该节点数时 AUTO 模式的 SVG 改用内置分层布局，graphviz 的布局在大图上耗时和内存都很高
+    static final int NATIVE_SVG_THRESHOLD = 2000;
+    private Renderer renderer = Renderer.AUTO;
     
     public CallGraphVisualizer(Map<String, CallGraphNode> callGraph) {
         this.callGraph = callGraph;
@@ -36,6 +43,11 @@ public class CallGraphVisualizer {
         this.classFilters.add(classPattern.toLowerCase());
         return this;
     }
+
+    public CallGraphVisualizer setRenderer(Renderer renderer) {
+        this.renderer = renderer;
+        return this;
+    }
     
     public void visualize(String outputPath, LayoutEngine layout, boolean removeIsolated) throws IOException {
         // 根据文件扩展名自动选择格式
@@ -61,6 +73,60 @@ public class CallGraphVisualizer {
             return;
         }
         
+        RenderEvent event = new RenderEvent();
+        event.begin();
+
+        boolean streaming = useStreamingWriter(format, filteredGraph.size());
+        if (streaming) {
+            writeStreaming(filteredGraph, outputPath, layout, format);
+        } else {
+            renderWithGraphviz(filteredGraph, outputPath, layout, format);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.output = outputPath;
+            event.layout = streaming && "SVG".equalsIgnoreCase(format) ? "LAYERED" : layout.name();
+            event.nodes = filteredGraph.size();
+            event.edges = filteredGraph.values().stream().mapToInt(node -> node.getCallees().size()).sum();
+            event.commit();
+        }
+                
+        System.out.println("调用图已生成: " + outputPath + " (格式: " + format + ")");
+        printGraphStats(filteredGraph);
+    }
+    
+    /**
+     * DOT 是图的文本描述，总是直接写出；SVG 在大图或指定 native 时使用内置分层布局；PNG 只能由 graphviz 渲染
+     */
+    private boolean useStreamingWriter(String format, int nodeCount) {
+        String upperFormat = format.toUpperCase();
+        if ("PNG".equals(upperFormat)) {
+            if (renderer == Renderer.NATIVE) {
+                System.err.println("PNG 只能由 graphviz 渲染，忽略 native 渲染器");
+            }
+            return false;
+        }
+        return switch (renderer) {
+            case GRAPHVIZ -> false;
+            case NATIVE -> true;
+            case AUTO -> "DOT".equals(upperFormat) || nodeCount > NATIVE_SVG_THRESHOLD;
+        };
+    }
+
+    private void writeStreaming(Map<String, CallGraphNode> filteredGraph, String outputPath, LayoutEngine layout,
+                                String format) throws IOException {
+        StreamingGraphWriter writer = new StreamingGraphWriter(this::getShortMethodName, this::getNodeColor);
+        if ("DOT".equalsIgnoreCase(format)) {
+            writer.writeDot(filteredGraph, Path.of(outputPath), layout == LayoutEngine.NEATO ? "polyline" : "ortho");
+        } else {
+            System.out.println("使用内置分层布局生成 SVG");
+            writer.writeSvg(filteredGraph, Path.of(outputPath));
+        }
+    }
+
+    private void renderWithGraphviz(Map<String, CallGraphNode> filteredGraph, String outputPath, LayoutEngine layout,
+                                    String format) throws IOException {
         // 创建图
         MutableGraph graph = createGraph(filteredGraph, layout);
         
@@ -80,9 +146,6 @@ public class CallGraphVisualizer {
                    .render(outputFormat)
                    .toFile(new File(outputPath));
         }
-                
-        System.out.println("调用图已生成: " + outputPath + " (格式: " + format + ")");
-        printGraphStats(filteredGraph);
     }
     
     private String detectFormat(String outputPath) {
@@ -172,8 +235,7 @@ public class CallGraphVisualizer {
             CallGraphNode node = entry.getValue();
             
             String shortName = getShortMethodName(node);
-            String className = getSimpleClassName(node.getClassName());
-            Color nodeColor = classColors.getOrDefault(className, Color.LIGHTGRAY);
+            Color nodeColor = Color.named(getNodeColor(node));
             
             MutableNode graphNode = mutNode(methodSig)
                     .add(Label.of(shortName))
@@ -222,10 +284,14 @@ public class CallGraphVisualizer {
         
         for (int i = 0; i < sortedClasses.size(); i++) {
             String className = sortedClasses.get(i);
-            Color color = colorPalette[i % colorPalette.length];
+            String color = colorPalette[i % colorPalette.length];
             classColors.put(className, color);
         }
     }
+
+    private String getNodeColor(CallGraphNode node) {
+        return classColors.getOrDefault(getSimpleClassName(node.getClassName()), DEFAULT_COLOR);
+    }
     
     private String getShortMethodName(CallGraphNode node) {
         String className = getSimpleClassName(node.getClassName());
@@ -277,4 +343,10 @@ public class CallGraphVisualizer {
         DOT,     // 层次化布局 (默认，推荐用于调用图)
         NEATO    // 弹簧力布局 (备选，适合复杂关系网络)
     }
+
+    public enum Renderer {
+        AUTO,      // DOT 直接写出，SVG 超过阈值时使用内置布局 (默认)
+        GRAPHVIZ,  // 总是使用 graphviz-java 布局和渲染
+        NATIVE     // DOT/SVG 总是流式写出，SVG 使用内置分层布局
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,355 @@
+package SA.tool.visualizer;
+
+import SA.tool.model.CallGraphNode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 不经过 graphviz-java 对象模型、直接流式写出调用图的 DOT / SVG。
+ *
+ * DOT 只是图的文本描述，节点和边逐条写出，布局交给下游的 dot 命令；
+ * SVG 使用简单的分层布局（按从入口节点出发的 BFS 深度分层，层内按访问顺序排列，过宽的层折行），
+ * 布局和输出都与节点数、边数成线性关系，适合 graphviz 渲染不动的大图。
+ */
+public class StreamingGraphWriter {
+
+    private static final int NODE_HEIGHT = 28;
+    private static final int LAYER_GAP = 60;
+    private static final int ROW_GAP = 12;
+    private static final int MAX_ROW_WIDTH = 4000; // 过宽的层折成多行，避免浅而宽的图变成一条长带
+    private static final int NODE_GAP = 16;
+    private static final int MARGIN = 20;
+    private static final double CHAR_WIDTH = 6.2; // 10px Arial 的平均字宽
+
+    private final Function<CallGraphNode, String> labeler;
+    private final Function<CallGraphNode, String> colorer;
+
+    /**
+     * @param labeler 节点显示的文字
+     * @param colorer 节点填充色（SVG / Graphviz 通用的颜色名）
+     */
+    public StreamingGraphWriter(Function<CallGraphNode, String> labeler, Function<CallGraphNode, String> colorer) {
+        this.labeler = labeler;
+        this.colorer = colorer;
+    }
+
+    public void writeDot(Map<String, CallGraphNode> graph, Path outputPath, String splines) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            writeDot(graph, writer, splines);
+        }
+    }
+
+    public void writeDot(Map<String, CallGraphNode> graph, Writer writer, String splines) throws IOException {
+        Writer out = buffered(writer);
+        out.write("digraph \"callgraph\" {\n");
+        out.write("graph [rankdir=\"TB\", dpi=\"150\", splines=\"" + splines + "\"]\n");
+        out.write("node [shape=\"box\", style=\"filled\", fontsize=\"10\", fontname=\"Arial\"]\n");
+        out.write("edge [style=\"solid\", color=\"deepskyblue\", arrowsize=\"0.7\"]\n");
+        for (Map.Entry<String, CallGraphNode> entry : graph.entrySet()) {
+            out.write(dotQuote(entry.getKey()));
+            out.write(" [label=");
+            out.write(dotQuote(labeler.apply(entry.getValue())));
+            out.write(", fillcolor=\"");
+            out.write(colorer.apply(entry.getValue()));
+            out.write("\"]\n");
+        }
+        for (Map.Entry<String, CallGraphNode> entry : graph.entrySet()) {
+            List<String> callees = entry.getValue().getCallees();
+            if (callees == null) {
+                continue;
+            }
+            String from = dotQuote(entry.getKey());
+            for (String callee : callees) {
+                if (graph.containsKey(callee)) {
+                    out.write(from);
+                    out.write(" -> ");
+                    out.write(dotQuote(callee));
+                    out.write('\n');
+                }
+            }
+        }
+        out.write("}\n");
+        out.flush();
+    }
+
+    public void writeSvg(Map<String, CallGraphNode> graph, Path outputPath) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            writeSvg(graph, writer);
+        }
+    }
+
+    public void writeSvg(Map<String, CallGraphNode> graph, Writer writer) throws IOException {
+        Layout layout = Layout.of(graph, labeler);
+        Writer out = buffered(writer);
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + layout.width + "\" height=\"" + layout.height
+                + "\" viewBox=\"0 0 " + layout.width + " " + layout.height + "\">\n");
+        out.write("<defs><marker id=\"arrow\" viewBox=\"0 0 10 10\" refX=\"10\" refY=\"5\" markerWidth=\"5\" markerHeight=\"5\""
+                + " orient=\"auto-start-reverse\"><path d=\"M 0 0 L 10 5 L 0 10 z\" fill=\"deepskyblue\"/></marker></defs>\n");
+
+        // 先画边，节点覆盖在边的端点之上
+        out.write("<g fill=\"none\" stroke=\"deepskyblue\" stroke-width=\"1\" marker-end=\"url(#arrow)\">\n");
+        for (int u = 0; u < layout.size(); u++) {
+            for (int e = layout.edgeStart[u]; e < layout.edgeStart[u + 1]; e++) {
+                writeEdge(out, layout, u, layout.edgeTargets[e]);
+            }
+        }
+        out.write("</g>\n");
+
+        out.write("<g font-family=\"Arial\" font-size=\"10\" text-anchor=\"middle\">\n");
+        for (int v = 0; v < layout.size(); v++) {
+            CallGraphNode node = layout.nodes[v];
+            int x = layout.x[v];
+            int y = layout.y[v];
+            int w = layout.width(v);
+            out.write("<g><title>" + xmlEscape(node.getMethodSignature()) + "</title>");
+            out.write("<rect x=\"" + x + "\" y=\"" + y + "\" width=\"" + w + "\" height=\"" + NODE_HEIGHT
+                    + "\" fill=\"" + colorer.apply(node) + "\" stroke=\"black\"/>");
+            out.write("<text x=\"" + (x + w / 2) + "\" y=\"" + (y + NODE_HEIGHT / 2 + 4) + "\">"
+                    + xmlEscape(layout.labels[v]) + "</text></g>\n");
+        }
+        out.write("</g>\n</svg>\n");
+        out.flush();
+    }
+
+    private void writeEdge(Writer out, Layout layout, int u, int v) throws IOException {
+        int x1 = layout.x[u] + layout.width(u) / 2;
+        int x2 = layout.x[v] + layout.width(v) / 2;
+        if (u == v) {
+            // 自调用：在节点右侧画一个小环
+            int right = layout.x[u] + layout.width(u);
+            int y = layout.y[u];
+            out.write("<path d=\"M " + right + " " + (y + 8) + " C " + (right + 24) + " " + (y - 6) + ", "
+                    + (right + 24) + " " + (y + NODE_HEIGHT + 6) + ", " + right + " " + (y + NODE_HEIGHT - 8) + "\"/>\n");
+            return;
+        }
+        int y1 = layout.y[u] + NODE_HEIGHT;
+        int y2 = layout.y[v];
+        int c1;
+        int c2;
+        if (layout.row[v] == layout.row[u]) {
+            // 同一行：从两个节点顶部向上拱起
+            y1 = layout.y[u];
+            c1 = y1 - LAYER_GAP / 3;
+            c2 = c1;
+        } else {
+            if (layout.row[v] < layout.row[u]) {
+                // 指向上方的边（回边）：从节点顶部出发，到目标底部
+                y1 = layout.y[u];
+                y2 = layout.y[v] + NODE_HEIGHT;
+            }
+            int bend = Integer.signum(y2 - y1) * Math.max(LAYER_GAP / 2, Math.abs(y2 - y1) / 2);
+            c1 = y1 + bend;
+            c2 = y2 - bend;
+        }
+        out.write("<path d=\"M " + x1 + " " + y1 + " C " + x1 + " " + c1 + ", "
+                + x2 + " " + c2 + ", " + x2 + " " + y2 + "\"/>\n");
+    }
+
+    private static Writer buffered(Writer writer) {
+        return writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, 1 << 16);
+    }
+
+    private static String dotQuote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static String xmlEscape(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '&' -> sb.append("&amp;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 分层布局：节点编号为 0..n-1，边以 CSR 形式保存
+     */
+    static final class Layout {
+        final CallGraphNode[] nodes;
+        final String[] labels;
+        final int[] edgeStart;
+        final int[] edgeTargets;
+        final int[] layer;
+        final int[] row; // 全局行号，同层折行后行号不同
+        final int[] x;
+        final int[] y;
+        private int[] bfsOrder;
+        int width;
+        int height;
+
+        private Layout(int n, int edges) {
+            nodes = new CallGraphNode[n];
+            labels = new String[n];
+            edgeStart = new int[n + 1];
+            edgeTargets = new int[edges];
+            layer = new int[n];
+            row = new int[n];
+            x = new int[n];
+            y = new int[n];
+        }
+
+        int size() {
+            return nodes.length;
+        }
+
+        int width(int v) {
+            return (int) Math.ceil(labels[v].length() * CHAR_WIDTH) + 20;
+        }
+
+        static Layout of(Map<String, CallGraphNode> graph, Function<CallGraphNode, String> labeler) {
+            List<String> keys = new ArrayList<>(graph.keySet());
+            keys.sort(null); // 过滤后的图可能是 HashMap，排序保证输出稳定
+            Map<String, Integer> ids = new HashMap<>(keys.size() * 2);
+            for (int i = 0; i < keys.size(); i++) {
+                ids.put(keys.get(i), i);
+            }
+
+            int edges = 0;
+            for (String key : keys) {
+                List<String> callees = graph.get(key).getCallees();
+                if (callees != null) {
+                    for (String callee : callees) {
+                        if (ids.containsKey(callee)) {
+                            edges++;
+                        }
+                    }
+                }
+            }
+            Layout layout = new Layout(keys.size(), edges);
+            int[] inDegree = new int[keys.size()];
+            int e = 0;
+            for (int u = 0; u < keys.size(); u++) {
+                CallGraphNode node = graph.get(keys.get(u));
+                layout.nodes[u] = node;
+                layout.labels[u] = labeler.apply(node);
+                layout.edgeStart[u] = e;
+                if (node.getCallees() != null) {
+                    for (String callee : node.getCallees()) {
+                        Integer v = ids.get(callee);
+                        if (v != null) {
+                            layout.edgeTargets[e++] = v;
+                            if (v != u) {
+                                inDegree[v]++;
+                            }
+                        }
+                    }
+                }
+            }
+            layout.edgeStart[keys.size()] = e;
+            layout.assignLayers(inDegree);
+            layout.assignCoordinates();
+            return layout;
+        }
+
+        /**
+         * 从入度为 0 的节点出发 BFS，层号为最短深度；只在环中的节点按编号补做起点
+         */
+        private void assignLayers(int[] inDegree) {
+            int n = size();
+            int[] order = new int[n];
+            Arrays.fill(layer, -1);
+            int head = 0;
+            int tail = 0;
+            for (int v = 0; v < n; v++) {
+                if (inDegree[v] == 0) {
+                    layer[v] = 0;
+                    order[tail++] = v;
+                }
+            }
+            int next = 0;
+            while (head < n) {
+                if (head == tail) {
+                    while (layer[next] >= 0) {
+                        next++;
+                    }
+                    layer[next] = 0;
+                    order[tail++] = next;
+                }
+                int u = order[head++];
+                for (int i = edgeStart[u]; i < edgeStart[u + 1]; i++) {
+                    int v = edgeTargets[i];
+                    if (layer[v] < 0) {
+                        layer[v] = layer[u] + 1;
+                        order[tail++] = v;
+                    }
+                }
+            }
+            this.bfsOrder = order;
+        }
+
+        /**
+         * 层内按 BFS 访问顺序从左到右排列，超过最大行宽时折行，每行水平居中
+         */
+        private void assignCoordinates() {
+            int layers = 0;
+            for (int v = 0; v < size(); v++) {
+                layers = Math.max(layers, layer[v] + 1);
+            }
+            // 第一遍：层内行号和行内横坐标，BFS 顺序中同层节点依次出现
+            int[] layerRows = new int[layers];
+            int[] rowWidthInLayer = new int[layers];
+            List<int[]> rowWidths = new ArrayList<>(); // 每层各行的宽度
+            for (int i = 0; i < layers; i++) {
+                rowWidths.add(new int[4]);
+            }
+            for (int v : bfsOrder) {
+                int l = layer[v];
+                int w = width(v) + NODE_GAP;
+                if (rowWidthInLayer[l] > 0 && rowWidthInLayer[l] + w > MAX_ROW_WIDTH) {
+                    recordRow(rowWidths, l, layerRows[l]++, rowWidthInLayer[l]);
+                    rowWidthInLayer[l] = 0;
+                }
+                row[v] = layerRows[l];
+                x[v] = rowWidthInLayer[l];
+                rowWidthInLayer[l] += w;
+            }
+            int[] firstRow = new int[layers + 1];
+            int maxWidth = 0;
+            for (int l = 0; l < layers; l++) {
+                recordRow(rowWidths, l, layerRows[l], rowWidthInLayer[l]);
+                firstRow[l + 1] = firstRow[l] + layerRows[l] + 1;
+                for (int r = 0; r <= layerRows[l]; r++) {
+                    maxWidth = Math.max(maxWidth, rowWidths.get(l)[r]);
+                }
+            }
+            // 第二遍：行号转为全局行号，计算绝对坐标
+            for (int v = 0; v < size(); v++) {
+                int l = layer[v];
+                x[v] += MARGIN + (maxWidth - rowWidths.get(l)[row[v]]) / 2;
+                row[v] += firstRow[l];
+                y[v] = MARGIN + row[v] * (NODE_HEIGHT + ROW_GAP) + l * (LAYER_GAP - ROW_GAP);
+            }
+            width = maxWidth + 2 * MARGIN;
+            height = size() == 0 ? 2 * MARGIN
+                    : firstRow[layers] * (NODE_HEIGHT + ROW_GAP) - ROW_GAP + (layers - 1) * (LAYER_GAP - ROW_GAP) + 2 * MARGIN;
+        }
+
+        private static void recordRow(List<int[]> rowWidths, int layer, int row, int width) {
+            int[] widths = rowWidths.get(layer);
+            if (row >= widths.length) {
+                widths = Arrays.copyOf(widths, widths.length * 2);
+                rowWidths.set(layer, widths);
+            }
+            widths[row] = width;
+        }
+    }
+}
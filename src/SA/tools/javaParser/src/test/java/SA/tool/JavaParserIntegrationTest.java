@@ -11,10 +11,63 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import SA.tool.analyzer.ApiExtractor;
+import SA.tool.analyzer.CallGraphAnalyzer;
+import SA.tool.analyzer.DefinitionFinder;
+import SA.tool.analyzer.EndpointReachability;
+import SA.tool.analyzer.FactCollector;
+import SA.tool.analyzer.FactKind;
+import SA.tool.analyzer.ImpactAnalyzer;
+import SA.tool.analyzer.IntervalIndex;
+import SA.tool.analyzer.ProjectFacts;
+import SA.tool.analyzer.ProjectAnalyzer;
+import SA.tool.analyzer.ReferenceFinder;
+import SA.tool.analyzer.SinkAnalyzer;
+import SA.tool.analyzer.SinkCatalog;
+import SA.tool.analyzer.TaintAnalyzer;
+import SA.tool.analyzer.SymbolIndex;
+import SA.tool.analyzer.SymbolRanges;
+import SA.tool.cache.FactCache;
+import SA.tool.dataflow.MethodDataflow;
+import SA.tool.graph.CallGraph;
+import SA.tool.graph.CallGraphBuilder;
+import SA.tool.graph.Reachability;
+import SA.tool.model.AnalysisMetadata;
+import SA.tool.model.ApiImpact;
+import SA.tool.model.ApiInfo;
+import SA.tool.model.CallGraphNode;
+import SA.tool.model.DefinitionInfo;
+import SA.tool.model.ParamFlow;
+import SA.tool.model.MethodSummary;
+import SA.tool.model.ReferenceInfo;
+import SA.tool.model.SinkPath;
+import SA.tool.model.SymbolRange;
+import SA.tool.model.TaintFlow;
+import SA.tool.parser.LineIndex;
+import SA.tool.parser.ParsedFile;
+import SA.tool.parser.ParsedProject;
+import SA.tool.parser.ProjectParser;
+import SA.tool.parser.SourcePrefilter;
+import SA.tool.server.AnalysisServer;
+import SA.tool.server.ProjectSession;
+import SA.tool.stats.AnalysisStats;
+import SA.tool.synth.SpringProjectGenerator;
+import SA.tool.visualizer.CallGraphVisualizer;
 
 import java.io.*;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
 import java.nio.file.*;
 import java.util.*;
+import java.util.stream.Stream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 /**
  * JavaParser 集成测试
@@ -256,4 +309,1119 @@ public class JavaParserIntegrationTest {
                 System.out.println("  " + entry.getKey() + ": " + entry.getValue() + " 个方法"));
         System.out.println("✓ 调用图生成成功，文件保存在测试源代码目录下");
     }
-} 
\ No newline at end of file
+
+    @Test
+    @Order(5)
+    @DisplayName("测试常驻分析服务")
+    void testAnalysisServer() throws Exception {
+        System.out.println("\n=== 测试常驻分析服务 ===");
+        ProjectSession session = new ProjectSession(testCodePath);
+        session.reload();
+        assertTrue(session.getFileCount() > 0, "会话应加载到源文件");
+
+        String requests = String.join("\n",
+            "{\"id\": 1, \"command\": \"DEF\", \"symbol\": \"UserService\"}",
+            "{\"id\": 2, \"command\": \"REF\", \"symbol\": \"createUser\"}",
+            "{\"id\": 3, \"command\": \"API\"}",
+            "{\"id\": 4, \"command\": \"CG\"}",
+            "{\"id\": 5, \"command\": \"DEF\"}",
+            "not json",
+            "{\"id\": 6, \"command\": \"PING\"}") + "\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AnalysisServer server = new AnalysisServer(session, 4);
+        server.serveStdio(new ByteArrayInputStream(requests.getBytes("UTF-8")), out);
+
+        Map<Object, Map<String, Object>> responses = new HashMap<>();
+        for (String line : out.toString("UTF-8").split("\n")) {
+            Map<String, Object> response = objectMapper.readValue(line, new TypeReference<Map<String, Object>>() {});
+            responses.put(response.get("id"), response);
+        }
+        assertEquals(7, responses.size(), "每个请求都应有一个响应");
+        for (int id = 1; id <= 4; id++) {
+            assertEquals(Boolean.TRUE, responses.get(id).get("ok"), "请求应成功: " + id);
+        }
+        assertFalse(((List<?>) responses.get(1).get("result")).isEmpty(), "DEF 应找到定义");
+        assertFalse(((Map<?, ?>) responses.get(4).get("result")).isEmpty(), "CG 应包含方法");
+        assertEquals(Boolean.FALSE, responses.get(5).get("ok"), "缺少 symbol 的请求应返回错误");
+        assertEquals(Boolean.FALSE, responses.get(null).get("ok"), "格式错误的请求应返回错误");
+        assertEquals("pong", responses.get(6).get("result"));
+
+        // socket 模式：客户端发完请求即关闭写端，连接应在所有排队的查询写回响应之后才关闭
+        Path socketDir = Files.createTempDirectory("sa-server");
+        Path socketPath = socketDir.resolve("sa.sock");
+        AnalysisServer socketServer = new AnalysisServer(session, 2);
+        Thread serverThread = new Thread(() -> {
+            try {
+                socketServer.serveSocket(socketPath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        serverThread.start();
+        int requestCount = 20;
+        StringBuilder socketRequests = new StringBuilder();
+        for (int id = 1; id <= requestCount; id++) {
+            socketRequests.append(id % 2 == 0 ? "{\"id\": " + id + ", \"command\": \"CG\"}\n"
+                                              : "{\"id\": " + id + ", \"command\": \"API\"}\n");
+        }
+        Set<Object> socketIds = new HashSet<>();
+        try (SocketChannel client = connect(socketPath)) {
+            client.write(ByteBuffer.wrap(socketRequests.toString().getBytes("UTF-8")));
+            client.shutdownOutput();
+            BufferedReader reader = new BufferedReader(Channels.newReader(client, "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Map<String, Object> response = objectMapper.readValue(line, new TypeReference<Map<String, Object>>() {});
+                assertEquals(Boolean.TRUE, response.get("ok"), "socket 请求应成功: " + line);
+                socketIds.add(response.get("id"));
+            }
+        }
+        assertEquals(requestCount, socketIds.size(), "关闭写端后仍应收到每个请求的响应");
+        try (SocketChannel client = connect(socketPath)) {
+            client.write(ByteBuffer.wrap("{\"id\": 0, \"command\": \"SHUTDOWN\"}\n".getBytes("UTF-8")));
+            new BufferedReader(Channels.newReader(client, "UTF-8")).readLine();
+        }
+        serverThread.join(60_000);
+        assertFalse(serverThread.isAlive(), "SHUTDOWN 后服务应退出");
+        Files.deleteIfExists(socketDir);
+        System.out.println("✓ 常驻分析服务测试完成");
+    }
+
+    /**
+     * 连接服务的 socket，服务线程尚未开始监听时重试
+     */
+    private SocketChannel connect(Path socketPath) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+            } catch (IOException e) {
+                if (attempt >= 500) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试文件事实缓存")
+    void testFactCache() throws Exception {
+        System.out.println("\n=== 测试文件事实缓存 ===");
+        ProjectParser parser = new ProjectParser();
+        FactCache cache = new FactCache(tempOutputDir.resolve("fact-cache"));
+        FactCollector collector = new FactCollector(parser, cache);
+
+        ProjectFacts cold = collector.collect(parser.load(testCodePath));
+        assertEquals(0, cold.getCacheHits(), "首次运行不应命中缓存");
+        ParsedProject project = parser.load(testCodePath);
+        ProjectFacts warm = collector.collect(project);
+        assertEquals(warm.getFiles().size(), warm.getCacheHits(), "再次运行应全部命中缓存");
+        assertTrue(project.getFiles().stream().noneMatch(ParsedFile::isParsed), "缓存命中的文件不应被解析");
+
+        String expectedDefs = objectMapper.writeValueAsString(new DefinitionFinder().findDefinitions(testCodePath.toString(), "UserService"));
+        String cachedDefs = objectMapper.writeValueAsString(new DefinitionFinder(parser, cache).findDefinitions(warm, "UserService"));
+        assertEquals(expectedDefs, cachedDefs, "缓存事实上的 DEF 结果应与直接解析一致");
+
+        String expectedGraph = objectMapper.writeValueAsString(new TreeMap<>(new CallGraphAnalyzer().buildCallGraph(testCodePath.toString())));
+        String cachedGraph = objectMapper.writeValueAsString(new TreeMap<>(new CallGraphAnalyzer(parser, cache).buildCallGraph(warm)));
+        assertEquals(expectedGraph, cachedGraph, "缓存事实上的调用图应与直接解析一致");
+
+        // 同一缓存用于另一个根目录：事实中的路径相对根目录，不能复用上一个根目录下的条目
+        Path subRoot = testCodePath.resolve("com");
+        ProjectFacts subFacts = collector.collect(parser.load(subRoot));
+        assertEquals(0, subFacts.getCacheHits(), "根目录不同不应命中缓存");
+        assertTrue(subFacts.getFiles().stream().allMatch(f -> f.getFilePath().startsWith("example")), "路径应相对新的根目录");
+        String expectedSubApis = objectMapper.writeValueAsString(new ApiExtractor().extractApiInfo(subRoot.toString(), null));
+        String cachedSubApis = objectMapper.writeValueAsString(new ApiExtractor(parser, cache).extractApiInfo(collector.collect(parser.load(subRoot)), null));
+        assertEquals(expectedSubApis, cachedSubApis, "另一个根目录下缓存事实上的 API 结果应与直接解析一致");
+        System.out.println("✓ 文件事实缓存测试完成");
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试全局符号索引")
+    void testSymbolIndex() throws Exception {
+        System.out.println("\n=== 测试全局符号索引 ===");
+        ProjectParser parser = new ProjectParser();
+        ProjectFacts facts = new FactCollector(parser, null).collect(parser.load(testCodePath));
+        SymbolIndex index = SymbolIndex.build(facts);
+        assertTrue(index.size() > 0, "索引应包含定义");
+
+        DefinitionFinder finder = new DefinitionFinder(parser);
+        List<DefinitionInfo> byClass = finder.findDefinitions(index, "com.example.demo.service.UserService");
+        assertEquals(1, byClass.size(), "全限定类名应找到类定义");
+        assertEquals("CLASS", byClass.get(0).getDefinitionType());
+
+        List<DefinitionInfo> byMember = finder.findDefinitions(index, "com.example.demo.service.UserService.createUser");
+        assertFalse(byMember.isEmpty(), "全限定方法名应找到方法定义");
+        assertEquals("com.example.demo.service.UserService", byMember.get(0).getScope());
+
+        assertEquals(finder.findDefinitions(facts, "createUser").size(), finder.findDefinitions(index, "createUser").size(),
+            "复用索引与重新构建的结果应一致");
+        assertTrue(finder.findDefinitions(index, "noSuchSymbol").isEmpty());
+        System.out.println("✓ 全局符号索引测试完成");
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("测试调用点候选方法选择")
+    void testCalleeSelection() throws Exception {
+        System.out.println("\n=== 测试调用点候选方法选择 ===");
+        ProjectParser parser = new ProjectParser();
+        ProjectFacts facts = new FactCollector(parser, null).collect(parser.load(testCodePath));
+        Map<String, CallGraphNode> first = new CallGraphAnalyzer(parser, null, CallGraphAnalyzer.CalleeSelection.FIRST).buildCallGraph(facts);
+        Map<String, CallGraphNode> all = new CallGraphAnalyzer(parser, null, CallGraphAnalyzer.CalleeSelection.ALL).buildCallGraph(facts);
+
+        int firstEdges = 0;
+        int allEdges = 0;
+        for (Map.Entry<String, CallGraphNode> entry : first.entrySet()) {
+            List<String> allCallees = all.get(entry.getKey()).getCallees();
+            assertTrue(allCallees.containsAll(entry.getValue().getCallees()), "FIRST 的边应是 ALL 的子集: " + entry.getKey());
+            firstEdges += entry.getValue().getCallees().size();
+            allEdges += allCallees.size();
+        }
+        assertTrue(allEdges > firstEdges, "ALL 应包含更多候选边");
+        assertTrue(all.values().stream().flatMap(n -> n.getCallSites().stream())
+            .anyMatch(site -> "AMBIGUOUS".equals(site.getCallType())), "多个候选的调用点应标记为 AMBIGUOUS");
+        System.out.println("✓ FIRST " + firstEdges + " 条边，ALL " + allEdges + " 条边");
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("测试紧凑调用图")
+    void testCompactCallGraph() throws Exception {
+        System.out.println("\n=== 测试紧凑调用图 ===");
+        CallGraphBuilder builder = new CallGraphBuilder();
+        int a = builder.addMethod("A.a()", "A", "a", "A.java:L1-L3");
+        int b = builder.addMethod("B.b()", "B", "b", "B.java:L1-L3");
+        assertEquals(a, builder.addMethod("A.a()", "A", "a", "Other.java:L1-L3"), "重复签名应返回已有 ID");
+        builder.addCall(a, b, "A.java:L2:C9", CallGraph.CALL_TYPE_DIRECT);
+        builder.addCall(a, b, "A.java:L3:C9", CallGraph.CALL_TYPE_DIRECT);
+        builder.addCall(b, a, "B.java:L2:C9", CallGraph.CALL_TYPE_AMBIGUOUS);
+        CallGraph graph = builder.build();
+
+        assertEquals(2, graph.size());
+        assertEquals(2, graph.edgeCount(), "重复的调用边应去重");
+        assertEquals(3, graph.callSiteCount(), "调用点不去重");
+        assertArrayEquals(new int[]{b}, graph.callees(a));
+        assertArrayEquals(new int[]{b}, graph.callers(a));
+
+        Map<String, CallGraphNode> nodes = graph.toNodeMap();
+        assertEquals(List.of("B.b()"), nodes.get("A.a()").getCallees());
+        assertEquals(List.of("B.b()"), nodes.get("A.a()").getCallers());
+        assertEquals(2, nodes.get("A.a()").getCallSites().size());
+        assertEquals("A.java:L1-L3", nodes.get("A.a()").getCodePos(), "先添加的节点信息应保留");
+        assertEquals("AMBIGUOUS", nodes.get("B.b()").getCallSites().get(0).getCallType());
+
+        ProjectParser parser = new ProjectParser();
+        ProjectFacts facts = new FactCollector(parser, null).collect(parser.load(testCodePath));
+        CallGraph projectGraph = new CallGraphAnalyzer(parser).buildCompactGraph(facts);
+        assertEquals(projectGraph.size(), projectGraph.toNodeMap().size());
+        System.out.println("✓ " + projectGraph.size() + " 个方法，" + projectGraph.edgeCount() + " 条调用边");
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("测试行偏移索引")
+    void testLineIndex() throws Exception {
+        System.out.println("\n=== 测试行偏移索引 ===");
+        LineIndex index = LineIndex.of("a\nbb\r\nccc\rd\n");
+        assertEquals(4, index.getLineCount(), "末尾换行不应产生额外的空行");
+        assertEquals("a", index.getLine(1));
+        assertEquals("bb", index.getLine(2));
+        assertEquals("ccc", index.getLine(3));
+        assertEquals("d", index.getLine(4));
+        assertNull(index.getLine(0));
+        assertNull(index.getLine(5));
+        assertEquals(0, LineIndex.of("").getLineCount());
+
+        ProjectParser parser = new ProjectParser();
+        ParsedProject project = parser.parse(testCodePath);
+        for (ParsedFile file : project.getFiles()) {
+            List<String> lines = Files.readAllLines(file.getPath());
+            assertEquals(lines.size(), file.getLineIndex().getLineCount(), "行数应与 readAllLines 一致: " + file.getRelativePath());
+            for (int i = 0; i < lines.size(); i++) {
+                assertEquals(lines.get(i), file.getLineIndex().getLine(i + 1));
+            }
+        }
+        System.out.println("✓ 行偏移索引测试完成");
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("测试 NDJSON 流式输出")
+    void testNdjsonOutput() throws Exception {
+        System.out.println("\n=== 测试 NDJSON 流式输出 ===");
+        Path outputFile = tempOutputDir.resolve("call_graph.ndjson");
+        String[] args = {
+            testCodePath.toString(),
+            "CG",
+            "-format", "ndjson",
+            "-o", outputFile.toString()
+        };
+        assertDoesNotThrow(() -> Main.main(args), "NDJSON 输出不应抛出异常");
+
+        List<String> lines = Files.readAllLines(outputFile);
+        Map<String, CallGraphNode> expected = new CallGraphAnalyzer().buildCallGraph(testCodePath.toString());
+        assertEquals(expected.size(), lines.size(), "每个方法节点应输出一行");
+        List<String> signatures = new ArrayList<>();
+        for (String line : lines) {
+            Map<String, Object> node = objectMapper.readValue(line, new TypeReference<Map<String, Object>>() {});
+            assertTrue(node.containsKey("callees"), "节点应包含 callees");
+            signatures.add((String) node.get("method_signature"));
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), signatures, "节点顺序应与 JSON 输出一致");
+        assertFalse(Files.exists(tempOutputDir.resolve("call_graph.svg")), "未指定 -img 时不应生成图片");
+        System.out.println("✓ 输出 " + lines.size() + " 行");
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("测试批量符号定义查找")
+    void testBatchDefinitionFinding() throws Exception {
+        System.out.println("\n=== 测试批量符号定义查找 ===");
+        Path symbolsFile = tempOutputDir.resolve("symbols.txt");
+        Files.writeString(symbolsFile, "EmailService\n\nUserRepository\n");
+        Path outputFile = tempOutputDir.resolve("definitions_batch.json");
+        String[] args = {
+            testCodePath.toString(),
+            "DEF",
+            "-s", "User",
+            "-s", "noSuchSymbol",
+            "-symbols", symbolsFile.toString(),
+            "-o", outputFile.toString()
+        };
+        assertDoesNotThrow(() -> Main.main(args), "批量查找不应抛出异常");
+
+        Map<String, List<Map<String, Object>>> results = objectMapper.readValue(outputFile.toFile(),
+            new TypeReference<Map<String, List<Map<String, Object>>>>() {});
+        assertEquals(List.of("User", "noSuchSymbol", "EmailService", "UserRepository"), new ArrayList<>(results.keySet()),
+            "结果应按输入顺序包含每个符号");
+        assertTrue(results.get("noSuchSymbol").isEmpty());
+        DefinitionFinder finder = new DefinitionFinder();
+        for (String symbol : List.of("User", "EmailService", "UserRepository")) {
+            assertEquals(finder.findDefinitions(testCodePath.toString(), symbol).size(), results.get(symbol).size(),
+                "批量结果应与单个查询一致: " + symbol);
+        }
+        System.out.println("✓ 批量查找 " + results.size() + " 个符号");
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("测试全限定名定义查找只解析候选文件")
+    void testQualifiedDefinitionLazyLoading() throws Exception {
+        System.out.println("\n=== 测试全限定名定义查找只解析候选文件 ===");
+        ProjectParser parser = new ProjectParser(1, false);
+        ParsedProject candidates = parser.load(testCodePath,
+                path -> path.endsWith("/UserService.java") || path.endsWith("/UserService/createUser.java"));
+        assertEquals(1, candidates.size(), "只应读取 UserService.java");
+
+        DefinitionFinder finder = new DefinitionFinder();
+        ParsedProject full = parser.parse(testCodePath);
+        for (String symbol : List.of("com.example.demo.service.UserService",
+                "com.example.demo.service.UserService.createUser",
+                "com.example.demo.entity.User.id",
+                "com.example.demo.repository.UserRepository.findByEmail",
+                "com.example.demo.service.NoSuchService")) {
+            List<String> lazy = finder.findDefinitions(testCodePath.toString(), symbol).stream()
+                    .map(DefinitionInfo::getCodePos).toList();
+            List<String> expected = finder.findDefinitions(full, symbol).stream()
+                    .map(DefinitionInfo::getCodePos).toList();
+            assertEquals(expected, lazy, "候选文件查找结果应与全量扫描一致: " + symbol);
+        }
+        System.out.println("✓ 全限定名查找与全量扫描结果一致");
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("测试字节级预过滤")
+    void testSourcePrefilter() throws Exception {
+        System.out.println("\n=== 测试字节级预过滤 ===");
+        // 跨越 8 字节边界、位于末尾以及超过映射阈值的大文件
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            padding.append("class X").append(i).append(" {}\n");
+        }
+        Path large = tempOutputDir.resolve("Large.java");
+        Files.writeString(large, padding + "@RestController");
+        assertTrue(SourcePrefilter.anyOf("RestController").matches(large), "大文件末尾的关键字应被找到");
+        assertFalse(SourcePrefilter.anyOf("RestControllers").matches(large));
+        for (int offset = 0; offset < 16; offset++) {
+            String content = "x".repeat(offset) + "createUser" + "y".repeat(offset);
+            assertTrue(SourcePrefilter.anyOf("createUser").matches(ByteBuffer.wrap(content.getBytes())), "偏移 " + offset);
+            assertFalse(SourcePrefilter.anyOf("createUsers").matches(ByteBuffer.wrap(content.getBytes())), "偏移 " + offset);
+        }
+
+        ProjectParser parser = new ProjectParser();
+        ParsedProject controllers = parser.load(testCodePath, SourcePrefilter.anyOf("Controller"));
+        assertEquals(parser.load(testCodePath).size(), controllers.size() + controllers.getSkippedFiles());
+        assertTrue(controllers.getSkippedFiles() > 0, "不含 Controller 的文件应被跳过");
+        List<String> apis = new ApiExtractor(parser).extractApiInfo(testCodePath.toString(), null).stream()
+                .map(ApiInfo::getCodePos).toList();
+        List<String> expectedApis = new ApiExtractor(parser).extractApiInfo(parser.parse(testCodePath), null).stream()
+                .map(ApiInfo::getCodePos).toList();
+        assertEquals(expectedApis, apis, "预过滤不应改变 API 结果");
+
+        ReferenceFinder finder = new ReferenceFinder(parser);
+        for (String symbol : List.of("createUser", "userRepository", "User", "noSuchSymbol")) {
+            List<String> filtered = finder.findReferences(testCodePath.toString(), symbol).stream()
+                    .map(ReferenceInfo::getCodePos).toList();
+            List<String> expected = finder.findReferences(parser.parse(testCodePath), symbol, null, -1).stream()
+                    .map(ReferenceInfo::getCodePos).toList();
+            assertEquals(expected, filtered, "预过滤不应改变引用结果: " + symbol);
+        }
+        System.out.println("✓ 预过滤跳过 " + controllers.getSkippedFiles() + " 个文件，结果与全量解析一致");
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("测试合成 Spring 项目上的分析")
+    void testSyntheticProject() throws Exception {
+        System.out.println("\n=== 测试合成 Spring 项目上的分析 ===");
+        SpringProjectGenerator generator = SpringProjectGenerator.ofFileCount(300).callDepth(3).fanOut(2);
+        Path projectDir = tempOutputDir.resolve("synthetic");
+        int files = generator.generate(projectDir);
+        ProjectParser parser = new ProjectParser();
+        assertEquals(files, parser.load(projectDir).size(), "生成的文件应全部被收集");
+        assertEquals(files, generator.generate(tempOutputDir.resolve("synthetic-again")), "相同参数应生成相同的项目");
+
+        List<ApiInfo> apis = new ApiExtractor(parser).extractApiInfo(projectDir.toString(), null);
+        assertEquals(generator.getControllers() * 3, apis.size(), "每个 Controller 生成 3 个 API");
+
+        int interfaces = 0;
+        for (int i = 0; i < generator.getServices(); i++) {
+            interfaces += generator.hasInterface(i) ? 1 : 0;
+        }
+        assertTrue(interfaces > 0 && interfaces < generator.getServices(), "接口与实现应按比例混合");
+        List<DefinitionInfo> definitions = new DefinitionFinder(parser).findDefinitions(projectDir.toString(), "step0");
+        assertEquals(generator.getServices() + interfaces, definitions.size(), "每个 Service 类和接口各有一个 step0");
+
+        Map<String, CallGraphNode> callGraph = new CallGraphAnalyzer(parser).buildCallGraph(projectDir.toString());
+        CallGraphNode entry = callGraph.values().stream()
+                .filter(node -> node.getMethodSignature().startsWith("Controller0.get("))
+                .findFirst().orElseThrow();
+        assertFalse(entry.getCallees().isEmpty(), "Controller 方法应调用 Service");
+        System.out.println("✓ 合成项目 " + files + " 个文件，" + apis.size() + " 个 API，调用图 " + callGraph.size() + " 个方法");
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("测试分阶段统计报告")
+    void testStatsReport() throws Exception {
+        System.out.println("\n=== 测试分阶段统计报告 ===");
+        Path statsFile = tempOutputDir.resolve("stats.json");
+        String[] args = {
+            testCodePath.toString(),
+            "CG",
+            "-o", tempOutputDir.resolve("call_graph_stats.json").toString(),
+            "-no-image",
+            "-stats", statsFile.toString(),
+            "-stats-top", "3"
+        };
+        assertDoesNotThrow(() -> Main.main(args), "带 -stats 的调用图构建不应抛出异常");
+        assertNull(AnalysisStats.current(), "报告写出后应停止统计");
+
+        Map<String, Object> report = objectMapper.readValue(statsFile.toFile(), new TypeReference<Map<String, Object>>() {});
+        assertTrue(((Number) report.get("wall_ms")).doubleValue() > 0);
+        List<Map<String, Object>> phases = (List<Map<String, Object>>) report.get("phases");
+        List<String> names = phases.stream().map(phase -> (String) phase.get("name")).toList();
+        assertEquals(List.of("walk", "read", "facts", "call_graph.methods", "call_graph.calls", "call_graph.nodes", "output"), names);
+        int fileCount = new ProjectParser().load(testCodePath).size();
+        assertEquals(fileCount, ((Number) phases.get(0).get("files")).intValue(), "walk 阶段应记录文件数");
+        for (Map<String, Object> phase : phases) {
+            assertTrue(phase.containsKey("wall_ms") && phase.containsKey("cpu_ms") && phase.containsKey("allocated_bytes"),
+                "每个阶段都应有耗时和分配统计: " + phase.get("name"));
+        }
+
+        Map<String, Object> parse = (Map<String, Object>) report.get("parse");
+        assertEquals(fileCount, ((Number) parse.get("files")).intValue());
+        List<Map<String, Object>> slowest = (List<Map<String, Object>>) parse.get("slowest");
+        assertEquals(3, slowest.size(), "应只列出最慢的 3 个文件");
+        assertTrue(((Number) slowest.get(0).get("ms")).doubleValue() >= ((Number) slowest.get(2).get("ms")).doubleValue(),
+            "最慢的文件应排在前面");
+        System.out.println("✓ 统计报告包含 " + phases.size() + " 个阶段");
+    }
+
+    @Test
+    @Order(17)
+    @DisplayName("测试 JFR 事件")
+    void testFlightRecorderEvents() throws Exception {
+        System.out.println("\n=== 测试 JFR 事件 ===");
+        Path recordingFile = tempOutputDir.resolve("analysis.jfr");
+        ProjectParser parser = new ProjectParser();
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("SA.Parse", "SA.Visitor", "SA.CallResolution", "SA.CallGraph", "SA.Query")) {
+                recording.enable(event);
+            }
+            recording.start();
+            new CallGraphAnalyzer(parser).buildCompactGraph(testCodePath.toString());
+            new DefinitionFinder(parser).findDefinitions(testCodePath.toString(), "User");
+            new ReferenceFinder(parser).findReferences(testCodePath.toString(), "createUser");
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        Map<String, List<RecordedEvent>> events = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+            events.computeIfAbsent(event.getEventType().getName(), k -> new ArrayList<>()).add(event);
+        }
+        int fileCount = parser.load(testCodePath).size();
+        assertTrue(events.get("SA.Parse").size() >= fileCount, "每个文件至少有一次解析事件");
+        assertTrue(events.get("SA.Parse").stream().allMatch(e -> e.getInt("nodes") > 0 && e.getString("file").endsWith(".java")));
+        assertEquals(fileCount, events.get("SA.CallResolution").size(), "调用解析按文件分批");
+        RecordedEvent callGraph = events.get("SA.CallGraph").get(0);
+        assertTrue(callGraph.getInt("methods") > 0 && callGraph.getInt("edges") > 0);
+        List<String> queries = events.get("SA.Query").stream().map(e -> e.getString("command") + " " + e.getString("symbol")).toList();
+        assertEquals(List.of("DEF User", "REF createUser"), queries);
+        System.out.println("✓ 记录到 " + events.values().stream().mapToInt(List::size).sum() + " 个 SA 事件");
+    }
+
+    @Test
+    @Order(18)
+    @DisplayName("测试流式 DOT/SVG 输出")
+    void testStreamingGraphOutput() throws Exception {
+        System.out.println("\n=== 测试流式 DOT/SVG 输出 ===");
+        Map<String, CallGraphNode> callGraph = new CallGraphAnalyzer().buildCallGraph(testCodePath.toString());
+        int edges = callGraph.values().stream()
+                .mapToInt(node -> (int) node.getCallees().stream().filter(callGraph::containsKey).count())
+                .sum();
+        assertTrue(edges > 0, "测试项目应有调用边");
+
+        Path dotFile = tempOutputDir.resolve("streaming.dot");
+        new CallGraphVisualizer(callGraph).visualize(dotFile.toString(), CallGraphVisualizer.LayoutEngine.DOT, false);
+        String dot = Files.readString(dotFile);
+        assertTrue(dot.startsWith("digraph \"callgraph\" {"));
+        for (String signature : callGraph.keySet()) {
+            assertTrue(dot.contains("\"" + signature + "\" [label="), "DOT 应包含节点: " + signature);
+        }
+        assertEquals(edges, dot.lines().filter(line -> line.contains(" -> ")).count(), "DOT 应包含所有边");
+
+        Path svgFile = tempOutputDir.resolve("streaming.svg");
+        new CallGraphVisualizer(callGraph).setRenderer(CallGraphVisualizer.Renderer.NATIVE)
+                .visualize(svgFile.toString(), CallGraphVisualizer.LayoutEngine.DOT, false);
+        org.w3c.dom.Document svg = javax.xml.parsers.DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder().parse(svgFile.toFile());
+        assertEquals(callGraph.size(), svg.getElementsByTagName("rect").getLength(), "SVG 应为每个方法画一个节点");
+        // 除箭头标记外每条边一个 path
+        assertEquals(edges + 1, svg.getElementsByTagName("path").getLength(), "SVG 应包含所有边");
+        System.out.println("✓ 流式输出 " + callGraph.size() + " 个节点，" + edges + " 条边");
+    }
+
+    @Test
+    @Order(19)
+    @DisplayName("测试按入口切片调用图")
+    void testCallGraphSlice() throws Exception {
+        System.out.println("\n=== 测试按入口切片调用图 ===");
+        CallGraph graph = new CallGraphAnalyzer().buildCompactGraph(testCodePath.toString());
+        int[] roots = graph.findMethods("UserController.getUserDetails");
+        assertEquals(1, roots.length, "类名.方法名应匹配唯一的方法");
+        assertArrayEquals(roots, graph.findMethods("com.example.demo.controller.UserController.getUserDetails"), "类名可以带包名");
+        assertArrayEquals(roots, graph.findMethods(graph.signature(roots[0])), "完整签名应精确匹配");
+        assertEquals(0, graph.findMethods("UserController.noSuchMethod").length);
+
+        ApiInfo api = new ApiExtractor().extractApiInfo(testCodePath.toString(), null).stream()
+                .filter(info -> "getUserDetails".equals(info.getMethodName()))
+                .findFirst().orElseThrow();
+        assertArrayEquals(roots, graph.findMethods(api), "API 接口应映射到 Controller 方法");
+
+        CallGraph oneHop = graph.subgraph(roots, 1, CallGraph.Direction.CALLEES);
+        Set<String> expected = new HashSet<>();
+        expected.add(graph.signature(roots[0]));
+        for (int callee : graph.callees(roots[0])) {
+            expected.add(graph.signature(callee));
+        }
+        assertEquals(expected, oneHop.toNodeMap().keySet(), "1 跳子图应只包含入口和它直接调用的方法");
+
+        // 子图中的边应与原图中这些节点之间的边一致
+        CallGraph full = graph.subgraph(roots, -1, CallGraph.Direction.CALLEES);
+        for (int id = 0; id < full.size(); id++) {
+            int original = graph.idOf(full.signature(id));
+            List<String> originalCallees = Arrays.stream(graph.callees(original)).mapToObj(graph::signature).toList();
+            List<String> sliceCallees = Arrays.stream(full.callees(id)).mapToObj(full::signature).toList();
+            assertEquals(originalCallees, sliceCallees, "不限深度的被调方法子图应保留全部出边: " + full.signature(id));
+        }
+        assertTrue(full.size() > oneHop.size(), "不限深度应包含间接调用的方法");
+
+        int target = graph.findMethods("UserController.calculateUserStatistics")[0];
+        CallGraph callers = graph.subgraph(new int[]{target}, -1, CallGraph.Direction.CALLERS);
+        assertTrue(callers.idOf(graph.signature(roots[0])) >= 0, "调用者子图应包含间接调用者");
+        for (int id = 0; id < callers.size(); id++) {
+            assertTrue(callers.signature(id).startsWith("UserController."), "调用者均在 UserController 中");
+        }
+        System.out.println("✓ 切片 " + oneHop.size() + "/" + full.size() + " 个方法，调用者 " + callers.size() + " 个");
+    }
+
+    @Test
+    @Order(20)
+    @DisplayName("测试接口可达性")
+    void testEndpointReachability() throws Exception {
+        System.out.println("\n=== 测试接口可达性 ===");
+        // 强连通分量：a <-> b 成环，b -> c；d 只被 c 调用
+        CallGraphBuilder builder = new CallGraphBuilder();
+        int a = builder.addMethod("A.a()", "A", "a", null);
+        int b = builder.addMethod("A.b()", "A", "b", null);
+        int c = builder.addMethod("A.c()", "A", "c", null);
+        int d = builder.addMethod("A.d()", "A", "d", null);
+        builder.addCall(a, b, null, CallGraph.CALL_TYPE_DIRECT);
+        builder.addCall(b, a, null, CallGraph.CALL_TYPE_DIRECT);
+        builder.addCall(b, c, null, CallGraph.CALL_TYPE_DIRECT);
+        builder.addCall(c, d, null, CallGraph.CALL_TYPE_DIRECT);
+        Reachability small = Reachability.compute(builder.build(), new int[][]{{b}, {c}, {}});
+        assertEquals(3, small.componentCount(), "a、b 应缩成一个分量");
+        assertArrayEquals(new int[]{a, b, c, d}, small.reachableFrom(0));
+        assertArrayEquals(new int[]{c, d}, small.reachableFrom(1));
+        assertEquals(0, small.reachableFrom(2).length, "没有入口方法的接口不可达任何方法");
+        assertArrayEquals(new int[]{0, 1}, small.endpointsReaching(d));
+        assertTrue(small.reaches(0, a) && !small.reaches(1, a));
+
+        // 合成项目：接口数超过 64，位图跨多个字；结果应与逐个接口 BFS 一致
+        Path projectDir = tempOutputDir.resolve("synthetic-reach");
+        SpringProjectGenerator.ofFileCount(400).callDepth(3).fanOut(2).generate(projectDir);
+        ProjectParser parser = new ProjectParser();
+        ProjectFacts facts = new FactCollector(parser, null).collect(parser.load(projectDir));
+        List<ApiInfo> apis = new ApiExtractor(parser).extractApiInfo(facts, null);
+        CallGraph graph = new CallGraphAnalyzer(parser).buildCompactGraph(facts);
+        assertTrue(apis.size() > 64, "接口数应超过一个字: " + apis.size());
+        EndpointReachability reachability = EndpointReachability.build(apis, graph);
+        for (int e = 0; e < apis.size(); e++) {
+            CallGraph slice = graph.subgraph(graph.findMethods(apis.get(e)), -1, CallGraph.Direction.CALLEES);
+            Set<String> expected = new HashSet<>(slice.toNodeMap().keySet());
+            String name = apis.get(e).getControllerName() + "." + apis.get(e).getMethodName();
+            assertEquals(expected, new HashSet<>(reachability.reachableFrom(name)), "可达方法应与 BFS 一致: " + name);
+        }
+
+        String first = apis.get(0).getControllerName() + "." + apis.get(0).getMethodName();
+        List<String> fromFirst = reachability.reachableFrom(first);
+        String target = fromFirst.get(fromFirst.size() - 1);
+        List<ApiInfo> reaching = reachability.endpointsReaching(target);
+        assertTrue(reaching.contains(apis.get(0)), "第一个接口应到达 " + target);
+        for (ApiInfo api : apis) {
+            boolean reaches = reachability.reachableFrom(api.getControllerName() + "." + api.getMethodName()).contains(target);
+            assertEquals(reaches, reaching.contains(api), "两个方向的查询应一致: " + api.getMethodName());
+        }
+
+        // 保存后重新加载，查询结果不变
+        Path reportFile = tempOutputDir.resolve("reach.json");
+        objectMapper.writeValue(reportFile.toFile(), reachability.toReport());
+        EndpointReachability loaded = EndpointReachability.read(reportFile);
+        assertEquals(reaching.size(), loaded.endpointsReaching(target).size());
+        assertEquals(new HashSet<>(fromFirst), new HashSet<>(loaded.reachableFrom(first)));
+        System.out.println("✓ " + apis.size() + " 个接口，" + reachability.getReachability().componentCount()
+                + " 个分量，" + reaching.size() + " 个接口到达 " + target);
+    }
+
+    @Test
+    @Order(21)
+    @DisplayName("测试危险调用链")
+    void testSinkPaths() throws Exception {
+        System.out.println("\n=== 测试危险调用链 ===");
+        Path projectDir = tempOutputDir.resolve("sink-app");
+        Files.createDirectories(projectDir.resolve("demo"));
+        Files.writeString(projectDir.resolve("demo/VulnController.java"), String.join("\n",
+                "package demo;",
+                "import org.springframework.web.bind.annotation.*;",
+                "@RestController",
+                "public class VulnController {",
+                "    private final VulnService service = new VulnService();",
+                "    @GetMapping(\"/user\")",
+                "    public String user(@RequestParam String name) { return service.findUser(name); }",
+                "    @PostMapping(\"/run\")",
+                "    public void run(@RequestParam String cmd) throws Exception { service.runCommand(cmd); }",
+                "    @PostMapping(\"/import\")",
+                "    public Object importData(@RequestBody byte[] data) throws Exception { return service.deserialize(data); }",
+                "    @GetMapping(\"/ping\")",
+                "    public String ping() { return \"pong\"; }",
+                "}"));
+        Files.writeString(projectDir.resolve("demo/VulnService.java"), String.join("\n",
+                "package demo;",
+                "import java.io.*;",
+                "import java.sql.*;",
+                "public class VulnService {",
+                "    private Connection connection;",
+                "    public String findUser(String name) { return query(\"select * from users where name = '\" + name + \"'\"); }",
+                "    private String query(String sql) {",
+                "        try {",
+                "            Statement statement = connection.createStatement();",
+                "            return statement.executeQuery(sql).getString(1);",
+                "        } catch (SQLException e) { return null; }",
+                "    }",
+                "    public void runCommand(String cmd) throws IOException {",
+                "        Runtime.getRuntime().exec(cmd);",
+                "        new ProcessBuilder(cmd).start();",
+                "    }",
+                "    public Object deserialize(byte[] data) throws Exception {",
+                "        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data));",
+                "        return in.readObject();",
+                "    }",
+                "}"));
+
+        SinkAnalyzer analyzer = new SinkAnalyzer();
+        List<SinkPath> paths = analyzer.findSinkPaths(projectDir.toString(), SinkAnalyzer.DEFAULT_MAX_DEPTH, SinkAnalyzer.DEFAULT_MAX_PATHS);
+        Map<String, List<String>> sinksByApi = new HashMap<>();
+        for (SinkPath path : paths) {
+            sinksByApi.computeIfAbsent(path.getApi().getMethodName(), k -> new ArrayList<>()).add(path.getSink().getSink());
+            assertEquals(path.getSink().getMethodSignature(), path.getCallChain().get(path.getCallChain().size() - 1),
+                    "调用链应止于 sink 所在方法");
+        }
+        assertEquals(List.of("Statement.executeQuery"), sinksByApi.get("user"));
+        assertEquals(List.of("Runtime.exec", "new ProcessBuilder"), sinksByApi.get("run"));
+        assertEquals(List.of("new ObjectInputStream", "ObjectInputStream.readObject"), sinksByApi.get("importData"));
+        assertFalse(sinksByApi.containsKey("ping"), "不调用 sink 的接口不应出现");
+
+        SinkPath sqlPath = paths.stream().filter(p -> p.getApi().getMethodName().equals("user")).findFirst().orElseThrow();
+        assertEquals("sql", sqlPath.getSink().getCategory());
+        assertEquals(List.of("VulnController.user(String)", "VulnService.findUser(String)", "VulnService.query(String)"),
+                sqlPath.getCallChain());
+
+        // 深度与条数上限：SQL 调用链为 2 跳，-depth 1 时被排除；每个接口至多 1 条
+        List<SinkPath> bounded = analyzer.findSinkPaths(projectDir.toString(), 1, 1);
+        assertTrue(bounded.stream().noneMatch(p -> p.getApi().getMethodName().equals("user")), "超过深度的调用链应被排除");
+        assertEquals(2, bounded.size(), "run 与 importData 各 1 条");
+
+        // 自定义目录：只保留命令执行
+        SinkCatalog catalog = SinkCatalog.parse(List.of("# 只关心命令执行", "command Runtime.exec"), "test");
+        assertEquals(1, catalog.size());
+        List<SinkPath> custom = new SinkAnalyzer(new ProjectParser(), null, catalog)
+                .findSinkPaths(projectDir.toString(), SinkAnalyzer.DEFAULT_MAX_DEPTH, SinkAnalyzer.DEFAULT_MAX_PATHS);
+        assertEquals(1, custom.size());
+        assertEquals("Runtime.exec", custom.get(0).getSink().getSink());
+        assertThrows(IllegalArgumentException.class, () -> SinkCatalog.parse(List.of("sql executeQuery"), "test"));
+        System.out.println("✓ " + paths.size() + " 条调用链，覆盖 " + sinksByApi.size() + " 个接口");
+    }
+
+    @Test
+    @Order(22)
+    @DisplayName("测试方法内参数数据流")
+    void testParamDataflow() throws Exception {
+        System.out.println("\n=== 测试方法内参数数据流 ===");
+        MethodDeclaration method = StaticJavaParser.parse(String.join("\n",
+                "class Flows {",
+                "    private String last;",
+                "    String handle(String a, String b, int n) {",
+                "        String x = a;",
+                "        x = \"const\";",
+                "        sink1(x);",
+                "        String y = b;",
+                "        if (n > 0) { y = a; }",
+                "        sink2(y);",
+                "        String acc = \"\";",
+                "        for (int i = 0; i < n; i++) { acc = acc + b; }",
+                "        sink3(acc);",
+                "        String[] arr = new String[1];",
+                "        arr[0] = a;",
+                "        sink4(arr);",
+                "        String t = null;",
+                "        try { t = b; risky(); } catch (Exception e) { sink5(t); }",
+                "        while (true) { if (n > 1) break; x = b; }",
+                "        sink6(x);",
+                "        this.last = a;",
+                "        return y;",
+                "    }",
+                "}")).findFirst(MethodDeclaration.class).orElseThrow();
+        MethodDataflow dataflow = MethodDataflow.analyze(method);
+        Map<String, Set<String>> flows = new HashMap<>();
+        for (MethodDataflow.CallFlow flow : dataflow.getCallFlows()) {
+            String callee = ((MethodCallExpr) flow.call()).getNameAsString();
+            flows.computeIfAbsent(callee, k -> new TreeSet<>()).addAll(dataflow.parameterNames(flow.parameters()));
+        }
+        assertFalse(flows.containsKey("sink1"), "被常量覆盖的定义不应到达");
+        assertEquals(Set.of("a", "b"), flows.get("sink2"), "两个分支的定义都应到达");
+        assertEquals(Set.of("b"), flows.get("sink3"), "循环中累积的值");
+        assertEquals(Set.of("a"), flows.get("sink4"), "数组元素赋值为弱定义");
+        assertEquals(Set.of("b"), flows.get("sink5"), "catch 应看到 try 块中的定义");
+        assertEquals(Set.of("b"), flows.get("sink6"), "循环中的定义经 break 到达");
+        assertEquals(List.of("a", "b"), dataflow.parameterNames(dataflow.getReturnFlow()));
+        assertEquals(List.of("a"), dataflow.parameterNames(dataflow.getFieldFlows().get("last")));
+
+        // 接口：参数经局部变量中转后流入的调用
+        ApiInfo api = new ApiExtractor().extractApiInfo(testCodePath.toString(), null).stream()
+                .filter(a -> a.getMethodName().equals("getUserDetails")).findFirst().orElseThrow();
+        List<ParamFlow> paramFlows = api.getParamFlows();
+        assertTrue(paramFlows.stream().anyMatch(f -> f.getParam().equals("userId")
+                && f.getCallee().equals("UserService.getUserInfo") && f.getArgIndex() == 0), "userId 应流入 getUserInfo");
+        assertTrue(paramFlows.stream().anyMatch(f -> f.getParam().equals("userId")
+                && f.getCallee().equals("UserController.filterFields") && f.getArgIndex() == 0), "userInfo 由 userId 得到");
+        assertTrue(paramFlows.stream().noneMatch(f -> f.getParam().equals("includeStats")), "只用作条件的参数不流入调用");
+        System.out.println("✓ getUserDetails 的参数流: " + paramFlows.size() + " 条");
+    }
+
+    @Test
+    @Order(23)
+    @DisplayName("测试跨方法污点摘要")
+    void testTaintSummaries() throws Exception {
+        System.out.println("\n=== 测试跨方法污点摘要 ===");
+        Path projectDir = tempOutputDir.resolve("taint-app");
+        Files.createDirectories(projectDir.resolve("demo"));
+        Files.writeString(projectDir.resolve("demo/TaintController.java"), String.join("\n",
+                "package demo;",
+                "import org.springframework.web.bind.annotation.*;",
+                "@RestController",
+                "public class TaintController {",
+                "    private final TaintService service = new TaintService();",
+                "    @GetMapping(\"/user\")",
+                "    public String user(@RequestParam String name, @RequestParam int page) { return service.findUser(name, page); }",
+                "    @GetMapping(\"/count\")",
+                "    public int count(@RequestParam String name) { return service.countUsers(); }",
+                "    @PostMapping(\"/save\")",
+                "    public void save(@RequestParam String name) { service.remember(name); }",
+                "    @GetMapping(\"/chain\")",
+                "    public String chain(@RequestParam String q) throws java.io.IOException { return service.helper(q).run(\"ls\"); }",
+                "    @GetMapping(\"/command\")",
+                "    public String command(@RequestParam String cmd) throws java.io.IOException { return service.helper(\"x\").run(cmd); }",
+                "}"));
+        Files.writeString(projectDir.resolve("demo/TaintService.java"), String.join("\n",
+                "package demo;",
+                "import java.sql.*;",
+                "public class TaintService {",
+                "    private Connection connection;",
+                "    private String last;",
+                "    public String findUser(String name, int page) {",
+                "        String sql = \"select * from users where name = '\" + name + \"'\";",
+                "        return retry(sql, page);",
+                "    }",
+                "    private String retry(String sql, int attempts) {",
+                "        if (attempts > 0) { return retry(sql, attempts - 1); }",
+                "        return execute(sql);",
+                "    }",
+                "    private String execute(String query) {",
+                "        try {",
+                "            Statement statement = connection.createStatement();",
+                "            return statement.executeQuery(query).getString(1);",
+                "        } catch (SQLException e) { return null; }",
+                "    }",
+                "    public int countUsers() {",
+                "        try {",
+                "            return connection.createStatement().executeQuery(\"select count(*) from users\").getInt(1);",
+                "        } catch (SQLException e) { return 0; }",
+                "    }",
+                "    public void remember(String value) { this.last = value.trim(); }",
+                "    public TaintService helper(String value) { return this; }",
+                "    public String run(String command) throws java.io.IOException {",
+                "        Runtime.getRuntime().exec(command);",
+                "        return command;",
+                "    }",
+                "}"));
+
+        TaintAnalyzer analyzer = new TaintAnalyzer();
+        List<TaintFlow> flows = analyzer.analyze(projectDir.toString());
+        // 链式调用 service.helper(q).run(...) 的两个调用起始位置相同，各自的实参流不能串用
+        assertEquals(List.of("user", "command"), flows.stream().map(f -> f.getApi().getMethodName()).toList(),
+                "只有 user 和 command 的参数流入 sink：" + flows);
+        TaintFlow command = flows.get(1);
+        assertEquals(List.of("cmd"), command.getParams());
+        assertEquals("Runtime.exec", command.getSink().getSink());
+        TaintFlow flow = flows.get(0);
+        assertEquals("user", flow.getApi().getMethodName());
+        assertEquals(List.of("name"), flow.getParams(), "page 只影响递归次数，不流入 SQL");
+        assertEquals("Statement.executeQuery", flow.getSink().getSink());
+        assertEquals("TaintService.execute(String)", flow.getSink().getMethodSignature());
+        assertEquals(List.of("TaintController.user(String, int)", "TaintService.findUser(String, int)",
+                "TaintService.retry(String, int)", "TaintService.execute(String)"), flow.getCallChain());
+
+        // 常量 SQL 的 sink 调用在 SINK 中可达，但没有参数流入
+        assertTrue(new SinkAnalyzer().findSinkPaths(projectDir.toString(), SinkAnalyzer.DEFAULT_MAX_DEPTH,
+                SinkAnalyzer.DEFAULT_MAX_PATHS).stream().anyMatch(p -> p.getApi().getMethodName().equals("count")));
+
+        Map<String, MethodSummary> summaries = new HashMap<>();
+        for (MethodSummary summary : analyzer.summarize(analyzer.collect(projectDir.toString())).toReport()) {
+            summaries.put(summary.getMethodSignature(), summary);
+        }
+        assertEquals(List.of("sql"), summaries.get("TaintService.retry(String, int)").getSinks().get(0).getParams(),
+                "递归方法的摘要应迭代到不动点");
+        assertEquals(Map.of("TaintService.last", List.of("value")), summaries.get("TaintService.remember(String)").getFieldParams());
+        assertEquals(Map.of("TaintService.last", List.of("name")), summaries.get("TaintController.save(String)").getFieldParams(),
+                "字段写入经调用传递到调用方");
+        assertEquals(List.of("name", "page"), summaries.get("TaintService.findUser(String, int)").getReturnParams(),
+                "调用结果保守地依赖全部实参");
+        assertFalse(summaries.containsKey("TaintService.countUsers()"), "无参数流的方法没有摘要");
+        System.out.println("✓ " + flows.size() + " 条污点流，" + summaries.size() + " 个方法摘要");
+    }
+
+    @Test
+    @Order(24)
+    @DisplayName("测试一次解析的全量分析")
+    void testFullAnalysis() throws Exception {
+        System.out.println("\n=== 测试一次解析的全量分析 ===");
+        Path sessionDir = tempOutputDir.resolve("all-session");
+        AnalysisMetadata metadata = new ProjectAnalyzer().analyze(testCodePath.toString(), sessionDir);
+        Path dataDir = sessionDir.resolve("data");
+
+        List<ApiInfo> apis = new ApiExtractor().extractApiInfo(testCodePath.toString(), null);
+        assertEquals(apis.size(), metadata.getTotalApis());
+        try (Stream<Path> files = Files.list(dataDir.resolve("API"))) {
+            assertFalse(files.toList().isEmpty(), "应按 Controller 写出 API 文件");
+        }
+
+        String expectedGraph = objectMapper.writeValueAsString(new TreeMap<>(new CallGraphAnalyzer().buildCallGraph(testCodePath.toString())));
+        Map<String, Object> graph = objectMapper.readValue(dataDir.resolve("CG/call_graph.json").toFile(),
+                new TypeReference<Map<String, Object>>() {});
+        assertEquals(expectedGraph, objectMapper.writeValueAsString(new TreeMap<>(graph)), "调用图应与 CG 一致");
+
+        Map<String, List<Map<String, Object>>> definitions = objectMapper.readValue(dataDir.resolve("DEF/definitions.json").toFile(),
+                new TypeReference<Map<String, List<Map<String, Object>>>>() {});
+        // 定义与 DEF 一致，但不含代码；DEF 的代码是按位置从源码截取的声明
+        List<DefinitionInfo> expectedDefinitions = new DefinitionFinder().findDefinitions(testCodePath.toString(), "UserService");
+        assertTrue(expectedDefinitions.get(0).getDefinitionCode().startsWith("@Service\n@Transactional\npublic class UserService {"));
+        expectedDefinitions.forEach(definition -> definition.setDefinitionCode(null));
+        assertEquals(objectMapper.writeValueAsString(expectedDefinitions),
+                objectMapper.writeValueAsString(definitions.get("UserService")), "定义应与 DEF 一致");
+        String memberCode = new DefinitionFinder().findDefinitions(testCodePath.toString(),
+                "com.example.demo.service.UserService.isEmailExists").get(0).getDefinitionCode();
+        assertEquals("public boolean isEmailExists(String email) {\n    return userRepository.existsByEmail(email);\n}", memberCode,
+                "成员的代码去掉与声明首行相同的缩进");
+
+        // 方法调用的引用与 REF 完全一致
+        String expectedReferences = objectMapper.writeValueAsString(new ReferenceFinder().findReferences(testCodePath.toString(), "createUser"));
+        Map<String, List<Map<String, Object>>> references = objectMapper.readValue(dataDir.resolve("REF/references.json").toFile(),
+                new TypeReference<Map<String, List<Map<String, Object>>>>() {});
+        assertEquals(expectedReferences, objectMapper.writeValueAsString(references.get("createUser")), "引用应与 REF 一致");
+        assertTrue(references.get("UserService").stream().allMatch(r -> r.get("code_pos").toString().startsWith("com/example/")),
+                "类型引用应带有所在文件");
+
+        // 常驻会话中不限定位置的 REF 走同一个索引
+        ProjectSession session = new ProjectSession(testCodePath);
+        session.reload();
+        assertEquals(expectedReferences, objectMapper.writeValueAsString(session.findReferences("createUser", null, -1)));
+        System.out.println("✓ " + metadata.getTotalApis() + " 个 API，" + metadata.getTotalSymbols() + " 个定义，"
+                + references.size() + " 个名字的引用");
+    }
+
+    @Test
+    @Order(25)
+    @DisplayName("测试增量分析")
+    void testIncrementalAnalysis() throws Exception {
+        System.out.println("\n=== 测试增量分析 ===");
+        Path projectDir = tempOutputDir.resolve("incremental-app");
+        try (Stream<Path> files = Files.walk(testCodePath)) {
+            for (Path file : files.toList()) {
+                Path target = projectDir.resolve(testCodePath.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.copy(file, target);
+                }
+            }
+        }
+        Path sessionDir = tempOutputDir.resolve("incremental-session");
+        FactCache cache = new FactCache(sessionDir.resolve("cache"));
+        ProjectAnalyzer analyzer = new ProjectAnalyzer(new ProjectParser(), cache);
+        analyzer.update(projectDir.toString(), sessionDir, null); // 没有清单时退化为全量分析
+        assertTrue(Files.exists(sessionDir.resolve("data/manifest.json")), "应写出源文件清单");
+        assertTrue(Files.exists(sessionDir.resolve("data/API/ProductController.json")));
+
+        // 修改 Controller、新增一个文件、删除另一个 Controller，按变化列表增量更新
+        Path controller = projectDir.resolve("com/example/demo/controller/UserController.java");
+        String source = Files.readString(controller);
+        Files.writeString(controller, source.substring(0, source.lastIndexOf('}'))
+                + "    @GetMapping(\"/ping\")\n    public String ping() { return \"pong\"; }\n}\n");
+        Files.writeString(projectDir.resolve("com/example/demo/service/AuditService.java"), String.join("\n",
+                "package com.example.demo.service;",
+                "public class AuditService {",
+                "    public void record(String event) { System.out.println(event); }",
+                "}"));
+        Files.delete(projectDir.resolve("com/example/demo/controller/ProductController.java"));
+        // 隐藏目录和不能作为包名的目录下的文件全量分析不收集，出现在变化列表中也应忽略
+        for (String skipped : List.of(".generated/Generated.java", "build-output/Generated.java")) {
+            Files.createDirectories(projectDir.resolve(skipped).getParent());
+            Files.writeString(projectDir.resolve(skipped), "public class Generated { void skipped() {} }\n");
+        }
+        AnalysisMetadata updated = analyzer.update(projectDir.toString(), sessionDir, List.of(
+                "com/example/demo/controller/UserController.java",
+                "com/example/demo/service/AuditService.java",
+                projectDir.resolve("com/example/demo/controller/ProductController.java").toString(),
+                ".generated/Generated.java", "build-output/Generated.java"));
+        assertFalse(Files.exists(sessionDir.resolve("data/API/ProductController.json")), "删除的 Controller 应删除其 API 文件");
+
+        // 与对修改后的项目做全量分析的结果一致
+        Path fullDir = tempOutputDir.resolve("incremental-full");
+        assertSameAsFull(projectDir, sessionDir, fullDir, updated);
+
+        // 不给变化列表时按清单中的大小和修改时间找出变化
+        Files.delete(projectDir.resolve("com/example/demo/service/AuditService.java"));
+        assertSameAsFull(projectDir, sessionDir, fullDir, analyzer.update(projectDir.toString(), sessionDir, null));
+
+        // 排在最前的新文件：同名方法改变未变化文件中调用的解析（processTemplate 的第一个候选），
+        // 与已有方法同签名的声明（UserService.isEmailExists），外部方法名成为项目中的方法名而开始输出引用（completedFuture）
+        Path early = projectDir.resolve("com/example/demo/aaa/UserService.java");
+        Files.createDirectories(early.getParent());
+        Files.writeString(early, String.join("\n",
+                "package com.example.demo.aaa;",
+                "public class UserService {",
+                "    public String processTemplate(String content) { return content; }",
+                "    public boolean isEmailExists(String email) { return completedFuture(email) != null; }",
+                "    public static Object completedFuture(Object value) { return value; }",
+                "}"));
+        assertSameAsFull(projectDir, sessionDir, fullDir,
+                analyzer.update(projectDir.toString(), sessionDir, List.of("com/example/demo/aaa/UserService.java")));
+
+        // 删除其中的方法，再删除整个文件
+        Files.writeString(early, String.join("\n",
+                "package com.example.demo.aaa;",
+                "public class UserService {",
+                "    public boolean isEmailExists(String email) { return email != null; }",
+                "}"));
+        assertSameAsFull(projectDir, sessionDir, fullDir,
+                analyzer.update(projectDir.toString(), sessionDir, List.of("com/example/demo/aaa/UserService.java")));
+        Files.delete(early);
+        assertSameAsFull(projectDir, sessionDir, fullDir,
+                analyzer.update(projectDir.toString(), sessionDir, List.of("com/example/demo/aaa/UserService.java")));
+        System.out.println("✓ 增量结果与全量一致: " + updated.getTotalApis() + " 个 API");
+    }
+
+    private static void assertSameAsFull(Path projectDir, Path sessionDir, Path fullDir, AnalysisMetadata updated) throws IOException {
+        AnalysisMetadata full = new ProjectAnalyzer().analyze(projectDir.toString(), fullDir);
+        assertEquals(full.getTotalApis(), updated.getTotalApis());
+        assertEquals(full.getTotalSymbols(), updated.getTotalSymbols());
+        for (String file : List.of("API/UserController.json", "CG/call_graph.json", "DEF/definitions.json",
+                "DEF/implementors.json", "REF/references.json")) {
+            assertEquals(Files.readString(fullDir.resolve("data").resolve(file)), Files.readString(sessionDir.resolve("data").resolve(file)),
+                    "增量结果应与全量一致: " + file);
+        }
+    }
+
+    @Test
+    @Order(26)
+    @DisplayName("测试变更影响分析")
+    void testImpactAnalysis() throws Exception {
+        System.out.println("\n=== 测试变更影响分析 ===");
+        // 区间索引：嵌套区间取最内层，相交查询包含外层
+        IntervalIndex<String> index = IntervalIndex.<String>builder()
+                .add("A.java", 1, 100, "A").add("A.java", 10, 20, "A.f").add("A.java", 12, 14, "A.f.inner")
+                .add("A.java", 30, 40, "A.g").add("pkg/B.java", 5, 9, "B")
+                .build();
+        assertEquals("A.f.inner", index.innermost("A.java", 13));
+        assertEquals("A.f", index.innermost("A.java", 15));
+        assertEquals("A", index.innermost("A.java", 25));
+        assertNull(index.innermost("A.java", 101));
+        assertEquals(List.of("A.f.inner", "A.f", "A"), index.enclosing("A.java", 12));
+        assertEquals(List.of("A", "A.f", "A.f.inner", "A.g"), index.overlapping("A.java", 13, 30));
+        assertEquals("pkg/B.java", index.resolveFile("B.java"));
+        assertEquals("pkg/B.java", index.resolveFile("/home/user/project/pkg/B.java"));
+
+        Path projectDir = tempOutputDir.resolve("impact-app");
+        Files.createDirectories(projectDir.resolve("demo"));
+        Files.writeString(projectDir.resolve("demo/OrderController.java"), String.join("\n",
+                "package demo;",
+                "import org.springframework.web.bind.annotation.*;",
+                "@RestController",
+                "public class OrderController {",
+                "    private final OrderService service = new OrderService();",
+                "    @GetMapping(\"/order\")",
+                "    public String getOrder(@RequestParam String id) { return service.find(id); }",
+                "    @PostMapping(\"/pay\")",
+                "    public String payOrder(@RequestParam String id) { return service.pay(id); }",
+                "    @GetMapping(\"/health\")",
+                "    public String health() { return \"ok\"; }",
+                "}"));
+        Files.writeString(projectDir.resolve("demo/OrderService.java"), String.join("\n",
+                "package demo;",                                          // 1
+                "public class OrderService {",                            // 2
+                "    private String prefix = \"order-\";",              // 3
+                "    public String find(String id) {",                    // 4
+                "        return format(id);",                             // 5
+                "    }",                                                  // 6
+                "    public String pay(String id) {",                     // 7
+                "        return charge(id) + format(id);",                // 8
+                "    }",                                                  // 9
+                "    private String charge(String id) {",                 // 10
+                "        return \"paid\";",                             // 11
+                "    }",                                                  // 12
+                "    private String format(String id) {",                 // 13
+                "        return prefix + id;",                            // 14
+                "    }",                                                  // 15
+                "}"));
+
+        ImpactAnalyzer analyzer = new ImpactAnalyzer();
+        List<ApiImpact> impacts = analyzer.analyze(projectDir.toString(), List.of("demo/OrderService.java:L11-L11"));
+        assertEquals(List.of("payOrder"), impacts.stream().map(i -> i.getApi().getMethodName()).toList(), "charge 只被 payOrder 调用");
+        assertEquals(List.of("OrderService.charge(String)"), impacts.get(0).getChangedMethods());
+
+        impacts = analyzer.analyze(projectDir.toString(), List.of("OrderService.java:14", "demo/OrderService.java:10-12"));
+        assertEquals(List.of("getOrder", "payOrder"), impacts.stream().map(i -> i.getApi().getMethodName()).toList());
+        assertEquals(List.of("OrderService.format(String)", "OrderService.charge(String)"), impacts.get(1).getChangedMethods());
+
+        // 方法之外的行（字段）保守地影响所在类的全部方法；无法定位的区间忽略
+        impacts = analyzer.analyze(projectDir.toString(), List.of("demo/OrderService.java:3", "demo/Missing.java:1"));
+        assertEquals(List.of("getOrder", "payOrder"), impacts.stream().map(i -> i.getApi().getMethodName()).toList());
+        assertTrue(analyzer.analyze(projectDir.toString(), List.of("demo/OrderController.java:L11")).stream()
+                .allMatch(i -> i.getApi().getMethodName().equals("health")));
+
+        ProjectSession session = new ProjectSession(projectDir);
+        session.reload();
+        assertEquals(objectMapper.writeValueAsString(analyzer.analyze(projectDir.toString(), List.of("demo/OrderService.java:L8"))),
+                objectMapper.writeValueAsString(session.findImpact(List.of("demo/OrderService.java:L8"))));
+        System.out.println("✓ 改动行映射到 " + impacts.size() + " 个受影响的接口");
+    }
+
+    @Test
+    @Order(27)
+    @DisplayName("测试位置到符号的区间索引")
+    void testSymbolRanges() throws Exception {
+        System.out.println("\n=== 测试位置到符号的区间索引 ===");
+        Path projectDir = tempOutputDir.resolve("ranges-app");
+        Files.createDirectories(projectDir.resolve("demo"));
+        Files.writeString(projectDir.resolve("demo/Account.java"), String.join("\n",
+                "package demo;",                                         // 1
+                "public class Account {",                                // 2
+                "    private String owner;",                             // 3
+                "    public String owner() { return owner; }",           // 4
+                "    public int sum(int count) {",                       // 5
+                "        int total = count + 1;",                        // 6
+                "        return total;",                                 // 7
+                "    }",                                                 // 8
+                "    public int twice(int count) {",                     // 9
+                "        return count * 2;",                             // 10
+                "    }",                                                 // 11
+                "    static class Entry { long amount; }",               // 12
+                "}"));
+        Files.writeString(projectDir.resolve("demo/Bank.java"), String.join("\n",
+                "package demo;",                                         // 1
+                "public class Bank {",                                   // 2
+                "    private String owner = \"bank\";",                // 3
+                "    public String describe(Account account) {",         // 4
+                "        return owner + account.owner();",               // 5
+                "    }",                                                 // 6
+                "}"));
+
+        // 区间随事实缓存持久化：第二次收集全部命中缓存，区间不变
+        FactCache cache = new FactCache(tempOutputDir.resolve("ranges-cache"));
+        FactCollector collector = new FactCollector(new ProjectParser(), cache);
+        ProjectFacts first = collector.collect(projectDir, EnumSet.of(FactKind.RANGES));
+        ProjectFacts second = collector.collect(projectDir, EnumSet.of(FactKind.RANGES));
+        assertEquals(second.getFiles().size(), second.getCacheHits());
+        assertEquals(objectMapper.writeValueAsString(first.getFiles().get(0).getRanges()),
+                objectMapper.writeValueAsString(second.getFiles().get(0).getRanges()));
+
+        SymbolRanges symbols = SymbolRanges.build(second);
+        String account = symbols.resolveFile("Account.java");
+        assertEquals("demo/Account.java", account);
+        assertEquals(List.of("sum", "Account"), symbols.enclosing(account, 6).stream().map(SymbolRange::getName).toList());
+        assertEquals("demo.Account.Entry", symbols.innermost(account, 12).getClassFqn(), "同一行上字段嵌套在成员类内");
+        assertEquals("FIELD", symbols.innermost(account, 12).getSymbolType());
+        assertEquals("Account", symbols.innermost(account, 13).getName());
+        assertNull(symbols.innermost(account, 1));
+
+        // 按位置查引用：先解析光标处的符号，再按符号的种类和作用域过滤引用索引
+        ReferenceFinder finder = new ReferenceFinder(new ProjectParser(), cache);
+        String path = projectDir.toString();
+        assertEquals(List.of("demo/Account.java:L4:C36"), finder.findReferences(path, "owner", "Account.java", 3).stream().map(ReferenceInfo::getCodePos).toList(),
+                "private 字段只在所在文件中被访问，不包括同名方法的调用");
+        assertEquals(List.of("demo/Bank.java:L5:C24"), finder.findReferences(path, "owner", "demo/Account.java", 4).stream().map(ReferenceInfo::getCodePos).toList(),
+                "光标行上的最内层声明是 owner() 方法");
+        assertEquals(List.of("demo/Bank.java:L5:C16"), finder.findReferences(path, "owner", "Bank.java", 5).stream().map(ReferenceInfo::getCodePos).toList(),
+                "未限定的名字解析到所在类的成员");
+        assertEquals(List.of("demo/Account.java:L6:C21"), finder.findReferences(path, "count", "Account.java", 6).stream().map(ReferenceInfo::getCodePos).toList(),
+                "参数只在所在方法内查找");
+        assertEquals(List.of("demo/Bank.java:L4:C28"), finder.findReferences(path, "Account", "Bank.java", 4).stream().map(ReferenceInfo::getCodePos).toList());
+        assertTrue(finder.findReferences(path, "owner", "Account.java", 2).isEmpty(), "该行上没有这个名字");
+
+        ProjectSession session = new ProjectSession(projectDir);
+        session.reload();
+        assertEquals(objectMapper.writeValueAsString(finder.findReferences(path, "count", "Account.java", 10)),
+                objectMapper.writeValueAsString(session.findReferences("count", "Account.java", 10)));
+        assertEquals(List.of("twice", "Account"),
+                session.findEnclosingSymbols("demo/Account.java", 10).stream().map(SymbolRange::getName).toList());
+        System.out.println("✓ " + second.getFiles().stream().mapToInt(f -> f.getRanges().size()).sum() + " 个声明区间");
+    }
+}
@@ -1,8 +1,12 @@
 import subprocess
 import os
 import json
+import socket
+import threading
+import itertools
+from concurrent.futures import Future
 from pathlib import Path
-from typing import List, Dict, Optional
+from typing import Any, List, Dict, Iterator, Optional
 from Util.logger import get_logger
 
 logger = get_logger("JavaParser")
@@ -10,21 +14,45 @@ logger = get_logger("JavaParser")
 JAVA_PATH = os.getenv("JAVA_PATH", "java")  # 默认使用系统路径中的java
 JAVA_PARSER_PATH = "./javaParser/target/javaParser-1.0-jar-with-dependencies.jar"
 JAVA_PARSER_PATH = Path(__file__).parent / JAVA_PARSER_PATH
+# 设置 JAVA_PARSER_STATS=1 时每条命令都附带 -stats，分阶段统计记录到日志并放在返回值的 "stats" 字段
+JAVA_PARSER_STATS = os.getenv("JAVA_PARSER_STATS", "") == "1"
+STATS_PREFIX = "SA_STATS "
 
-def _run_java_parser(cmd: List[str]) -> dict:
+def parse_stats(stderr: str) -> Optional[dict]:
+    """从标准错误中提取 -stats 输出的统计报告"""
+    for line in reversed(stderr.splitlines()):
+        if line.startswith(STATS_PREFIX):
+            try:
+                return json.loads(line[len(STATS_PREFIX):])
+            except json.JSONDecodeError:
+                logger.warning(f"Malformed JavaParser stats: {line}")
+                return None
+    return None
+
+def _log_stats(cmd: List[str], stats: Optional[dict]):
+    if stats is not None:
+        command = cmd[4] if len(cmd) > 4 else ""
+        logger.info(f"JavaParser {command} stats: {json.dumps(stats, ensure_ascii=False)}")
+
+def _run_java_parser(cmd: List[str], input: Optional[str] = None) -> dict:
     """运行 java parser 命令的通用方法"""
     # logger.info(f"Running command: {' '.join(cmd)}")
-    result = subprocess.run(cmd, capture_output=True, text=True)
+    if JAVA_PARSER_STATS:
+        cmd = cmd + ["-stats"]
+    result = subprocess.run(cmd, capture_output=True, text=True, input=input)
     
     if result.returncode != 0:
         error_message = result.stderr
         logger.error(f"JavaParser failed: {error_message}")
     
+    stats = parse_stats(result.stderr) if JAVA_PARSER_STATS else None
+    _log_stats(cmd, stats)
     return {
         "cmd": cmd,
         "status": result.returncode,
         "stdout": result.stdout,
-        "stderr": result.stderr
+        "stderr": result.stderr,
+        "stats": stats
     }
 
 def extract_apis(project_path: str, output_dir: Optional[str] = None) -> dict:
@@ -35,6 +63,28 @@ def extract_apis(project_path: str, output_dir: Optional[str] = None) -> dict:
     
     return _run_java_parser(cmd)
 
+def analyze_all(project_path: str, output_dir: str, callees: Optional[str] = None,
+                incremental: bool = False, changed_files: Optional[List[str]] = None) -> dict:
+    """一次解析生成全部结果，写入 output_dir/data/：API/（同 extract_apis）、CG/call_graph.json、
+    DEF/definitions.json、DEF/implementors.json、REF/references.json 和 metadata.json
+
+    Args:
+        incremental: 只重新解析变化的文件，在 output_dir 中上次的输出上修补受影响的部分（首次运行为全量）；
+            结果与全量分析相同
+        changed_files: 变化（新增、修改、删除）的文件列表，隐含 incremental；
+            不给时按上次记录的文件大小和修改时间比对
+    """
+    cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "ALL", "-o", output_dir]
+    if callees:
+        cmd.extend(["-callees", callees])
+    if changed_files is not None:
+        cmd.extend(["-changed", "-"])
+        return _run_java_parser(cmd, input="\n".join(changed_files) + "\n")
+    if incremental:
+        cmd.append("-incremental")
+
+    return _run_java_parser(cmd)
+
 def find_references(project_path: str, symbol_name: str, 
                    target_file: Optional[str] = None, 
                    target_line: Optional[int] = None,
@@ -53,8 +103,10 @@ def find_references(project_path: str, symbol_name: str,
 
 def build_call_graph(project_path: str, output_path: Optional[str] = None, 
                      image_path: Optional[str] = None, layout: str = "DOT",
+                     renderer: str = "AUTO",
                      class_filter: Optional[str] = None, keep_isolated: bool = False,
-                     no_image: bool = False) -> dict:
+                     no_image: bool = False, roots: Optional[List[str]] = None,
+                     depth: int = 3, direction: str = "callees") -> dict:
     """构建方法调用图并生成可视化
     
     Args:
@@ -62,9 +114,13 @@ def build_call_graph(project_path: str, output_path: Optional[str] = None,
         output_path: JSON输出文件路径
         image_path: 图片输出文件路径（支持.svg、.png、.pdf格式）
         layout: 布局算法 (DOT: 层次化布局, NEATO: 弹簧力布局)
+        renderer: 渲染方式 (AUTO: 大图自动使用内置布局, GRAPHVIZ, NATIVE: 流式写出 DOT/SVG)
         class_filter: 类名过滤器（逗号分隔）
         keep_isolated: 是否保留孤立节点
         no_image: 是否跳过图片生成
+        roots: 只导出从这些方法（签名或 类名.方法名）出发的子图
+        depth: 子图的最大跳数，负数表示不限
+        direction: 子图方向 (callees, callers, both)
     """
     cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "CG"]
     
@@ -74,15 +130,116 @@ def build_call_graph(project_path: str, output_path: Optional[str] = None,
         cmd.extend(["-img", image_path])
     if layout and layout != "DOT":
         cmd.extend(["-layout", layout])
+    if renderer and renderer != "AUTO":
+        cmd.extend(["-renderer", renderer])
     if class_filter:
         cmd.extend(["-filter", class_filter])
     if keep_isolated:
         cmd.append("-keep-isolated")
     if no_image:
         cmd.append("-no-image")
+    for root in roots or []:
+        cmd.extend(["-root", root])
+    if roots:
+        cmd.extend(["-depth", str(depth), "-direction", direction])
     
     return _run_java_parser(cmd)
 
+def find_reachability(project_path: str, method: Optional[str] = None, endpoint: Optional[str] = None,
+                      output_path: Optional[str] = None, report_path: Optional[str] = None) -> dict:
+    """API 接口可达性
+
+    Args:
+        project_path: Java项目路径
+        method: 查询能到达该方法（签名或 类名.方法名）的接口
+        endpoint: 查询该接口（Controller类名.方法名）可达的方法
+        output_path: JSON输出文件路径
+        report_path: 之前保存的 REACH 输出，指定时不再解析项目
+    """
+    cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "REACH"]
+
+    if method:
+        cmd.extend(["-method", method])
+    elif endpoint:
+        cmd.extend(["-endpoint", endpoint])
+    if report_path:
+        cmd.extend(["-from", report_path])
+    if output_path:
+        cmd.extend(["-o", output_path])
+
+    return _run_java_parser(cmd)
+
+def find_sinks(project_path: str, catalog_path: Optional[str] = None, depth: Optional[int] = None,
+               max_paths: Optional[int] = None, callees: Optional[str] = None,
+               output_path: Optional[str] = None) -> dict:
+    """API 接口到危险调用（SQL、命令执行、文件读写、反序列化、模板）的调用链
+
+    Args:
+        project_path: Java项目路径
+        catalog_path: 自定义 sink 目录文件，替换内置目录
+        depth: 调用链最大跳数（默认 8）
+        max_paths: 每个接口最多报告的调用链条数（默认 20）
+        callees: 调用图候选方法选择 first/all
+        output_path: JSON输出文件路径
+    """
+    cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "SINK"]
+
+    if catalog_path:
+        cmd.extend(["-sinks", catalog_path])
+    if depth is not None:
+        cmd.extend(["-depth", str(depth)])
+    if max_paths is not None:
+        cmd.extend(["-max-paths", str(max_paths)])
+    if callees:
+        cmd.extend(["-callees", callees])
+    if output_path:
+        cmd.extend(["-o", output_path])
+
+    return _run_java_parser(cmd)
+
+def find_taint_flows(project_path: str, catalog_path: Optional[str] = None, callees: Optional[str] = None,
+                     summaries: bool = False, output_path: Optional[str] = None) -> dict:
+    """API 接口参数经跨方法数据流到达危险调用的污点流
+
+    Args:
+        project_path: Java项目路径
+        catalog_path: 自定义 sink 目录文件，替换内置目录
+        callees: 调用图候选方法选择 first/all
+        summaries: 为 True 时返回全部方法的污点摘要而不是接口的污点流
+        output_path: JSON输出文件路径
+    """
+    cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "TAINT"]
+
+    if catalog_path:
+        cmd.extend(["-sinks", catalog_path])
+    if callees:
+        cmd.extend(["-callees", callees])
+    if summaries:
+        cmd.append("-summaries")
+    if output_path:
+        cmd.extend(["-o", output_path])
+
+    return _run_java_parser(cmd)
+
+def find_impact(project_path: str, ranges: List[str], callees: Optional[str] = None,
+                output_path: Optional[str] = None) -> dict:
+    """改动的行区间影响到的 API 接口，只需对这些接口重新生成请求
+
+    Args:
+        project_path: Java项目路径
+        ranges: 改动的行区间，如 "src/main/java/.../UserService.java:L10-L20"（也可以是 "文件:10-20" 或 "文件:10"）
+        callees: 调用图候选方法选择 first/all
+        output_path: JSON输出文件路径
+    """
+    cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "IMPACT", "-ranges", "-"]
+
+    if callees:
+        cmd.extend(["-callees", callees])
+    if output_path:
+        cmd.extend(["-o", output_path])
+
+    return _run_java_parser(cmd, input="\n".join(ranges) + "\n")
+
 def find_definitions(project_path: str, symbol_name: str, output_path: Optional[str] = None) -> dict:
     """查找符号定义"""
     cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "DEF", "-s", symbol_name]
@@ -92,10 +249,216 @@ def find_definitions(project_path: str, symbol_name: str, output_path: Optional[
     
     return _run_java_parser(cmd)
 
+def find_definitions_batch(project_path: str, symbol_names: List[str], output_path: Optional[str] = None) -> dict:
+    """批量查找符号定义：一次启动、一次解析，stdout 为 {符号: 定义列表}"""
+    cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "DEF", "-symbols", "-"]
+
+    if output_path:
+        cmd.extend(["-o", output_path])
+
+    return _run_java_parser(cmd, input="\n".join(symbol_names) + "\n")
+
+def _stream_java_parser(cmd: List[str]) -> Iterator[dict]:
+    """以 NDJSON 格式运行 java parser，逐条产出记录（运行结束前即可开始消费）"""
+    if JAVA_PARSER_STATS:
+        cmd = cmd + ["-stats"]
+    process = subprocess.Popen(cmd + ["-format", "ndjson"], stdout=subprocess.PIPE, stderr=subprocess.PIPE,
+                               text=True, encoding="utf-8")
+    # 分析日志写到标准错误，后台读取避免管道写满阻塞
+    stderr_lines: List[str] = []
+    stderr_thread = threading.Thread(target=lambda: stderr_lines.extend(process.stderr), daemon=True)
+    stderr_thread.start()
+    try:
+        for line in process.stdout:
+            if line.strip():
+                yield json.loads(line)
+    finally:
+        process.stdout.close()
+        returncode = process.wait()
+        stderr_thread.join()
+        if returncode != 0:
+            logger.error(f"JavaParser failed: {''.join(stderr_lines)}")
+        if JAVA_PARSER_STATS:
+            _log_stats(cmd, parse_stats("".join(stderr_lines)))
+
+def stream_apis(project_path: str) -> Iterator[dict]:
+    """流式提取 Spring API 信息，每条为一个 API"""
+    return _stream_java_parser([JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "API"])
+
+def stream_references(project_path: str, symbol_name: str,
+                      target_file: Optional[str] = None,
+                      target_line: Optional[int] = None) -> Iterator[dict]:
+    """流式查找符号引用，每条为一个引用"""
+    cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "REF", "-s", symbol_name]
+    if target_file:
+        cmd.extend(["-f", target_file])
+    if target_line is not None:
+        cmd.extend(["-l", str(target_line)])
+    return _stream_java_parser(cmd)
+
+def stream_call_graph(project_path: str) -> Iterator[dict]:
+    """流式构建方法调用图，每条为一个方法节点（不生成图片）"""
+    return _stream_java_parser([JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "CG", "-no-image"])
+
 def parse_java_code(project_path: str, output_dir: str) -> dict:
     """向后兼容的 API 提取方法"""
     return extract_apis(project_path, output_dir)
 
 
+class JavaParserDaemon:
+    """常驻 java parser 客户端：项目只解析一次，之后每次查询走 SERVE 协议（按行 JSON）
+
+    线程安全，可在多个线程中并发查询；返回值与上面的函数式接口保持相同结构，
+    额外的 "result" 字段为解析后的 JSON 结果。
+    """
+
+    def __init__(self, project_path: str, socket_path: Optional[str] = None,
+                 threads: Optional[int] = None, timeout: float = 600):
+        self.project_path = project_path
+        self.timeout = timeout
+        self._ids = itertools.count(1)
+        self._pending: Dict[int, Future] = {}
+        self._lock = threading.Lock()
+        self._write_lock = threading.Lock()
+        self._process = None
+        self._socket = None
+
+        if socket_path:
+            # 连接已在运行的服务
+            self._socket = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+            self._socket.connect(socket_path)
+            self._reader = self._socket.makefile("r", encoding="utf-8")
+            self._writer = self._socket.makefile("w", encoding="utf-8")
+        else:
+            cmd = [JAVA_PATH, "-jar", str(JAVA_PARSER_PATH), project_path, "SERVE"]
+            if threads:
+                cmd.extend(["-threads", str(threads)])
+            self._process = subprocess.Popen(cmd, stdin=subprocess.PIPE, stdout=subprocess.PIPE,
+                                             stderr=subprocess.PIPE, text=True, encoding="utf-8", bufsize=1)
+            self._reader = self._process.stdout
+            self._writer = self._process.stdin
+            threading.Thread(target=self._drain_stderr, daemon=True).start()
+
+        threading.Thread(target=self._read_responses, daemon=True).start()
+
+    def __enter__(self):
+        return self
+
+    def __exit__(self, exc_type, exc, tb):
+        self.close()
+
+    def _drain_stderr(self):
+        for line in self._process.stderr:
+            logger.debug(f"[SERVE] {line.rstrip()}")
+
+    def _read_responses(self):
+        for line in self._reader:
+            if not line.strip():
+                continue
+            try:
+                response = json.loads(line)
+            except json.JSONDecodeError:
+                logger.warning(f"Malformed response from JavaParser daemon: {line.rstrip()}")
+                continue
+            with self._lock:
+                future = self._pending.pop(response.get("id"), None)
+            if future is not None:
+                future.set_result(response)
+        # 服务端退出，唤醒所有等待中的请求
+        with self._lock:
+            pending, self._pending = self._pending, {}
+        for future in pending.values():
+            future.set_exception(RuntimeError("JavaParser daemon exited"))
+
+    def request(self, command: str, **params) -> Any:
+        """发送一条查询并等待结果，失败时抛出 RuntimeError"""
+        request_id = next(self._ids)
+        future: Future = Future()
+        with self._lock:
+            self._pending[request_id] = future
+        payload = {"id": request_id, "command": command}
+        payload.update({k: v for k, v in params.items() if v is not None})
+        try:
+            with self._write_lock:
+                self._writer.write(json.dumps(payload) + "\n")
+                self._writer.flush()
+            response = future.result(timeout=self.timeout)
+        finally:
+            # 写入失败或超时时不会再有响应认领，从等待表中移除（已收到响应时这里是空操作）
+            with self._lock:
+                self._pending.pop(request_id, None)
+        if not response.get("ok"):
+            raise RuntimeError(response.get("error", "unknown error"))
+        return response.get("result")
+
+    def _call(self, command: str, **params) -> dict:
+        cmd = [command] + [f"{k}={v}" for k, v in params.items() if v is not None]
+        try:
+            result = self.request(command, **params)
+            return {"cmd": cmd, "status": 0, "stdout": json.dumps(result, ensure_ascii=False),
+                    "stderr": "", "result": result}
+        except Exception as e:
+            logger.error(f"JavaParser daemon {command} failed: {e}")
+            return {"cmd": cmd, "status": 1, "stdout": "", "stderr": str(e), "result": None}
+
+    def extract_apis(self, output_dir: Optional[str] = None) -> dict:
+        return self._call("API", output=output_dir)
+
+    def find_references(self, symbol_name: str, target_file: Optional[str] = None,
+                        target_line: Optional[int] = None) -> dict:
+        return self._call("REF", symbol=symbol_name, file=target_file, line=target_line)
+
+    def find_definitions(self, symbol_name: str) -> dict:
+        return self._call("DEF", symbol=symbol_name)
+
+    def find_definitions_batch(self, symbol_names: List[str]) -> dict:
+        """批量查找符号定义，result 为 {符号: 定义列表}"""
+        return self._call("DEF", symbols=list(symbol_names))
+
+    def build_call_graph(self, roots: Optional[List[str]] = None, depth: int = 3,
+                         direction: str = "callees") -> dict:
+        """完整调用图；给出 roots 时只返回从这些方法出发 depth 跳以内的子图"""
+        if roots:
+            return self._call("CG", roots=list(roots), depth=depth, direction=direction)
+        return self._call("CG")
+
+    def find_reachability(self, method: Optional[str] = None, endpoint: Optional[str] = None) -> dict:
+        """接口可达性：method 查到达它的接口，endpoint 查接口可达的方法，都不给时返回全部"""
+        return self._call("REACH", method=method, endpoint=endpoint)
+
+    def find_sinks(self, depth: Optional[int] = None, max_paths: Optional[int] = None) -> dict:
+        """接口到危险调用的调用链（内置 sink 目录）"""
+        return self._call("SINK", depth=depth, max_paths=max_paths)
+
+    def find_taint_flows(self, summaries: bool = False) -> dict:
+        """接口参数流入危险调用的污点流；summaries 为 True 时返回方法摘要（会话内缓存）"""
+        return self._call("TAINT", summaries=summaries)
+
+    def find_impact(self, ranges: List[str]) -> dict:
+        """改动的行区间（文件:L起始-L结束）影响到的接口"""
+        return self._call("IMPACT", ranges=list(ranges))
+
+    def find_enclosing_symbols(self, target_file: str, target_line: int) -> dict:
+        """包含文件某行的类、方法、字段声明（由内到外），每项带 symbol_type、class_fqn 和行区间"""
+        return self._call("SYMBOL", file=target_file, line=target_line)
+
+    def reload(self) -> dict:
+        """项目源码变化后重新解析"""
+        return self._call("RELOAD")
 
+    def close(self):
+        try:
+            if self._process is not None and self._process.poll() is None:
+                self.request("SHUTDOWN")
+        except Exception:
+            pass
+        finally:
+            if self._process is not None:
+                try:
+                    self._process.stdin.close()
+                    self._process.wait(timeout=30)
+                except Exception:
+                    self._process.kill()
+            if self._socket is not None:
+                self._socket.close()
 